@@ -0,0 +1,113 @@
+package com.vinhtt.sitemapcrawler.benchmark;
+
+import com.vinhtt.sitemapcrawler.model.NodeType;
+import com.vinhtt.sitemapcrawler.model.SiteNode;
+import com.vinhtt.sitemapcrawler.service.graph.CompactSiteGraph;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.SimpleDirectedGraph;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Measures retained heap per node and per edge of {@link CompactSiteGraph},
+ * optionally against the former SiteNode/JGraphT representation.
+ * Built with the {@code jmh} profile; run with
+ * {@code java -Xmx4g -cp target/SiteMapCrawler-1.0-SNAPSHOT-benchmarks.jar com.vinhtt.sitemapcrawler.benchmark.GraphMemoryBenchmark [nodes] [edges] [jgrapht]}.
+ *
+ * @author vinhtt
+ * @version 1.1
+ */
+public final class GraphMemoryBenchmark {
+
+    private static final int DEFAULT_NODES = 1_000_000;
+    private static final int DEFAULT_EDGES = 10_000_000;
+    private static final long SEED = 42L;
+
+    private GraphMemoryBenchmark() {
+    }
+
+    /**
+     * Builds a synthetic site graph and prints the measured heap cost.
+     *
+     * @param args Optional node count, edge count and {@code jgrapht} to also measure the baseline.
+     */
+    public static void main(String[] args) {
+        int nodeCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NODES;
+        int edgeCount = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_EDGES;
+        boolean baseline = args.length > 2 && args[2].equals("jgrapht");
+
+        measureCompact(nodeCount, edgeCount);
+        if (baseline) {
+            measureJGraphT(nodeCount, edgeCount);
+        }
+    }
+
+    private static void measureCompact(int nodeCount, int edgeCount) {
+        long empty = usedHeap();
+        CompactSiteGraph graph = new CompactSiteGraph();
+        for (int i = 0; i < nodeCount; i++) {
+            graph.addNode(urlOf(i), titleOf(i), NodeType.INTERNAL);
+        }
+        long withNodes = usedHeap();
+
+        SplittableRandom random = new SplittableRandom(SEED);
+        while (graph.edgeCount() < edgeCount) {
+            graph.addEdge(random.nextInt(nodeCount), random.nextInt(nodeCount));
+        }
+        long withEdges = usedHeap();
+
+        report("CompactSiteGraph", nodeCount, edgeCount, withNodes - empty, withEdges - withNodes);
+        System.out.printf("  estimated backing arrays: %,d bytes%n", graph.estimatedBytes());
+    }
+
+    private static void measureJGraphT(int nodeCount, int edgeCount) {
+        long empty = usedHeap();
+        Graph<SiteNode, DefaultEdge> graph = new SimpleDirectedGraph<>(DefaultEdge.class);
+        Map<String, SiteNode> nodeCache = new HashMap<>();
+        SiteNode[] nodes = new SiteNode[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            nodes[i] = new SiteNode(urlOf(i), titleOf(i), NodeType.INTERNAL);
+            graph.addVertex(nodes[i]);
+            nodeCache.put(nodes[i].getUrl(), nodes[i]);
+        }
+        long withNodes = usedHeap();
+
+        SplittableRandom random = new SplittableRandom(SEED);
+        while (graph.edgeSet().size() < edgeCount) {
+            SiteNode source = nodes[random.nextInt(nodeCount)];
+            SiteNode target = nodes[random.nextInt(nodeCount)];
+            if (source != target) {
+                graph.addEdge(source, target);
+            }
+        }
+        long withEdges = usedHeap();
+
+        report("SimpleDirectedGraph<SiteNode>", nodeCount, edgeCount, withNodes - empty, withEdges - withNodes);
+        System.out.printf("  retained: %,d vertices, %,d cached nodes%n", graph.vertexSet().size(), nodeCache.size());
+    }
+
+    private static void report(String name, int nodeCount, int edgeCount, long nodeBytes, long edgeBytes) {
+        System.out.printf("%s: %,d nodes, %,d edges%n", name, nodeCount, edgeCount);
+        System.out.printf("  %8.1f bytes/node%n", (double) nodeBytes / nodeCount);
+        System.out.printf("  %8.1f bytes/edge%n", (double) edgeBytes / edgeCount);
+    }
+
+    private static String urlOf(int i) {
+        return "https://shop.example.com/category/" + (i % 997) + "/product/" + i;
+    }
+
+    private static String titleOf(int i) {
+        return "Product " + i;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
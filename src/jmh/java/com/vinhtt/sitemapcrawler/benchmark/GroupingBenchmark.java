@@ -0,0 +1,124 @@
+package com.vinhtt.sitemapcrawler.benchmark;
+
+import com.vinhtt.sitemapcrawler.service.cluster.UrlTemplateTrie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Per-link grouping: the URL-template trie, the regex grouping it replaced, and
+ * per-segment classification with {@link String#matches} versus precompiled patterns.
+ * Each invocation handles the next URL or path segment of the corpus.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GroupingBenchmark {
+
+    private static final Pattern LIST_ITEM_PATTERN = Pattern.compile("^(https?://.+/)([^/]+)/?$");
+    private static final int GROUPING_THRESHOLD = 10;
+    private static final Pattern NUMBER = Pattern.compile("\\d+");
+    private static final Pattern SLUG = Pattern.compile("[a-zA-Z0-9]+([-_][a-zA-Z0-9]+){2,}");
+    private static final Pattern UUID = Pattern.compile("[0-9a-fA-F]{8}(-[0-9a-fA-F]{4}){3}-[0-9a-fA-F]{12}");
+
+    private String[] urls;
+    private String[] segments;
+    private UrlTemplateTrie trie;
+    private Map<String, Integer> patternCounter;
+    private Matcher number;
+    private Matcher slug;
+    private Matcher uuid;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        urls = LinkCorpus.load().canonicalUrls();
+        List<String> pathSegments = new ArrayList<>();
+        for (String url : urls) {
+            for (String segment : URI.create(url).getRawPath().split("/")) {
+                if (!segment.isEmpty()) pathSegments.add(segment);
+            }
+        }
+        segments = pathSegments.toArray(String[]::new);
+        number = NUMBER.matcher("");
+        slug = SLUG.matcher("");
+        uuid = UUID.matcher("");
+    }
+
+    /**
+     * Starts every iteration with empty grouping state, as a fresh crawl would.
+     */
+    @Setup(Level.Iteration)
+    public void resetState() {
+        trie = new UrlTemplateTrie(10, 20);
+        patternCounter = new HashMap<>();
+    }
+
+    @Benchmark
+    public UrlTemplateTrie.Match templateTrie() {
+        return trie.record(urls[next(urls.length)]);
+    }
+
+    @Benchmark
+    public String regexGrouping() {
+        String url = urls[next(urls.length)];
+        Matcher matcher = LIST_ITEM_PATTERN.matcher(url);
+        if (matcher.find()) {
+            String basePath = matcher.group(1);
+            if (matcher.group(2).matches("\\d+/?")) {
+                return basePath;
+            }
+            if (patternCounter.merge(basePath, 1, Integer::sum) > GROUPING_THRESHOLD) {
+                return basePath;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public int classifyStringMatches() {
+        String segment = segments[next(segments.length)];
+        if (segment.matches("\\d+")) return 1;
+        if (segment.matches("[0-9a-fA-F]{8}(-[0-9a-fA-F]{4}){3}-[0-9a-fA-F]{12}")) return 2;
+        if (segment.matches("[a-zA-Z0-9]+([-_][a-zA-Z0-9]+){2,}")) return 3;
+        return 0;
+    }
+
+    @Benchmark
+    public int classifyPrecompiled() {
+        String segment = segments[next(segments.length)];
+        if (number.reset(segment).matches()) return 1;
+        if (uuid.reset(segment).matches()) return 2;
+        if (slug.reset(segment).matches()) return 3;
+        return 0;
+    }
+
+    private int next(int length) {
+        int i = cursor;
+        cursor = i + 1 == length ? 0 : i + 1;
+        return i;
+    }
+}
@@ -0,0 +1,72 @@
+package com.vinhtt.sitemapcrawler.benchmark;
+
+import com.vinhtt.sitemapcrawler.service.layout.ForceDirectedLayout;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One step of the {@link ForceDirectedLayout} over a freshly added site-like graph,
+ * where every node is still moving: a root, section hubs and pages that link their
+ * section and, one in four, another page. Run with one thread and with several to
+ * see what the fork-join force pass gains.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LayoutBenchmark {
+
+    private static final int SECTIONS = 50;
+
+    @Param({"10000", "50000"})
+    private int nodes;
+
+    @Param({"1", "4"})
+    private int threads;
+
+    private ForceDirectedLayout layout;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        layout = new ForceDirectedLayout(threads);
+        SplittableRandom random = new SplittableRandom(7);
+        for (int id = 0; id < nodes; id++) {
+            layout.addNode(id);
+            if (id > 0) {
+                layout.addEdge(id <= SECTIONS ? 0 : 1 + random.nextInt(SECTIONS), id);
+            }
+            if (id > SECTIONS && random.nextInt(4) == 0) {
+                layout.addEdge(id, 1 + random.nextInt(id - 1));
+            }
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+        layout.close();
+    }
+
+    @Benchmark
+    public boolean step() {
+        return layout.step();
+    }
+}
@@ -0,0 +1,109 @@
+package com.vinhtt.sitemapcrawler.benchmark;
+
+import com.vinhtt.sitemapcrawler.model.CrawlConfig;
+import com.vinhtt.sitemapcrawler.service.impl.UrlCanonicalizer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The link corpus in {@code corpus/links.tsv}: links as written in the HTML of pages
+ * from a shop, a blog, a documentation site, a news site and a single-page app.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+final class LinkCorpus {
+
+    private static final String RESOURCE = "/corpus/links.tsv";
+
+    private final String[] pageUrls;
+    private final String[] hrefs;
+    private final String[] canonicalUrls;
+
+    private LinkCorpus(List<String[]> rows) {
+        pageUrls = new String[rows.size()];
+        hrefs = new String[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            pageUrls[i] = rows.get(i)[0];
+            hrefs[i] = rows.get(i)[1];
+        }
+        UrlCanonicalizer canonicalizer = new UrlCanonicalizer(new CrawlConfig());
+        Set<String> canonical = new LinkedHashSet<>();
+        for (int i = 0; i < hrefs.length; i++) {
+            try {
+                URI resolved = URI.create(pageUrls[i]).resolve(hrefs[i].replace(" ", "%20"));
+                String url = resolved.getScheme() == null ? null : canonicalizer.canonicalize(resolved.toString());
+                if (url != null) {
+                    canonical.add(url);
+                }
+            } catch (IllegalArgumentException ignored) {
+                // Links the crawler would skip are not part of the canonical set.
+            }
+        }
+        canonicalUrls = canonical.toArray(String[]::new);
+    }
+
+    /**
+     * Loads the corpus from the classpath.
+     *
+     * @return The corpus.
+     * @throws UncheckedIOException If the resource is missing or unreadable.
+     */
+    static LinkCorpus load() {
+        try (InputStream in = LinkCorpus.class.getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                throw new IOException("Missing benchmark resource " + RESOURCE);
+            }
+            List<String[]> rows = new ArrayList<>();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] columns = line.split("\t", 2);
+                if (columns.length == 2) {
+                    rows.add(columns);
+                }
+            }
+            return new LinkCorpus(rows);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Gets the URLs of the pages the links were found on.
+     *
+     * @return One page URL per link.
+     */
+    String[] pageUrls() {
+        return pageUrls;
+    }
+
+    /**
+     * Gets the raw hrefs, relative or absolute, including ones the crawler skips.
+     *
+     * @return One href per link.
+     */
+    String[] hrefs() {
+        return hrefs;
+    }
+
+    /**
+     * Gets the distinct canonical HTTP(S) URLs the links resolve to.
+     *
+     * @return The canonical URLs, in corpus order.
+     */
+    String[] canonicalUrls() {
+        return canonicalUrls;
+    }
+}
@@ -0,0 +1,94 @@
+package com.vinhtt.sitemapcrawler.benchmark;
+
+import com.microsoft.playwright.*;
+import com.vinhtt.sitemapcrawler.model.PageLink;
+import com.vinhtt.sitemapcrawler.service.impl.LinkExtractor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares per-ElementHandle link extraction against the single round-trip
+ * {@link LinkExtractor} on a generated local fixture page.
+ * Built with the {@code jmh} profile; run with
+ * {@code java -cp target/SiteMapCrawler-1.0-SNAPSHOT-benchmarks.jar com.vinhtt.sitemapcrawler.benchmark.LinkExtractionBenchmark [links] [iterations]}.
+ *
+ * @author vinhtt
+ * @version 1.1
+ */
+public final class LinkExtractionBenchmark {
+
+    private static final int DEFAULT_LINKS = 3000;
+    private static final int DEFAULT_ITERATIONS = 5;
+    private static final int WARMUP_ITERATIONS = 2;
+
+    private LinkExtractionBenchmark() {
+    }
+
+    /**
+     * Runs both extraction paths and prints the mean time per page.
+     *
+     * @param args Optional link count and measured iteration count.
+     */
+    public static void main(String[] args) {
+        int linkCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_LINKS;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ITERATIONS;
+
+        try (Playwright playwright = Playwright.create();
+             Browser browser = playwright.chromium().launch();
+             Page page = browser.newPage()) {
+
+            page.navigate("about:blank");
+            page.setContent(buildFixture(linkCount));
+
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                extractPerHandle(page);
+                LinkExtractor.extract(page, Integer.MAX_VALUE);
+            }
+
+            long handleNanos = 0;
+            long batchNanos = 0;
+            int handleLinks = 0;
+            int batchLinks = 0;
+            for (int i = 0; i < iterations; i++) {
+                long start = System.nanoTime();
+                handleLinks = extractPerHandle(page).size();
+                handleNanos += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                batchLinks = LinkExtractor.extract(page, Integer.MAX_VALUE).size();
+                batchNanos += System.nanoTime() - start;
+            }
+
+            System.out.printf("Fixture: %d anchors, %d iterations%n", linkCount, iterations);
+            System.out.printf("Per-ElementHandle: %8.2f ms/page (%d links)%n", handleNanos / 1e6 / iterations, handleLinks);
+            System.out.printf("Single round-trip: %8.2f ms/page (%d links)%n", batchNanos / 1e6 / iterations, batchLinks);
+            System.out.printf("Speedup:           %8.2fx%n", (double) handleNanos / Math.max(1, batchNanos));
+        }
+    }
+
+    private static List<PageLink> extractPerHandle(Page page) {
+        List<PageLink> links = new ArrayList<>();
+        for (ElementHandle link : page.querySelectorAll("a[href]")) {
+            String href = link.getAttribute("href");
+            String text = link.innerText().trim();
+            link.dispose();
+            if (href == null || href.isEmpty() || href.startsWith("#") || href.startsWith("javascript")) continue;
+            links.add(new PageLink(href, text));
+        }
+        return links;
+    }
+
+    private static String buildFixture(int linkCount) {
+        StringBuilder html = new StringBuilder("<html><head><base href=\"https://fixture.local/\"></head><body><nav>");
+        for (int i = 0; i < linkCount; i++) {
+            switch (i % 10) {
+                case 0 -> html.append("<a href=\"#section-").append(i).append("\">Anchor ").append(i).append("</a>");
+                case 1 -> html.append("<a href=\"javascript:void(0)\">Action ").append(i).append("</a>");
+                case 2 -> html.append("<a href=\"https://external.example/item/").append(i).append("\">External ").append(i).append("</a>");
+                default -> html.append("<a href=\"/category/").append(i % 50).append("/item/").append(i).append("\">Item ").append(i).append("</a>");
+            }
+        }
+        return html.append("</nav></body></html>").toString();
+    }
+}
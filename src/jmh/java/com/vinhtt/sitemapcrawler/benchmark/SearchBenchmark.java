@@ -0,0 +1,87 @@
+package com.vinhtt.sitemapcrawler.benchmark;
+
+import com.vinhtt.sitemapcrawler.service.search.NodeSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queries against a {@link NodeSearchIndex} of a million site-like nodes, each with
+ * a slug URL, a title and a link text drawn from a skewed vocabulary, plus a unique
+ * id token. The queries range from a unique id to a one-letter prefix that matches
+ * most of the site; the search box of the view has to answer each within a frame or two.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class SearchBenchmark {
+
+    private static final String[] SYLLABLES = {
+            "ka", "lo", "mi", "ne", "ru", "sa", "te", "vi", "do", "pe", "bro", "stan", "ing", "er", "ta", "quo"
+    };
+    private static final String[] SECTIONS = {"product", "category", "blog", "docs", "news", "tag"};
+    private static final int VOCABULARY = 5000;
+    private static final int MAX_RESULTS = 500;
+
+    @Param({"1000000"})
+    private int nodes;
+
+    @Param({"1000123", "kalo", "stan ing", "ne", "k"})
+    private String query;
+
+    private NodeSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(11);
+        String[] words = new String[VOCABULARY];
+        for (int i = 0; i < words.length; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int s = 2 + random.nextInt(3); s > 0; s--) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            words[i] = word.toString();
+        }
+        index = new NodeSearchIndex();
+        for (int id = 0; id < nodes; id++) {
+            String slug = phrase(words, random, 3, '-');
+            index.addUrl(id, "https://www.shop.example.com/" + SECTIONS[random.nextInt(SECTIONS.length)]
+                    + "/" + slug + "-" + (1_000_000 + id));
+            index.addText(id, phrase(words, random, 2, ' '));
+            index.addText(id, phrase(words, random, 4, ' ') + " | Shop");
+        }
+        System.out.println("\nIndex: " + index + ", " + index.estimatedBytes() / (1 << 20) + " MiB");
+    }
+
+    private static String phrase(String[] words, SplittableRandom random, int length, char separator) {
+        StringBuilder phrase = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            if (i > 0) phrase.append(separator);
+            double skew = random.nextDouble();
+            phrase.append(words[(int) (skew * skew * skew * words.length)]);
+        }
+        return phrase.toString();
+    }
+
+    @Benchmark
+    public NodeSearchIndex.Matches search() {
+        return index.search(query, MAX_RESULTS);
+    }
+}
@@ -0,0 +1,94 @@
+package com.vinhtt.sitemapcrawler.benchmark;
+
+import com.vinhtt.sitemapcrawler.model.NodeType;
+import com.vinhtt.sitemapcrawler.model.SiteNode;
+import com.vinhtt.sitemapcrawler.service.graph.CompactSiteGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-link node bookkeeping: creating and hashing {@link SiteNode}s, and recording a
+ * discovered node in a URL-keyed map versus the {@link CompactSiteGraph}.
+ * Each invocation handles the next URL of the corpus.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SiteNodeBenchmark {
+
+    private String[] urls;
+    private SiteNode[] nodes;
+    private Map<String, SiteNode> nodeCache;
+    private CompactSiteGraph graph;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        urls = LinkCorpus.load().canonicalUrls();
+        nodes = new SiteNode[urls.length];
+        for (int i = 0; i < urls.length; i++) {
+            nodes[i] = new SiteNode(urls[i], urls[i], NodeType.PENDING);
+        }
+    }
+
+    /**
+     * Starts every iteration with empty stores, so the map and graph cover first sightings and repeats alike.
+     */
+    @Setup(Level.Iteration)
+    public void resetStores() {
+        nodeCache = new HashMap<>();
+        graph = new CompactSiteGraph();
+    }
+
+    @Benchmark
+    public SiteNode createNode() {
+        String url = urls[next(urls.length)];
+        return new SiteNode(url, url, NodeType.PENDING);
+    }
+
+    @Benchmark
+    public int hashNode() {
+        return nodes[next(nodes.length)].hashCode();
+    }
+
+    @Benchmark
+    public int hashUrl() {
+        return urls[next(urls.length)].hashCode();
+    }
+
+    @Benchmark
+    public SiteNode recordInMap() {
+        SiteNode node = nodes[next(nodes.length)];
+        return nodeCache.putIfAbsent(node.getUrl(), node);
+    }
+
+    @Benchmark
+    public int recordInCompactGraph() {
+        return graph.addNode(nodes[next(nodes.length)]);
+    }
+
+    private int next(int length) {
+        int i = cursor;
+        cursor = i + 1 == length ? 0 : i + 1;
+        return i;
+    }
+}
@@ -0,0 +1,131 @@
+package com.vinhtt.sitemapcrawler.benchmark;
+
+import com.vinhtt.sitemapcrawler.model.CrawlConfig;
+import com.vinhtt.sitemapcrawler.service.impl.UrlCanonicalizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-link URL handling: resolving an href against its page, canonicalizing it, and
+ * the internal/external domain check, the latter against a hand-rolled host parser.
+ * Each invocation handles the next link of the corpus.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UrlBenchmark {
+
+    private URI[] pages;
+    private String[] hrefs;
+    private String[] resolved;
+    private String[] canonicalUrls;
+    private UrlCanonicalizer canonicalizer;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        LinkCorpus corpus = LinkCorpus.load();
+        hrefs = corpus.hrefs();
+        pages = new URI[hrefs.length];
+        resolved = new String[hrefs.length];
+        for (int i = 0; i < hrefs.length; i++) {
+            pages[i] = URI.create(corpus.pageUrls()[i]);
+            resolved[i] = resolve(pages[i], hrefs[i]);
+        }
+        canonicalUrls = corpus.canonicalUrls();
+        canonicalizer = new UrlCanonicalizer(new CrawlConfig());
+
+        for (String url : canonicalUrls) {
+            if (!UrlCanonicalizer.domainOf(url).equals(handRolledDomainOf(url))) {
+                throw new IllegalStateException("Hand-rolled parser disagrees on " + url);
+            }
+        }
+    }
+
+    @Benchmark
+    public String resolveHref() {
+        int i = next(hrefs.length);
+        return resolve(pages[i], hrefs[i]);
+    }
+
+    @Benchmark
+    public String canonicalize() {
+        String url = resolved[next(resolved.length)];
+        return url == null ? null : canonicalizer.canonicalize(url);
+    }
+
+    @Benchmark
+    public String domainOfUri() {
+        return UrlCanonicalizer.domainOf(canonicalUrls[next(canonicalUrls.length)]);
+    }
+
+    @Benchmark
+    public String domainOfHandRolled() {
+        return handRolledDomainOf(canonicalUrls[next(canonicalUrls.length)]);
+    }
+
+    private int next(int length) {
+        int i = cursor;
+        cursor = i + 1 == length ? 0 : i + 1;
+        return i;
+    }
+
+    /**
+     * The resolution done by the static fetcher before canonicalization.
+     */
+    private static String resolve(URI page, String href) {
+        try {
+            URI uri = page.resolve(href.replace(" ", "%20"));
+            return uri.getScheme() == null ? null : uri.toString();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Candidate replacement for {@link UrlCanonicalizer#domainOf(String)} on canonical URLs:
+     * scans the authority by index instead of building a {@link URI}.
+     */
+    static String handRolledDomainOf(String url) {
+        int start = url.indexOf("://");
+        if (start < 0) {
+            return "External";
+        }
+        start += 3;
+        int end = start;
+        while (end < url.length()) {
+            char c = url.charAt(end);
+            if (c == '/' || c == '?' || c == '#') break;
+            end++;
+        }
+        int at = url.lastIndexOf('@', end - 1);
+        if (at >= start) {
+            start = at + 1;
+        }
+        int colon = url.indexOf(':', start);
+        if (colon >= 0 && colon < end) {
+            end = colon;
+        }
+        if (url.startsWith("www.", start)) {
+            start += 4;
+        }
+        return url.substring(start, end);
+    }
+}
@@ -0,0 +1,105 @@
+package com.vinhtt.sitemapcrawler.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.vinhtt.sitemapcrawler.model.GraphBatch;
+import com.vinhtt.sitemapcrawler.model.NodeType;
+import com.vinhtt.sitemapcrawler.model.SiteEdge;
+import com.vinhtt.sitemapcrawler.model.SiteNode;
+import com.vinhtt.sitemapcrawler.view.VisBatchEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of one frame's {@link GraphBatch} for vis.js: the {@link VisBatchEncoder}
+ * used by the view (maps plus ObjectMapper) against writing the arrays with a streaming
+ * {@link JsonGenerator}.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VisBatchBenchmark {
+
+    private static final NodeType[] TYPES = {NodeType.PENDING, NodeType.INTERNAL, NodeType.EXTERNAL, NodeType.GROUPED};
+
+    @Param({"50", "500"})
+    private int batchSize;
+
+    private GraphBatch batch;
+    private VisBatchEncoder encoder;
+    private JsonFactory jsonFactory;
+
+    @Setup
+    public void setUp() {
+        String[] urls = LinkCorpus.load().canonicalUrls();
+        List<SiteNode> nodes = new ArrayList<>(batchSize);
+        List<SiteEdge> edges = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            String url = urls[i % urls.length];
+            nodes.add(new SiteNode(url, url.substring(url.indexOf("://") + 3), TYPES[i % TYPES.length]));
+            edges.add(new SiteEdge(urls[(i / 8) % urls.length], url));
+        }
+        batch = new GraphBatch(nodes, edges);
+        encoder = new VisBatchEncoder();
+        jsonFactory = new JsonFactory();
+    }
+
+    @Benchmark
+    public void objectMapper(Blackhole blackhole) throws IOException {
+        blackhole.consume(encoder.nodesJson(batch));
+        blackhole.consume(encoder.edgesJson(batch));
+    }
+
+    @Benchmark
+    public void streamingGenerator(Blackhole blackhole) throws IOException {
+        StringWriter nodes = new StringWriter(batch.getNodes().size() * 160);
+        try (JsonGenerator generator = jsonFactory.createGenerator(nodes)) {
+            generator.writeStartArray();
+            for (SiteNode node : batch.getNodes()) {
+                String title = node.getTitle();
+                generator.writeStartObject();
+                generator.writeStringField("id", node.getUrl());
+                generator.writeStringField("label", title.length() > 20 ? title.substring(0, 20) + "..." : title);
+                generator.writeStringField("group", node.getType().toString());
+                generator.writeStringField("title", node.getUrl());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+        StringWriter edges = new StringWriter(batch.getEdges().size() * 120);
+        try (JsonGenerator generator = jsonFactory.createGenerator(edges)) {
+            generator.writeStartArray();
+            for (SiteEdge edge : batch.getEdges()) {
+                generator.writeStartObject();
+                generator.writeStringField("from", edge.getSource());
+                generator.writeStringField("to", edge.getTarget());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+        blackhole.consume(nodes.toString());
+        blackhole.consume(edges.toString());
+    }
+}
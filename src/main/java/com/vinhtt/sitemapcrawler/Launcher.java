@@ -1,17 +1,31 @@
 package com.vinhtt.sitemapcrawler;
 
+import com.vinhtt.sitemapcrawler.cli.HeadlessCrawler;
+import com.vinhtt.sitemapcrawler.cli.WorkerCrawler;
+
+import java.util.Arrays;
+
 /**
  * Main entry point for the application to bypass JavaFX 11+ module checks.
+ * With {@code --headless} the crawler runs as a command line batch job instead,
+ * and no JavaFX class is loaded; with {@code --worker} it runs as a worker process
+ * of a distributed crawl.
  *
  * @author vinhtt
- * @version 1.0
+ * @version 1.2
  */
 public class Launcher {
     /**
-     * Delegates execution to the actual JavaFX Application class.
+     * Delegates execution to the actual JavaFX Application class, the headless crawler or a crawl worker.
      * @param args Command line arguments.
      */
     public static void main(String[] args) {
+        if (Arrays.asList(args).contains("--worker")) {
+            System.exit(WorkerCrawler.run(args));
+        }
+        if (Arrays.asList(args).contains("--headless")) {
+            System.exit(HeadlessCrawler.run(args));
+        }
         App.main(args);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,232 @@
+package com.vinhtt.sitemapcrawler.cli;
+
+import com.vinhtt.sitemapcrawler.model.CrawlConfig;
+import com.vinhtt.sitemapcrawler.service.ICrawlerService;
+import com.vinhtt.sitemapcrawler.service.distributed.DistributedCrawlerService;
+import com.vinhtt.sitemapcrawler.service.export.GraphmlExporter;
+import com.vinhtt.sitemapcrawler.service.export.SitemapExporter;
+import com.vinhtt.sitemapcrawler.service.impl.HybridCrawlerService;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Batch mode that crawls without any JavaFX class being loaded and streams the
+ * discovered graph as NDJSON (see {@link NdjsonGraphWriter}). The browser runs
+ * headless with the Chromium bundled with Playwright, so it works on servers
+ * without a display or an installed Chrome. Ctrl+C pauses the crawl; running the
+ * same command again resumes it. Running it again after the crawl finished recrawls
+ * incrementally: unchanged pages are revalidated rather than reloaded, and edges that
+ * changed are marked in the output. When the crawl ends, the graph can also be written
+ * as sitemap files and as GraphML. Every link found is validated with a HEAD request
+ * and written as a {@code link} line, so broken links can be filtered from the output.
+ * With {@code --distributed} the site is crawled by several worker processes, each
+ * owning a share of the hosts, and their graphs are merged into one output.
+ * With {@code --thumbnails} the pages rendered in the browser are captured into the
+ * thumbnail cache the desktop app shows them from.
+ *
+ * @author vinhtt
+ * @version 1.10
+ */
+public final class HeadlessCrawler {
+
+    private static final String USAGE = """
+            Usage: --headless [options] <url>
+              --depth <n>        Maximum link depth (default 3)
+              --workers <n>      Pages loaded in parallel (default 4)
+              --timeout <ms>     Navigation timeout per page (default 30000)
+              --output <file>    Write NDJSON to a file instead of stdout
+              --single           Scan only the given page
+              --fresh            Discard a paused crawl of the URL and start over
+              --full             Reload every page instead of revalidating the previous crawl
+              --channel <name>   Launch an installed browser channel, e.g. chrome
+              --state-dir <dir>  Directory for resumable crawl state
+              --ignore-robots    Do not honor robots.txt rules
+              --no-sitemaps      Do not queue the pages listed in the site's sitemaps
+              --no-link-check    Do not validate the links found on the pages
+              --distributed <n>  Spread the crawl over n worker processes (not resumable)
+              --thumbnails <dir> Keep a thumbnail of every page rendered in the browser
+              --sitemap <dir>    Also write gzipped sitemaps and a sitemap.xml index
+              --graphml <file>   Also write the graph as GraphML (.gz to compress)
+            """;
+    private static final long SHUTDOWN_GRACE_SECONDS = 30;
+
+    private String url;
+    private int depth = 3;
+    private int workers = 4;
+    private int timeoutMs = 30000;
+    private Path output;
+    private Path sitemapDirectory;
+    private Path graphmlFile;
+    private boolean single;
+    private boolean fresh;
+    private final CrawlConfig config = new CrawlConfig();
+
+    private HeadlessCrawler() {
+        config.setHeadless(true);
+        config.setBrowserChannel(null);
+    }
+
+    /**
+     * Runs one crawl from command line arguments.
+     *
+     * @param args The arguments, including the {@code --headless} switch.
+     * @return The process exit code.
+     */
+    public static int run(String[] args) {
+        HeadlessCrawler crawler = new HeadlessCrawler();
+        try {
+            crawler.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(USAGE);
+            return 2;
+        }
+        try {
+            return crawler.crawl();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 130;
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Crawl failed: " + e.getMessage());
+            return 1;
+        } catch (ExecutionException e) {
+            System.err.println("Crawl failed: " + e.getCause());
+            return 1;
+        }
+    }
+
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--headless" -> {
+                }
+                case "--depth" -> depth = parseInt(arg, value(args, ++i, arg));
+                case "--workers" -> workers = parseInt(arg, value(args, ++i, arg));
+                case "--timeout" -> timeoutMs = parseInt(arg, value(args, ++i, arg));
+                case "--output" -> output = Path.of(value(args, ++i, arg));
+                case "--single" -> single = true;
+                case "--fresh" -> fresh = true;
+                case "--full" -> config.setIncrementalRecrawl(false);
+                case "--channel" -> config.setBrowserChannel(value(args, ++i, arg));
+                case "--state-dir" -> config.setStateDirectory(value(args, ++i, arg));
+                case "--ignore-robots" -> config.setRespectRobotsTxt(false);
+                case "--no-sitemaps" -> config.setSeedFromSitemaps(false);
+                case "--no-link-check" -> config.setValidateLinks(false);
+                case "--distributed" -> config.setDistributedWorkers(parseInt(arg, value(args, ++i, arg)));
+                case "--thumbnails" -> {
+                    config.setCaptureThumbnails(true);
+                    config.setThumbnailDirectory(value(args, ++i, arg));
+                }
+                case "--sitemap" -> sitemapDirectory = Path.of(value(args, ++i, arg));
+                case "--graphml" -> graphmlFile = Path.of(value(args, ++i, arg));
+                default -> {
+                    if (arg.startsWith("--") || url != null) {
+                        throw new IllegalArgumentException("Unexpected argument: " + arg);
+                    }
+                    url = arg;
+                }
+            }
+        }
+        if (url == null) {
+            throw new IllegalArgumentException("Missing URL");
+        }
+        config.setPageTimeoutMs(timeoutMs);
+    }
+
+    private int crawl() throws IOException, InterruptedException, ExecutionException {
+        ICrawlerService service = config.getDistributedWorkers() > 0
+                ? new DistributedCrawlerService(config)
+                : new HybridCrawlerService(config);
+        OutputStream out = output != null
+                ? Files.newOutputStream(output)
+                : System.out;
+
+        try (NdjsonGraphWriter writer = new NdjsonGraphWriter(new BufferedOutputStream(out))) {
+            service.events().subscribe(writer);
+            Thread shutdownHook = new Thread(() -> {
+                service.stop();
+                try {
+                    writer.completion().get(SHUTDOWN_GRACE_SECONDS, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException | TimeoutException e) {
+                    System.err.println("Crawl did not finish cleanly: " + e);
+                }
+                // The try block closes the writer; the JVM may halt before it gets there.
+                writer.flush();
+            }, "headless-shutdown");
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+
+            if (single) {
+                service.crawlSinglePage(url);
+            } else {
+                if (fresh) {
+                    service.discardCrawl(url);
+                } else if (service.hasResumableCrawl(url)) {
+                    System.err.println("Resuming paused crawl of " + url);
+                }
+                service.crawlSite(url, depth, workers, timeoutMs);
+            }
+            writer.completion().get();
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            export(writer);
+
+            System.err.printf("Done: %d nodes, %d edges, %.2f pages/sec, %s%n",
+                    writer.nodesWritten(), writer.edgesWritten(), service.getPagesPerSecond(), service.getResourceStats());
+            System.err.println("Timings: " + service.getCrawlMetrics());
+            if (service instanceof HybridCrawlerService local) {
+                System.err.println("Engines: " + local.getEngineStats());
+                System.err.println("Browsers: " + local.getBrowserPool());
+                if (local.getThumbnails() != null) {
+                    System.err.println("Thumbnails: " + local.getThumbnails());
+                }
+            }
+        } finally {
+            service.cleanup();
+        }
+        return 0;
+    }
+
+    private void export(NdjsonGraphWriter writer) throws IOException {
+        if (sitemapDirectory != null) {
+            URI root = URI.create(url);
+            String baseUrl = root.getScheme() + "://" + root.getRawAuthority() + "/";
+            long urls = new SitemapExporter(writer.graph(), writer.graphExecutor(), baseUrl, true)
+                    .export(sitemapDirectory);
+            System.err.printf("Sitemap: %d URLs written to %s%n", urls, sitemapDirectory);
+        }
+        if (graphmlFile != null) {
+            long records = new GraphmlExporter(writer.graph(), writer.graphExecutor()).export(graphmlFile);
+            System.err.printf("GraphML: %d records written to %s%n", records, graphmlFile);
+        }
+    }
+
+    private static String value(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + option);
+        }
+        return args[index];
+    }
+
+    private static int parseInt(String option, String value) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed < 0) {
+                throw new IllegalArgumentException(option + " must not be negative: " + value);
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for " + option + ": " + value);
+        }
+    }
+}
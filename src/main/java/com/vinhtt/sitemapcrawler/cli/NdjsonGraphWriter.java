@@ -0,0 +1,296 @@
+package com.vinhtt.sitemapcrawler.cli;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.vinhtt.sitemapcrawler.model.CrawlEvent;
+import com.vinhtt.sitemapcrawler.model.EdgeChange;
+import com.vinhtt.sitemapcrawler.model.LinkCheck;
+import com.vinhtt.sitemapcrawler.model.NodeType;
+import com.vinhtt.sitemapcrawler.model.SiteEdge;
+import com.vinhtt.sitemapcrawler.model.SiteNode;
+import com.vinhtt.sitemapcrawler.service.graph.CompactSiteGraph;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+
+/**
+ * Streams crawler events as newline-delimited JSON, one object per line:
+ * <pre>
+ * {"type":"node","url":"https://example.com/","title":"Example","kind":"INTERNAL"}
+ * {"type":"edge","source":"https://example.com/","target":"https://example.com/about"}
+ * {"type":"edge","source":"https://example.com/","target":"https://example.com/new","change":"added"}
+ * {"type":"error","url":"https://example.com/broken","message":"Timeout 30000ms exceeded"}
+ * {"type":"link","url":"http://example.org/a","node":"ext://example.org","referrer":"https://example.com/","status":404,"method":"HEAD","ms":42,"redirects":["https://example.org/a"]}
+ * </pre>
+ * A {@code link} line is written for every validated link; {@code node} is the node the
+ * link points to and {@code error} replaces {@code status} when no response was read.
+ * The writer subscribes to a crawler's event publisher and requests events in
+ * batches as it writes them, so a slow output stream holds back the crawl.
+ * On a recrawl, edges that differ from the previous crawl of their page carry a
+ * {@code change} of {@code added} or {@code removed}; removed edges are not part of the graph.
+ * Repeated events are suppressed with a {@link CompactSiteGraph}: a pending node is
+ * written once, and a known node is written again only when it is visited or its
+ * type or title changes. Pages listed in the site's sitemaps are first written with
+ * kind {@code ORPHAN}; those that no edge ever targets are orphans. Safe to call from any thread.
+ *
+ * @author vinhtt
+ * @version 1.6
+ */
+public final class NdjsonGraphWriter implements AutoCloseable, Flow.Subscriber<CrawlEvent> {
+
+    private static final int FLUSH_EVERY_RECORDS = 256;
+    private static final int REQUEST_BATCH = 256;
+
+    private final JsonGenerator generator;
+    private final CompactSiteGraph graph = new CompactSiteGraph();
+    private int unflushed;
+    private long nodesWritten;
+    private long edgesWritten;
+    private Flow.Subscription subscription;
+    private int received;
+    private final CompletableFuture<CrawlEvent.CrawlCompleted> completion = new CompletableFuture<>();
+
+    /**
+     * Constructs a writer.
+     *
+     * @param out The stream the lines are written to; closed by {@link #close()}.
+     * @throws UncheckedIOException If the generator cannot be created.
+     */
+    public NdjsonGraphWriter(OutputStream out) {
+        try {
+            this.generator = new JsonFactory().createGenerator(out);
+            this.generator.setRootValueSeparator(null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes a node unless it is already known in the same form.
+     *
+     * @param node The discovered node.
+     */
+    public synchronized void node(SiteNode node) {
+        int known = graph.idOf(node.getUrl());
+        if (known >= 0) {
+            NodeType type = graph.typeOf(known);
+            if (node.getType() == NodeType.PENDING || node.getType() == NodeType.ORPHAN) return;
+            if (type == node.getType() && node.getTitle() != null && node.getTitle().equals(graph.titleOf(known))) return;
+        }
+        graph.addNode(node);
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("type", "node");
+            generator.writeStringField("url", node.getUrl());
+            generator.writeStringField("title", node.getTitle());
+            generator.writeStringField("kind", node.getType().name());
+            generator.writeEndObject();
+            endRecord();
+            nodesWritten++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes an edge unless it was written before.
+     *
+     * @param parsed The edge, carrying its change relative to the previous crawl.
+     */
+    public synchronized void edge(SiteEdge parsed) {
+        if (parsed.getChange() != EdgeChange.REMOVED && graph.addEdge(parsed.getSource(), parsed.getTarget()) < 0) {
+            return;
+        }
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("type", "edge");
+            generator.writeStringField("source", parsed.getSource());
+            generator.writeStringField("target", parsed.getTarget());
+            if (parsed.getChange() != EdgeChange.UNCHANGED) {
+                generator.writeStringField("change", parsed.getChange().name().toLowerCase(Locale.ROOT));
+            }
+            generator.writeEndObject();
+            endRecord();
+            edgesWritten++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes a page that could not be loaded.
+     *
+     * @param url   The URL of the page.
+     * @param error The cause.
+     */
+    public synchronized void error(String url, Throwable error) {
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("type", "error");
+            generator.writeStringField("url", url);
+            generator.writeStringField("message", String.valueOf(error.getMessage()));
+            generator.writeEndObject();
+            endRecord();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the outcome of a link check.
+     *
+     * @param nodeUrl  The node the link points to.
+     * @param referrer The page the link was found on.
+     * @param check    The outcome.
+     */
+    public synchronized void link(String nodeUrl, String referrer, LinkCheck check) {
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("type", "link");
+            generator.writeStringField("url", check.getUrl());
+            generator.writeStringField("node", nodeUrl);
+            generator.writeStringField("referrer", referrer);
+            if (check.getError() != null) {
+                generator.writeStringField("error", check.getError());
+            } else {
+                generator.writeNumberField("status", check.getStatusCode());
+            }
+            generator.writeStringField("method", check.getMethod());
+            generator.writeNumberField("ms", check.getLatencyNanos() / 1_000_000);
+            if (!check.getRedirects().isEmpty()) {
+                generator.writeArrayFieldStart("redirects");
+                for (String location : check.getRedirects()) {
+                    generator.writeString(location);
+                }
+                generator.writeEndArray();
+            }
+            generator.writeEndObject();
+            endRecord();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(REQUEST_BATCH);
+    }
+
+    @Override
+    public void onNext(CrawlEvent event) {
+        switch (event) {
+            case CrawlEvent.NodeDiscovered discovered -> node(discovered.node());
+            case CrawlEvent.EdgeDiscovered discovered -> edge(discovered.edge());
+            case CrawlEvent.PageFailed failed -> error(failed.url(), failed.error());
+            case CrawlEvent.LinkChecked checked -> link(checked.nodeUrl(), checked.referrer(), checked.check());
+            case CrawlEvent.PageFetched fetched -> {
+            }
+            case CrawlEvent.CrawlCompleted completed -> {
+                flush();
+                completion.complete(completed);
+            }
+        }
+        if (++received % REQUEST_BATCH == 0) {
+            subscription.request(REQUEST_BATCH);
+        }
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        completion.completeExceptionally(error);
+    }
+
+    @Override
+    public void onComplete() {
+        completion.complete(null);
+    }
+
+    /**
+     * Gets the end of the crawl this writer is subscribed to. It completes once the
+     * crawl's last event is written, or with null if the publisher closed first.
+     *
+     * @return The completion of the crawl.
+     */
+    public CompletableFuture<CrawlEvent.CrawlCompleted> completion() {
+        return completion;
+    }
+
+    /**
+     * Gets the graph of everything written so far, for exporting it in other formats.
+     * It is mutated under this writer's lock, so read it through {@link #graphExecutor()}.
+     *
+     * @return The deduplication graph.
+     */
+    public CompactSiteGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Gets an executor that runs tasks on the calling thread while holding this writer's lock.
+     *
+     * @return The executor guarding {@link #graph()}.
+     */
+    public Executor graphExecutor() {
+        return task -> {
+            synchronized (this) {
+                task.run();
+            }
+        };
+    }
+
+    /**
+     * Gets the number of node lines written.
+     *
+     * @return The node count.
+     */
+    public synchronized long nodesWritten() {
+        return nodesWritten;
+    }
+
+    /**
+     * Gets the number of edge lines written.
+     *
+     * @return The edge count.
+     */
+    public synchronized long edgesWritten() {
+        return edgesWritten;
+    }
+
+    /**
+     * Flushes and closes the underlying stream.
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            generator.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the buffered records through to the underlying stream, leaving it open.
+     */
+    public synchronized void flush() {
+        try {
+            generator.flush();
+            unflushed = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void endRecord() throws IOException {
+        generator.writeRaw('\n');
+        if (++unflushed >= FLUSH_EVERY_RECORDS) {
+            generator.flush();
+            unflushed = 0;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.vinhtt.sitemapcrawler.cli;
+
+import com.vinhtt.sitemapcrawler.model.CrawlConfig;
+import com.vinhtt.sitemapcrawler.service.distributed.ShardWorker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+
+/**
+ * Worker process mode of a distributed crawl, started by the coordinator with
+ * {@code --worker}. It loads no JavaFX class, runs its browsers headless and
+ * reports to the coordinator on the given loopback port until the crawl ends.
+ *
+ * @author vinhtt
+ * @version 1.1
+ */
+public final class WorkerCrawler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WorkerCrawler.class);
+
+    private static final String USAGE = """
+            Usage: --worker --coordinator <port> --id <n> [options]
+              --timeout <ms>            Navigation timeout per page (default 30000)
+              --state-dir <dir>         Directory for the page records of this worker
+              --resource-cache <dir>    Directory for the resource cache of this worker
+              --channel <name>          Launch an installed browser channel, e.g. chrome
+              --ignore-robots           Do not honor robots.txt rules
+              --no-link-check           Do not validate the links found on the pages
+              --full                    Reload every page instead of revalidating the previous crawl
+            """;
+
+    private int coordinatorPort = -1;
+    private int workerId = -1;
+    private final CrawlConfig config = new CrawlConfig();
+
+    private WorkerCrawler() {
+        config.setHeadless(true);
+        config.setBrowserChannel(null);
+        config.setSeedFromSitemaps(false);
+    }
+
+    /**
+     * Runs one worker from command line arguments.
+     *
+     * @param args The arguments, including the {@code --worker} switch.
+     * @return The process exit code.
+     */
+    public static int run(String[] args) {
+        WorkerCrawler worker = new WorkerCrawler();
+        try {
+            worker.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(USAGE);
+            return 2;
+        }
+        try {
+            new ShardWorker(worker.coordinatorPort, worker.workerId, worker.config).run();
+            return 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 130;
+        } catch (IOException e) {
+            LOG.error("Worker {} failed", worker.workerId, e);
+            return 1;
+        }
+    }
+
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--worker" -> {
+                }
+                case "--coordinator" -> coordinatorPort = parseInt(arg, value(args, ++i, arg));
+                case "--id" -> workerId = parseInt(arg, value(args, ++i, arg));
+                case "--timeout" -> config.setPageTimeoutMs(parseInt(arg, value(args, ++i, arg)));
+                case "--state-dir" -> config.setStateDirectory(value(args, ++i, arg));
+                case "--resource-cache" -> config.setResourceCacheDirectory(value(args, ++i, arg));
+                case "--channel" -> config.setBrowserChannel(value(args, ++i, arg));
+                case "--ignore-robots" -> config.setRespectRobotsTxt(false);
+                case "--no-link-check" -> config.setValidateLinks(false);
+                case "--full" -> config.setIncrementalRecrawl(false);
+                default -> throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+        }
+        if (coordinatorPort < 0 || workerId < 0) {
+            throw new IllegalArgumentException("Missing --coordinator or --id");
+        }
+    }
+
+    private static String value(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + option);
+        }
+        return args[index];
+    }
+
+    private static int parseInt(String option, String value) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed < 0) {
+                throw new IllegalArgumentException(option + " must not be negative: " + value);
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for " + option + ": " + value);
+        }
+    }
+}
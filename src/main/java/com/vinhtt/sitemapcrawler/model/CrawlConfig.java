@@ -0,0 +1,948 @@
+package com.vinhtt.sitemapcrawler.model;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Configuration POJO holding the tunable limits of the crawling engine.
+ *
+ * @author vinhtt
+ * @version 2.6
+ */
+public class CrawlConfig {
+
+    private int maxLinksPerPage = 5000;
+    private int pageTimeoutMs = 30000;
+    private String stateDirectory = Path.of(System.getProperty("user.home"), ".sitemapcrawler", "crawls").toString();
+    private Set<String> blockedResourceTypes = new LinkedHashSet<>(List.of("image", "media", "font"));
+    private List<String> blockedUrlPatterns = new ArrayList<>(List.of(
+            "google-analytics\\.com",
+            "googletagmanager\\.com",
+            "doubleclick\\.net",
+            "connect\\.facebook\\.net",
+            "hotjar\\.com",
+            "segment\\.(io|com)",
+            "/(analytics|gtag|pixel)(\\.min)?\\.js"));
+    private boolean stripFragments = true;
+    private boolean stripWww = true;
+    private boolean stripTrailingSlash = true;
+    private boolean sortQueryParameters = true;
+    private List<String> trackingParameters = new ArrayList<>(List.of(
+            "utm_*", "gclid", "gclsrc", "dclid", "fbclid", "msclkid", "yclid",
+            "mc_cid", "mc_eid", "_ga", "_gl", "_hsenc", "_hsmi", "igshid", "ref_src"));
+    private boolean exactSeenSet = true;
+    private double seenFalsePositiveRate = 0.001;
+    private int seenInitialCapacity = 1 << 16;
+    private long seenFilterMaxBytes = 64L * 1024 * 1024;
+    private boolean respectRobotsTxt = true;
+    private String robotsUserAgent = "SiteMapCrawler";
+    private double requestsPerSecondPerHost = 2.0;
+    private int maxConcurrencyPerHost = 8;
+    private int clusterSampleSize = 5;
+    private int clusterMaxDistance = 3;
+    private int templateSampleSize = 10;
+    private int templateCardinalityThreshold = 20;
+    private boolean headless = false;
+    private String browserChannel = "chrome";
+    private int browserPoolSize = 4;
+    private int contextMaxPages = 100;
+    private int contextMaxHeapMb = 256;
+    private boolean incrementalRecrawl = true;
+    private String resourceCacheDirectory = Path.of(System.getProperty("user.home"), ".sitemapcrawler", "resource-cache").toString();
+    private int resourceCacheMaxMb = 512;
+    private Set<String> cachedResourceTypes = new LinkedHashSet<>(List.of("script", "stylesheet"));
+    private boolean seedFromSitemaps = true;
+    private int maxSitemapUrls = 5_000_000;
+    private int eventBufferSize = 1024;
+    private boolean validateLinks = true;
+    private int validationMaxInFlight = 512;
+    private int validationMaxPerHost = 4;
+    private int validationTimeoutMs = 10000;
+    private int distributedWorkers = 0;
+    private boolean captureThumbnails = false;
+    private String thumbnailDirectory = Path.of(System.getProperty("user.home"), ".sitemapcrawler", "thumbnails").toString();
+    private int thumbnailCacheMaxMb = 64;
+    private int thumbnailWidth = 320;
+
+    /**
+     * Gets the maximum number of anchors extracted from a single page.
+     *
+     * @return The link cap per page.
+     */
+    public int getMaxLinksPerPage() {
+        return maxLinksPerPage;
+    }
+
+    /**
+     * Sets the maximum number of anchors extracted from a single page.
+     * Protects the crawler from mega-menus and endless link lists.
+     *
+     * @param maxLinksPerPage The link cap per page, must be positive.
+     * @throws IllegalArgumentException If the cap is not positive.
+     */
+    public void setMaxLinksPerPage(int maxLinksPerPage) {
+        if (maxLinksPerPage <= 0) {
+            throw new IllegalArgumentException("maxLinksPerPage must be positive: " + maxLinksPerPage);
+        }
+        this.maxLinksPerPage = maxLinksPerPage;
+    }
+
+    /**
+     * Gets the navigation timeout per page.
+     *
+     * @return The timeout in milliseconds.
+     */
+    public int getPageTimeoutMs() {
+        return pageTimeoutMs;
+    }
+
+    /**
+     * Sets the navigation timeout per page.
+     *
+     * @param pageTimeoutMs The timeout in milliseconds, must be positive.
+     * @throws IllegalArgumentException If the timeout is not positive.
+     */
+    public void setPageTimeoutMs(int pageTimeoutMs) {
+        if (pageTimeoutMs <= 0) {
+            throw new IllegalArgumentException("pageTimeoutMs must be positive: " + pageTimeoutMs);
+        }
+        this.pageTimeoutMs = pageTimeoutMs;
+    }
+
+    /**
+     * Gets the Playwright resource types (e.g. {@code image}, {@code font}) that are aborted before download.
+     *
+     * @return The blocked resource types.
+     */
+    public Set<String> getBlockedResourceTypes() {
+        return blockedResourceTypes;
+    }
+
+    /**
+     * Sets the Playwright resource types that are aborted before download.
+     * An empty set together with no URL patterns disables request interception.
+     *
+     * @param blockedResourceTypes The blocked resource types.
+     */
+    public void setBlockedResourceTypes(Set<String> blockedResourceTypes) {
+        this.blockedResourceTypes = blockedResourceTypes;
+    }
+
+    /**
+     * Gets the regex patterns of request URLs (e.g. trackers) that are aborted before download.
+     *
+     * @return The blocked URL patterns.
+     */
+    public List<String> getBlockedUrlPatterns() {
+        return blockedUrlPatterns;
+    }
+
+    /**
+     * Sets the regex patterns of request URLs that are aborted before download.
+     *
+     * @param blockedUrlPatterns The blocked URL patterns.
+     */
+    public void setBlockedUrlPatterns(List<String> blockedUrlPatterns) {
+        this.blockedUrlPatterns = blockedUrlPatterns;
+    }
+
+    /**
+     * Gets the directory under which the frontier and seen-set of each site crawl are persisted.
+     *
+     * @return The state directory path.
+     */
+    public String getStateDirectory() {
+        return stateDirectory;
+    }
+
+    /**
+     * Sets the directory under which the frontier and seen-set of each site crawl are persisted.
+     *
+     * @param stateDirectory The state directory path.
+     */
+    public void setStateDirectory(String stateDirectory) {
+        this.stateDirectory = stateDirectory;
+    }
+
+    /**
+     * Checks whether {@code #fragment} parts are dropped from URLs.
+     *
+     * @return True if fragments are stripped.
+     */
+    public boolean isStripFragments() {
+        return stripFragments;
+    }
+
+    /**
+     * Sets whether {@code #fragment} parts are dropped from URLs.
+     * Keep them only for sites that route with hash fragments.
+     *
+     * @param stripFragments True to strip fragments.
+     */
+    public void setStripFragments(boolean stripFragments) {
+        this.stripFragments = stripFragments;
+    }
+
+    /**
+     * Checks whether a leading {@code www.} is dropped from host names.
+     *
+     * @return True if {@code www.} hosts are folded into the bare host.
+     */
+    public boolean isStripWww() {
+        return stripWww;
+    }
+
+    /**
+     * Sets whether a leading {@code www.} is dropped from host names.
+     *
+     * @param stripWww True to fold {@code www.} hosts into the bare host.
+     */
+    public void setStripWww(boolean stripWww) {
+        this.stripWww = stripWww;
+    }
+
+    /**
+     * Checks whether a trailing slash is dropped from non-root paths.
+     *
+     * @return True if trailing slashes are stripped.
+     */
+    public boolean isStripTrailingSlash() {
+        return stripTrailingSlash;
+    }
+
+    /**
+     * Sets whether a trailing slash is dropped from non-root paths.
+     *
+     * @param stripTrailingSlash True to strip trailing slashes.
+     */
+    public void setStripTrailingSlash(boolean stripTrailingSlash) {
+        this.stripTrailingSlash = stripTrailingSlash;
+    }
+
+    /**
+     * Checks whether query parameters are sorted by name.
+     *
+     * @return True if query parameters are sorted.
+     */
+    public boolean isSortQueryParameters() {
+        return sortQueryParameters;
+    }
+
+    /**
+     * Sets whether query parameters are sorted by name. Parameters sharing a name keep their order.
+     *
+     * @param sortQueryParameters True to sort query parameters.
+     */
+    public void setSortQueryParameters(boolean sortQueryParameters) {
+        this.sortQueryParameters = sortQueryParameters;
+    }
+
+    /**
+     * Gets the names of query parameters removed from URLs, where {@code *} matches any suffix.
+     *
+     * @return The tracking parameter globs.
+     */
+    public List<String> getTrackingParameters() {
+        return trackingParameters;
+    }
+
+    /**
+     * Sets the names of query parameters removed from URLs, where {@code *} matches any suffix.
+     * An empty list keeps all parameters.
+     *
+     * @param trackingParameters The tracking parameter globs.
+     */
+    public void setTrackingParameters(List<String> trackingParameters) {
+        this.trackingParameters = trackingParameters;
+    }
+
+    /**
+     * Checks whether seen-set filter hits are confirmed by an exact on-disk set.
+     *
+     * @return True if the seen-set is exact.
+     */
+    public boolean isExactSeenSet() {
+        return exactSeenSet;
+    }
+
+    /**
+     * Sets whether seen-set filter hits are confirmed by an exact on-disk set.
+     * Without it the seen-set costs only the filter memory, but new URLs are
+     * skipped with the configured false-positive rate.
+     *
+     * @param exactSeenSet True for an exact seen-set.
+     */
+    public void setExactSeenSet(boolean exactSeenSet) {
+        this.exactSeenSet = exactSeenSet;
+    }
+
+    /**
+     * Gets the target false-positive rate of the seen-set filter.
+     *
+     * @return The rate, in (0, 1).
+     */
+    public double getSeenFalsePositiveRate() {
+        return seenFalsePositiveRate;
+    }
+
+    /**
+     * Sets the target false-positive rate of the seen-set filter.
+     * Each tenfold reduction costs about 4.8 bits per URL.
+     *
+     * @param seenFalsePositiveRate The rate, in (0, 1).
+     * @throws IllegalArgumentException If the rate is out of range.
+     */
+    public void setSeenFalsePositiveRate(double seenFalsePositiveRate) {
+        if (seenFalsePositiveRate <= 0 || seenFalsePositiveRate >= 1) {
+            throw new IllegalArgumentException("seenFalsePositiveRate must be in (0, 1): " + seenFalsePositiveRate);
+        }
+        this.seenFalsePositiveRate = seenFalsePositiveRate;
+    }
+
+    /**
+     * Gets the number of URLs the first seen-set filter stage is sized for.
+     *
+     * @return The initial capacity.
+     */
+    public int getSeenInitialCapacity() {
+        return seenInitialCapacity;
+    }
+
+    /**
+     * Sets the number of URLs the first seen-set filter stage is sized for.
+     *
+     * @param seenInitialCapacity The initial capacity, must be positive.
+     * @throws IllegalArgumentException If the capacity is not positive.
+     */
+    public void setSeenInitialCapacity(int seenInitialCapacity) {
+        if (seenInitialCapacity <= 0) {
+            throw new IllegalArgumentException("seenInitialCapacity must be positive: " + seenInitialCapacity);
+        }
+        this.seenInitialCapacity = seenInitialCapacity;
+    }
+
+    /**
+     * Gets the memory budget of the seen-set filter.
+     *
+     * @return The budget in bytes.
+     */
+    public long getSeenFilterMaxBytes() {
+        return seenFilterMaxBytes;
+    }
+
+    /**
+     * Sets the memory budget of the seen-set filter. Once it is spent the filter
+     * stops growing and its false-positive rate rises instead.
+     *
+     * @param seenFilterMaxBytes The budget in bytes, must be positive.
+     * @throws IllegalArgumentException If the budget is not positive.
+     */
+    public void setSeenFilterMaxBytes(long seenFilterMaxBytes) {
+        if (seenFilterMaxBytes <= 0) {
+            throw new IllegalArgumentException("seenFilterMaxBytes must be positive: " + seenFilterMaxBytes);
+        }
+        this.seenFilterMaxBytes = seenFilterMaxBytes;
+    }
+
+    /**
+     * Checks whether robots.txt rules and Crawl-delay are honored.
+     *
+     * @return True if robots.txt is respected.
+     */
+    public boolean isRespectRobotsTxt() {
+        return respectRobotsTxt;
+    }
+
+    /**
+     * Sets whether robots.txt rules and Crawl-delay are honored.
+     *
+     * @param respectRobotsTxt True to respect robots.txt.
+     */
+    public void setRespectRobotsTxt(boolean respectRobotsTxt) {
+        this.respectRobotsTxt = respectRobotsTxt;
+    }
+
+    /**
+     * Gets the product token matched against robots.txt {@code User-agent} lines.
+     *
+     * @return The user agent token.
+     */
+    public String getRobotsUserAgent() {
+        return robotsUserAgent;
+    }
+
+    /**
+     * Sets the product token matched against robots.txt {@code User-agent} lines.
+     *
+     * @param robotsUserAgent The user agent token.
+     */
+    public void setRobotsUserAgent(String robotsUserAgent) {
+        this.robotsUserAgent = robotsUserAgent;
+    }
+
+    /**
+     * Gets the maximum request rate per host.
+     *
+     * @return The rate in requests per second.
+     */
+    public double getRequestsPerSecondPerHost() {
+        return requestsPerSecondPerHost;
+    }
+
+    /**
+     * Sets the maximum request rate per host. A larger Crawl-delay in robots.txt lowers it further.
+     *
+     * @param requestsPerSecondPerHost The rate in requests per second, must be positive.
+     * @throws IllegalArgumentException If the rate is not positive.
+     */
+    public void setRequestsPerSecondPerHost(double requestsPerSecondPerHost) {
+        if (requestsPerSecondPerHost <= 0) {
+            throw new IllegalArgumentException("requestsPerSecondPerHost must be positive: " + requestsPerSecondPerHost);
+        }
+        this.requestsPerSecondPerHost = requestsPerSecondPerHost;
+    }
+
+    /**
+     * Gets the upper bound of the adaptive number of parallel requests per host.
+     *
+     * @return The maximum concurrency per host.
+     */
+    public int getMaxConcurrencyPerHost() {
+        return maxConcurrencyPerHost;
+    }
+
+    /**
+     * Sets the upper bound of the adaptive number of parallel requests per host.
+     *
+     * @param maxConcurrencyPerHost The maximum concurrency per host, must be positive.
+     * @throws IllegalArgumentException If the bound is not positive.
+     */
+    public void setMaxConcurrencyPerHost(int maxConcurrencyPerHost) {
+        if (maxConcurrencyPerHost <= 0) {
+            throw new IllegalArgumentException("maxConcurrencyPerHost must be positive: " + maxConcurrencyPerHost);
+        }
+        this.maxConcurrencyPerHost = maxConcurrencyPerHost;
+    }
+
+    /**
+     * Gets the number of same-template pages per directory that are rendered before the directory is grouped.
+     *
+     * @return The cluster sample size.
+     */
+    public int getClusterSampleSize() {
+        return clusterSampleSize;
+    }
+
+    /**
+     * Sets the number of same-template pages per directory that are rendered before the directory is grouped.
+     * Further pages of the directory are shown as one group node and never loaded.
+     *
+     * @param clusterSampleSize The cluster sample size, must be positive.
+     * @throws IllegalArgumentException If the size is not positive.
+     */
+    public void setClusterSampleSize(int clusterSampleSize) {
+        if (clusterSampleSize <= 0) {
+            throw new IllegalArgumentException("clusterSampleSize must be positive: " + clusterSampleSize);
+        }
+        this.clusterSampleSize = clusterSampleSize;
+    }
+
+    /**
+     * Gets the largest SimHash distance, in bits, at which two pages count as the same template.
+     *
+     * @return The maximum Hamming distance.
+     */
+    public int getClusterMaxDistance() {
+        return clusterMaxDistance;
+    }
+
+    /**
+     * Sets the largest SimHash distance, in bits, at which two pages count as the same template.
+     *
+     * @param clusterMaxDistance The maximum Hamming distance, between 0 and 31.
+     * @throws IllegalArgumentException If the distance is out of range.
+     */
+    public void setClusterMaxDistance(int clusterMaxDistance) {
+        if (clusterMaxDistance < 0 || clusterMaxDistance > 31) {
+            throw new IllegalArgumentException("clusterMaxDistance must be in [0, 31]: " + clusterMaxDistance);
+        }
+        this.clusterMaxDistance = clusterMaxDistance;
+    }
+
+    /**
+     * Gets the number of distinct members per URL template that are crawled.
+     *
+     * @return The template sample size.
+     */
+    public int getTemplateSampleSize() {
+        return templateSampleSize;
+    }
+
+    /**
+     * Sets the number of distinct members per URL template (e.g. {@code /product/{num}}) that are crawled.
+     * Further members are collapsed into one group node and never queued.
+     *
+     * @param templateSampleSize The template sample size, must be positive.
+     * @throws IllegalArgumentException If the size is not positive.
+     */
+    public void setTemplateSampleSize(int templateSampleSize) {
+        if (templateSampleSize <= 0) {
+            throw new IllegalArgumentException("templateSampleSize must be positive: " + templateSampleSize);
+        }
+        this.templateSampleSize = templateSampleSize;
+    }
+
+    /**
+     * Gets the number of distinct literal values a path position may have before it is treated as a placeholder.
+     *
+     * @return The cardinality threshold.
+     */
+    public int getTemplateCardinalityThreshold() {
+        return templateCardinalityThreshold;
+    }
+
+    /**
+     * Sets the number of distinct literal values a path position may have before it is treated as a placeholder.
+     *
+     * @param templateCardinalityThreshold The cardinality threshold, must be positive.
+     * @throws IllegalArgumentException If the threshold is not positive.
+     */
+    public void setTemplateCardinalityThreshold(int templateCardinalityThreshold) {
+        if (templateCardinalityThreshold <= 0) {
+            throw new IllegalArgumentException("templateCardinalityThreshold must be positive: " + templateCardinalityThreshold);
+        }
+        this.templateCardinalityThreshold = templateCardinalityThreshold;
+    }
+
+    /**
+     * Checks whether the browser runs without a window.
+     *
+     * @return True for a headless browser.
+     */
+    public boolean isHeadless() {
+        return headless;
+    }
+
+    /**
+     * Sets whether the browser runs without a window.
+     *
+     * @param headless True for a headless browser.
+     */
+    public void setHeadless(boolean headless) {
+        this.headless = headless;
+    }
+
+    /**
+     * Gets the installed browser channel (e.g. {@code chrome}, {@code msedge}) Playwright launches.
+     *
+     * @return The channel, or null for the Chromium bundled with Playwright.
+     */
+    public String getBrowserChannel() {
+        return browserChannel;
+    }
+
+    /**
+     * Sets the installed browser channel Playwright launches.
+     *
+     * @param browserChannel The channel, or null for the Chromium bundled with Playwright.
+     */
+    public void setBrowserChannel(String browserChannel) {
+        this.browserChannel = browserChannel;
+    }
+
+    /**
+     * Gets the maximum number of browsers kept warm for page loads that need JavaScript.
+     *
+     * @return The browser pool size.
+     */
+    public int getBrowserPoolSize() {
+        return browserPoolSize;
+    }
+
+    /**
+     * Sets the maximum number of browsers kept warm.
+     *
+     * @param browserPoolSize The browser pool size.
+     * @throws IllegalArgumentException If the size is not positive.
+     */
+    public void setBrowserPoolSize(int browserPoolSize) {
+        if (browserPoolSize <= 0) {
+            throw new IllegalArgumentException("browserPoolSize must be positive: " + browserPoolSize);
+        }
+        this.browserPoolSize = browserPoolSize;
+    }
+
+    /**
+     * Gets the number of pages a browser context loads before it is replaced by a fresh one.
+     *
+     * @return The page budget per context.
+     */
+    public int getContextMaxPages() {
+        return contextMaxPages;
+    }
+
+    /**
+     * Sets the number of pages a browser context loads before it is replaced.
+     *
+     * @param contextMaxPages The page budget per context.
+     * @throws IllegalArgumentException If the budget is not positive.
+     */
+    public void setContextMaxPages(int contextMaxPages) {
+        if (contextMaxPages <= 0) {
+            throw new IllegalArgumentException("contextMaxPages must be positive: " + contextMaxPages);
+        }
+        this.contextMaxPages = contextMaxPages;
+    }
+
+    /**
+     * Gets the JavaScript heap size, in megabytes, above which a browser context is replaced.
+     *
+     * @return The heap budget per context.
+     */
+    public int getContextMaxHeapMb() {
+        return contextMaxHeapMb;
+    }
+
+    /**
+     * Sets the JavaScript heap size above which a browser context is replaced.
+     *
+     * @param contextMaxHeapMb The heap budget per context, in megabytes.
+     * @throws IllegalArgumentException If the budget is not positive.
+     */
+    public void setContextMaxHeapMb(int contextMaxHeapMb) {
+        if (contextMaxHeapMb <= 0) {
+            throw new IllegalArgumentException("contextMaxHeapMb must be positive: " + contextMaxHeapMb);
+        }
+        this.contextMaxHeapMb = contextMaxHeapMb;
+    }
+
+    /**
+     * Checks whether site crawls keep a record of every page and revalidate it on the next
+     * crawl, reusing its links when the server answers 304 or the body hash is unchanged.
+     *
+     * @return True if recrawls are incremental.
+     */
+    public boolean isIncrementalRecrawl() {
+        return incrementalRecrawl;
+    }
+
+    /**
+     * Sets whether site crawls revalidate the pages recorded by the previous crawl.
+     *
+     * @param incrementalRecrawl True to recrawl incrementally, false to load every page again.
+     */
+    public void setIncrementalRecrawl(boolean incrementalRecrawl) {
+        this.incrementalRecrawl = incrementalRecrawl;
+    }
+
+    /**
+     * Gets the directory of the resource cache shared by all browser contexts and runs.
+     *
+     * @return The resource cache directory path.
+     */
+    public String getResourceCacheDirectory() {
+        return resourceCacheDirectory;
+    }
+
+    /**
+     * Sets the directory of the shared resource cache.
+     *
+     * @param resourceCacheDirectory The resource cache directory path.
+     */
+    public void setResourceCacheDirectory(String resourceCacheDirectory) {
+        this.resourceCacheDirectory = resourceCacheDirectory;
+    }
+
+    /**
+     * Gets the size, in megabytes, above which the least recently used cached resources are evicted.
+     *
+     * @return The cache size limit; 0 disables the cache.
+     */
+    public int getResourceCacheMaxMb() {
+        return resourceCacheMaxMb;
+    }
+
+    /**
+     * Sets the size limit of the shared resource cache.
+     *
+     * @param resourceCacheMaxMb The cache size limit in megabytes; 0 disables the cache.
+     * @throws IllegalArgumentException If the limit is negative.
+     */
+    public void setResourceCacheMaxMb(int resourceCacheMaxMb) {
+        if (resourceCacheMaxMb < 0) {
+            throw new IllegalArgumentException("resourceCacheMaxMb must not be negative: " + resourceCacheMaxMb);
+        }
+        this.resourceCacheMaxMb = resourceCacheMaxMb;
+    }
+
+    /**
+     * Gets the Playwright resource types (e.g. {@code script}, {@code stylesheet}) served through the shared cache.
+     *
+     * @return The cached resource types.
+     */
+    public Set<String> getCachedResourceTypes() {
+        return cachedResourceTypes;
+    }
+
+    /**
+     * Sets the Playwright resource types served through the shared cache.
+     *
+     * @param cachedResourceTypes The cached resource types.
+     */
+    public void setCachedResourceTypes(Set<String> cachedResourceTypes) {
+        this.cachedResourceTypes = cachedResourceTypes;
+    }
+
+    /**
+     * Checks whether a fresh site crawl seeds its frontier from the sitemaps listed in robots.txt.
+     *
+     * @return True if sitemaps are read before the first page is loaded.
+     */
+    public boolean isSeedFromSitemaps() {
+        return seedFromSitemaps;
+    }
+
+    /**
+     * Sets whether a fresh site crawl seeds its frontier from the site's sitemaps.
+     *
+     * @param seedFromSitemaps True to read sitemaps before the first page is loaded.
+     */
+    public void setSeedFromSitemaps(boolean seedFromSitemaps) {
+        this.seedFromSitemaps = seedFromSitemaps;
+    }
+
+    /**
+     * Gets the maximum number of URLs taken from sitemaps per crawl.
+     *
+     * @return The sitemap URL limit.
+     */
+    public int getMaxSitemapUrls() {
+        return maxSitemapUrls;
+    }
+
+    /**
+     * Sets the maximum number of URLs taken from sitemaps per crawl.
+     *
+     * @param maxSitemapUrls The sitemap URL limit.
+     * @throws IllegalArgumentException If the limit is not positive.
+     */
+    public void setMaxSitemapUrls(int maxSitemapUrls) {
+        if (maxSitemapUrls <= 0) {
+            throw new IllegalArgumentException("maxSitemapUrls must be positive: " + maxSitemapUrls);
+        }
+        this.maxSitemapUrls = maxSitemapUrls;
+    }
+
+    /**
+     * Gets the number of crawl events buffered per subscriber before crawler threads wait for it.
+     *
+     * @return The per-subscriber event buffer size.
+     */
+    public int getEventBufferSize() {
+        return eventBufferSize;
+    }
+
+    /**
+     * Sets the number of crawl events buffered per subscriber; it is rounded up to a power of two.
+     *
+     * @param eventBufferSize The per-subscriber event buffer size.
+     * @throws IllegalArgumentException If the size is not positive.
+     */
+    public void setEventBufferSize(int eventBufferSize) {
+        if (eventBufferSize <= 0) {
+            throw new IllegalArgumentException("eventBufferSize must be positive: " + eventBufferSize);
+        }
+        this.eventBufferSize = eventBufferSize;
+    }
+
+    /**
+     * Checks whether every link found on a loaded page is validated with a HEAD or ranged GET request.
+     *
+     * @return True if links are validated.
+     */
+    public boolean isValidateLinks() {
+        return validateLinks;
+    }
+
+    /**
+     * Sets whether the links found on loaded pages are validated.
+     *
+     * @param validateLinks True to validate links.
+     */
+    public void setValidateLinks(boolean validateLinks) {
+        this.validateLinks = validateLinks;
+    }
+
+    /**
+     * Gets the maximum number of link checks in flight across all hosts.
+     *
+     * @return The global link check concurrency.
+     */
+    public int getValidationMaxInFlight() {
+        return validationMaxInFlight;
+    }
+
+    /**
+     * Sets the maximum number of link checks in flight across all hosts.
+     *
+     * @param validationMaxInFlight The global link check concurrency.
+     * @throws IllegalArgumentException If the limit is not positive.
+     */
+    public void setValidationMaxInFlight(int validationMaxInFlight) {
+        if (validationMaxInFlight <= 0) {
+            throw new IllegalArgumentException("validationMaxInFlight must be positive: " + validationMaxInFlight);
+        }
+        this.validationMaxInFlight = validationMaxInFlight;
+    }
+
+    /**
+     * Gets the maximum number of link checks in flight against one host.
+     *
+     * @return The per-host link check concurrency.
+     */
+    public int getValidationMaxPerHost() {
+        return validationMaxPerHost;
+    }
+
+    /**
+     * Sets the maximum number of link checks in flight against one host.
+     *
+     * @param validationMaxPerHost The per-host link check concurrency.
+     * @throws IllegalArgumentException If the limit is not positive.
+     */
+    public void setValidationMaxPerHost(int validationMaxPerHost) {
+        if (validationMaxPerHost <= 0) {
+            throw new IllegalArgumentException("validationMaxPerHost must be positive: " + validationMaxPerHost);
+        }
+        this.validationMaxPerHost = validationMaxPerHost;
+    }
+
+    /**
+     * Gets the timeout of each link check request, in milliseconds.
+     *
+     * @return The link check timeout.
+     */
+    public int getValidationTimeoutMs() {
+        return validationTimeoutMs;
+    }
+
+    /**
+     * Sets the timeout of each link check request.
+     *
+     * @param validationTimeoutMs The link check timeout in milliseconds.
+     * @throws IllegalArgumentException If the timeout is not positive.
+     */
+    public void setValidationTimeoutMs(int validationTimeoutMs) {
+        if (validationTimeoutMs <= 0) {
+            throw new IllegalArgumentException("validationTimeoutMs must be positive: " + validationTimeoutMs);
+        }
+        this.validationTimeoutMs = validationTimeoutMs;
+    }
+
+    /**
+     * Gets the number of worker processes a distributed site crawl is spread over.
+     *
+     * @return The worker process count, or 0 to crawl in this process.
+     */
+    public int getDistributedWorkers() {
+        return distributedWorkers;
+    }
+
+    /**
+     * Sets the number of worker processes a distributed site crawl is spread over.
+     * Each worker runs its own browser pool and owns a hash-partitioned share of the hosts.
+     *
+     * @param distributedWorkers The worker process count, or 0 to crawl in this process.
+     * @throws IllegalArgumentException If the count is negative.
+     */
+    public void setDistributedWorkers(int distributedWorkers) {
+        if (distributedWorkers < 0) {
+            throw new IllegalArgumentException("distributedWorkers must not be negative: " + distributedWorkers);
+        }
+        this.distributedWorkers = distributedWorkers;
+    }
+
+    /**
+     * Checks whether a viewport screenshot of every page rendered in the browser is kept as a thumbnail.
+     *
+     * @return True if thumbnails are captured.
+     */
+    public boolean isCaptureThumbnails() {
+        return captureThumbnails;
+    }
+
+    /**
+     * Enables or disables thumbnail capture. Captures are downscaled off the crawl threads
+     * and skipped while the downscaling falls behind; statically served pages get none.
+     *
+     * @param captureThumbnails True to capture thumbnails.
+     */
+    public void setCaptureThumbnails(boolean captureThumbnails) {
+        this.captureThumbnails = captureThumbnails;
+    }
+
+    /**
+     * Gets the directory of the thumbnail cache, which is kept across runs.
+     *
+     * @return The thumbnail directory path.
+     */
+    public String getThumbnailDirectory() {
+        return thumbnailDirectory;
+    }
+
+    /**
+     * Sets the directory of the thumbnail cache.
+     *
+     * @param thumbnailDirectory The thumbnail directory path.
+     */
+    public void setThumbnailDirectory(String thumbnailDirectory) {
+        this.thumbnailDirectory = thumbnailDirectory;
+    }
+
+    /**
+     * Gets the size, in megabytes, above which the least recently used thumbnails are evicted.
+     *
+     * @return The thumbnail cache size limit.
+     */
+    public int getThumbnailCacheMaxMb() {
+        return thumbnailCacheMaxMb;
+    }
+
+    /**
+     * Sets the size limit of the thumbnail cache.
+     *
+     * @param thumbnailCacheMaxMb The cache size limit in megabytes.
+     * @throws IllegalArgumentException If the limit is not positive.
+     */
+    public void setThumbnailCacheMaxMb(int thumbnailCacheMaxMb) {
+        if (thumbnailCacheMaxMb <= 0) {
+            throw new IllegalArgumentException("thumbnailCacheMaxMb must be positive: " + thumbnailCacheMaxMb);
+        }
+        this.thumbnailCacheMaxMb = thumbnailCacheMaxMb;
+    }
+
+    /**
+     * Gets the width, in pixels, captures are downscaled to; the aspect ratio is kept.
+     *
+     * @return The thumbnail width.
+     */
+    public int getThumbnailWidth() {
+        return thumbnailWidth;
+    }
+
+    /**
+     * Sets the width captures are downscaled to.
+     *
+     * @param thumbnailWidth The thumbnail width in pixels.
+     * @throws IllegalArgumentException If the width is not positive.
+     */
+    public void setThumbnailWidth(int thumbnailWidth) {
+        if (thumbnailWidth <= 0) {
+            throw new IllegalArgumentException("thumbnailWidth must be positive: " + thumbnailWidth);
+        }
+        this.thumbnailWidth = thumbnailWidth;
+    }
+}
@@ -0,0 +1,68 @@
+package com.vinhtt.sitemapcrawler.model;
+
+/**
+ * An event published by a crawler service to the subscribers of its event publisher.
+ * Events of one page arrive in order: its node, its links' nodes and edges, then
+ * {@link PageFetched}. Link checks arrive later, in any order, but before the
+ * {@link CrawlCompleted} every crawl ends with.
+ *
+ * @author vinhtt
+ * @version 1.1
+ */
+public sealed interface CrawlEvent {
+
+    /**
+     * A node was found or updated: a loaded page, a link target, a group or a sitemap URL.
+     *
+     * @param node The node.
+     */
+    record NodeDiscovered(SiteNode node) implements CrawlEvent {
+    }
+
+    /**
+     * A link between two nodes was found, or a recrawl found it added or removed.
+     *
+     * @param edge The edge, carrying its change relative to the previous crawl.
+     */
+    record EdgeDiscovered(SiteEdge edge) implements CrawlEvent {
+    }
+
+    /**
+     * A page was loaded and all its nodes and edges have been published.
+     *
+     * @param url       The canonical URL of the page.
+     * @param timings   The measured phases of the page.
+     * @param linkCount The number of links found on it.
+     * @param unchanged True if a recrawl found the page unchanged and reused its recorded links.
+     */
+    record PageFetched(String url, PageTimings timings, int linkCount, boolean unchanged) implements CrawlEvent {
+    }
+
+    /**
+     * A page could not be loaded.
+     *
+     * @param url   The URL of the page.
+     * @param error The cause.
+     */
+    record PageFailed(String url, Throwable error) implements CrawlEvent {
+    }
+
+    /**
+     * A link found on a page was validated without rendering its target.
+     *
+     * @param nodeUrl  The node the link points to: its own URL, or its group or external domain node.
+     * @param referrer The page the link was first found on.
+     * @param check    The outcome.
+     */
+    record LinkChecked(String nodeUrl, String referrer, LinkCheck check) implements CrawlEvent {
+    }
+
+    /**
+     * A single-page scan or site crawl ended.
+     *
+     * @param rootUrl The URL the crawl was started with.
+     * @param paused  True if a site crawl was stopped and left work that can be resumed.
+     */
+    record CrawlCompleted(String rootUrl, boolean paused) implements CrawlEvent {
+    }
+}
@@ -0,0 +1,200 @@
+package com.vinhtt.sitemapcrawler.model;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe per-phase latency histograms and page, link and error counters
+ * of one crawl. Crawler threads record page phases; the UI records its own dispatch time.
+ * Pages a recrawl found unchanged are counted as pages and, separately, as unchanged.
+ * URLs queued from the site's sitemaps are counted when they are queued, not when loaded.
+ * Validated links are counted, and timed as {@link CrawlPhase#LINK_CHECK}, apart from pages.
+ *
+ * @author vinhtt
+ * @version 1.3
+ */
+public class CrawlMetrics {
+
+    private final Map<CrawlPhase, LatencyHistogram> histograms = new EnumMap<>(CrawlPhase.class);
+    private final AtomicLong pages = new AtomicLong();
+    private final AtomicLong links = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong unchanged = new AtomicLong();
+    private final AtomicLong sitemapUrls = new AtomicLong();
+    private final AtomicLong checkedLinks = new AtomicLong();
+    private final AtomicLong brokenLinks = new AtomicLong();
+
+    /**
+     * Constructs empty metrics.
+     */
+    public CrawlMetrics() {
+        for (CrawlPhase phase : CrawlPhase.values()) {
+            histograms.put(phase, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Records the timings of a loaded page.
+     *
+     * @param timings   The measured phases of the page.
+     * @param linkCount The number of links found on it.
+     */
+    public void recordPage(PageTimings timings, int linkCount) {
+        pages.incrementAndGet();
+        links.addAndGet(linkCount);
+        for (CrawlPhase phase : CrawlPhase.values()) {
+            if (timings.has(phase)) {
+                histograms.get(phase).record(timings.getNanos(phase));
+            }
+        }
+    }
+
+    /**
+     * Records one measurement of a phase.
+     *
+     * @param phase The phase.
+     * @param nanos The elapsed time in nanoseconds.
+     */
+    public void record(CrawlPhase phase, long nanos) {
+        histograms.get(phase).record(nanos);
+    }
+
+    /**
+     * Records a page that failed to load or returned an HTTP error.
+     */
+    public void recordError() {
+        errors.incrementAndGet();
+    }
+
+    /**
+     * Records a page that was revalidated instead of being loaded again.
+     */
+    public void recordUnchanged() {
+        unchanged.incrementAndGet();
+    }
+
+    /**
+     * Records URLs queued from the site's sitemaps.
+     *
+     * @param count The number of URLs queued.
+     */
+    public void recordSitemapUrls(long count) {
+        sitemapUrls.addAndGet(count);
+    }
+
+    /**
+     * Records the validation of a link.
+     *
+     * @param check The outcome.
+     */
+    public void recordLinkCheck(LinkCheck check) {
+        checkedLinks.incrementAndGet();
+        if (check.isBroken()) {
+            brokenLinks.incrementAndGet();
+        }
+        histograms.get(CrawlPhase.LINK_CHECK).record(check.getLatencyNanos());
+    }
+
+    /**
+     * Clears all histograms and counters.
+     */
+    public void reset() {
+        histograms.values().forEach(LatencyHistogram::reset);
+        pages.set(0);
+        links.set(0);
+        errors.set(0);
+        unchanged.set(0);
+        sitemapUrls.set(0);
+        checkedLinks.set(0);
+        brokenLinks.set(0);
+    }
+
+    /**
+     * Gets the histogram of a phase.
+     *
+     * @param phase The phase.
+     * @return The live histogram.
+     */
+    public LatencyHistogram getHistogram(CrawlPhase phase) {
+        return histograms.get(phase);
+    }
+
+    /**
+     * Gets the number of pages loaded.
+     *
+     * @return The page count.
+     */
+    public long getPages() {
+        return pages.get();
+    }
+
+    /**
+     * Gets the number of links found on the loaded pages.
+     *
+     * @return The link count.
+     */
+    public long getLinks() {
+        return links.get();
+    }
+
+    /**
+     * Gets the number of failed loads and HTTP error responses.
+     *
+     * @return The error count.
+     */
+    public long getErrors() {
+        return errors.get();
+    }
+
+    /**
+     * Gets the number of pages found unchanged since the previous crawl.
+     *
+     * @return The unchanged page count.
+     */
+    public long getUnchanged() {
+        return unchanged.get();
+    }
+
+    /**
+     * Gets the number of URLs queued from the site's sitemaps.
+     *
+     * @return The sitemap URL count.
+     */
+    public long getSitemapUrls() {
+        return sitemapUrls.get();
+    }
+
+    /**
+     * Gets the number of links validated.
+     *
+     * @return The checked link count.
+     */
+    public long getCheckedLinks() {
+        return checkedLinks.get();
+    }
+
+    /**
+     * Gets the number of validated links that are broken.
+     *
+     * @return The broken link count.
+     */
+    public long getBrokenLinks() {
+        return brokenLinks.get();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append(getPages()).append(" pages (").append(getUnchanged()).append(" unchanged), ")
+                .append(getSitemapUrls()).append(" from sitemaps, ")
+                .append(getLinks()).append(" links (").append(getCheckedLinks()).append(" checked, ")
+                .append(getBrokenLinks()).append(" broken), ").append(getErrors()).append(" errors");
+        histograms.forEach((phase, histogram) -> {
+            if (histogram.getCount() > 0) {
+                text.append(", ").append(phase.getLabel()).append(' ').append(histogram);
+            }
+        });
+        return text.toString();
+    }
+}
@@ -0,0 +1,35 @@
+package com.vinhtt.sitemapcrawler.model;
+
+/**
+ * The timed stages a page goes through, from opening the connection to being drawn,
+ * plus the validation of the links found on it and the thumbnail made of it.
+ *
+ * @author vinhtt
+ * @version 1.2
+ */
+public enum CrawlPhase {
+    CONNECT("DNS/connect"),       // DNS lookup and TCP/TLS handshake, from Navigation Timing
+    NAVIGATE("Navigate"),         // Browser navigation, or the static fetch until response headers
+    DOM_READY("DOM ready"),       // Navigation start to DOMContentLoaded, browser only
+    LINK_EXTRACTION("Links"),     // Collecting links, title and structure from the loaded page
+    SCREENSHOT("Screenshot"),     // Capturing the viewport as JPEG, browser only
+    GROUPING("Grouping"),         // Canonicalizing, clustering and template-matching the links
+    LINK_CHECK("Link check"),     // HEAD or ranged GET of one link, redirects included
+    THUMBNAIL("Thumbnail"),       // Decoding, downscaling and storing one capture, off the crawl threads
+    UI_DISPATCH("UI dispatch");   // Applying one frame of events on the JavaFX thread
+
+    private final String label;
+
+    CrawlPhase(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Gets the display name of the phase.
+     *
+     * @return The label.
+     */
+    public String getLabel() {
+        return label;
+    }
+}
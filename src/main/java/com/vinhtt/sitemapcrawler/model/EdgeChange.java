@@ -0,0 +1,13 @@
+package com.vinhtt.sitemapcrawler.model;
+
+/**
+ * How an edge differs from the links the same page had in the previous crawl.
+ *
+ * @author vinhtt
+ * @version 1.1
+ */
+public enum EdgeChange {
+    UNCHANGED, // Present before, or the page had no previous record
+    ADDED,     // New since the previous crawl of the page
+    REMOVED    // Gone since the previous crawl of the page
+}
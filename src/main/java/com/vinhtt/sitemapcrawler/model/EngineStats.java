@@ -0,0 +1,111 @@
+package com.vinhtt.sitemapcrawler.model;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe counters describing how pages were split between the static
+ * HTTP fetcher and the browser engine during one crawl.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+public class EngineStats {
+
+    private final AtomicLong staticPages = new AtomicLong();
+    private final AtomicLong browserPages = new AtomicLong();
+    private final AtomicLong staticNanos = new AtomicLong();
+    private final AtomicLong browserNanos = new AtomicLong();
+    private final Map<String, AtomicLong> escalations = new ConcurrentHashMap<>();
+
+    /**
+     * Records time spent in the static fetcher, whether or not the page was served from it.
+     *
+     * @param nanos  The elapsed time in nanoseconds.
+     * @param served Whether the static result was used for the page.
+     */
+    public void recordStatic(long nanos, boolean served) {
+        staticNanos.addAndGet(nanos);
+        if (served) {
+            staticPages.incrementAndGet();
+        }
+    }
+
+    /**
+     * Records a page that was escalated to the browser engine.
+     *
+     * @param nanos  The time spent rendering in the browser, in nanoseconds.
+     * @param reason The heuristic that triggered the escalation.
+     */
+    public void recordBrowser(long nanos, String reason) {
+        browserNanos.addAndGet(nanos);
+        browserPages.incrementAndGet();
+        escalations.computeIfAbsent(reason, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Resets all counters at the start of a new crawl.
+     */
+    public void reset() {
+        staticPages.set(0);
+        browserPages.set(0);
+        staticNanos.set(0);
+        browserNanos.set(0);
+        escalations.clear();
+    }
+
+    /**
+     * Gets the number of pages served by the static fetcher.
+     *
+     * @return The static page count.
+     */
+    public long getStaticPages() {
+        return staticPages.get();
+    }
+
+    /**
+     * Gets the number of pages rendered by the browser.
+     *
+     * @return The browser page count.
+     */
+    public long getBrowserPages() {
+        return browserPages.get();
+    }
+
+    /**
+     * Gets the total time spent in the static fetcher.
+     *
+     * @return The elapsed time in milliseconds.
+     */
+    public long getStaticMillis() {
+        return staticNanos.get() / 1_000_000;
+    }
+
+    /**
+     * Gets the total time spent in the browser engine.
+     *
+     * @return The elapsed time in milliseconds.
+     */
+    public long getBrowserMillis() {
+        return browserNanos.get() / 1_000_000;
+    }
+
+    /**
+     * Gets a snapshot of the escalation count per heuristic reason.
+     *
+     * @return The escalation counts keyed by reason.
+     */
+    public Map<String, Long> getEscalations() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        escalations.forEach((reason, count) -> snapshot.put(reason, count.get()));
+        return snapshot;
+    }
+
+    @Override
+    public String toString() {
+        return "static " + getStaticPages() + " pages in " + getStaticMillis() + " ms, browser "
+                + getBrowserPages() + " pages in " + getBrowserMillis() + " ms " + getEscalations();
+    }
+}
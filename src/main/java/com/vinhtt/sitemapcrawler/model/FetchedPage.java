@@ -0,0 +1,200 @@
+package com.vinhtt.sitemapcrawler.model;
+
+import java.util.List;
+
+/**
+ * Represents the outcome of loading one page, independent of the engine that loaded it.
+ * Besides the extracted content it carries the HTTP validators and body hash that
+ * let the next crawl revalidate the page instead of loading it again.
+ *
+ * @author vinhtt
+ * @version 1.4
+ */
+public class FetchedPage {
+
+    private final String url;
+    private final String title;
+    private final List<PageLink> links;
+    private final int statusCode;
+    private final long structureHash;
+    private final PageTimings timings;
+    private final String etag;
+    private final String lastModified;
+    private final long contentHash;
+    private final boolean unchanged;
+
+    /**
+     * Constructs a new FetchedPage for a successful response.
+     *
+     * @param url   The requested URL of the page.
+     * @param title The page title, or null if the page has none.
+     * @param links The absolute links found on the page.
+     */
+    public FetchedPage(String url, String title, List<PageLink> links) {
+        this(url, title, links, 200, 0);
+    }
+
+    /**
+     * Constructs a new FetchedPage.
+     *
+     * @param url           The requested URL of the page.
+     * @param title         The page title, or null if the page has none.
+     * @param links         The absolute links found on the page.
+     * @param statusCode    The HTTP status of the final response.
+     * @param structureHash The SimHash of the page's DOM skeleton, or 0 if unknown.
+     */
+    public FetchedPage(String url, String title, List<PageLink> links, int statusCode, long structureHash) {
+        this(url, title, links, statusCode, structureHash, PageTimings.NONE);
+    }
+
+    /**
+     * Constructs a new FetchedPage with the timings of the engine that loaded it.
+     *
+     * @param url           The requested URL of the page.
+     * @param title         The page title, or null if the page has none.
+     * @param links         The absolute links found on the page.
+     * @param statusCode    The HTTP status of the final response.
+     * @param structureHash The SimHash of the page's DOM skeleton, or 0 if unknown.
+     * @param timings       The measured load phases.
+     */
+    public FetchedPage(String url, String title, List<PageLink> links, int statusCode, long structureHash,
+                       PageTimings timings) {
+        this(url, title, links, statusCode, structureHash, timings, null, null, 0, false);
+    }
+
+    private FetchedPage(String url, String title, List<PageLink> links, int statusCode, long structureHash,
+                        PageTimings timings, String etag, String lastModified, long contentHash, boolean unchanged) {
+        this.url = url;
+        this.title = title;
+        this.links = links;
+        this.statusCode = statusCode;
+        this.structureHash = structureHash;
+        this.timings = timings;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.contentHash = contentHash;
+        this.unchanged = unchanged;
+    }
+
+    /**
+     * Constructs the result of a revalidation that found the page unchanged since
+     * its previous crawl; the content is taken from the record of that crawl.
+     *
+     * @param record       The record of the previous crawl.
+     * @param timings      The measured revalidation phases.
+     * @param etag         The ETag of the revalidation response, or null to keep the recorded one.
+     * @param lastModified The Last-Modified header of the revalidation response, or null to keep the recorded one.
+     * @return The page.
+     */
+    public static FetchedPage unchanged(PageRecord record, PageTimings timings, String etag, String lastModified) {
+        return new FetchedPage(record.getUrl(), record.getTitle(), record.getLinks(), record.getStatusCode(),
+                record.getStructureHash(), timings,
+                etag != null ? etag : record.getEtag(),
+                lastModified != null ? lastModified : record.getLastModified(),
+                record.getContentHash(), true);
+    }
+
+    /**
+     * Returns a copy carrying the validators of the response the page was loaded from.
+     *
+     * @param etag         The ETag header, or null if none was sent.
+     * @param lastModified The Last-Modified header, or null if none was sent.
+     * @param contentHash  The 64-bit hash of the raw response body, or 0 if unknown.
+     * @return The new page.
+     */
+    public FetchedPage withValidators(String etag, String lastModified, long contentHash) {
+        return new FetchedPage(url, title, links, statusCode, structureHash, timings,
+                etag, lastModified, contentHash, unchanged);
+    }
+
+    /**
+     * Gets the requested URL of the page.
+     *
+     * @return The URL string.
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Gets the page title.
+     *
+     * @return The title, or null if the page has none.
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Gets the links found on the page.
+     *
+     * @return The absolute links in document order.
+     */
+    public List<PageLink> getLinks() {
+        return links;
+    }
+
+    /**
+     * Gets the HTTP status of the final response.
+     *
+     * @return The status code.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Gets the structural fingerprint used to cluster pages of the same template.
+     *
+     * @return The SimHash of the DOM skeleton, or 0 if unknown.
+     */
+    public long getStructureHash() {
+        return structureHash;
+    }
+
+    /**
+     * Gets the measured load phases.
+     *
+     * @return The timings, {@link PageTimings#NONE} if not measured.
+     */
+    public PageTimings getTimings() {
+        return timings;
+    }
+
+    /**
+     * Gets the ETag of the response.
+     *
+     * @return The ETag, or null if none was sent.
+     */
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * Gets the Last-Modified header of the response.
+     *
+     * @return The date as sent by the server, or null if none was sent.
+     */
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Gets the hash of the raw response body.
+     *
+     * @return The hash, or 0 if unknown.
+     */
+    public long getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Checks whether the page was found unchanged since its previous crawl and its
+     * content was reused instead of being extracted again.
+     *
+     * @return True if the page was revalidated.
+     */
+    public boolean isUnchanged() {
+        return unchanged;
+    }
+}
@@ -0,0 +1,53 @@
+package com.vinhtt.sitemapcrawler.model;
+
+import java.util.List;
+
+/**
+ * A coalesced set of graph changes delivered to the view in a single frame.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+public class GraphBatch {
+
+    private final List<SiteNode> nodes;
+    private final List<SiteEdge> edges;
+
+    /**
+     * Constructs a new GraphBatch.
+     *
+     * @param nodes The added or updated nodes, at most one per URL.
+     * @param edges The added edges, without duplicates.
+     */
+    public GraphBatch(List<SiteNode> nodes, List<SiteEdge> edges) {
+        this.nodes = nodes;
+        this.edges = edges;
+    }
+
+    /**
+     * Gets the added or updated nodes.
+     *
+     * @return The nodes of this batch.
+     */
+    public List<SiteNode> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Gets the added edges.
+     *
+     * @return The edges of this batch.
+     */
+    public List<SiteEdge> getEdges() {
+        return edges;
+    }
+
+    /**
+     * Checks whether the batch carries no change.
+     *
+     * @return True if there are neither nodes nor edges.
+     */
+    public boolean isEmpty() {
+        return nodes.isEmpty() && edges.isEmpty();
+    }
+}
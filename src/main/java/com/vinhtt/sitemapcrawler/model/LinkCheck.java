@@ -0,0 +1,118 @@
+package com.vinhtt.sitemapcrawler.model;
+
+import java.util.List;
+
+/**
+ * Immutable outcome of validating one link: the final status, the redirects that
+ * led to it and the time the whole chain took. A link is broken if no response
+ * could be read or the final status is 400 or above.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+public final class LinkCheck {
+
+    private final String url;
+    private final int statusCode;
+    private final List<String> redirects;
+    private final String method;
+    private final long latencyNanos;
+    private final String error;
+
+    /**
+     * Constructs a new LinkCheck.
+     *
+     * @param url          The checked URL.
+     * @param statusCode   The status of the last response, or 0 if none was read.
+     * @param redirects    The locations redirected to, in order; the last one answered with the status.
+     * @param method       The method of the last request, {@code HEAD} or {@code GET}.
+     * @param latencyNanos The time until the last response, redirects included, in nanoseconds.
+     * @param error        Why the check failed, or null if a final response was read.
+     */
+    public LinkCheck(String url, int statusCode, List<String> redirects, String method, long latencyNanos, String error) {
+        this.url = url;
+        this.statusCode = statusCode;
+        this.redirects = List.copyOf(redirects);
+        this.method = method;
+        this.latencyNanos = latencyNanos;
+        this.error = error;
+    }
+
+    /**
+     * Gets the checked URL.
+     *
+     * @return The URL as found on the page, canonicalized.
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Gets the status of the last response.
+     *
+     * @return The HTTP status code, or 0 if no response was read.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Gets the redirect chain.
+     *
+     * @return The locations redirected to, in order; empty if the link answered directly.
+     */
+    public List<String> getRedirects() {
+        return redirects;
+    }
+
+    /**
+     * Gets the method of the last request.
+     *
+     * @return {@code HEAD}, or {@code GET} if the server rejected HEAD.
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * Gets the time the check took.
+     *
+     * @return The time until the last response, redirects included, in nanoseconds.
+     */
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    /**
+     * Gets why the check failed.
+     *
+     * @return The error message, or null if a final response was read.
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Checks whether the link is broken.
+     *
+     * @return True if the check failed or the final status is 400 or above.
+     */
+    public boolean isBroken() {
+        return error != null || statusCode >= 400;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        if (error != null) {
+            text.append("failed: ").append(error);
+        } else {
+            text.append(statusCode).append(" via ").append(method);
+        }
+        if (!redirects.isEmpty()) {
+            text.append(" after ").append(redirects.size()).append(redirects.size() == 1 ? " redirect" : " redirects")
+                    .append(" to ").append(redirects.get(redirects.size() - 1));
+        }
+        return text.append(String.format(" in %.0f ms", latencyNanos / 1e6)).toString();
+    }
+}
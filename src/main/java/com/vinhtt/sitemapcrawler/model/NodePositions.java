@@ -0,0 +1,66 @@
+package com.vinhtt.sitemapcrawler.model;
+
+/**
+ * The layout positions of the nodes that moved since the previous frame, keyed by graph id.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+public class NodePositions {
+
+    private final int[] ids;
+    private final float[] xy;
+    private final int size;
+
+    /**
+     * Constructs a new NodePositions.
+     *
+     * @param ids  The graph ids of the moved nodes; only the first {@code size} are used.
+     * @param xy   Their interleaved x and y coordinates.
+     * @param size The number of moved nodes.
+     */
+    public NodePositions(int[] ids, float[] xy, int size) {
+        this.ids = ids;
+        this.xy = xy;
+        this.size = size;
+    }
+
+    /**
+     * Gets the number of moved nodes.
+     *
+     * @return The node count.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the graph id of a moved node.
+     *
+     * @param index The position in this frame, below {@link #size()}.
+     * @return The graph id.
+     */
+    public int getId(int index) {
+        return ids[index];
+    }
+
+    /**
+     * Gets the x coordinate of a moved node.
+     *
+     * @param index The position in this frame, below {@link #size()}.
+     * @return The x coordinate.
+     */
+    public float getX(int index) {
+        return xy[2 * index];
+    }
+
+    /**
+     * Gets the y coordinate of a moved node.
+     *
+     * @param index The position in this frame, below {@link #size()}.
+     * @return The y coordinate.
+     */
+    public float getY(int index) {
+        return xy[2 * index + 1];
+    }
+}
@@ -0,0 +1,47 @@
+package com.vinhtt.sitemapcrawler.model;
+
+/**
+ * Represents a hyperlink as extracted from a rendered page, before classification.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+public class PageLink {
+
+    private final String href;
+    private final String text;
+
+    /**
+     * Constructs a new PageLink.
+     *
+     * @param href The absolute URL the anchor points to.
+     * @param text The visible text of the anchor, possibly empty.
+     */
+    public PageLink(String href, String text) {
+        this.href = href;
+        this.text = text;
+    }
+
+    /**
+     * Gets the absolute URL of the link.
+     *
+     * @return The URL string.
+     */
+    public String getHref() {
+        return href;
+    }
+
+    /**
+     * Gets the visible anchor text.
+     *
+     * @return The trimmed anchor text.
+     */
+    public String getText() {
+        return text;
+    }
+
+    @Override
+    public String toString() {
+        return text + " (" + href + ")";
+    }
+}
@@ -0,0 +1,154 @@
+package com.vinhtt.sitemapcrawler.model;
+
+import java.util.List;
+
+/**
+ * What a previous crawl learned about one page: the HTTP validators and body hash
+ * used to revalidate it, and the extracted title, structure and links that are
+ * reused when it has not changed. The targets are the node URLs its edges pointed
+ * to, so the next crawl can tell which edges were added or removed.
+ *
+ * @author vinhtt
+ * @version 1.1
+ */
+public class PageRecord {
+
+    private final String url;
+    private final String etag;
+    private final String lastModified;
+    private final long contentHash;
+    private final int statusCode;
+    private final String title;
+    private final long structureHash;
+    private final List<PageLink> links;
+    private final List<String> targets;
+
+    /**
+     * Constructs a new PageRecord.
+     *
+     * @param url           The URL of the page.
+     * @param etag          The ETag of the response, or null if none was sent.
+     * @param lastModified  The Last-Modified header of the response, or null if none was sent.
+     * @param contentHash   The 64-bit hash of the raw response body, or 0 if unknown.
+     * @param statusCode    The HTTP status of the response.
+     * @param title         The page title, or null if the page has none.
+     * @param structureHash The SimHash of the page's DOM skeleton, or 0 if unknown.
+     * @param links         The links found on the page.
+     * @param targets       The URLs of the nodes the page's edges pointed to.
+     */
+    public PageRecord(String url, String etag, String lastModified, long contentHash, int statusCode,
+                      String title, long structureHash, List<PageLink> links, List<String> targets) {
+        this.url = url;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.contentHash = contentHash;
+        this.statusCode = statusCode;
+        this.title = title;
+        this.structureHash = structureHash;
+        this.links = links;
+        this.targets = targets;
+    }
+
+    /**
+     * Creates the record of a loaded page.
+     *
+     * @param url     The canonical URL the record is kept under, which may differ from the requested one.
+     * @param page    The loaded page.
+     * @param targets The URLs of the nodes its edges point to.
+     * @return The record.
+     */
+    public static PageRecord of(String url, FetchedPage page, List<String> targets) {
+        return new PageRecord(url, page.getEtag(), page.getLastModified(), page.getContentHash(),
+                page.getStatusCode(), page.getTitle(), page.getStructureHash(), page.getLinks(), targets);
+    }
+
+    /**
+     * Gets the URL of the page.
+     *
+     * @return The URL string.
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Gets the ETag to send as {@code If-None-Match}.
+     *
+     * @return The ETag, or null if none was sent.
+     */
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * Gets the date to send as {@code If-Modified-Since}.
+     *
+     * @return The Last-Modified value, or null if none was sent.
+     */
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Gets the hash of the raw response body.
+     *
+     * @return The hash, or 0 if unknown.
+     */
+    public long getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Checks whether the server can be asked for the page conditionally.
+     *
+     * @return True if an ETag or a Last-Modified date is known.
+     */
+    public boolean hasValidators() {
+        return etag != null || lastModified != null;
+    }
+
+    /**
+     * Gets the HTTP status of the response.
+     *
+     * @return The status code.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Gets the page title.
+     *
+     * @return The title, or null if the page has none.
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Gets the structural fingerprint of the page.
+     *
+     * @return The SimHash of the DOM skeleton, or 0 if unknown.
+     */
+    public long getStructureHash() {
+        return structureHash;
+    }
+
+    /**
+     * Gets the links found on the page.
+     *
+     * @return The links in document order.
+     */
+    public List<PageLink> getLinks() {
+        return links;
+    }
+
+    /**
+     * Gets the URLs of the nodes the page's edges pointed to.
+     *
+     * @return The edge targets.
+     */
+    public List<String> getTargets() {
+        return targets;
+    }
+}
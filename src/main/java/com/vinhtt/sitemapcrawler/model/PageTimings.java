@@ -0,0 +1,129 @@
+package com.vinhtt.sitemapcrawler.model;
+
+import java.util.Arrays;
+
+/**
+ * Immutable per-page timings, one value per {@link CrawlPhase}; phases that do not
+ * apply to the engine that loaded the page (e.g. DOM ready for a static fetch) are unset.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+public final class PageTimings {
+
+    private static final CrawlPhase[] PHASES = CrawlPhase.values();
+    private static final long UNSET = -1;
+
+    /**
+     * Timings with no phase set.
+     */
+    public static final PageTimings NONE = new PageTimings(null, 0);
+
+    private final String engine;
+    private final int statusCode;
+    private final long[] nanos;
+
+    private PageTimings(String engine, int statusCode) {
+        this.engine = engine;
+        this.statusCode = statusCode;
+        this.nanos = new long[PHASES.length];
+        Arrays.fill(nanos, UNSET);
+    }
+
+    private PageTimings(PageTimings source) {
+        this.engine = source.engine;
+        this.statusCode = source.statusCode;
+        this.nanos = source.nanos.clone();
+    }
+
+    /**
+     * Starts the timings of a page.
+     *
+     * @param engine     The engine that loaded the page, e.g. {@code "static"} or {@code "browser"}.
+     * @param statusCode The HTTP status code of the page.
+     * @return Timings with no phase set yet.
+     */
+    public static PageTimings of(String engine, int statusCode) {
+        return new PageTimings(engine, statusCode);
+    }
+
+    /**
+     * Returns a copy with one phase set.
+     *
+     * @param phase The phase.
+     * @param nanos The time spent in it, in nanoseconds; negative values leave it unset.
+     * @return The new timings.
+     */
+    public PageTimings with(CrawlPhase phase, long nanos) {
+        PageTimings copy = new PageTimings(this);
+        copy.nanos[phase.ordinal()] = nanos < 0 ? UNSET : nanos;
+        return copy;
+    }
+
+    /**
+     * Checks whether a phase was measured.
+     *
+     * @param phase The phase.
+     * @return True if the phase is set.
+     */
+    public boolean has(CrawlPhase phase) {
+        return nanos[phase.ordinal()] != UNSET;
+    }
+
+    /**
+     * Gets the time spent in a phase.
+     *
+     * @param phase The phase.
+     * @return The time in nanoseconds, or -1 if unset.
+     */
+    public long getNanos(CrawlPhase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    /**
+     * Gets the sum of all measured phases, which approximates the response time of the page (FR-11).
+     *
+     * @return The total in nanoseconds.
+     */
+    public long getTotalNanos() {
+        long total = 0;
+        for (CrawlPhase phase : PHASES) {
+            // DOM ready and connect overlap navigation; only count disjoint phases.
+            if (phase != CrawlPhase.DOM_READY && phase != CrawlPhase.CONNECT && has(phase)) {
+                total += nanos[phase.ordinal()];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Gets the engine that loaded the page.
+     *
+     * @return The engine name, or null for {@link #NONE}.
+     */
+    public String getEngine() {
+        return engine;
+    }
+
+    /**
+     * Gets the HTTP status code of the page.
+     *
+     * @return The status code, or 0 for {@link #NONE}.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append(engine).append(' ').append(statusCode)
+                .append(String.format(", %.1f ms", getTotalNanos() / 1e6));
+        for (CrawlPhase phase : PHASES) {
+            if (has(phase)) {
+                text.append(String.format("%n  %-12s %8.1f ms", phase.getLabel(), nanos[phase.ordinal()] / 1e6));
+            }
+        }
+        return text.toString();
+    }
+}
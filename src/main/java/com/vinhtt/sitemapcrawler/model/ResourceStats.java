@@ -0,0 +1,184 @@
+package com.vinhtt.sitemapcrawler.model;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe counters describing the network traffic of one crawl.
+ * Aborted requests are never downloaded, so their size is unknown; the bandwidth
+ * saved by a resource policy is the difference in transferred bytes between runs.
+ * Subresources served by the shared resource cache are counted as cache hits and
+ * are not part of the transferred bytes.
+ *
+ * @author vinhtt
+ * @version 1.1
+ */
+public class ResourceStats {
+
+    private final AtomicLong blockedRequests = new AtomicLong();
+    private final AtomicLong loadedRequests = new AtomicLong();
+    private final AtomicLong transferredBytes = new AtomicLong();
+    private final Map<String, AtomicLong> blockedByType = new ConcurrentHashMap<>();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheRevalidations = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+    private final AtomicLong cachedBytes = new AtomicLong();
+
+    /**
+     * Records a request that was aborted by the resource policy.
+     *
+     * @param resourceType The Playwright resource type of the request.
+     */
+    public void recordBlocked(String resourceType) {
+        blockedRequests.incrementAndGet();
+        blockedByType.computeIfAbsent(resourceType, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Records a response that was allowed through.
+     *
+     * @param bytes The declared body size, or a negative value if unknown.
+     */
+    public void recordLoaded(long bytes) {
+        loadedRequests.incrementAndGet();
+        if (bytes > 0) {
+            transferredBytes.addAndGet(bytes);
+        }
+    }
+
+    /**
+     * Records a subresource served from the cache without contacting the server.
+     *
+     * @param bytes The size of the served body.
+     */
+    public void recordCacheHit(long bytes) {
+        cacheHits.incrementAndGet();
+        cachedBytes.addAndGet(bytes);
+    }
+
+    /**
+     * Records a subresource served from the cache after the server answered 304.
+     *
+     * @param bytes The size of the served body.
+     */
+    public void recordCacheRevalidated(long bytes) {
+        cacheRevalidations.incrementAndGet();
+        cachedBytes.addAndGet(bytes);
+    }
+
+    /**
+     * Records a cacheable subresource that had to be downloaded.
+     */
+    public void recordCacheMiss() {
+        cacheMisses.incrementAndGet();
+    }
+
+    /**
+     * Resets all counters at the start of a new crawl.
+     */
+    public void reset() {
+        blockedRequests.set(0);
+        loadedRequests.set(0);
+        transferredBytes.set(0);
+        blockedByType.clear();
+        cacheHits.set(0);
+        cacheRevalidations.set(0);
+        cacheMisses.set(0);
+        cachedBytes.set(0);
+    }
+
+    /**
+     * Gets the number of aborted requests.
+     *
+     * @return The blocked request count.
+     */
+    public long getBlockedRequests() {
+        return blockedRequests.get();
+    }
+
+    /**
+     * Gets the number of responses that were allowed through.
+     *
+     * @return The loaded request count.
+     */
+    public long getLoadedRequests() {
+        return loadedRequests.get();
+    }
+
+    /**
+     * Gets the sum of declared Content-Length of all allowed responses.
+     *
+     * @return The transferred bytes.
+     */
+    public long getTransferredBytes() {
+        return transferredBytes.get();
+    }
+
+    /**
+     * Gets a snapshot of the blocked request count per resource type.
+     *
+     * @return The blocked counts keyed by resource type.
+     */
+    public Map<String, Long> getBlockedByType() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        blockedByType.forEach((type, count) -> snapshot.put(type, count.get()));
+        return snapshot;
+    }
+
+    /**
+     * Gets the number of subresources served from the cache, with or without revalidation.
+     *
+     * @return The cache hit count.
+     */
+    public long getCacheHits() {
+        return cacheHits.get() + cacheRevalidations.get();
+    }
+
+    /**
+     * Gets the number of cache hits that needed a conditional request.
+     *
+     * @return The revalidation count.
+     */
+    public long getCacheRevalidations() {
+        return cacheRevalidations.get();
+    }
+
+    /**
+     * Gets the number of cacheable subresources that were downloaded.
+     *
+     * @return The cache miss count.
+     */
+    public long getCacheMisses() {
+        return cacheMisses.get();
+    }
+
+    /**
+     * Gets the body bytes served from the cache instead of the network.
+     *
+     * @return The cached bytes.
+     */
+    public long getCachedBytes() {
+        return cachedBytes.get();
+    }
+
+    /**
+     * Gets the share of cacheable subresources served from the cache.
+     *
+     * @return The hit rate between 0 and 1, or 0 if nothing cacheable was requested.
+     */
+    public double getCacheHitRate() {
+        long hits = getCacheHits();
+        long total = hits + getCacheMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return "blocked " + getBlockedRequests() + " " + getBlockedByType()
+                + ", loaded " + getLoadedRequests() + " (" + getTransferredBytes() / 1024 + " KB)"
+                + String.format(", cache %d hits (%d revalidated) / %d misses, %.0f%% hit rate, %d KB served",
+                getCacheHits(), getCacheRevalidations(), getCacheMisses(), getCacheHitRate() * 100, getCachedBytes() / 1024);
+    }
+}
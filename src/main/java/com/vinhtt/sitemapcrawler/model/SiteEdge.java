@@ -0,0 +1,87 @@
+package com.vinhtt.sitemapcrawler.model;
+
+import java.util.Objects;
+
+/**
+ * Represents a directed hyperlink (edge) between two nodes of the site map graph.
+ * An edge found by a recrawl also tells whether it was added or removed since the
+ * previous crawl of its source page; two edges are equal if they connect the same nodes.
+ *
+ * @author vinhtt
+ * @version 1.2
+ */
+public class SiteEdge {
+
+    private final String source;
+    private final String target;
+    private final EdgeChange change;
+
+    /**
+     * Constructs a new SiteEdge.
+     *
+     * @param source The URL (id) of the linking node.
+     * @param target The URL (id) of the linked node.
+     */
+    public SiteEdge(String source, String target) {
+        this(source, target, EdgeChange.UNCHANGED);
+    }
+
+    /**
+     * Constructs a new SiteEdge with its change since the previous crawl.
+     *
+     * @param source The URL (id) of the linking node.
+     * @param target The URL (id) of the linked node.
+     * @param change How the edge differs from the previous crawl.
+     */
+    public SiteEdge(String source, String target, EdgeChange change) {
+        this.source = source;
+        this.target = target;
+        this.change = change;
+    }
+
+    /**
+     * Gets the URL of the linking node.
+     *
+     * @return The source id.
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Gets the URL of the linked node.
+     *
+     * @return The target id.
+     */
+    public String getTarget() {
+        return target;
+    }
+
+    /**
+     * Gets how the edge differs from the previous crawl of its source page.
+     *
+     * @return The change.
+     */
+    public EdgeChange getChange() {
+        return change;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SiteEdge siteEdge = (SiteEdge) o;
+        return Objects.equals(source, siteEdge.source) && Objects.equals(target, siteEdge.target);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(source, target);
+    }
+
+    @Override
+    public String toString() {
+        String edge = source + " -> " + target;
+        return change == EdgeChange.UNCHANGED ? edge : edge + " (" + change + ")";
+    }
+}
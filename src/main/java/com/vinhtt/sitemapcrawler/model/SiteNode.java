@@ -6,13 +6,14 @@ import java.util.Objects;
  * Represents a single web page (vertex) in the site map graph.
  *
  * @author vinhtt
- * @version 1.0
+ * @version 1.1
  */
 public class SiteNode {
 
     private final String url;
     private final String title;
     private final NodeType type;
+    private final PageTimings timings;
 
     /**
      * Constructs a new SiteNode.
@@ -22,9 +23,22 @@ public class SiteNode {
      * @param type  The classification of the node.
      */
     public SiteNode(String url, String title, NodeType type) {
+        this(url, title, type, null);
+    }
+
+    /**
+     * Constructs a new SiteNode for a loaded page.
+     *
+     * @param url     The absolute URL of the page.
+     * @param title   The title of the page.
+     * @param type    The classification of the node.
+     * @param timings The measured load phases, or null if the page was not loaded.
+     */
+    public SiteNode(String url, String title, NodeType type, PageTimings timings) {
         this.url = url;
         this.title = title;
         this.type = type;
+        this.timings = timings;
     }
 
     /**
@@ -54,6 +68,15 @@ public class SiteNode {
         return type;
     }
 
+    /**
+     * Gets the load timings of the page.
+     *
+     * @return The timings, or null if the page was not loaded.
+     */
+    public PageTimings getTimings() {
+        return timings;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
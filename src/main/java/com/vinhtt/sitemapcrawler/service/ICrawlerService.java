@@ -1,36 +1,107 @@
 package com.vinhtt.sitemapcrawler.service;
 
-import com.vinhtt.sitemapcrawler.model.SiteNode;
-import java.util.function.Consumer;
+import com.vinhtt.sitemapcrawler.model.CrawlEvent;
+import com.vinhtt.sitemapcrawler.model.CrawlMetrics;
+import com.vinhtt.sitemapcrawler.model.ResourceStats;
+import java.util.concurrent.Flow;
 
 /**
  * Interface defining the contract for the web crawling engine.
+ * Crawls report their progress as {@link CrawlEvent}s through {@link #events()}.
+ * The publisher is hot and shared by all crawls of the service, so subscribers
+ * should subscribe before starting a crawl.
  *
  * @author vinhtt
- * @version 1.5
+ * @version 3.1
  */
 public interface ICrawlerService {
 
+    /**
+     * Gets the publisher of the events of every crawl of this service. Each subscriber
+     * has its own bounded buffer and receives events only as it requests them; while
+     * any subscriber's buffer is full, crawler threads wait instead of queueing more.
+     * Subscribers are called on a thread of the service, never on a crawler thread.
+     *
+     * @return The event publisher.
+     */
+    Flow.Publisher<CrawlEvent> events();
+
     /**
      * Crawls a SINGLE page (no recursion).
+     * Ends with a {@link CrawlEvent.CrawlCompleted} for the URL.
+     *
+     * @param url The URL to crawl.
+     */
+    void crawlSinglePage(String url);
+
+    /**
+     * Crawls a whole site breadth-first, starting at the root URL and following
+     * internal links until the depth limit is reached or the frontier is exhausted.
+     * If a previous crawl of the same root was stopped, it is resumed where it left off.
+     * Ends with a {@link CrawlEvent.CrawlCompleted} once the frontier is exhausted or the crawl is stopped.
+     *
+     * @param rootUrl    The URL the crawl starts from (depth 0).
+     * @param maxDepth   The maximum link distance from the root that is still visited.
+     * @param maxWorkers The number of pages rendered concurrently.
+     * @param timeoutMs  The navigation timeout per page, in milliseconds.
+     */
+    void crawlSite(String rootUrl, int maxDepth, int maxWorkers, int timeoutMs);
+
+    /**
+     * Checks whether a stopped site crawl of the root URL left work that can be resumed.
+     *
+     * @param rootUrl The root URL of the crawl.
+     * @return True if {@link #crawlSite} would resume instead of starting over.
+     */
+    boolean hasResumableCrawl(String rootUrl);
+
+    /**
+     * Deletes the persisted state of a stopped site crawl, so the next crawl starts over.
+     *
+     * @param rootUrl The root URL of the crawl.
+     */
+    void discardCrawl(String rootUrl);
+
+    /**
+     * Gets the throughput of the current (or last) site crawl.
+     *
+     * @return The number of visited pages per second, or 0 if no crawl has run.
+     */
+    double getPagesPerSecond();
+
+    /**
+     * Gets the network counters of the current (or last) crawl, including
+     * requests aborted by the resource policy.
+     *
+     * @return The live resource statistics.
+     */
+    ResourceStats getResourceStats();
+
+    /**
+     * Gets the per-phase latency histograms and page, link and error counters of the
+     * current (or last) site crawl; single-page scans add to them.
+     *
+     * @return The live crawl metrics.
+     */
+    CrawlMetrics getCrawlMetrics();
+
+    /**
+     * Reads the thumbnail captured of a page, if thumbnail capture is enabled.
+     * May touch the disk, so it should not be called on the JavaFX thread.
      *
-     * @param url          The URL to crawl.
-     * @param onNodeAdded  Callback when a node (link) is found.
-     * @param onEdgeAdded  Callback when a connection is found.
-     * @param onFinished   Callback when the single page crawl is done.
+     * @param url The page URL.
+     * @return The JPEG thumbnail, or null if none was captured.
      */
-    void crawlSinglePage(String url,
-                         Consumer<SiteNode> onNodeAdded,
-                         Consumer<String> onEdgeAdded,
-                         Runnable onFinished);
+    byte[] getThumbnail(String url);
 
     /**
-     * Stops the current crawling process.
+     * Stops the current crawling process. A site crawl keeps its persisted state
+     * and can be resumed later.
      */
     void stop();
 
     /**
-     * Cleans up browser resources.
+     * Cleans up browser resources and completes the event publisher.
      */
     void cleanup();
 }
\ No newline at end of file
@@ -0,0 +1,428 @@
+package com.vinhtt.sitemapcrawler.service.cache;
+
+import com.vinhtt.sitemapcrawler.service.recrawl.HashingInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed disk cache of subresources (scripts, stylesheets) shared by
+ * every browser context and kept across runs. Bodies are stored once per content
+ * hash under {@code blobs/}, so the same bundle served under several URLs takes
+ * the space of one; the URL index is kept in access order and snapshotted to
+ * {@code index.bin} on {@link #checkpoint()} and {@link #close()}. When the unique
+ * bodies exceed the size limit, the least recently used URLs are evicted.
+ * <p>
+ * Freshness follows the response's {@code Cache-Control: max-age} (less its
+ * {@code Age}), then {@code Expires}, then 10% of the time since {@code Last-Modified}
+ * capped at a day. {@code no-store} and {@code Vary: *} responses are not stored;
+ * stale and {@code no-cache} entries are kept if they have a validator, so the
+ * caller can revalidate them with a conditional request.
+ *
+ * @author vinhtt
+ * @version 1.1
+ */
+public final class DiskResourceCache implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DiskResourceCache.class);
+
+    private static final String INDEX_FILE = "index.bin";
+    private static final String BLOB_DIRECTORY = "blobs";
+    private static final int INDEX_MAGIC = 0x534d5243;
+    private static final long MAX_HEURISTIC_MILLIS = 24L * 60 * 60 * 1000;
+    private static final int MAX_URL_LENGTH = 8192;
+
+    /**
+     * A cached response of one URL.
+     *
+     * @param url          The request URL.
+     * @param blobHash     The content hash naming the stored body.
+     * @param size         The body size in bytes.
+     * @param expiresAt    The epoch millisecond until which the entry may be served without revalidation.
+     * @param contentType  The Content-Type header, or null.
+     * @param etag         The ETag header, or null.
+     * @param lastModified The Last-Modified header, or null.
+     */
+    public record Entry(String url, long blobHash, int size, long expiresAt,
+                        String contentType, String etag, String lastModified) {
+
+        /**
+         * Checks whether the entry may be served without asking the server.
+         *
+         * @param now The current epoch millisecond.
+         * @return True if the entry is fresh.
+         */
+        public boolean isFresh(long now) {
+            return now < expiresAt;
+        }
+
+        /**
+         * Checks whether the entry can be revalidated with a conditional request.
+         *
+         * @return True if an ETag or a Last-Modified date is known.
+         */
+        public boolean hasValidators() {
+            return etag != null || lastModified != null;
+        }
+    }
+
+    private static final class Blob {
+        private final long size;
+        private int references;
+
+        private Blob(long size) {
+            this.size = size;
+        }
+    }
+
+    private final Path directory;
+    private final Path blobs;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<Long, Blob> blobRefs = new HashMap<>();
+    private long totalBytes;
+
+    private DiskResourceCache(Path directory, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.blobs = directory.resolve(BLOB_DIRECTORY);
+        this.maxBytes = maxBytes;
+        Files.createDirectories(blobs);
+        loadIndex();
+        deleteOrphanedBlobs();
+    }
+
+    /**
+     * Opens the cache stored in a directory, creating an empty one if none exists.
+     *
+     * @param directory The cache directory.
+     * @param maxBytes  The total body size above which entries are evicted.
+     * @return The opened cache.
+     * @throws UncheckedIOException If the directory cannot be created or read.
+     */
+    public static DiskResourceCache open(Path directory, long maxBytes) {
+        try {
+            return new DiskResourceCache(directory, maxBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open resource cache in " + directory, e);
+        }
+    }
+
+    /**
+     * Looks up the entry of a URL and marks it as recently used.
+     *
+     * @param url The request URL.
+     * @return The entry, fresh or stale, or null if the URL is not cached.
+     */
+    public synchronized Entry lookup(String url) {
+        return entries.get(url);
+    }
+
+    /**
+     * Reads the body of an entry.
+     *
+     * @param entry The entry returned by {@link #lookup(String)}.
+     * @return The body, or null if it was evicted in the meantime.
+     * @throws UncheckedIOException If the body cannot be read.
+     */
+    public byte[] read(Entry entry) {
+        try {
+            return Files.readAllBytes(blobPath(entry.blobHash()));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read cached " + entry.url(), e);
+        }
+    }
+
+    /**
+     * Stores a response if its headers allow it.
+     *
+     * @param url     The request URL.
+     * @param status  The HTTP status of the response.
+     * @param headers The response headers, with lower-case names.
+     * @param body    The decoded response body.
+     * @param now     The current epoch millisecond.
+     * @return The new entry, or null if the response is not cacheable.
+     * @throws UncheckedIOException If the body cannot be written.
+     */
+    public Entry store(String url, int status, Map<String, String> headers, byte[] body, long now) {
+        Map<String, String> directives = cacheControl(headers);
+        String etag = headers.get("etag");
+        String lastModified = headers.get("last-modified");
+        boolean validators = etag != null || lastModified != null;
+        if (status != 200 || url.length() > MAX_URL_LENGTH || directives.containsKey("no-store") || "*".equals(headers.get("vary"))
+                || body.length > maxBytes / 8) {
+            return null;
+        }
+        long expiresAt = directives.containsKey("no-cache") ? now : now + freshnessLifetime(headers, directives, now);
+        if (expiresAt <= now && !validators) {
+            return null;
+        }
+        Entry entry = new Entry(url, HashingInputStream.hash(body), body.length, expiresAt,
+                headers.get("content-type"), etag, lastModified);
+        synchronized (this) {
+            try {
+                Blob blob = blobRefs.get(entry.blobHash());
+                if (blob == null) {
+                    Path target = blobPath(entry.blobHash());
+                    Path staging = target.resolveSibling(target.getFileName() + ".tmp");
+                    Files.write(staging, body);
+                    Files.move(staging, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    blob = new Blob(body.length);
+                    blobRefs.put(entry.blobHash(), blob);
+                    totalBytes += body.length;
+                }
+                blob.references++;
+                Entry replaced = entries.put(url, entry);
+                if (replaced != null) {
+                    release(replaced);
+                }
+                evict();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot cache " + url, e);
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Renews an entry after the server confirmed it with a 304 response.
+     *
+     * @param entry   The revalidated entry.
+     * @param headers The headers of the 304 response, with lower-case names.
+     * @param now     The current epoch millisecond.
+     * @return The renewed entry.
+     */
+    public synchronized Entry refresh(Entry entry, Map<String, String> headers, long now) {
+        Map<String, String> directives = cacheControl(headers);
+        long expiresAt = directives.containsKey("no-cache") ? now : now + freshnessLifetime(headers, directives, now);
+        Entry renewed = new Entry(entry.url(), entry.blobHash(), entry.size(), expiresAt, entry.contentType(),
+                headers.getOrDefault("etag", entry.etag()), headers.getOrDefault("last-modified", entry.lastModified()));
+        if (entries.replace(entry.url(), entry, renewed)) {
+            return renewed;
+        }
+        return entry;
+    }
+
+    /**
+     * Gets the number of cached URLs.
+     *
+     * @return The entry count.
+     */
+    public synchronized int entryCount() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the total size of the stored bodies, counting shared bodies once.
+     *
+     * @return The cache size in bytes.
+     */
+    public synchronized long sizeBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Writes the index to disk, so the cache survives a restart.
+     *
+     * @throws UncheckedIOException If the index cannot be written.
+     */
+    public synchronized void checkpoint() {
+        Path staging = directory.resolve(INDEX_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(staging)))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(entries.size());
+            for (Entry entry : entries.values()) {
+                out.writeUTF(entry.url());
+                out.writeLong(entry.blobHash());
+                out.writeInt(entry.size());
+                out.writeLong(entry.expiresAt());
+                writeNullable(out, entry.contentType());
+                writeNullable(out, entry.etag());
+                writeNullable(out, entry.lastModified());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write resource cache index in " + directory, e);
+        }
+        try {
+            Files.move(staging, directory.resolve(INDEX_FILE), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write resource cache index in " + directory, e);
+        }
+    }
+
+    /**
+     * Writes the index to disk.
+     */
+    @Override
+    public void close() {
+        checkpoint();
+    }
+
+    /**
+     * Computes how long a response stays fresh after it was received.
+     */
+    private static long freshnessLifetime(Map<String, String> headers, Map<String, String> directives, long now) {
+        String maxAge = directives.get("max-age");
+        if (maxAge != null) {
+            try {
+                long age = parseLong(headers.get("age"));
+                return Math.max(0, Long.parseLong(maxAge) - age) * 1000;
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        long date = parseDate(headers.get("date"), now);
+        String expires = headers.get("expires");
+        if (expires != null) {
+            return Math.max(0, parseDate(expires, date) - date);
+        }
+        long modified = parseDate(headers.get("last-modified"), 0);
+        if (modified > 0) {
+            return Math.min(MAX_HEURISTIC_MILLIS, Math.max(0, (date - modified) / 10));
+        }
+        return 0;
+    }
+
+    private static Map<String, String> cacheControl(Map<String, String> headers) {
+        String value = headers.get("cache-control");
+        if (value == null) {
+            return Map.of();
+        }
+        Map<String, String> directives = new HashMap<>();
+        for (String part : value.split(",")) {
+            String directive = part.trim().toLowerCase(Locale.ROOT);
+            int equals = directive.indexOf('=');
+            if (equals < 0) {
+                directives.put(directive, "");
+            } else {
+                directives.put(directive.substring(0, equals).trim(), directive.substring(equals + 1).trim().replace("\"", ""));
+            }
+        }
+        return directives;
+    }
+
+    private static long parseLong(String value) {
+        return value == null ? 0 : Long.parseLong(value.trim());
+    }
+
+    private static long parseDate(String value, long fallback) {
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            // An invalid Expires falls back to the response date, i.e. "already expired".
+            return fallback;
+        }
+    }
+
+    private void evict() throws IOException {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Entry entry = eldest.next();
+            eldest.remove();
+            release(entry);
+        }
+    }
+
+    private void release(Entry entry) throws IOException {
+        Blob blob = blobRefs.get(entry.blobHash());
+        if (blob != null && --blob.references <= 0) {
+            blobRefs.remove(entry.blobHash());
+            totalBytes -= blob.size;
+            Files.deleteIfExists(blobPath(entry.blobHash()));
+        }
+    }
+
+    private void loadIndex() throws IOException {
+        Path index = directory.resolve(INDEX_FILE);
+        if (!Files.isRegularFile(index)) {
+            return;
+        }
+        List<Entry> loaded = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(index)))) {
+            if (in.readInt() != INDEX_MAGIC) {
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                loaded.add(new Entry(in.readUTF(), in.readLong(), in.readInt(), in.readLong(),
+                        readNullable(in), readNullable(in), readNullable(in)));
+            }
+        } catch (IOException e) {
+            LOG.warn("Discarding unreadable resource cache index: {}", e.getMessage());
+            loaded.clear();
+        }
+        for (Entry entry : loaded) {
+            Blob blob = blobRefs.get(entry.blobHash());
+            if (blob == null) {
+                if (!Files.isRegularFile(blobPath(entry.blobHash()))) {
+                    continue;
+                }
+                blob = new Blob(entry.size());
+                blobRefs.put(entry.blobHash(), blob);
+                totalBytes += entry.size();
+            }
+            blob.references++;
+            entries.put(entry.url(), entry);
+        }
+        evict();
+    }
+
+    /**
+     * Deletes bodies that no index entry refers to, e.g. after a crash before the last checkpoint.
+     */
+    private void deleteOrphanedBlobs() throws IOException {
+        Set<String> live = new HashSet<>();
+        for (Long hash : blobRefs.keySet()) {
+            live.add(blobPath(hash).getFileName().toString());
+        }
+        try (Stream<Path> files = Files.list(blobs)) {
+            for (Path file : files.toList()) {
+                if (!live.contains(file.getFileName().toString())) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private Path blobPath(long hash) {
+        return blobs.resolve(String.format("%016x", hash));
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,68 @@
+package com.vinhtt.sitemapcrawler.service.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+/**
+ * 64-bit SimHash (Charikar, 2002) over a set of string features. Documents that
+ * share most features get fingerprints with a small Hamming distance, so
+ * near-duplicate detection reduces to comparing two longs.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+public final class SimHash {
+
+    private SimHash() {
+    }
+
+    /**
+     * Computes the fingerprint of a feature set. Each feature has weight one.
+     *
+     * @param features The distinct features of a document.
+     * @return The fingerprint, or 0 if there are no features.
+     */
+    public static long of(Collection<String> features) {
+        if (features.isEmpty()) {
+            return 0;
+        }
+        int[] votes = new int[Long.SIZE];
+        for (String feature : features) {
+            long hash = hash(feature);
+            for (int bit = 0; bit < Long.SIZE; bit++) {
+                votes[bit] += ((hash >>> bit) & 1) != 0 ? 1 : -1;
+            }
+        }
+        long fingerprint = 0;
+        for (int bit = 0; bit < Long.SIZE; bit++) {
+            if (votes[bit] > 0) {
+                fingerprint |= 1L << bit;
+            }
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Counts the differing bits of two fingerprints.
+     *
+     * @param a The first fingerprint.
+     * @param b The second fingerprint.
+     * @return The Hamming distance, between 0 and 64.
+     */
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    private static long hash(String feature) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : feature.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+}
@@ -0,0 +1,179 @@
+package com.vinhtt.sitemapcrawler.service.cluster;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming clustering of pages by the SimHash of their DOM skeleton (FR-07).
+ * Fingerprints are split into {@code maxDistance + 1} bands that are indexed
+ * exactly, so by the pigeonhole principle any cluster within the distance
+ * threshold shares at least one band and is found with a few hash lookups,
+ * regardless of how many clusters exist.
+ * <p>
+ * Each cluster counts its members per URL directory. Once a directory holds
+ * {@code sampleSize} members of one cluster and that cluster dominates the
+ * directory, the directory is considered a list of same-template pages: further
+ * URLs in it are reported by {@link #groupOf(String)} and need not be rendered.
+ * The site root is never grouped. All methods are thread-safe.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+public final class StructureClusterIndex {
+
+    private static final double DOMINANCE = 0.9;
+
+    private final int maxDistance;
+    private final int sampleSize;
+    private final int bands;
+    private final int bandBits;
+    private final long bandMask;
+    private final List<Cluster> clusters = new ArrayList<>();
+    private final Map<Long, List<Cluster>> bandIndex = new HashMap<>();
+    private final Map<String, Integer> pagesPerDirectory = new HashMap<>();
+    private final Map<String, Integer> groupedDirectories = new HashMap<>();
+
+    /**
+     * Constructs an empty index.
+     *
+     * @param maxDistance The largest Hamming distance at which two pages share a cluster.
+     * @param sampleSize  The number of members per directory that are rendered before the directory is grouped.
+     * @throws IllegalArgumentException If a parameter is out of range.
+     */
+    public StructureClusterIndex(int maxDistance, int sampleSize) {
+        if (maxDistance < 0 || maxDistance > 31 || sampleSize <= 0) {
+            throw new IllegalArgumentException("maxDistance must be in [0, 31] and sampleSize positive");
+        }
+        this.maxDistance = maxDistance;
+        this.sampleSize = sampleSize;
+        this.bands = maxDistance + 1;
+        this.bandBits = Long.SIZE / bands;
+        this.bandMask = bandBits == Long.SIZE ? -1L : (1L << bandBits) - 1;
+    }
+
+    /**
+     * Adds a rendered page to its nearest cluster, creating a new cluster if none is close enough.
+     *
+     * @param url         The canonical URL of the page.
+     * @param fingerprint The structural SimHash of the page; 0 is ignored.
+     * @return The cluster id, or -1 if the fingerprint is unknown.
+     */
+    public synchronized int assign(String url, long fingerprint) {
+        if (fingerprint == 0) {
+            return -1;
+        }
+        Cluster cluster = nearest(fingerprint);
+        if (cluster == null) {
+            cluster = new Cluster(clusters.size(), fingerprint);
+            clusters.add(cluster);
+            for (int band = 0; band < bands; band++) {
+                bandIndex.computeIfAbsent(bandKey(band, fingerprint), key -> new ArrayList<>(1)).add(cluster);
+            }
+        }
+
+        String directory = directoryOf(url);
+        if (directory != null) {
+            int total = pagesPerDirectory.merge(directory, 1, Integer::sum);
+            int members = cluster.membersPerDirectory.merge(directory, 1, Integer::sum);
+            if (members >= sampleSize && members >= total * DOMINANCE) {
+                groupedDirectories.putIfAbsent(directory, cluster.id);
+            }
+        }
+        return cluster.id;
+    }
+
+    /**
+     * Gets the group a URL belongs to without rendering it.
+     *
+     * @param url The canonical URL.
+     * @return The directory URL of the group, or null if the URL's directory is not grouped.
+     */
+    public synchronized String groupOf(String url) {
+        String directory = directoryOf(url);
+        return directory != null && groupedDirectories.containsKey(directory) ? directory : null;
+    }
+
+    /**
+     * Gets the number of distinct page structures seen.
+     *
+     * @return The cluster count.
+     */
+    public synchronized int clusterCount() {
+        return clusters.size();
+    }
+
+    /**
+     * Forgets all clusters and groups.
+     */
+    public synchronized void clear() {
+        clusters.clear();
+        bandIndex.clear();
+        pagesPerDirectory.clear();
+        groupedDirectories.clear();
+    }
+
+    private Cluster nearest(long fingerprint) {
+        Cluster best = null;
+        int bestDistance = maxDistance + 1;
+        for (int band = 0; band < bands; band++) {
+            List<Cluster> candidates = bandIndex.get(bandKey(band, fingerprint));
+            if (candidates == null) continue;
+            for (Cluster candidate : candidates) {
+                int distance = SimHash.distance(candidate.fingerprint, fingerprint);
+                if (distance < bestDistance) {
+                    best = candidate;
+                    bestDistance = distance;
+                }
+            }
+        }
+        return best;
+    }
+
+    private long bandKey(int band, long fingerprint) {
+        return ((long) band << 32) | ((fingerprint >>> (band * bandBits)) & bandMask & 0xffffffffL);
+    }
+
+    /**
+     * Maps a URL to the listing it is a member of: its parent directory, or the
+     * page itself for query-addressed items such as {@code item.php?id=7}.
+     *
+     * @return The directory URL, or null for pages directly below the site root.
+     */
+    static String directoryOf(String url) {
+        try {
+            URI uri = new URI(url);
+            String path = uri.getRawPath();
+            if (path == null || path.isEmpty() || uri.getHost() == null) {
+                return null;
+            }
+            String origin = uri.getScheme() + "://" + uri.getRawAuthority();
+            if (uri.getRawQuery() != null) {
+                return origin + path + "?";
+            }
+            String trimmed = path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+            int slash = trimmed.lastIndexOf('/');
+            return slash > 0 ? origin + trimmed.substring(0, slash + 1) : null;
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Pages whose skeleton is within the distance threshold of the first member.
+     */
+    private static final class Cluster {
+
+        private final int id;
+        private final long fingerprint;
+        private final Map<String, Integer> membersPerDirectory = new HashMap<>();
+
+        Cluster(int id, long fingerprint) {
+            this.id = id;
+            this.fingerprint = fingerprint;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.vinhtt.sitemapcrawler.service.cluster;
+
+import com.vinhtt.sitemapcrawler.service.frontier.DiskSeenSet;
+import com.vinhtt.sitemapcrawler.service.frontier.ScalableBloomFilter;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Learns URL templates such as {@code /product/{num}} or {@code /blog/{year}/{month}/{slug}}
+ * online from the URLs a crawl discovers, without loading any page. Each origin has
+ * a trie of path segments. Segments that look like numbers, dates, UUIDs, hashes or
+ * slugs are replaced by typed placeholders, and once a position has more than
+ * {@code cardinalityThreshold} distinct literal values, further values share a
+ * {@code {var}} placeholder; the first segment below the origin never does, so top-level
+ * sections stay apart. Query strings become one segment made of their parameter names.
+ * <p>
+ * The first {@code sampleSize} distinct members of a template with a placeholder form
+ * its sample and are crawled; later members are reported as outside the sample so the
+ * crawler can collapse them into one group node instead of queueing them. Member
+ * counts use striped {@link LongAdder}s, and distinct URLs are told apart by a shared
+ * Bloom filter, so counts may fall short by its false-positive rate. All methods are
+ * thread-safe.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+public final class UrlTemplateTrie {
+
+    private static final String VARIABLE = "{var}";
+    private static final Pattern NUMBER = Pattern.compile("\\d+");
+    private static final Pattern YEAR = Pattern.compile("(19|20)\\d{2}");
+    private static final Pattern DATE = Pattern.compile("\\d{4}-\\d{1,2}(-\\d{1,2})?");
+    private static final Pattern UUID = Pattern.compile("[0-9a-fA-F]{8}(-[0-9a-fA-F]{4}){3}-[0-9a-fA-F]{12}");
+    private static final Pattern HASH = Pattern.compile("(?=.*\\d)(?=.*[A-Za-z])[A-Za-z0-9_-]{16,}");
+    private static final Pattern SLUG = Pattern.compile("[a-zA-Z0-9]+([-_][a-zA-Z0-9]+){2,}");
+    private static final Pattern EXTENSION = Pattern.compile("(.+)(\\.[A-Za-z0-9]{1,5})");
+    private static final double DISTINCT_FALSE_POSITIVE_RATE = 0.001;
+    private static final int DISTINCT_INITIAL_CAPACITY = 1 << 14;
+    private static final long DISTINCT_MAX_BYTES = 16L * 1024 * 1024;
+
+    private final int sampleSize;
+    private final int cardinalityThreshold;
+    private final Map<String, Node> roots = new ConcurrentHashMap<>();
+    private ScalableBloomFilter distinct = newDistinctFilter();
+
+    /**
+     * The template a URL belongs to.
+     *
+     * @param templateUrl The origin followed by the template pattern, usable as a group node id.
+     * @param pattern     The path template, e.g. {@code /product/{num}}.
+     * @param members     The number of distinct URLs recorded for the template.
+     * @param sampled     The number of members in the sample.
+     * @param inSample    Whether the URL should be crawled: it is in the sample or the template has no placeholder.
+     */
+    public record Match(String templateUrl, String pattern, long members, int sampled, boolean inSample) {
+    }
+
+    /**
+     * Constructs an empty trie.
+     *
+     * @param sampleSize           The number of distinct members per template that are crawled.
+     * @param cardinalityThreshold The number of distinct literals a position may have before it becomes a placeholder.
+     * @throws IllegalArgumentException If a parameter is not positive.
+     */
+    public UrlTemplateTrie(int sampleSize, int cardinalityThreshold) {
+        if (sampleSize <= 0 || cardinalityThreshold <= 0) {
+            throw new IllegalArgumentException("sampleSize and cardinalityThreshold must be positive");
+        }
+        this.sampleSize = sampleSize;
+        this.cardinalityThreshold = cardinalityThreshold;
+    }
+
+    /**
+     * Records a discovered URL and reports its template. Recording the same URL again does not change the counts.
+     *
+     * @param url The canonical absolute URL.
+     * @return The match, or null if the URL cannot be parsed.
+     */
+    public Match record(String url) {
+        URI uri;
+        try {
+            uri = new URI(url);
+        } catch (URISyntaxException e) {
+            return null;
+        }
+        if (uri.getHost() == null) {
+            return null;
+        }
+        String origin = uri.getScheme() + "://" + uri.getRawAuthority();
+        Node node = roots.computeIfAbsent(origin, key -> new Node("", false));
+
+        String previous = null;
+        String path = uri.getRawPath() == null ? "" : uri.getRawPath();
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty()) continue;
+            String token = classify(segment, previous);
+            node = token != null ? node.placeholderChild(token) : literalChild(node, segment);
+            previous = token;
+        }
+        if (uri.getRawQuery() != null) {
+            node = node.placeholderChild(querySegment(uri.getRawQuery()));
+        }
+
+        boolean inSample = !node.variable;
+        if (node.variable) {
+            synchronized (node) {
+                if (node.sample.contains(url)) {
+                    inSample = true;
+                } else if (node.sample.size() < sampleSize) {
+                    node.sample.add(url);
+                    inSample = true;
+                }
+            }
+        }
+        if (isNew(url)) {
+            node.members.increment();
+        }
+        String pattern = node.pattern.isEmpty() ? "/" : node.pattern;
+        return new Match(origin + pattern, pattern, node.members.sum(), node.sample.size(), inSample);
+    }
+
+    /**
+     * Forgets all templates and counts.
+     */
+    public void clear() {
+        roots.clear();
+        synchronized (this) {
+            distinct = newDistinctFilter();
+        }
+    }
+
+    private synchronized boolean isNew(String url) {
+        long fingerprint = DiskSeenSet.fingerprint(url);
+        if (distinct.mightContain(fingerprint)) {
+            return false;
+        }
+        distinct.put(fingerprint);
+        return true;
+    }
+
+    private Node literalChild(Node node, String segment) {
+        Node existing = node.children.get(segment);
+        if (existing != null) {
+            return existing;
+        }
+        if (node.pattern.isEmpty() || !node.highCardinality) {
+            Node created = new Node(node.pattern + "/" + segment, node.variable);
+            existing = node.children.putIfAbsent(segment, created);
+            if (existing != null) {
+                return existing;
+            }
+            if (node.pattern.isEmpty() || node.literalChildren.incrementAndGet() <= cardinalityThreshold) {
+                return created;
+            }
+            node.children.remove(segment, created);
+            node.highCardinality = true;
+        }
+        return node.placeholderChild(VARIABLE);
+    }
+
+    /**
+     * Maps a segment to a typed placeholder.
+     *
+     * @param previous The placeholder of the preceding segment, used to recognise {@code /{year}/{month}/{day}}.
+     * @return The placeholder, or null if the segment looks like a literal.
+     */
+    private static String classify(String segment, String previous) {
+        Matcher extension = EXTENSION.matcher(segment);
+        if (extension.matches() && !NUMBER.matcher(extension.group(2).substring(1)).matches()) {
+            String stem = classify(extension.group(1), previous);
+            return stem != null ? stem + extension.group(2) : null;
+        }
+        if (NUMBER.matcher(segment).matches()) {
+            int length = segment.length();
+            if (length == 4 && YEAR.matcher(segment).matches()) {
+                return "{year}";
+            }
+            if (length <= 2 && "{year}".equals(previous) && Integer.parseInt(segment) >= 1 && Integer.parseInt(segment) <= 12) {
+                return "{month}";
+            }
+            if (length <= 2 && "{month}".equals(previous) && Integer.parseInt(segment) >= 1 && Integer.parseInt(segment) <= 31) {
+                return "{day}";
+            }
+            return "{num}";
+        }
+        if (DATE.matcher(segment).matches()) {
+            return "{date}";
+        }
+        if (UUID.matcher(segment).matches()) {
+            return "{uuid}";
+        }
+        if (HASH.matcher(segment).matches()) {
+            return "{id}";
+        }
+        if (SLUG.matcher(segment).matches()) {
+            return "{slug}";
+        }
+        return null;
+    }
+
+    private static String querySegment(String rawQuery) {
+        String[] names = Arrays.stream(rawQuery.split("&"))
+                .filter(parameter -> !parameter.isEmpty())
+                .map(parameter -> parameter.split("=", 2)[0] + "={*}")
+                .distinct()
+                .sorted()
+                .toArray(String[]::new);
+        return "?" + String.join("&", names);
+    }
+
+    private static ScalableBloomFilter newDistinctFilter() {
+        return new ScalableBloomFilter(DISTINCT_FALSE_POSITIVE_RATE, DISTINCT_INITIAL_CAPACITY, DISTINCT_MAX_BYTES);
+    }
+
+    /**
+     * One path position of an origin's trie.
+     */
+    private static final class Node {
+
+        private final String pattern;
+        private final boolean variable;
+        private final Map<String, Node> children = new ConcurrentHashMap<>();
+        private final AtomicInteger literalChildren = new AtomicInteger();
+        private final LongAdder members = new LongAdder();
+        private final Set<String> sample = ConcurrentHashMap.newKeySet();
+        private volatile boolean highCardinality;
+
+        Node(String pattern, boolean variable) {
+            this.pattern = pattern;
+            this.variable = variable;
+        }
+
+        Node placeholderChild(String token) {
+            return children.computeIfAbsent(token, key -> new Node(
+                    key.startsWith("?") ? pattern + key : pattern + "/" + key, true));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.vinhtt.sitemapcrawler.service.distributed;
+
+import com.vinhtt.sitemapcrawler.service.distributed.ClusterProtocol.Message;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+
+/**
+ * One end of the socket between the coordinator and a worker. Messages are read
+ * by a single thread; any thread may send. Events are buffered until the next
+ * other message or {@link #flush()}, so the events of a page share packets, and
+ * every other message is flushed at once.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+final class ClusterConnection implements Closeable {
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+
+    /**
+     * Wraps a connected socket.
+     *
+     * @param socket The socket.
+     * @throws IOException If the socket streams cannot be opened.
+     */
+    ClusterConnection(Socket socket) throws IOException {
+        this.socket = socket;
+        socket.setTcpNoDelay(true);
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_BYTES));
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_BYTES));
+    }
+
+    /**
+     * Sends a message, blocking while the other end does not keep up.
+     *
+     * @param message The message.
+     * @throws IOException If the connection is broken.
+     */
+    synchronized void send(Message message) throws IOException {
+        ClusterProtocol.write(out, message);
+        if (!(message instanceof ClusterProtocol.Event)) {
+            out.flush();
+        }
+    }
+
+    /**
+     * Sends the buffered events.
+     *
+     * @throws IOException If the connection is broken.
+     */
+    synchronized void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Reads the next message; only one thread may read.
+     *
+     * @return The message.
+     * @throws IOException If the connection is closed or broken.
+     */
+    Message read() throws IOException {
+        return ClusterProtocol.read(in);
+    }
+
+    /**
+     * Closes the socket, which makes a blocked {@link #read()} fail.
+     */
+    @Override
+    public void close() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Nothing is left to release.
+        }
+    }
+}
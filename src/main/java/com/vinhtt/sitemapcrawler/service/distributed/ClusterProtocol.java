@@ -0,0 +1,341 @@
+package com.vinhtt.sitemapcrawler.service.distributed;
+
+import com.vinhtt.sitemapcrawler.model.CrawlEvent;
+import com.vinhtt.sitemapcrawler.model.CrawlPhase;
+import com.vinhtt.sitemapcrawler.model.EdgeChange;
+import com.vinhtt.sitemapcrawler.model.LinkCheck;
+import com.vinhtt.sitemapcrawler.model.NodeType;
+import com.vinhtt.sitemapcrawler.model.PageTimings;
+import com.vinhtt.sitemapcrawler.model.SiteEdge;
+import com.vinhtt.sitemapcrawler.model.SiteNode;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The messages a coordinator and its workers exchange, and their binary encoding:
+ * a type byte followed by the fields, strings as a length-prefixed UTF-8 run with
+ * -1 for null. The stream carries no framing of its own, so both ends must agree
+ * on this version of the protocol; the worker command line is always built by the
+ * coordinator from the same classes.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+final class ClusterProtocol {
+
+    private static final CrawlPhase[] PHASES = CrawlPhase.values();
+    private static final NodeType[] NODE_TYPES = NodeType.values();
+    private static final EdgeChange[] EDGE_CHANGES = EdgeChange.values();
+
+    private static final byte HELLO = 1;
+    private static final byte START = 2;
+    private static final byte ASSIGN = 3;
+    private static final byte BATCH = 4;
+    private static final byte EVENT = 5;
+    private static final byte FINISH = 6;
+    private static final byte STOP = 7;
+    private static final byte FINISHED = 8;
+
+    private static final byte NODE_DISCOVERED = 1;
+    private static final byte EDGE_DISCOVERED = 2;
+    private static final byte PAGE_FETCHED = 3;
+    private static final byte PAGE_FAILED = 4;
+    private static final byte LINK_CHECKED = 5;
+
+    private ClusterProtocol() {
+    }
+
+    /**
+     * A message between the coordinator and a worker.
+     */
+    sealed interface Message {
+    }
+
+    /**
+     * Sent by a worker once connected.
+     *
+     * @param workerId The id the coordinator started the worker with.
+     */
+    record Hello(int workerId) implements Message {
+    }
+
+    /**
+     * Sent to every worker once all are connected.
+     *
+     * @param rootUrl    The URL the crawl was started with.
+     * @param maxDepth   The maximum link distance from the root that is still visited.
+     * @param maxWorkers The number of pages each worker renders concurrently.
+     * @param timeoutMs  The navigation timeout per page, in milliseconds.
+     */
+    record Start(String rootUrl, int maxDepth, int maxWorkers, int timeoutMs) implements Message {
+    }
+
+    /**
+     * URLs the worker owns and has to visit.
+     *
+     * @param targets The URLs with their depth.
+     */
+    record Assign(List<Target> targets) implements Message {
+    }
+
+    /**
+     * Sent by a worker when it completed a URL, with the links found since its last batch.
+     *
+     * @param completedUrl The URL that was visited or skipped.
+     * @param found        The links to offer to the owners of their hosts.
+     */
+    record Batch(String completedUrl, List<Target> found) implements Message {
+    }
+
+    /**
+     * A crawl event of a worker, to be published by the coordinator.
+     *
+     * @param event The event; never a {@link CrawlEvent.CrawlCompleted}.
+     */
+    record Event(CrawlEvent event) implements Message {
+    }
+
+    /**
+     * Tells a worker that no URL is left anywhere, so it ends its crawl.
+     */
+    record Finish() implements Message {
+    }
+
+    /**
+     * Tells a worker that the crawl was stopped.
+     */
+    record Stop() implements Message {
+    }
+
+    /**
+     * Sent by a worker when its crawl ended and its link checks are done.
+     */
+    record Finished() implements Message {
+    }
+
+    /**
+     * A URL to visit and its link distance from the root.
+     *
+     * @param url   The canonical URL.
+     * @param depth The link distance from the root URL.
+     */
+    record Target(String url, int depth) {
+    }
+
+    /**
+     * Writes a message; the caller flushes.
+     *
+     * @param out     The stream.
+     * @param message The message.
+     * @throws IOException If the stream fails.
+     */
+    static void write(DataOutputStream out, Message message) throws IOException {
+        switch (message) {
+            case Hello hello -> {
+                out.writeByte(HELLO);
+                out.writeInt(hello.workerId());
+            }
+            case Start start -> {
+                out.writeByte(START);
+                writeString(out, start.rootUrl());
+                out.writeInt(start.maxDepth());
+                out.writeInt(start.maxWorkers());
+                out.writeInt(start.timeoutMs());
+            }
+            case Assign assign -> {
+                out.writeByte(ASSIGN);
+                writeTargets(out, assign.targets());
+            }
+            case Batch batch -> {
+                out.writeByte(BATCH);
+                writeString(out, batch.completedUrl());
+                writeTargets(out, batch.found());
+            }
+            case Event event -> {
+                out.writeByte(EVENT);
+                writeEvent(out, event.event());
+            }
+            case Finish finish -> out.writeByte(FINISH);
+            case Stop stop -> out.writeByte(STOP);
+            case Finished finished -> out.writeByte(FINISHED);
+        }
+    }
+
+    /**
+     * Reads the next message.
+     *
+     * @param in The stream.
+     * @return The message.
+     * @throws java.io.EOFException If the other end closed the connection.
+     * @throws IOException          If the stream fails or holds an unknown message.
+     */
+    static Message read(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        return switch (type) {
+            case HELLO -> new Hello(in.readInt());
+            case START -> new Start(readString(in), in.readInt(), in.readInt(), in.readInt());
+            case ASSIGN -> new Assign(readTargets(in));
+            case BATCH -> new Batch(readString(in), readTargets(in));
+            case EVENT -> new Event(readEvent(in));
+            case FINISH -> new Finish();
+            case STOP -> new Stop();
+            case FINISHED -> new Finished();
+            default -> throw new StreamCorruptedException("Unknown message type " + type);
+        };
+    }
+
+    private static void writeEvent(DataOutputStream out, CrawlEvent event) throws IOException {
+        switch (event) {
+            case CrawlEvent.NodeDiscovered discovered -> {
+                out.writeByte(NODE_DISCOVERED);
+                SiteNode node = discovered.node();
+                writeString(out, node.getUrl());
+                writeString(out, node.getTitle());
+                out.writeByte(node.getType().ordinal());
+                out.writeBoolean(node.getTimings() != null);
+                if (node.getTimings() != null) {
+                    writeTimings(out, node.getTimings());
+                }
+            }
+            case CrawlEvent.EdgeDiscovered discovered -> {
+                out.writeByte(EDGE_DISCOVERED);
+                SiteEdge edge = discovered.edge();
+                writeString(out, edge.getSource());
+                writeString(out, edge.getTarget());
+                out.writeByte(edge.getChange().ordinal());
+            }
+            case CrawlEvent.PageFetched fetched -> {
+                out.writeByte(PAGE_FETCHED);
+                writeString(out, fetched.url());
+                writeTimings(out, fetched.timings());
+                out.writeInt(fetched.linkCount());
+                out.writeBoolean(fetched.unchanged());
+            }
+            case CrawlEvent.PageFailed failed -> {
+                out.writeByte(PAGE_FAILED);
+                writeString(out, failed.url());
+                Throwable error = failed.error();
+                writeString(out, error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName());
+            }
+            case CrawlEvent.LinkChecked checked -> {
+                out.writeByte(LINK_CHECKED);
+                writeString(out, checked.nodeUrl());
+                writeString(out, checked.referrer());
+                LinkCheck check = checked.check();
+                writeString(out, check.getUrl());
+                out.writeShort(check.getStatusCode());
+                out.writeInt(check.getRedirects().size());
+                for (String redirect : check.getRedirects()) {
+                    writeString(out, redirect);
+                }
+                writeString(out, check.getMethod());
+                out.writeLong(check.getLatencyNanos());
+                writeString(out, check.getError());
+            }
+            case CrawlEvent.CrawlCompleted completed ->
+                    throw new IllegalArgumentException("Crawl completion is sent as Finished");
+        }
+    }
+
+    private static CrawlEvent readEvent(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        return switch (type) {
+            case NODE_DISCOVERED -> {
+                String url = readString(in);
+                String title = readString(in);
+                NodeType nodeType = NODE_TYPES[in.readByte()];
+                PageTimings timings = in.readBoolean() ? readTimings(in) : null;
+                yield new CrawlEvent.NodeDiscovered(new SiteNode(url, title, nodeType, timings));
+            }
+            case EDGE_DISCOVERED -> new CrawlEvent.EdgeDiscovered(
+                    new SiteEdge(readString(in), readString(in), EDGE_CHANGES[in.readByte()]));
+            case PAGE_FETCHED -> new CrawlEvent.PageFetched(readString(in), readTimings(in), in.readInt(), in.readBoolean());
+            case PAGE_FAILED -> new CrawlEvent.PageFailed(readString(in), new IOException(readString(in)));
+            case LINK_CHECKED -> {
+                String nodeUrl = readString(in);
+                String referrer = readString(in);
+                String url = readString(in);
+                int status = in.readShort();
+                int redirectCount = in.readInt();
+                List<String> redirects = new ArrayList<>(redirectCount);
+                for (int i = 0; i < redirectCount; i++) {
+                    redirects.add(readString(in));
+                }
+                LinkCheck check = new LinkCheck(url, status, redirects, readString(in), in.readLong(), readString(in));
+                yield new CrawlEvent.LinkChecked(nodeUrl, referrer, check);
+            }
+            default -> throw new StreamCorruptedException("Unknown event type " + type);
+        };
+    }
+
+    /**
+     * Writes the engine, status and set phases of page timings.
+     */
+    private static void writeTimings(DataOutputStream out, PageTimings timings) throws IOException {
+        writeString(out, timings.getEngine());
+        out.writeShort(timings.getStatusCode());
+        int count = 0;
+        for (CrawlPhase phase : PHASES) {
+            if (timings.has(phase)) count++;
+        }
+        out.writeByte(count);
+        for (CrawlPhase phase : PHASES) {
+            if (timings.has(phase)) {
+                out.writeByte(phase.ordinal());
+                out.writeLong(timings.getNanos(phase));
+            }
+        }
+    }
+
+    private static PageTimings readTimings(DataInputStream in) throws IOException {
+        PageTimings timings = PageTimings.of(readString(in), in.readShort());
+        int count = in.readByte();
+        for (int i = 0; i < count; i++) {
+            timings = timings.with(PHASES[in.readByte()], in.readLong());
+        }
+        return timings;
+    }
+
+    private static void writeTargets(DataOutputStream out, List<Target> targets) throws IOException {
+        out.writeInt(targets.size());
+        for (Target target : targets) {
+            writeString(out, target.url());
+            out.writeInt(target.depth());
+        }
+    }
+
+    private static List<Target> readTargets(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<Target> targets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            targets.add(new Target(readString(in), in.readInt()));
+        }
+        return targets;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,661 @@
+package com.vinhtt.sitemapcrawler.service.distributed;
+
+import com.vinhtt.sitemapcrawler.model.CrawlConfig;
+import com.vinhtt.sitemapcrawler.model.CrawlEvent;
+import com.vinhtt.sitemapcrawler.model.CrawlMetrics;
+import com.vinhtt.sitemapcrawler.model.NodeType;
+import com.vinhtt.sitemapcrawler.model.ResourceStats;
+import com.vinhtt.sitemapcrawler.model.SiteNode;
+import com.vinhtt.sitemapcrawler.service.ICrawlerService;
+import com.vinhtt.sitemapcrawler.service.distributed.ClusterProtocol.Message;
+import com.vinhtt.sitemapcrawler.service.distributed.ClusterProtocol.Target;
+import com.vinhtt.sitemapcrawler.service.frontier.DiskCrawlFrontier;
+import com.vinhtt.sitemapcrawler.service.frontier.DiskSeenSet;
+import com.vinhtt.sitemapcrawler.service.impl.HybridCrawlerService;
+import com.vinhtt.sitemapcrawler.service.impl.UrlCanonicalizer;
+import com.vinhtt.sitemapcrawler.service.politeness.RobotsCache;
+import com.vinhtt.sitemapcrawler.service.sitemap.SitemapSeeder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coordinator of a site crawl spread over several worker processes on this machine.
+ * Each site crawl starts the configured number of {@link ShardWorker} JVMs, each with
+ * its own browser pool, state and resource cache directories, and talks to them over
+ * loopback sockets. Hosts are partitioned among the workers by a {@link ShardRouter},
+ * so every page of a host is loaded, and throttled, by one process.
+ * <p>
+ * The coordinator owns the seen-set: workers send the links of each completed page in
+ * one batch, and the new ones are assigned in batches to the workers owning their
+ * hosts. Every URL assigned to a worker stays outstanding until the worker completes
+ * it; when a worker exits or is killed, its hosts move to the survivors and its
+ * outstanding URLs are assigned again, so at most the pages it was loading are visited
+ * twice. The crawl ends once nothing is outstanding and every worker has finished its
+ * link checks.
+ * <p>
+ * The events of all workers are published through one {@link #events()} publisher,
+ * so subscribers see one merged graph, and the metrics are aggregated from them.
+ * Single-page scans run in this process, and only they capture thumbnails. The
+ * coordinator keeps its seen-set in a {@link DiskSeenSet} that every crawl starts
+ * empty, and the rest of its state in memory, so a stopped distributed crawl cannot be resumed.
+ *
+ * @author vinhtt
+ * @version 1.3
+ */
+public class DistributedCrawlerService implements ICrawlerService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DistributedCrawlerService.class);
+
+    private static final String WORKER_MAIN_CLASS = "com.vinhtt.sitemapcrawler.Launcher";
+    private static final String WORKERS_DIRECTORY = "workers";
+    private static final String COORDINATOR_DIRECTORY = "coordinator";
+    private static final int CONNECT_TIMEOUT_MS = 60_000;
+    private static final int ACCEPT_POLL_MS = 500;
+    private static final int HELLO_TIMEOUT_MS = 5_000;
+    private static final long WAIT_POLL_MS = 200;
+    private static final long EXIT_GRACE_SECONDS = 10;
+
+    private final CrawlConfig config;
+    private final SubmissionPublisher<CrawlEvent> events;
+    private final CrawlMetrics crawlMetrics = new CrawlMetrics();
+    private final ResourceStats resourceStats = new ResourceStats();
+    private final UrlCanonicalizer canonicalizer;
+    private final SitemapSeeder sitemapSeeder;
+    private final AtomicInteger pagesVisited = new AtomicInteger();
+    private final List<Process> processes = new ArrayList<>();
+    private volatile AtomicBoolean activeRun = new AtomicBoolean(false);
+    private volatile CompletableFuture<Void> siteCrawl = CompletableFuture.completedFuture(null);
+    private volatile long crawlStartNanos;
+    private volatile long crawlEndNanos;
+    private HybridCrawlerService localService;
+
+    /**
+     * Constructs a coordinator. Event subscribers are called on daemon threads of the service.
+     *
+     * @param config The crawl configuration; its worker count must be positive.
+     * @throws IllegalArgumentException If the configuration asks for no worker process.
+     */
+    public DistributedCrawlerService(CrawlConfig config) {
+        if (config.getDistributedWorkers() <= 0) {
+            throw new IllegalArgumentException("distributedWorkers must be positive for a distributed crawl");
+        }
+        this.config = config;
+        this.events = new SubmissionPublisher<>(Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "crawl-events");
+            thread.setDaemon(true);
+            return thread;
+        }), config.getEventBufferSize());
+        this.canonicalizer = new UrlCanonicalizer(config);
+        if (config.isSeedFromSitemaps()) {
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .followRedirects(HttpClient.Redirect.NORMAL)
+                    .connectTimeout(Duration.ofMillis(config.getPageTimeoutMs()))
+                    .build();
+            RobotsCache robots = new RobotsCache(httpClient, config.getRobotsUserAgent(), config.getPageTimeoutMs());
+            this.sitemapSeeder = new SitemapSeeder(httpClient, robots, config.getRobotsUserAgent(), config.getPageTimeoutMs());
+        } else {
+            this.sitemapSeeder = null;
+        }
+    }
+
+    @Override
+    public Flow.Publisher<CrawlEvent> events() {
+        return events;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The page is loaded in this process; its events are published like those of the workers.
+     */
+    @Override
+    public synchronized void crawlSinglePage(String url) {
+        if (localService == null) {
+            localService = new HybridCrawlerService(config);
+            localService.events().subscribe(new Relay());
+        }
+        localService.crawlSinglePage(url);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The pages are loaded by freshly started worker processes, which exit when the crawl ends.
+     */
+    @Override
+    public void crawlSite(String rootUrl, int maxDepth, int maxWorkers, int timeoutMs) {
+        AtomicBoolean run = new AtomicBoolean(true);
+        activeRun = run;
+        String root = Objects.requireNonNullElse(canonicalizer.canonicalize(rootUrl), rootUrl);
+        String requestRoot = Objects.requireNonNullElse(UrlCanonicalizer.requestUrl(rootUrl), rootUrl);
+
+        siteCrawl = siteCrawl.handle((ignored, error) -> null).thenRunAsync(() -> {
+            pagesVisited.set(0);
+            resourceStats.reset();
+            crawlMetrics.reset();
+            crawlStartNanos = System.nanoTime();
+            crawlEndNanos = 0;
+            Path seenDirectory = Path.of(config.getStateDirectory()).resolve(WORKERS_DIRECTORY).resolve(COORDINATOR_DIRECTORY);
+            try {
+                DiskCrawlFrontier.delete(seenDirectory);
+                try (DiskSeenSet seen = new DiskSeenSet(seenDirectory)) {
+                    new Crawl(root, requestRoot, maxDepth, run, seen).run(Math.max(1, maxWorkers), timeoutMs);
+                }
+            } catch (IOException | UncheckedIOException e) {
+                LOG.warn("Distributed crawl of {} failed", root, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                stopProcesses();
+                crawlEndNanos = System.nanoTime();
+                run.set(false);
+                publish(new CrawlEvent.CrawlCompleted(root, false));
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * Always false, since the coordinator keeps no state on disk.
+     */
+    @Override
+    public boolean hasResumableCrawl(String rootUrl) {
+        return false;
+    }
+
+    @Override
+    public void discardCrawl(String rootUrl) {
+        // Nothing is persisted between distributed crawls.
+    }
+
+    @Override
+    public double getPagesPerSecond() {
+        if (crawlStartNanos == 0) {
+            return 0;
+        }
+        long end = crawlEndNanos != 0 ? crawlEndNanos : System.nanoTime();
+        double seconds = (end - crawlStartNanos) / 1_000_000_000.0;
+        return seconds > 0 ? pagesVisited.get() / seconds : 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Network counters stay in the worker processes, so only single-page scans count here.
+     */
+    @Override
+    public ResourceStats getResourceStats() {
+        HybridCrawlerService local;
+        synchronized (this) {
+            local = localService;
+        }
+        return local != null ? local.getResourceStats() : resourceStats;
+    }
+
+    @Override
+    public CrawlMetrics getCrawlMetrics() {
+        return crawlMetrics;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Worker processes capture no thumbnails, so only single-page scans have one.
+     */
+    @Override
+    public byte[] getThumbnail(String url) {
+        HybridCrawlerService local;
+        synchronized (this) {
+            local = localService;
+        }
+        return local != null ? local.getThumbnail(url) : null;
+    }
+
+    @Override
+    public void stop() {
+        activeRun.set(false);
+        synchronized (this) {
+            if (localService != null) {
+                localService.stop();
+            }
+        }
+    }
+
+    @Override
+    public void cleanup() {
+        activeRun.set(false);
+        stopProcesses();
+        synchronized (this) {
+            if (localService != null) {
+                localService.cleanup();
+            }
+        }
+        events.close();
+    }
+
+    /**
+     * Starts one worker JVM on the classpath of this one. Its output is discarded,
+     * since the coordinator may be writing the graph to stdout; errors are inherited.
+     */
+    private Process startWorker(int port, int workerId, int timeoutMs) throws IOException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Path workerState = Path.of(config.getStateDirectory()).resolve(WORKERS_DIRECTORY).resolve("worker-" + workerId);
+        Path workerCache = Path.of(config.getResourceCacheDirectory()).resolve(WORKERS_DIRECTORY).resolve("worker-" + workerId);
+        List<String> command = new ArrayList<>(List.of(java, "-cp", System.getProperty("java.class.path"),
+                WORKER_MAIN_CLASS, "--worker",
+                "--coordinator", String.valueOf(port),
+                "--id", String.valueOf(workerId),
+                "--timeout", String.valueOf(timeoutMs),
+                "--state-dir", workerState.toString(),
+                "--resource-cache", workerCache.toString()));
+        if (config.getBrowserChannel() != null) command.addAll(List.of("--channel", config.getBrowserChannel()));
+        if (!config.isRespectRobotsTxt()) command.add("--ignore-robots");
+        if (!config.isValidateLinks()) command.add("--no-link-check");
+        if (!config.isIncrementalRecrawl()) command.add("--full");
+        Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        synchronized (processes) {
+            processes.add(process);
+        }
+        return process;
+    }
+
+    /**
+     * Waits briefly for the worker processes to exit on their own, then kills the rest.
+     */
+    private void stopProcesses() {
+        List<Process> running;
+        synchronized (processes) {
+            running = new ArrayList<>(processes);
+            processes.clear();
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(EXIT_GRACE_SECONDS);
+        for (Process process : running) {
+            try {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || !process.waitFor(remaining, TimeUnit.NANOSECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Counts an event in the aggregated metrics and publishes it.
+     */
+    private void accept(CrawlEvent event) {
+        switch (event) {
+            case CrawlEvent.PageFetched fetched -> {
+                pagesVisited.incrementAndGet();
+                crawlMetrics.recordPage(fetched.timings(), fetched.linkCount());
+                if (fetched.unchanged()) crawlMetrics.recordUnchanged();
+            }
+            case CrawlEvent.PageFailed failed -> crawlMetrics.recordError();
+            case CrawlEvent.LinkChecked checked -> crawlMetrics.recordLinkCheck(checked.check());
+            default -> {
+            }
+        }
+        publish(event);
+    }
+
+    /**
+     * Hands an event to every subscriber, waiting while any of their buffers is full.
+     * Events published after {@link #cleanup()} are dropped.
+     */
+    private void publish(CrawlEvent event) {
+        try {
+            events.submit(event);
+        } catch (IllegalStateException closed) {
+            // The service was cleaned up while the crawl was still running.
+        }
+    }
+
+    /**
+     * Republishes the events of single-page scans in this process.
+     */
+    private final class Relay implements Flow.Subscriber<CrawlEvent> {
+
+        private Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(CrawlEvent event) {
+            accept(event);
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            LOG.error("Local crawl events failed", throwable);
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+    /**
+     * A worker process as the coordinator sees it: its connection and the URLs it
+     * was assigned but has not completed yet. Guarded by the crawl.
+     */
+    private static final class Worker {
+
+        private final int id;
+        private final ClusterConnection connection;
+        private final Map<String, Integer> outstanding = new LinkedHashMap<>();
+        private boolean finished;
+        private boolean lost;
+
+        Worker(int id, ClusterConnection connection) {
+            this.id = id;
+            this.connection = connection;
+        }
+    }
+
+    /**
+     * The state of one distributed site crawl; its fields are guarded by the crawl itself.
+     */
+    private final class Crawl {
+
+        private final String root;
+        private final String requestRoot;
+        private final int maxDepth;
+        private final AtomicBoolean run;
+        private final DiskSeenSet seen;
+        private final ShardRouter router = new ShardRouter();
+        private final Map<Integer, Worker> workers = new TreeMap<>();
+        private boolean seeding = true;
+        private boolean drained;
+
+        Crawl(String root, String requestRoot, int maxDepth, AtomicBoolean run, DiskSeenSet seen) {
+            this.root = root;
+            this.requestRoot = requestRoot;
+            this.maxDepth = maxDepth;
+            this.run = run;
+            this.seen = seen;
+        }
+
+        /**
+         * Starts and connects the workers, seeds the root and waits until every worker has
+         * finished or exited. Once the crawl is stopped, the workers are told to stop.
+         */
+        void run(int maxWorkers, int timeoutMs) throws IOException, InterruptedException {
+            try (ServerSocket server = new ServerSocket(0, config.getDistributedWorkers(), InetAddress.getLoopbackAddress())) {
+                List<Process> started = new ArrayList<>();
+                for (int id = 0; id < config.getDistributedWorkers(); id++) {
+                    started.add(startWorker(server.getLocalPort(), id, timeoutMs));
+                }
+                connect(server, started);
+                if (workers.isEmpty()) {
+                    throw new IOException("No worker process connected");
+                }
+                LOG.info("Crawling {} with {} worker processes", root, workers.size());
+
+                ClusterProtocol.Start start = new ClusterProtocol.Start(root, maxDepth, maxWorkers, timeoutMs);
+                for (Worker worker : workers.values()) {
+                    worker.connection.send(start);
+                    Thread reader = new Thread(() -> read(worker), "coordinator-worker-" + worker.id);
+                    reader.setDaemon(true);
+                    reader.start();
+                }
+
+                Map<Worker, List<Target>> assignments = new HashMap<>();
+                synchronized (this) {
+                    offer(requestRoot, 0, assignments);
+                }
+                assign(assignments);
+                if (sitemapSeeder != null && maxDepth > 0) {
+                    seedFromSitemaps();
+                }
+                synchronized (this) {
+                    seeding = false;
+                    checkDrained();
+                }
+                awaitWorkers();
+            } finally {
+                synchronized (this) {
+                    workers.values().forEach(worker -> worker.connection.close());
+                }
+            }
+        }
+
+        /**
+         * Accepts worker connections until every started worker has said hello, the
+         * connect timeout passes, or all started processes have exited. A connection
+         * that does not say hello in time is dropped.
+         */
+        private void connect(ServerSocket server, List<Process> started) throws IOException {
+            server.setSoTimeout(ACCEPT_POLL_MS);
+            long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT_MS;
+            while (workers.size() < started.size() && System.currentTimeMillis() < deadline && run.get()
+                    && started.stream().anyMatch(Process::isAlive)) {
+                Socket socket;
+                try {
+                    socket = server.accept();
+                } catch (SocketTimeoutException e) {
+                    continue;
+                }
+                ClusterConnection connection = new ClusterConnection(socket);
+                Message greeting;
+                try {
+                    socket.setSoTimeout(HELLO_TIMEOUT_MS);
+                    greeting = connection.read();
+                    socket.setSoTimeout(0);
+                } catch (IOException e) {
+                    LOG.warn("Dropped a worker connection that did not say hello: {}", e.toString());
+                    connection.close();
+                    continue;
+                }
+                if (greeting instanceof ClusterProtocol.Hello hello && !workers.containsKey(hello.workerId())) {
+                    synchronized (this) {
+                        workers.put(hello.workerId(), new Worker(hello.workerId(), connection));
+                        router.add(hello.workerId());
+                    }
+                } else {
+                    connection.close();
+                }
+            }
+        }
+
+        /**
+         * Queues the pages the site's sitemaps list one level below the root, and
+         * publishes each as an orphan until a crawled page links to it.
+         */
+        private void seedFromSitemaps() throws InterruptedException {
+            String rootDomain = UrlCanonicalizer.domainOf(root);
+            int seeded = sitemapSeeder.seed(requestRoot, config.getMaxSitemapUrls(), loc -> {
+                String url = canonicalizer.canonicalize(loc);
+                if (url == null || !UrlCanonicalizer.isSameSite(url, rootDomain)) {
+                    return false;
+                }
+                Map<Worker, List<Target>> assignments = new HashMap<>();
+                synchronized (this) {
+                    if (!offer(UrlCanonicalizer.requestUrl(loc), 1, assignments)) {
+                        return false;
+                    }
+                }
+                publish(new CrawlEvent.NodeDiscovered(new SiteNode(url, url, NodeType.ORPHAN)));
+                assign(assignments);
+                return true;
+            }, run::get);
+            crawlMetrics.recordSitemapUrls(seeded);
+        }
+
+        /**
+         * Waits until every worker has finished or exited, telling them to stop once the crawl is stopped.
+         */
+        private synchronized void awaitWorkers() throws InterruptedException {
+            boolean stopSent = false;
+            while (workers.values().stream().anyMatch(worker -> !worker.finished && !worker.lost)) {
+                if (!run.get() && !stopSent) {
+                    stopSent = true;
+                    sendToAll(new ClusterProtocol.Stop());
+                }
+                wait(WAIT_POLL_MS);
+            }
+            long unvisited = workers.values().stream().mapToLong(worker -> worker.outstanding.size()).sum();
+            if (unvisited > 0) {
+                LOG.warn("Distributed crawl ended with {} URLs unvisited", unvisited);
+            }
+        }
+
+        /**
+         * Applies a worker's messages until it finishes or its connection breaks.
+         */
+        private void read(Worker worker) {
+            try {
+                while (true) {
+                    Message message = worker.connection.read();
+                    switch (message) {
+                        case ClusterProtocol.Batch batch -> complete(worker, batch);
+                        case ClusterProtocol.Event event -> accept(event.event());
+                        case ClusterProtocol.Finished finished -> {
+                            synchronized (this) {
+                                worker.finished = true;
+                                notifyAll();
+                            }
+                            return;
+                        }
+                        default -> LOG.warn("Unexpected message from worker {}: {}", worker.id, message);
+                    }
+                }
+            } catch (IOException e) {
+                lose(worker);
+            }
+        }
+
+        /**
+         * Marks a URL of a worker as done and assigns the new links found on it.
+         */
+        private void complete(Worker worker, ClusterProtocol.Batch batch) {
+            Map<Worker, List<Target>> assignments = new HashMap<>();
+            synchronized (this) {
+                worker.outstanding.remove(batch.completedUrl());
+                for (Target target : batch.found()) {
+                    offer(target.url(), target.depth(), assignments);
+                }
+                checkDrained();
+            }
+            assign(assignments);
+        }
+
+        /**
+         * Moves the hosts and outstanding URLs of a worker that exited to the others.
+         */
+        private void lose(Worker worker) {
+            Map<Worker, List<Target>> assignments = new HashMap<>();
+            synchronized (this) {
+                if (worker.finished) {
+                    return;
+                }
+                worker.lost = true;
+                router.remove(worker.id);
+                Map<String, Integer> orphaned = new LinkedHashMap<>(worker.outstanding);
+                worker.outstanding.clear();
+                if (router.isEmpty()) {
+                    LOG.warn("Worker {} exited and no worker is left; {} URLs unvisited", worker.id, orphaned.size());
+                    worker.outstanding.putAll(orphaned);
+                } else {
+                    LOG.warn("Worker {} exited; reassigning {} URLs", worker.id, orphaned.size());
+                    orphaned.forEach((url, depth) -> route(url, depth, assignments));
+                    checkDrained();
+                }
+                notifyAll();
+            }
+            assign(assignments);
+            worker.connection.close();
+        }
+
+        /**
+         * Records the canonical form of a URL as seen and assigns the URL to the worker
+         * owning its host, unless it was seen before or lies beyond the depth limit.
+         * Called with the crawl locked.
+         *
+         * @return True if the URL was new.
+         */
+        private boolean offer(String url, int depth, Map<Worker, List<Target>> assignments) {
+            if (depth > maxDepth || !seen.add(Objects.requireNonNullElse(canonicalizer.canonicalize(url), url))) {
+                return false;
+            }
+            route(url, depth, assignments);
+            return true;
+        }
+
+        private void route(String url, int depth, Map<Worker, List<Target>> assignments) {
+            int owner = router.ownerOf(url);
+            if (owner < 0) {
+                return;
+            }
+            Worker worker = workers.get(owner);
+            worker.outstanding.put(url, depth);
+            assignments.computeIfAbsent(worker, key -> new ArrayList<>()).add(new Target(url, depth));
+        }
+
+        /**
+         * Tells every worker to finish once seeding is over and no URL is outstanding.
+         * Called with the crawl locked.
+         */
+        private void checkDrained() {
+            if (!seeding && !drained && workers.values().stream().allMatch(worker -> worker.outstanding.isEmpty())) {
+                drained = true;
+                sendToAll(new ClusterProtocol.Finish());
+            }
+        }
+
+        /**
+         * Sends each worker the URLs assigned to it. A worker that cannot be reached
+         * is left to its reader, which reassigns its outstanding URLs.
+         */
+        private void assign(Map<Worker, List<Target>> assignments) {
+            assignments.forEach((worker, targets) -> {
+                try {
+                    worker.connection.send(new ClusterProtocol.Assign(targets));
+                } catch (IOException e) {
+                    worker.connection.close();
+                }
+            });
+        }
+
+        private void sendToAll(Message message) {
+            for (Worker worker : workers.values()) {
+                if (!worker.lost && !worker.finished) {
+                    try {
+                        worker.connection.send(message);
+                    } catch (IOException e) {
+                        worker.connection.close();
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.vinhtt.sitemapcrawler.service.distributed;
+
+import com.vinhtt.sitemapcrawler.service.distributed.ClusterProtocol.Target;
+import com.vinhtt.sitemapcrawler.service.frontier.CrawlFrontier;
+import com.vinhtt.sitemapcrawler.service.frontier.FrontierEntry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The frontier of a worker: the URLs the coordinator assigned to it. Offered links
+ * are not queued here but collected and sent to the coordinator in one batch with
+ * the next completed entry, since the coordinator owns the seen-set and knows which
+ * worker owns their host. A batch always carries the links found before its
+ * completed entry, so the coordinator never sees an entry done before its links.
+ * The frontier is exhausted once the coordinator reports that no work is left anywhere.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+final class RemoteFrontier implements CrawlFrontier {
+
+    private final ClusterConnection connection;
+    private final Object sendLock = new Object();
+    private final ArrayDeque<FrontierEntry> queue = new ArrayDeque<>();
+    private List<Target> found = new ArrayList<>();
+    private long sequence;
+    private int inFlight;
+    private boolean finished;
+
+    /**
+     * Constructs a frontier that reports to a coordinator.
+     *
+     * @param connection The connection to the coordinator.
+     */
+    RemoteFrontier(ClusterConnection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Queues URLs the coordinator assigned to this worker.
+     *
+     * @param targets The URLs with their depth.
+     */
+    synchronized void assign(List<Target> targets) {
+        for (Target target : targets) {
+            queue.add(new FrontierEntry(target.url(), target.depth(), sequence, sequence));
+            sequence++;
+        }
+        notifyAll();
+    }
+
+    /**
+     * Marks the crawl as drained, so idle crawl workers exit.
+     */
+    synchronized void finish() {
+        finished = true;
+        notifyAll();
+    }
+
+    @Override
+    public synchronized boolean offer(String url, int depth) {
+        found.add(new Target(url, depth));
+        return true;
+    }
+
+    @Override
+    public synchronized FrontierEntry poll(long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (queue.isEmpty()) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (finished || remaining <= 0) {
+                return null;
+            }
+            wait(remaining);
+        }
+        inFlight++;
+        return queue.poll();
+    }
+
+    /**
+     * {@inheritDoc}
+     * Sends the entry to the coordinator with the links found so far.
+     *
+     * @throws UncheckedIOException If the coordinator cannot be reached.
+     */
+    @Override
+    public void complete(FrontierEntry entry) {
+        synchronized (sendLock) {
+            List<Target> batch;
+            synchronized (this) {
+                batch = found;
+                found = new ArrayList<>();
+                inFlight--;
+            }
+            try {
+                connection.send(new ClusterProtocol.Batch(entry.url(), batch));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Lost the coordinator", e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized boolean isExhausted() {
+        return finished && queue.isEmpty() && inFlight == 0;
+    }
+}
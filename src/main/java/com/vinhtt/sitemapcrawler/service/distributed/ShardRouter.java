@@ -0,0 +1,92 @@
+package com.vinhtt.sitemapcrawler.service.distributed;
+
+import com.vinhtt.sitemapcrawler.service.frontier.DiskSeenSet;
+
+import java.net.URI;
+import java.util.Locale;
+import java.util.TreeSet;
+
+/**
+ * Assigns every host to one of the live workers by rendezvous hashing: each worker
+ * scores the host and the highest score owns it. A host keeps its owner as long as
+ * that worker lives, so politeness limits hold across processes, and when a worker
+ * is removed only its own hosts move, spread evenly over the survivors.
+ * Not thread-safe; the coordinator guards it.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+final class ShardRouter {
+
+    private final TreeSet<Integer> workers = new TreeSet<>();
+
+    /**
+     * Adds a worker, which takes over its share of the hosts.
+     *
+     * @param workerId The worker id.
+     */
+    void add(int workerId) {
+        workers.add(workerId);
+    }
+
+    /**
+     * Removes a worker; its hosts move to the remaining workers.
+     *
+     * @param workerId The worker id.
+     */
+    void remove(int workerId) {
+        workers.remove(workerId);
+    }
+
+    /**
+     * Checks whether any worker is left.
+     *
+     * @return True if no worker can own a host.
+     */
+    boolean isEmpty() {
+        return workers.isEmpty();
+    }
+
+    /**
+     * Gets the worker owning the host of a URL.
+     *
+     * @param url The absolute URL.
+     * @return The worker id, or -1 if no worker is left.
+     */
+    int ownerOf(String url) {
+        long hostHash = DiskSeenSet.fingerprint(shardKeyOf(url));
+        int owner = -1;
+        long best = 0;
+        for (int workerId : workers) {
+            long score = mix(hostHash + workerId * 0x9E3779B97F4A7C15L);
+            if (owner < 0 || Long.compareUnsigned(score, best) > 0) {
+                owner = workerId;
+                best = score;
+            }
+        }
+        return owner;
+    }
+
+    /**
+     * Gets the key URLs are sharded by: the host and port, so every page of a host
+     * is loaded by one worker.
+     */
+    static String shardKeyOf(String url) {
+        try {
+            URI uri = URI.create(url);
+            String host = uri.getHost();
+            return host == null ? url : host.toLowerCase(Locale.ROOT) + ":" + uri.getPort();
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+
+    /**
+     * The SplitMix64 finalizer, which spreads the scores of neighbouring worker ids.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
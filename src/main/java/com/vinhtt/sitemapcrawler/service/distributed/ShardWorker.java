@@ -0,0 +1,174 @@
+package com.vinhtt.sitemapcrawler.service.distributed;
+
+import com.vinhtt.sitemapcrawler.model.CrawlConfig;
+import com.vinhtt.sitemapcrawler.model.CrawlEvent;
+import com.vinhtt.sitemapcrawler.service.distributed.ClusterProtocol.Message;
+import com.vinhtt.sitemapcrawler.service.impl.HybridCrawlerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One worker process of a distributed crawl. It connects to the coordinator on the
+ * loopback interface, crawls the URLs assigned to it with its own
+ * {@link HybridCrawlerService} and browser pool, and streams the events of its pages
+ * back. The links it finds go to the coordinator, which hands each to the worker
+ * owning its host. The worker exits when the coordinator reports the crawl drained
+ * or stopped, or when the coordinator goes away.
+ *
+ * @author vinhtt
+ * @version 1.1
+ */
+public final class ShardWorker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ShardWorker.class);
+
+    private static final long FLUSH_INTERVAL_MS = 50;
+
+    private final int coordinatorPort;
+    private final int workerId;
+    private final CrawlConfig config;
+
+    /**
+     * Constructs a worker.
+     *
+     * @param coordinatorPort The loopback port the coordinator listens on.
+     * @param workerId        The id the coordinator started the worker with.
+     * @param config          The crawl configuration of this worker.
+     */
+    public ShardWorker(int coordinatorPort, int workerId, CrawlConfig config) {
+        this.coordinatorPort = coordinatorPort;
+        this.workerId = workerId;
+        this.config = config;
+    }
+
+    /**
+     * Crawls the assigned share of the site until the coordinator ends the crawl.
+     *
+     * @throws IOException          If the coordinator cannot be reached or does not start a crawl.
+     * @throws InterruptedException If the thread is interrupted while crawling.
+     */
+    public void run() throws IOException, InterruptedException {
+        try (ClusterConnection connection = new ClusterConnection(new Socket(InetAddress.getLoopbackAddress(), coordinatorPort))) {
+            connection.send(new ClusterProtocol.Hello(workerId));
+            if (!(connection.read() instanceof ClusterProtocol.Start start)) {
+                throw new StreamCorruptedException("Expected the crawl to start");
+            }
+
+            HybridCrawlerService service = new HybridCrawlerService(config);
+            RemoteFrontier frontier = new RemoteFrontier(connection);
+            EventForwarder forwarder = new EventForwarder(connection, service);
+            service.events().subscribe(forwarder);
+            ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "worker-flush");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(() -> {
+                try {
+                    connection.flush();
+                } catch (IOException e) {
+                    service.stop();
+                }
+            }, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            Thread reader = new Thread(() -> readCommands(connection, frontier, service), "worker-commands");
+            reader.setDaemon(true);
+            reader.start();
+
+            try {
+                service.crawlFrontier(frontier, start.rootUrl(), start.maxDepth(), start.maxWorkers(), start.timeoutMs());
+                forwarder.completion.get();
+                LOG.info("Worker {} done: {}, {}", workerId, service.getCrawlMetrics(), service.getEngineStats());
+            } catch (ExecutionException e) {
+                throw new IOException("Lost the coordinator", e.getCause());
+            } finally {
+                flusher.shutdownNow();
+                service.cleanup();
+            }
+        }
+    }
+
+    /**
+     * Applies the coordinator's messages until the connection closes; losing the
+     * coordinator stops the crawl.
+     */
+    private static void readCommands(ClusterConnection connection, RemoteFrontier frontier, HybridCrawlerService service) {
+        try {
+            while (true) {
+                Message message = connection.read();
+                switch (message) {
+                    case ClusterProtocol.Assign assign -> frontier.assign(assign.targets());
+                    case ClusterProtocol.Finish finish -> frontier.finish();
+                    case ClusterProtocol.Stop stop -> service.stop();
+                    default -> LOG.warn("Unexpected message from the coordinator: {}", message);
+                }
+            }
+        } catch (IOException e) {
+            service.stop();
+            frontier.finish();
+        }
+    }
+
+    /**
+     * Sends the events of the worker's service to the coordinator, one at a time,
+     * so a slow coordinator holds back this worker's crawl threads. The crawl's
+     * completion is sent as {@link ClusterProtocol.Finished}. Once the coordinator
+     * is gone, events are drained and dropped so the crawl threads can wind down.
+     */
+    private static final class EventForwarder implements Flow.Subscriber<CrawlEvent> {
+
+        private final ClusterConnection connection;
+        private final HybridCrawlerService service;
+        private final CompletableFuture<Void> completion = new CompletableFuture<>();
+        private Flow.Subscription subscription;
+
+        EventForwarder(ClusterConnection connection, HybridCrawlerService service) {
+            this.connection = connection;
+            this.service = service;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(CrawlEvent event) {
+            if (!completion.isDone()) {
+                try {
+                    if (event instanceof CrawlEvent.CrawlCompleted) {
+                        connection.send(new ClusterProtocol.Finished());
+                        completion.complete(null);
+                    } else {
+                        connection.send(new ClusterProtocol.Event(event));
+                    }
+                } catch (IOException e) {
+                    service.stop();
+                    completion.completeExceptionally(e);
+                }
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            completion.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            completion.complete(null);
+        }
+    }
+}
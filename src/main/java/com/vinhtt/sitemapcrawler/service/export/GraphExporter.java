@@ -0,0 +1,224 @@
+package com.vinhtt.sitemapcrawler.service.export;
+
+import com.vinhtt.sitemapcrawler.model.NodeType;
+import com.vinhtt.sitemapcrawler.service.graph.CompactSiteGraph;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Base class of the exporters that stream a {@link CompactSiteGraph} to files.
+ * The graph is read in fixed-size chunks, each copied on the graph's owning thread
+ * (the JavaFX Application Thread in the desktop app), and written on the exporting
+ * thread through a buffered file channel. Memory use is bounded by the chunk size,
+ * and an export can run while a crawl keeps adding to the graph; it covers the
+ * nodes and edges that existed when it started.
+ *
+ * @author vinhtt
+ * @version 1.1
+ */
+public abstract class GraphExporter {
+
+    /**
+     * The number of nodes or edges copied per visit to the graph thread.
+     */
+    protected static final int CHUNK_SIZE = 4096;
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final CompactSiteGraph graph;
+    private final Executor graphExecutor;
+
+    /**
+     * Constructs an exporter.
+     *
+     * @param graph         The graph to export.
+     * @param graphExecutor The executor that runs on the thread owning the graph, e.g. {@code Platform::runLater}.
+     */
+    protected GraphExporter(CompactSiteGraph graph, Executor graphExecutor) {
+        this.graph = graph;
+        this.graphExecutor = graphExecutor;
+    }
+
+    /**
+     * Writes the graph. Must not be called on the graph thread unless the graph executor runs tasks directly.
+     *
+     * @param target The output file or directory, depending on the format.
+     * @return The number of records written.
+     * @throws IOException If writing fails.
+     */
+    public abstract long export(Path target) throws IOException;
+
+    /**
+     * Counts the nodes and edges the export will cover.
+     *
+     * @return The node and edge counts at this moment.
+     */
+    protected final Extent extent() {
+        return onGraphThread(() -> new Extent(graph.nodeCount(), graph.edgeCount()));
+    }
+
+    /**
+     * Copies the nodes with ids in {@code [from, to)}.
+     *
+     * @return The chunk, shorter than requested if the graph was cleared meanwhile.
+     */
+    protected final NodeChunk readNodes(int from, int to) {
+        return onGraphThread(() -> {
+            int end = Math.min(to, graph.nodeCount());
+            int length = Math.max(0, end - from);
+            NodeChunk chunk = new NodeChunk(from, new String[length], new String[length],
+                    new NodeType[length], new int[length]);
+            for (int i = 0; i < length; i++) {
+                chunk.urls()[i] = graph.urlOf(from + i);
+                chunk.titles()[i] = graph.titleOf(from + i);
+                chunk.types()[i] = graph.typeOf(from + i);
+                chunk.statuses()[i] = graph.statusOf(from + i);
+            }
+            return chunk;
+        });
+    }
+
+    /**
+     * Copies the endpoints of the edges with ids in {@code [from, to)}.
+     *
+     * @return The chunk, shorter than requested if the graph was cleared meanwhile.
+     */
+    protected final EdgeChunk readEdges(int from, int to) {
+        return onGraphThread(() -> {
+            int end = Math.min(to, graph.edgeCount());
+            int length = Math.max(0, end - from);
+            EdgeChunk chunk = new EdgeChunk(from, new int[length], new int[length]);
+            for (int i = 0; i < length; i++) {
+                chunk.sources()[i] = graph.edgeSource(from + i);
+                chunk.targets()[i] = graph.edgeTarget(from + i);
+            }
+            return chunk;
+        });
+    }
+
+    /**
+     * Copies the URLs of the given node ids.
+     *
+     * @param ids The node ids.
+     * @return The URLs, in the same order.
+     */
+    protected final String[] readUrls(int[] ids) {
+        return onGraphThread(() -> {
+            String[] urls = new String[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                urls[i] = graph.urlOf(ids[i]);
+            }
+            return urls;
+        });
+    }
+
+    /**
+     * Opens a UTF-8 writer on a file, through a buffered channel and optionally gzip.
+     *
+     * @param file The file, replaced if it exists.
+     * @param gzip Whether to compress the output.
+     * @return The writer; closing it closes the file.
+     * @throws IOException If the file cannot be opened.
+     */
+    protected static Writer openWriter(Path file, boolean gzip) throws IOException {
+        return new OutputStreamWriter(openStream(file, gzip), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Opens a byte stream on a file, through a buffered channel and optionally gzip.
+     *
+     * @param file The file, replaced if it exists.
+     * @param gzip Whether to compress the output.
+     * @return The stream; closing it closes the file.
+     * @throws IOException If the file cannot be opened.
+     */
+    protected static OutputStream openStream(Path file, boolean gzip) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_BYTES);
+        if (gzip) {
+            out = new GZIPOutputStream(out, BUFFER_BYTES);
+        }
+        return out;
+    }
+
+    private <T> T onGraphThread(Supplier<T> read) {
+        try {
+            return CompletableFuture.supplyAsync(read, graphExecutor).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new UncheckedIOException(new IOException(e.getCause()));
+        }
+    }
+
+    /**
+     * The size of the graph an export covers.
+     *
+     * @param nodes The node count.
+     * @param edges The edge count.
+     */
+    protected record Extent(int nodes, int edges) {
+    }
+
+    /**
+     * Consecutive nodes copied from the graph.
+     *
+     * @param firstId  The id of the first node.
+     * @param urls     The node URLs.
+     * @param titles   The node titles, null where unknown.
+     * @param types    The node types.
+     * @param statuses The HTTP statuses the nodes' pages were loaded with, 0 where never loaded.
+     */
+    protected record NodeChunk(int firstId, String[] urls, String[] titles, NodeType[] types, int[] statuses) {
+
+        /**
+         * Gets the number of nodes in the chunk.
+         *
+         * @return The chunk length.
+         */
+        public int size() {
+            return urls.length;
+        }
+    }
+
+    /**
+     * Consecutive edges copied from the graph.
+     *
+     * @param firstId The id of the first edge.
+     * @param sources The source node ids.
+     * @param targets The target node ids.
+     */
+    protected record EdgeChunk(int firstId, int[] sources, int[] targets) {
+
+        /**
+         * Gets the number of edges in the chunk.
+         *
+         * @return The chunk length.
+         */
+        public int size() {
+            return sources.length;
+        }
+    }
+}
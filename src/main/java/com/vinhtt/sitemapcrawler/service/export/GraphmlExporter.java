@@ -0,0 +1,109 @@
+package com.vinhtt.sitemapcrawler.service.export;
+
+import com.vinhtt.sitemapcrawler.service.graph.CompactSiteGraph;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+
+/**
+ * Exports the graph as GraphML, readable by Gephi, yEd and Cytoscape. Nodes carry
+ * {@code url}, {@code title} and {@code type} attributes and are identified as
+ * {@code n<id>}. A target ending in {@code .gz} is gzip-compressed.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+public class GraphmlExporter extends GraphExporter {
+
+    private static final String NAMESPACE = "http://graphml.graphdrawing.org/xmlns";
+
+    /**
+     * Constructs a GraphML exporter.
+     *
+     * @param graph         The graph to export.
+     * @param graphExecutor The executor that runs on the thread owning the graph.
+     */
+    public GraphmlExporter(CompactSiteGraph graph, Executor graphExecutor) {
+        super(graph, graphExecutor);
+    }
+
+    /**
+     * Writes the graph to a file.
+     *
+     * @param target The output file.
+     * @return The number of nodes and edges written.
+     * @throws IOException If writing fails.
+     */
+    @Override
+    public long export(Path target) throws IOException {
+        Extent extent = extent();
+        long records = 0;
+        try (Writer out = openWriter(target, target.getFileName().toString().endsWith(".gz"))) {
+            XMLStreamWriter xml = XMLOutputFactory.newFactory().createXMLStreamWriter(out);
+            xml.writeStartDocument("UTF-8", "1.0");
+            xml.writeStartElement("graphml");
+            xml.writeDefaultNamespace(NAMESPACE);
+            writeKey(xml, "url");
+            writeKey(xml, "title");
+            writeKey(xml, "type");
+            xml.writeStartElement("graph");
+            xml.writeAttribute("id", "site");
+            xml.writeAttribute("edgedefault", "directed");
+            for (int from = 0; from < extent.nodes(); from += CHUNK_SIZE) {
+                NodeChunk chunk = readNodes(from, Math.min(from + CHUNK_SIZE, extent.nodes()));
+                for (int i = 0; i < chunk.size(); i++) {
+                    xml.writeStartElement("node");
+                    xml.writeAttribute("id", "n" + (chunk.firstId() + i));
+                    writeData(xml, "url", chunk.urls()[i]);
+                    writeData(xml, "title", chunk.titles()[i]);
+                    writeData(xml, "type", chunk.types()[i].name());
+                    xml.writeEndElement();
+                    records++;
+                }
+            }
+            for (int from = 0; from < extent.edges(); from += CHUNK_SIZE) {
+                EdgeChunk chunk = readEdges(from, Math.min(from + CHUNK_SIZE, extent.edges()));
+                for (int i = 0; i < chunk.size(); i++) {
+                    if (chunk.sources()[i] >= extent.nodes() || chunk.targets()[i] >= extent.nodes()) {
+                        continue;
+                    }
+                    xml.writeEmptyElement("edge");
+                    xml.writeAttribute("id", "e" + (chunk.firstId() + i));
+                    xml.writeAttribute("source", "n" + chunk.sources()[i]);
+                    xml.writeAttribute("target", "n" + chunk.targets()[i]);
+                    records++;
+                }
+            }
+            xml.writeEndElement();
+            xml.writeEndElement();
+            xml.writeEndDocument();
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to write GraphML to " + target, e);
+        }
+        return records;
+    }
+
+    private static void writeKey(XMLStreamWriter xml, String name) throws XMLStreamException {
+        xml.writeEmptyElement("key");
+        xml.writeAttribute("id", name);
+        xml.writeAttribute("for", "node");
+        xml.writeAttribute("attr.name", name);
+        xml.writeAttribute("attr.type", "string");
+    }
+
+    private static void writeData(XMLStreamWriter xml, String key, String value) throws XMLStreamException {
+        if (value == null) {
+            return;
+        }
+        xml.writeStartElement("data");
+        xml.writeAttribute("key", key);
+        xml.writeCharacters(value);
+        xml.writeEndElement();
+    }
+}
@@ -0,0 +1,83 @@
+package com.vinhtt.sitemapcrawler.service.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.vinhtt.sitemapcrawler.service.graph.CompactSiteGraph;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+
+/**
+ * Exports the graph as newline-delimited JSON, in the same line format as the headless
+ * crawler: all node lines first, then all edge lines. A target ending in {@code .gz}
+ * is gzip-compressed.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+public class NdjsonExporter extends GraphExporter {
+
+    /**
+     * Constructs an NDJSON exporter.
+     *
+     * @param graph         The graph to export.
+     * @param graphExecutor The executor that runs on the thread owning the graph.
+     */
+    public NdjsonExporter(CompactSiteGraph graph, Executor graphExecutor) {
+        super(graph, graphExecutor);
+    }
+
+    /**
+     * Writes the graph to a file.
+     *
+     * @param target The output file.
+     * @return The number of lines written.
+     * @throws IOException If writing fails.
+     */
+    @Override
+    public long export(Path target) throws IOException {
+        Extent extent = extent();
+        long lines = 0;
+        try (JsonGenerator generator = new JsonFactory().createGenerator(
+                openWriter(target, target.getFileName().toString().endsWith(".gz")))) {
+            generator.setRootValueSeparator(null);
+            for (int from = 0; from < extent.nodes(); from += CHUNK_SIZE) {
+                NodeChunk chunk = readNodes(from, Math.min(from + CHUNK_SIZE, extent.nodes()));
+                for (int i = 0; i < chunk.size(); i++) {
+                    generator.writeStartObject();
+                    generator.writeStringField("type", "node");
+                    generator.writeStringField("url", chunk.urls()[i]);
+                    generator.writeStringField("title", chunk.titles()[i]);
+                    generator.writeStringField("kind", chunk.types()[i].name());
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                    lines++;
+                }
+            }
+            for (int from = 0; from < extent.edges(); from += CHUNK_SIZE) {
+                EdgeChunk chunk = readEdges(from, Math.min(from + CHUNK_SIZE, extent.edges()));
+                String[] endpoints = readUrls(interleave(chunk));
+                for (int i = 0; i < chunk.size(); i++) {
+                    generator.writeStartObject();
+                    generator.writeStringField("type", "edge");
+                    generator.writeStringField("source", endpoints[2 * i]);
+                    generator.writeStringField("target", endpoints[2 * i + 1]);
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                    lines++;
+                }
+            }
+        }
+        return lines;
+    }
+
+    private static int[] interleave(EdgeChunk chunk) {
+        int[] ids = new int[chunk.size() * 2];
+        for (int i = 0; i < chunk.size(); i++) {
+            ids[2 * i] = chunk.sources()[i];
+            ids[2 * i + 1] = chunk.targets()[i];
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,208 @@
+package com.vinhtt.sitemapcrawler.service.export;
+
+import com.vinhtt.sitemapcrawler.model.NodeType;
+import com.vinhtt.sitemapcrawler.service.graph.CompactSiteGraph;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Exports the crawled internal pages as sitemaps following the sitemaps.org protocol.
+ * URLs are split across {@code sitemap-1.xml}, {@code sitemap-2.xml}, ... files of at
+ * most 50,000 URLs and 50 MB uncompressed each, and a {@code sitemap.xml} index
+ * listing them is written last. The part files are gzip-compressed by default.
+ * Orphan pages, which only the site's own sitemaps list, are exported along with the linked ones.
+ * Only pages loaded with a 2xx or 304 status on the host of the base URL are listed, since
+ * the protocol rejects URLs from other hosts than the one serving the sitemap.
+ *
+ * @author vinhtt
+ * @version 1.2
+ */
+public class SitemapExporter extends GraphExporter {
+
+    /**
+     * The maximum number of URLs per sitemap file allowed by the protocol.
+     */
+    public static final int MAX_URLS_PER_FILE = 50_000;
+
+    private static final long MAX_BYTES_PER_FILE = 50L * 1024 * 1024 - 1024;
+    private static final String NAMESPACE = "http://www.sitemaps.org/schemas/sitemap/0.9";
+    private static final String INDEX_FILE = "sitemap.xml";
+
+    private final String baseUrl;
+    private final String host;
+    private final boolean gzip;
+
+    /**
+     * Constructs a sitemap exporter.
+     *
+     * @param graph         The graph to export.
+     * @param graphExecutor The executor that runs on the thread owning the graph.
+     * @param baseUrl       The URL the files will be published under, ending with {@code /}.
+     * @param gzip          Whether to compress the part files.
+     * @throws IllegalArgumentException If the base URL is blank or has no host.
+     */
+    public SitemapExporter(CompactSiteGraph graph, Executor graphExecutor, String baseUrl, boolean gzip) {
+        super(graph, graphExecutor);
+        if (baseUrl == null || baseUrl.isBlank()) {
+            throw new IllegalArgumentException("Base URL must not be blank");
+        }
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+        this.host = hostOf(this.baseUrl);
+        if (host == null) {
+            throw new IllegalArgumentException("Base URL has no host: " + baseUrl);
+        }
+        this.gzip = gzip;
+    }
+
+    /**
+     * Writes the sitemap files and their index into a directory.
+     *
+     * @param target The output directory, created if missing.
+     * @return The number of URLs written.
+     * @throws IOException If writing fails.
+     */
+    @Override
+    public long export(Path target) throws IOException {
+        Files.createDirectories(target);
+        Extent extent = extent();
+        List<String> parts = new ArrayList<>();
+        Part part = null;
+        long urls = 0;
+        try {
+            for (int from = 0; from < extent.nodes(); from += CHUNK_SIZE) {
+                NodeChunk chunk = readNodes(from, Math.min(from + CHUNK_SIZE, extent.nodes()));
+                for (int i = 0; i < chunk.size(); i++) {
+                    if (!isListed(chunk.types()[i], chunk.statuses()[i], chunk.urls()[i])) {
+                        continue;
+                    }
+                    byte[] entry = urlEntry(chunk.urls()[i]);
+                    if (part != null && (part.urls >= MAX_URLS_PER_FILE
+                            || part.bytes + entry.length > MAX_BYTES_PER_FILE)) {
+                        part.close();
+                        part = null;
+                    }
+                    if (part == null) {
+                        String name = "sitemap-" + (parts.size() + 1) + (gzip ? ".xml.gz" : ".xml");
+                        parts.add(name);
+                        part = new Part(openStream(target.resolve(name), gzip));
+                    }
+                    part.write(entry);
+                    urls++;
+                }
+            }
+        } finally {
+            if (part != null) {
+                part.close();
+            }
+        }
+        writeIndex(target.resolve(INDEX_FILE), parts);
+        return urls;
+    }
+
+    private void writeIndex(Path file, List<String> parts) throws IOException {
+        String today = LocalDate.now().toString();
+        try (Writer out = openWriter(file, false)) {
+            XMLStreamWriter xml = XMLOutputFactory.newFactory().createXMLStreamWriter(out);
+            xml.writeStartDocument("UTF-8", "1.0");
+            xml.writeStartElement("sitemapindex");
+            xml.writeDefaultNamespace(NAMESPACE);
+            for (String part : parts) {
+                xml.writeStartElement("sitemap");
+                xml.writeStartElement("loc");
+                xml.writeCharacters(baseUrl + part);
+                xml.writeEndElement();
+                xml.writeStartElement("lastmod");
+                xml.writeCharacters(today);
+                xml.writeEndElement();
+                xml.writeEndElement();
+            }
+            xml.writeEndElement();
+            xml.writeEndDocument();
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to write sitemap index " + file, e);
+        }
+    }
+
+    private boolean isListed(NodeType type, int status, String url) {
+        if (type != NodeType.INTERNAL && type != NodeType.ORPHAN) {
+            return false;
+        }
+        if ((status < 200 || status >= 300) && status != 304) {
+            return false;
+        }
+        return host.equalsIgnoreCase(hostOf(url));
+    }
+
+    private static String hostOf(String url) {
+        try {
+            return URI.create(url).getHost();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static byte[] urlEntry(String url) {
+        return ("<url><loc>" + escape(url) + "</loc></url>\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length() + 16);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> escaped.append("&amp;");
+                case '<' -> escaped.append("&lt;");
+                case '>' -> escaped.append("&gt;");
+                case '"' -> escaped.append("&quot;");
+                case '\'' -> escaped.append("&apos;");
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static final class Part implements AutoCloseable {
+
+        private static final String HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<urlset xmlns=\"" + NAMESPACE + "\">\n";
+        private static final String FOOTER = "</urlset>\n";
+
+        private final OutputStream out;
+        private int urls;
+        private long bytes;
+
+        Part(OutputStream out) throws IOException {
+            this.out = out;
+            out.write(HEADER.getBytes(StandardCharsets.UTF_8));
+            bytes = HEADER.length() + FOOTER.length();
+        }
+
+        void write(byte[] entry) throws IOException {
+            out.write(entry);
+            bytes += entry.length;
+            urls++;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                out.write(FOOTER.getBytes(StandardCharsets.UTF_8));
+            } finally {
+                out.close();
+            }
+        }
+    }
+}
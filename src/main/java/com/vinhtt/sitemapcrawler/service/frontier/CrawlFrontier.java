@@ -0,0 +1,45 @@
+package com.vinhtt.sitemapcrawler.service.frontier;
+
+/**
+ * The queue of URLs a site crawl still has to visit, as the crawl workers see it.
+ * Entries handed out by {@link #poll(long)} count as in flight until they are
+ * completed, because the page they lead to may offer new entries.
+ *
+ * @author vinhtt
+ * @version 1.1
+ */
+public interface CrawlFrontier {
+
+    /**
+     * Offers a URL found on a page; the frontier decides whether it is new, telling
+     * spellings of the same page apart by their canonical form.
+     *
+     * @param url   The absolute URL to request, as the page spelled it.
+     * @param depth The link distance from the root URL.
+     * @return True if the URL was accepted.
+     */
+    boolean offer(String url, int depth);
+
+    /**
+     * Takes the next entry to visit.
+     *
+     * @param timeoutMs The maximum time to wait for an entry.
+     * @return The entry, or null if none became available or the frontier is exhausted.
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     */
+    FrontierEntry poll(long timeoutMs) throws InterruptedException;
+
+    /**
+     * Marks an entry as visited, after the URLs found on its page were offered.
+     *
+     * @param entry The entry returned by {@link #poll(long)}.
+     */
+    void complete(FrontierEntry entry);
+
+    /**
+     * Checks whether nothing is queued or in flight.
+     *
+     * @return True if the crawl has no work left.
+     */
+    boolean isExhausted();
+}
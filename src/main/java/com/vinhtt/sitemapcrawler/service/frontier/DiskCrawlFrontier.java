@@ -0,0 +1,419 @@
+package com.vinhtt.sitemapcrawler.service.frontier;
+
+import com.vinhtt.sitemapcrawler.model.CrawlConfig;
+import com.vinhtt.sitemapcrawler.service.impl.UrlCanonicalizer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Persistent FIFO frontier of a site crawl, backed by an append-only log of
+ * {@code [length][depth][url]} records, a memory-mapped index of the log
+ * positions and a seen-set. Heap use is bounded by the read-ahead buffer, the
+ * seen-set filter and the entries currently in flight, however large the frontier grows.
+ * <p>
+ * URLs are queued as offered, so they are requested as the site spelled them, but
+ * deduplicated by their canonical form: of the variants of one page only the first is queued.
+ * Offered URLs are first checked against a {@link ScalableBloomFilter}; a URL the
+ * filter has never seen is new without further lookups. With an exact seen-set,
+ * filter hits are confirmed by the {@link DiskSeenSet}, otherwise they are trusted
+ * and a new URL is skipped with at most the configured false-positive rate. The
+ * filter is rebuilt from the log on open, so it needs no file of its own.
+ * <p>
+ * Entries handed out by {@link #poll(long)} stay uncommitted until
+ * {@link #complete(FrontierEntry)}, and the commit point only advances to the oldest
+ * entry still in flight. Resume is therefore at-least-once: after a pause or a crash
+ * the frontier resumes at the oldest unfinished entry, and every entry handed out
+ * after it is handed out again, whether or not it was completed.
+ *
+ * @author vinhtt
+ * @version 1.4
+ */
+public final class DiskCrawlFrontier implements CrawlFrontier, AutoCloseable {
+
+    private static final String LOG_FILE = "frontier.log";
+    private static final String INDEX_FILE = "frontier.idx";
+    private static final long MAGIC = 0x534d434652303031L;
+    private static final int INDEX_BYTES = 5 * Long.BYTES;
+    private static final int RECORD_HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int MAX_URL_BYTES = 16 * 1024;
+    private static final int READ_AHEAD_BYTES = 64 * 1024;
+
+    private static final int POS_COMMIT_OFFSET = 8;
+    private static final int POS_COMMIT_SEQUENCE = 16;
+    private static final int POS_WRITE_OFFSET = 24;
+    private static final int POS_WRITE_SEQUENCE = 32;
+
+    private final Path directory;
+    private final UrlCanonicalizer canonicalizer;
+    private final DiskSeenSet seen;
+    private final ScalableBloomFilter filter;
+    private final FileChannel log;
+    private final FileChannel indexChannel;
+    private final MappedByteBuffer index;
+    private final ByteBuffer readAhead = ByteBuffer.allocate(READ_AHEAD_BYTES);
+    private final TreeMap<Long, Long> inFlight = new TreeMap<>();
+
+    private long readAheadStart = -1;
+    private int lastRecordBytes;
+    private long readOffset;
+    private long readSequence;
+    private long commitOffset;
+    private long commitSequence;
+    private long writeOffset;
+    private long writeSequence;
+    private long falsePositives;
+
+    private DiskCrawlFrontier(Path directory, CrawlConfig config) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        this.canonicalizer = new UrlCanonicalizer(config);
+        this.seen = config.isExactSeenSet() ? new DiskSeenSet(directory) : null;
+        this.filter = new ScalableBloomFilter(config.getSeenFalsePositiveRate(),
+                config.getSeenInitialCapacity(), config.getSeenFilterMaxBytes());
+        this.log = FileChannel.open(directory.resolve(LOG_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.indexChannel = FileChannel.open(directory.resolve(INDEX_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, INDEX_BYTES);
+
+        if (index.getLong(0) == MAGIC) {
+            commitOffset = index.getLong(POS_COMMIT_OFFSET);
+            commitSequence = index.getLong(POS_COMMIT_SEQUENCE);
+        } else {
+            index.putLong(0, MAGIC);
+        }
+        recoverTail();
+        rebuildFilter();
+        readOffset = commitOffset;
+        readSequence = commitSequence;
+        writeIndex();
+    }
+
+    /**
+     * Opens the frontier stored in a directory, creating an empty one if none exists.
+     *
+     * @param directory The crawl state directory.
+     * @param config    The crawl configuration holding the seen-set and canonicalization settings.
+     * @return The opened frontier.
+     * @throws UncheckedIOException If the files cannot be opened.
+     */
+    public static DiskCrawlFrontier open(Path directory, CrawlConfig config) {
+        try {
+            return new DiskCrawlFrontier(directory, config);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open frontier in " + directory, e);
+        }
+    }
+
+    /**
+     * Checks whether a directory holds a frontier with unvisited entries, without opening it.
+     *
+     * @param directory The crawl state directory.
+     * @return True if a paused crawl can be resumed from the directory.
+     */
+    public static boolean hasPendingWork(Path directory) {
+        Path indexFile = directory.resolve(INDEX_FILE);
+        if (!Files.isRegularFile(indexFile)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(INDEX_BYTES);
+            channel.read(buffer, 0);
+            buffer.flip();
+            return buffer.remaining() == INDEX_BYTES
+                    && buffer.getLong(0) == MAGIC
+                    && buffer.getLong(POS_WRITE_SEQUENCE) > buffer.getLong(POS_COMMIT_SEQUENCE);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Deletes all state files of a crawl.
+     *
+     * @param directory The crawl state directory.
+     * @throws UncheckedIOException If a file cannot be deleted.
+     */
+    public static void delete(Path directory) {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot delete crawl state in " + directory, e);
+        }
+    }
+
+    /**
+     * Appends a URL unless it, or another spelling of the same canonical URL, was offered before.
+     *
+     * @param url   The absolute URL to request.
+     * @param depth The link distance from the root URL.
+     * @return True if the URL was new and has been queued.
+     * @throws UncheckedIOException If the log cannot be written.
+     */
+    @Override
+    public synchronized boolean offer(String url, int depth) {
+        byte[] bytes = url.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_URL_BYTES || !markSeen(keyOf(url))) {
+            return false;
+        }
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + bytes.length);
+        record.putInt(bytes.length).putInt(depth).put(bytes).flip();
+        try {
+            long position = writeOffset;
+            while (record.hasRemaining()) {
+                position += log.write(record, position);
+            }
+            writeOffset = position;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to frontier in " + directory, e);
+        }
+        writeSequence++;
+        index.putLong(POS_WRITE_OFFSET, writeOffset);
+        index.putLong(POS_WRITE_SEQUENCE, writeSequence);
+        notifyAll();
+        return true;
+    }
+
+    /**
+     * Takes the oldest queued entry, waiting while other entries are still in flight
+     * because they may produce new work.
+     *
+     * @param timeoutMs The maximum time to wait for an entry.
+     * @return The entry, or null if none became available or the frontier is exhausted.
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     */
+    @Override
+    public synchronized FrontierEntry poll(long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (readSequence == writeSequence) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (inFlight.isEmpty() || remaining <= 0) {
+                return null;
+            }
+            wait(remaining);
+        }
+
+        FrontierEntry entry = readRecord(readOffset, readSequence);
+        readOffset += lastRecordBytes;
+        readSequence++;
+        inFlight.put(entry.offset(), entry.sequence());
+        return entry;
+    }
+
+    /**
+     * Marks an entry as visited. Once no older entry is in flight, the commit point
+     * moves past it and it is no longer handed out again after a resume.
+     *
+     * @param entry The entry returned by {@link #poll(long)}.
+     */
+    @Override
+    public synchronized void complete(FrontierEntry entry) {
+        inFlight.remove(entry.offset());
+        if (inFlight.isEmpty()) {
+            commitOffset = readOffset;
+            commitSequence = readSequence;
+        } else {
+            commitOffset = inFlight.firstKey();
+            commitSequence = inFlight.firstEntry().getValue();
+        }
+        index.putLong(POS_COMMIT_OFFSET, commitOffset);
+        index.putLong(POS_COMMIT_SEQUENCE, commitSequence);
+        notifyAll();
+    }
+
+    /**
+     * Checks whether nothing is queued or in flight.
+     *
+     * @return True if the crawl has no work left.
+     */
+    @Override
+    public synchronized boolean isExhausted() {
+        return readSequence == writeSequence && inFlight.isEmpty();
+    }
+
+    /**
+     * Gets the number of entries that are queued or in flight.
+     *
+     * @return The pending entry count.
+     */
+    public synchronized long pendingCount() {
+        return writeSequence - commitSequence;
+    }
+
+    /**
+     * Gets the number of distinct URLs ever offered to this frontier.
+     *
+     * @return The seen URL count.
+     */
+    public synchronized long seenCount() {
+        return filter.size();
+    }
+
+    /**
+     * Gets the number of filter hits that the exact seen-set proved to be new URLs.
+     *
+     * @return The observed false-positive count, always zero without an exact seen-set.
+     */
+    public synchronized long falsePositiveCount() {
+        return falsePositives;
+    }
+
+    /**
+     * Gets the seen-set filter, e.g. to report its memory use and expected false-positive rate.
+     *
+     * @return The filter.
+     */
+    public ScalableBloomFilter seenFilter() {
+        return filter;
+    }
+
+    /**
+     * Flushes the log, the index and the seen-set to disk.
+     *
+     * @throws UncheckedIOException If flushing fails.
+     */
+    public synchronized void checkpoint() {
+        try {
+            log.force(false);
+            if (seen != null) {
+                seen.checkpoint();
+            }
+            index.force();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot checkpoint frontier in " + directory, e);
+        }
+    }
+
+    /**
+     * Checkpoints and releases all files. Entries from the oldest one still in flight on
+     * are visited again on resume.
+     */
+    @Override
+    public synchronized void close() {
+        checkpoint();
+        try {
+            if (seen != null) {
+                seen.close();
+            }
+            log.close();
+            indexChannel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Re-derives the write position by scanning the records after the last commit,
+     * dropping a torn record left by a crash in the middle of an append.
+     */
+    private void recoverTail() throws IOException {
+        long offset = commitOffset;
+        long sequence = commitSequence;
+        long size = log.size();
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+        while (offset + RECORD_HEADER_BYTES <= size) {
+            header.clear();
+            log.read(header, offset);
+            int length = header.getInt(0);
+            if (length < 0 || length > MAX_URL_BYTES || offset + RECORD_HEADER_BYTES + length > size) {
+                break;
+            }
+            offset += RECORD_HEADER_BYTES + length;
+            sequence++;
+        }
+        writeOffset = offset;
+        writeSequence = sequence;
+        if (size > offset) {
+            log.truncate(offset);
+        }
+    }
+
+    private String keyOf(String url) {
+        String key = canonicalizer.canonicalize(url);
+        return key != null ? key : url;
+    }
+
+    private boolean markSeen(String key) {
+        long fingerprint = DiskSeenSet.fingerprint(key);
+        if (filter.mightContain(fingerprint)) {
+            if (seen == null || !seen.add(key)) {
+                return false;
+            }
+            falsePositives++;
+        } else if (seen != null) {
+            seen.add(key);
+        }
+        filter.put(fingerprint);
+        return true;
+    }
+
+    private void rebuildFilter() {
+        long offset = 0;
+        while (offset < writeOffset) {
+            filter.put(DiskSeenSet.fingerprint(keyOf(readRecord(offset, 0).url())));
+            offset += lastRecordBytes;
+        }
+    }
+
+    private FrontierEntry readRecord(long offset, long sequence) {
+        try {
+            if (!readAheadContains(offset, RECORD_HEADER_BYTES)) {
+                fillReadAhead(offset);
+            }
+            int position = (int) (offset - readAheadStart);
+            int length = readAhead.getInt(position);
+            int depth = readAhead.getInt(position + Integer.BYTES);
+            if (!readAheadContains(offset, RECORD_HEADER_BYTES + length)) {
+                fillReadAhead(offset);
+                position = 0;
+            }
+            byte[] bytes = new byte[length];
+            readAhead.get(position + RECORD_HEADER_BYTES, bytes);
+            lastRecordBytes = RECORD_HEADER_BYTES + length;
+            return new FrontierEntry(new String(bytes, StandardCharsets.UTF_8), depth, offset, sequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read frontier in " + directory, e);
+        }
+    }
+
+    private boolean readAheadContains(long offset, int length) {
+        return readAheadStart >= 0 && offset >= readAheadStart && offset + length <= readAheadStart + readAhead.limit();
+    }
+
+    private void fillReadAhead(long offset) throws IOException {
+        readAhead.clear();
+        long limit = Math.min(writeOffset - offset, READ_AHEAD_BYTES);
+        readAhead.limit((int) limit);
+        while (readAhead.hasRemaining()) {
+            if (log.read(readAhead, offset + readAhead.position()) < 0) {
+                break;
+            }
+        }
+        readAhead.flip();
+        readAheadStart = offset;
+    }
+
+    private void writeIndex() {
+        index.putLong(POS_COMMIT_OFFSET, commitOffset);
+        index.putLong(POS_COMMIT_SEQUENCE, commitSequence);
+        index.putLong(POS_WRITE_OFFSET, writeOffset);
+        index.putLong(POS_WRITE_SEQUENCE, writeSequence);
+    }
+}
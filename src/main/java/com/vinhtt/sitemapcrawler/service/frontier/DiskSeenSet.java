@@ -0,0 +1,241 @@
+package com.vinhtt.sitemapcrawler.service.frontier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+/**
+ * Persistent set of URLs stored as 64-bit fingerprints in a memory-mapped
+ * open-addressing table. Growth rehashes into a staged file that atomically
+ * replaces the previous generation. The table lives off-heap in the page cache, so the
+ * Java heap stays flat however many URLs are recorded, and the set survives
+ * restarts. Two distinct URLs collide with probability about n²/2⁶⁵, which is
+ * negligible for crawls of a few million pages.
+ *
+ * @author vinhtt
+ * @version 1.1
+ */
+public final class DiskSeenSet implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DiskSeenSet.class);
+
+    private static final String FILE_PREFIX = "seen-";
+    private static final String FILE_SUFFIX = ".bin";
+    private static final int HEADER_BYTES = 16;
+    private static final int INITIAL_SLOTS = 1 << 16;
+    private static final int MAX_SLOTS = 1 << 27;
+    private static final double MAX_LOAD = 0.5;
+
+    private final Path directory;
+    private int generation;
+    private FileChannel channel;
+    private MappedByteBuffer table;
+    private int slots;
+    private long size;
+
+    /**
+     * Opens the set stored in a directory, creating an empty one if none exists.
+     *
+     * @param directory The crawl state directory.
+     * @throws UncheckedIOException If the file cannot be opened or mapped.
+     */
+    public DiskSeenSet(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+            generation = latestGeneration();
+            if (generation < 0) {
+                generation = 0;
+                map(fileOf(generation), INITIAL_SLOTS, true);
+            } else {
+                map(fileOf(generation), 0, false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open seen-set in " + directory, e);
+        }
+    }
+
+    /**
+     * Adds a URL.
+     *
+     * @param url The URL to record.
+     * @return True if the URL was not seen before.
+     */
+    public synchronized boolean add(String url) {
+        long fingerprint = fingerprint(url);
+        int slot = find(fingerprint);
+        if (slotValue(slot) == fingerprint) {
+            return false;
+        }
+        table.putLong(slotPosition(slot), fingerprint);
+        size++;
+        table.putLong(0, size);
+        if (size > slots * MAX_LOAD) {
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a URL was recorded.
+     *
+     * @param url The URL to look up.
+     * @return True if the URL was seen before.
+     */
+    public synchronized boolean contains(String url) {
+        long fingerprint = fingerprint(url);
+        return slotValue(find(fingerprint)) == fingerprint;
+    }
+
+    /**
+     * Gets the number of recorded URLs.
+     *
+     * @return The URL count.
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Flushes the table to disk.
+     */
+    public synchronized void checkpoint() {
+        table.force();
+    }
+
+    /**
+     * Flushes and releases the file.
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            table.force();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Computes the 64-bit fingerprint of a URL (FNV-1a over UTF-8, followed by a
+     * MurmurHash3 finalizer). Zero is reserved as the empty-slot marker.
+     *
+     * @param url The URL.
+     * @return The non-zero fingerprint.
+     */
+    public static long fingerprint(String url) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : url.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h == 0 ? 1 : h;
+    }
+
+    private int find(long fingerprint) {
+        int mask = slots - 1;
+        int slot = (int) fingerprint & mask;
+        long value;
+        while ((value = slotValue(slot)) != 0 && value != fingerprint) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private long slotValue(int slot) {
+        return table.getLong(slotPosition(slot));
+    }
+
+    private static int slotPosition(int slot) {
+        return HEADER_BYTES + slot * Long.BYTES;
+    }
+
+    private void grow() {
+        if (slots >= MAX_SLOTS) {
+            throw new IllegalStateException("Seen-set is full: " + size + " URLs");
+        }
+        MappedByteBuffer old = table;
+        FileChannel oldChannel = channel;
+        int oldSlots = slots;
+        long count = size;
+        Path oldFile = fileOf(generation);
+        try {
+            generation++;
+            Path staging = directory.resolve(fileOf(generation).getFileName() + ".tmp");
+            map(staging, oldSlots * 2, true);
+            int mask = slots - 1;
+            for (int i = 0; i < oldSlots; i++) {
+                long value = old.getLong(slotPosition(i));
+                if (value != 0) {
+                    int slot = (int) value & mask;
+                    while (slotValue(slot) != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    table.putLong(slotPosition(slot), value);
+                }
+            }
+            size = count;
+            table.putLong(0, size);
+            table.force();
+            Files.move(staging, fileOf(generation), StandardCopyOption.ATOMIC_MOVE);
+            oldChannel.close();
+            deleteQuietly(oldFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot grow seen-set in " + directory, e);
+        }
+    }
+
+    private void map(Path file, int slotCount, boolean create) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (create) {
+            long bytes = HEADER_BYTES + (long) slotCount * Long.BYTES;
+            table = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+            table.putLong(0, 0);
+            table.putLong(8, slotCount);
+            slots = slotCount;
+            size = 0;
+        } else {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            slots = (int) header.getLong(8);
+            table = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) slots * Long.BYTES);
+            size = table.getLong(0);
+        }
+    }
+
+    private int latestGeneration() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX))
+                    .mapToInt(name -> Integer.parseInt(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length())))
+                    .max()
+                    .orElse(-1);
+        }
+    }
+
+    private Path fileOf(int gen) {
+        return directory.resolve(FILE_PREFIX + gen + FILE_SUFFIX);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOG.warn("Cannot delete {}: {}", file, e.getMessage());
+        }
+    }
+}
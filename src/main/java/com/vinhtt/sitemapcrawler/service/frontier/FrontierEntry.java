@@ -0,0 +1,15 @@
+package com.vinhtt.sitemapcrawler.service.frontier;
+
+/**
+ * A URL taken from the frontier together with its distance from the root and
+ * its position in the frontier log, which identifies it when it is completed.
+ *
+ * @param url      The absolute URL to request; its canonical form is the key of its node.
+ * @param depth    The link distance from the root URL.
+ * @param offset   The byte offset of the record in the frontier log.
+ * @param sequence The ordinal of the record in the frontier log.
+ * @author vinhtt
+ * @version 1.1
+ */
+public record FrontierEntry(String url, int depth, long offset, long sequence) {
+}
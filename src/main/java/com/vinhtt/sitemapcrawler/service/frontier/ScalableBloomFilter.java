@@ -0,0 +1,191 @@
+package com.vinhtt.sitemapcrawler.service.frontier;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scalable Bloom filter over 64-bit URL fingerprints (Almeida et al., 2007).
+ * Starts with one filter sized for the initial capacity and, whenever the newest
+ * filter is full, adds one twice as large with half the false-positive rate, so the
+ * compound rate stays below the target however many URLs arrive. Once the memory
+ * budget is spent the newest filter keeps absorbing inserts and the false-positive
+ * rate degrades gracefully instead of the heap growing.
+ * <p>
+ * Not thread-safe; callers synchronize.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+public final class ScalableBloomFilter {
+
+    private static final double TIGHTENING_RATIO = 0.5;
+    private static final int GROWTH_FACTOR = 2;
+    private static final double LN2_SQUARED = Math.log(2) * Math.log(2);
+
+    private final double falsePositiveRate;
+    private final long maxBytes;
+    private final List<Stage> stages = new ArrayList<>();
+    private long size;
+    private long bytes;
+
+    /**
+     * Constructs an empty filter.
+     *
+     * @param falsePositiveRate The target compound false-positive rate, in (0, 1).
+     * @param initialCapacity   The number of insertions the first stage is sized for.
+     * @param maxBytes          The memory budget of all stages together.
+     * @throws IllegalArgumentException If a parameter is out of range.
+     */
+    public ScalableBloomFilter(double falsePositiveRate, int initialCapacity, long maxBytes) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be in (0, 1): " + falsePositiveRate);
+        }
+        if (initialCapacity <= 0 || maxBytes <= 0) {
+            throw new IllegalArgumentException("initialCapacity and maxBytes must be positive");
+        }
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxBytes = maxBytes;
+        addStage(initialCapacity, falsePositiveRate * (1 - TIGHTENING_RATIO));
+    }
+
+    /**
+     * Checks whether a fingerprint may have been added. False means it definitely was not.
+     *
+     * @param fingerprint The 64-bit fingerprint, see {@link DiskSeenSet#fingerprint(String)}.
+     * @return True if the fingerprint is possibly present.
+     */
+    public boolean mightContain(long fingerprint) {
+        for (int i = stages.size() - 1; i >= 0; i--) {
+            if (stages.get(i).mightContain(fingerprint)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds a fingerprint, growing the filter if the newest stage is full and the budget allows.
+     *
+     * @param fingerprint The 64-bit fingerprint.
+     */
+    public void put(long fingerprint) {
+        Stage last = stages.get(stages.size() - 1);
+        if (last.count >= last.capacity) {
+            long nextCapacity = last.capacity * GROWTH_FACTOR;
+            double nextRate = last.falsePositiveRate * TIGHTENING_RATIO;
+            if (bytes + Stage.bytesFor(nextCapacity, nextRate) <= maxBytes && nextCapacity <= Integer.MAX_VALUE) {
+                last = addStage((int) nextCapacity, nextRate);
+            }
+        }
+        last.put(fingerprint);
+        size++;
+    }
+
+    /**
+     * Gets the number of insertions.
+     *
+     * @return The insertion count.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Gets the heap used by the bit arrays.
+     *
+     * @return The size in bytes.
+     */
+    public long estimatedBytes() {
+        return bytes;
+    }
+
+    /**
+     * Estimates the current compound false-positive rate from the fill of each stage.
+     *
+     * @return The expected probability that an absent fingerprint is reported present.
+     */
+    public double expectedFalsePositiveRate() {
+        double none = 1;
+        for (Stage stage : stages) {
+            none *= 1 - stage.expectedFalsePositiveRate();
+        }
+        return 1 - none;
+    }
+
+    /**
+     * Gets the target compound false-positive rate.
+     *
+     * @return The configured rate.
+     */
+    public double targetFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    private Stage addStage(int capacity, double rate) {
+        Stage stage = new Stage(capacity, rate);
+        stages.add(stage);
+        bytes += (long) stage.bits.length * Long.BYTES;
+        return stage;
+    }
+
+    /**
+     * One classic Bloom filter, probed by Kirsch-Mitzenmacher double hashing of the fingerprint.
+     */
+    private static final class Stage {
+
+        private final long[] bits;
+        private final long bitCount;
+        private final int hashCount;
+        private final long capacity;
+        private final double falsePositiveRate;
+        private long count;
+
+        Stage(long capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            this.bits = new long[(int) Math.max(1, (bitsFor(capacity, falsePositiveRate) + 63) >>> 6)];
+            this.bitCount = (long) bits.length << 6;
+            this.hashCount = Math.max(1, (int) Math.round(bitCount / (double) capacity * Math.log(2)));
+        }
+
+        static long bitsFor(long capacity, double falsePositiveRate) {
+            return (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / LN2_SQUARED);
+        }
+
+        static long bytesFor(long capacity, double falsePositiveRate) {
+            return ((bitsFor(capacity, falsePositiveRate) + 63) >>> 6) * Long.BYTES;
+        }
+
+        boolean mightContain(long fingerprint) {
+            long h1 = fingerprint;
+            long h2 = mix(fingerprint) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+                if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void put(long fingerprint) {
+            long h1 = fingerprint;
+            long h2 = mix(fingerprint) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+                bits[(int) (bit >>> 6)] |= 1L << bit;
+            }
+            count++;
+        }
+
+        double expectedFalsePositiveRate() {
+            return Math.pow(1 - Math.exp(-hashCount * (double) count / bitCount), hashCount);
+        }
+
+        private static long mix(long value) {
+            value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+            value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+            return value ^ (value >>> 31);
+        }
+    }
+}
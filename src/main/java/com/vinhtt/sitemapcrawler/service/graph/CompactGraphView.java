@@ -0,0 +1,319 @@
+package com.vinhtt.sitemapcrawler.service.graph;
+
+import org.jgrapht.Graph;
+import org.jgrapht.GraphType;
+import org.jgrapht.graph.AbstractGraph;
+import org.jgrapht.graph.DefaultGraphType;
+
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntSupplier;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Read-only JGraphT adapter over a {@link CompactSiteGraph}.
+ * Vertices are node ids and edges are edge ids; all sets are live views backed
+ * by the store's arrays, so wrapping a million-node graph costs no copies.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+final class CompactGraphView extends AbstractGraph<Integer, Integer> {
+
+    private static final GraphType TYPE = new DefaultGraphType.Builder()
+            .directed()
+            .allowMultipleEdges(false)
+            .allowSelfLoops(true)
+            .weighted(false)
+            .modifiable(false)
+            .build();
+
+    private final CompactSiteGraph store;
+
+    CompactGraphView(CompactSiteGraph store) {
+        this.store = store;
+    }
+
+    @Override
+    public Set<Integer> getAllEdges(Integer sourceVertex, Integer targetVertex) {
+        Integer edge = getEdge(sourceVertex, targetVertex);
+        return edge == null ? Collections.emptySet() : Collections.singleton(edge);
+    }
+
+    @Override
+    public Integer getEdge(Integer sourceVertex, Integer targetVertex) {
+        if (sourceVertex == null || targetVertex == null) {
+            return null;
+        }
+        int edge = store.edgeOf(sourceVertex, targetVertex);
+        return edge < 0 ? null : edge;
+    }
+
+    @Override
+    public Supplier<Integer> getVertexSupplier() {
+        return null;
+    }
+
+    @Override
+    public Supplier<Integer> getEdgeSupplier() {
+        return null;
+    }
+
+    @Override
+    public Integer addEdge(Integer sourceVertex, Integer targetVertex) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean addEdge(Integer sourceVertex, Integer targetVertex, Integer edge) {
+        throw readOnly();
+    }
+
+    @Override
+    public Integer addVertex() {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean addVertex(Integer vertex) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean containsEdge(Integer edge) {
+        return edge != null && edge >= 0 && edge < store.edgeCount();
+    }
+
+    @Override
+    public boolean containsVertex(Integer vertex) {
+        return vertex != null && vertex >= 0 && vertex < store.nodeCount();
+    }
+
+    @Override
+    public Set<Integer> edgeSet() {
+        return new RangeSet(store::edgeCount);
+    }
+
+    @Override
+    public int degreeOf(Integer vertex) {
+        return inDegreeOf(vertex) + outDegreeOf(vertex);
+    }
+
+    @Override
+    public Set<Integer> edgesOf(Integer vertex) {
+        Set<Integer> outgoing = outgoingEdgesOf(vertex);
+        Set<Integer> incoming = incomingEdgesOf(vertex);
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Integer> iterator() {
+                Iterator<Integer> out = outgoing.iterator();
+                Iterator<Integer> in = incoming.iterator();
+                return new Iterator<>() {
+                    private Integer next = advance();
+
+                    private Integer advance() {
+                        if (out.hasNext()) {
+                            return out.next();
+                        }
+                        while (in.hasNext()) {
+                            Integer edge = in.next();
+                            if (store.edgeSource(edge) != store.edgeTarget(edge)) {
+                                return edge;
+                            }
+                        }
+                        return null;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next != null;
+                    }
+
+                    @Override
+                    public Integer next() {
+                        if (next == null) {
+                            throw new NoSuchElementException();
+                        }
+                        Integer current = next;
+                        next = advance();
+                        return current;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                int loops = 0;
+                for (Integer edge : outgoing) {
+                    if (store.edgeSource(edge) == store.edgeTarget(edge)) {
+                        loops++;
+                    }
+                }
+                return outgoing.size() + incoming.size() - loops;
+            }
+        };
+    }
+
+    @Override
+    public int inDegreeOf(Integer vertex) {
+        assertVertexExist(vertex);
+        return store.inDegree(vertex);
+    }
+
+    @Override
+    public Set<Integer> incomingEdgesOf(Integer vertex) {
+        assertVertexExist(vertex);
+        return new EdgeListSet(store.firstInEdge(vertex), store::nextInEdge, store.inDegree(vertex));
+    }
+
+    @Override
+    public int outDegreeOf(Integer vertex) {
+        assertVertexExist(vertex);
+        return store.outDegree(vertex);
+    }
+
+    @Override
+    public Set<Integer> outgoingEdgesOf(Integer vertex) {
+        assertVertexExist(vertex);
+        return new EdgeListSet(store.firstOutEdge(vertex), store::nextOutEdge, store.outDegree(vertex));
+    }
+
+    @Override
+    public Integer removeEdge(Integer sourceVertex, Integer targetVertex) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean removeEdge(Integer edge) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean removeVertex(Integer vertex) {
+        throw readOnly();
+    }
+
+    @Override
+    public Set<Integer> vertexSet() {
+        return new RangeSet(store::nodeCount);
+    }
+
+    @Override
+    public Integer getEdgeSource(Integer edge) {
+        return store.edgeSource(edge);
+    }
+
+    @Override
+    public Integer getEdgeTarget(Integer edge) {
+        return store.edgeTarget(edge);
+    }
+
+    @Override
+    public GraphType getType() {
+        return TYPE;
+    }
+
+    @Override
+    public double getEdgeWeight(Integer edge) {
+        return Graph.DEFAULT_EDGE_WEIGHT;
+    }
+
+    @Override
+    public void setEdgeWeight(Integer edge, double weight) {
+        throw readOnly();
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("CompactGraphView is read-only");
+    }
+
+    /**
+     * Live view of the ids {@code 0..size-1}.
+     */
+    private static final class RangeSet extends AbstractSet<Integer> {
+
+        private final IntSupplier size;
+
+        RangeSet(IntSupplier size) {
+            this.size = size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Integer id && id >= 0 && id < size.getAsInt();
+        }
+
+        @Override
+        public Iterator<Integer> iterator() {
+            int end = size.getAsInt();
+            return new Iterator<>() {
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return next < end;
+                }
+
+                @Override
+                public Integer next() {
+                    if (next >= end) {
+                        throw new NoSuchElementException();
+                    }
+                    return next++;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size.getAsInt();
+        }
+    }
+
+    /**
+     * Live view of one array-backed edge list of the store.
+     */
+    private static final class EdgeListSet extends AbstractSet<Integer> {
+
+        private final int head;
+        private final IntUnaryOperator nextEdge;
+        private final int size;
+
+        EdgeListSet(int head, IntUnaryOperator nextEdge, int size) {
+            this.head = head;
+            this.nextEdge = nextEdge;
+            this.size = size;
+        }
+
+        @Override
+        public Iterator<Integer> iterator() {
+            return new Iterator<>() {
+                private int next = head;
+
+                @Override
+                public boolean hasNext() {
+                    return next >= 0;
+                }
+
+                @Override
+                public Integer next() {
+                    if (next < 0) {
+                        throw new NoSuchElementException();
+                    }
+                    int current = next;
+                    next = nextEdge.applyAsInt(current);
+                    return current;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,441 @@
+package com.vinhtt.sitemapcrawler.service.graph;
+
+import com.vinhtt.sitemapcrawler.model.NodeType;
+import com.vinhtt.sitemapcrawler.model.SiteNode;
+import org.jgrapht.Graph;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Directed site map graph keyed by dense int ids, stored entirely in primitive arrays.
+ * Each URL is kept once (in a {@link UrlDictionary}); out- and in-edges are kept as
+ * array-backed linked lists, so adding an edge never allocates an object.
+ * Parallel edges are rejected, matching {@code SimpleDirectedGraph}. The HTTP status of
+ * each loaded page is kept beside its type, 0 until one is known. Not thread-safe.
+ *
+ * @author vinhtt
+ * @version 1.1
+ */
+public final class CompactSiteGraph {
+
+    private static final int INITIAL_NODES = 1 << 10;
+    private static final int INITIAL_EDGES = 1 << 12;
+    private static final float MAX_EDGE_LOAD = 0.6f;
+    private static final NodeType[] NODE_TYPES = NodeType.values();
+
+    private final UrlDictionary urls = new UrlDictionary();
+    private final StringArena titles = new StringArena();
+
+    private int[] titleHandles = new int[INITIAL_NODES];
+    private byte[] types = new byte[INITIAL_NODES];
+    private short[] statuses = new short[INITIAL_NODES];
+    private int[] outHead = new int[INITIAL_NODES];
+    private int[] inHead = new int[INITIAL_NODES];
+    private int[] outDegree = new int[INITIAL_NODES];
+    private int[] inDegree = new int[INITIAL_NODES];
+
+    private int[] edgeSource = new int[INITIAL_EDGES];
+    private int[] edgeTarget = new int[INITIAL_EDGES];
+    private int[] nextOut = new int[INITIAL_EDGES];
+    private int[] nextIn = new int[INITIAL_EDGES];
+    private int[] edgeSlots = new int[INITIAL_EDGES * 2];
+    private int edgeCount;
+
+    /**
+     * Adds a node or updates the title and type of an existing one.
+     *
+     * @param url   The URL (id) of the node.
+     * @param title The page title, or null to keep the current one.
+     * @param type  The classification of the node.
+     * @return The int id of the node.
+     */
+    public int addNode(String url, String title, NodeType type) {
+        int id = ensureNode(url);
+        types[id] = (byte) type.ordinal();
+        if (title != null) {
+            byte[] bytes = title.getBytes(StandardCharsets.UTF_8);
+            int current = titleHandles[id];
+            if (current < 0 || !titles.equalsAt(current, bytes)) {
+                titleHandles[id] = titles.add(bytes);
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Adds a node from its object form, recording the HTTP status of its timings if it has any.
+     *
+     * @param node The node to add or update.
+     * @return The int id of the node.
+     */
+    public int addNode(SiteNode node) {
+        int id = addNode(node.getUrl(), node.getTitle(), node.getType());
+        if (node.getTimings() != null) {
+            statuses[id] = (short) node.getTimings().getStatusCode();
+        }
+        return id;
+    }
+
+    /**
+     * Returns the id of a URL, adding it as an untitled {@link NodeType#PENDING} node if it is new.
+     *
+     * @param url The URL (id) of the node.
+     * @return The int id of the node.
+     */
+    public int ensureNode(String url) {
+        int before = urls.size();
+        int id = urls.intern(url);
+        if (id == before) {
+            ensureNodeCapacity(id + 1);
+            titleHandles[id] = -1;
+            types[id] = (byte) NodeType.PENDING.ordinal();
+            statuses[id] = 0;
+            outHead[id] = -1;
+            inHead[id] = -1;
+            outDegree[id] = 0;
+            inDegree[id] = 0;
+        }
+        return id;
+    }
+
+    /**
+     * Adds a directed edge between two existing nodes.
+     *
+     * @param source The id of the linking node.
+     * @param target The id of the linked node.
+     * @return The edge id, or -1 if the edge already existed.
+     * @throws IndexOutOfBoundsException If either id is unknown.
+     */
+    public int addEdge(int source, int target) {
+        checkNode(source);
+        checkNode(target);
+        int slot = findEdgeSlot(source, target);
+        if (edgeSlots[slot] != 0) {
+            return -1;
+        }
+
+        int edge = edgeCount++;
+        ensureEdgeCapacity(edgeCount);
+        edgeSource[edge] = source;
+        edgeTarget[edge] = target;
+        nextOut[edge] = outHead[source];
+        outHead[source] = edge;
+        nextIn[edge] = inHead[target];
+        inHead[target] = edge;
+        outDegree[source]++;
+        inDegree[target]++;
+
+        edgeSlots[slot] = edge + 1;
+        if (edgeCount > edgeSlots.length * MAX_EDGE_LOAD) {
+            rehashEdges();
+        }
+        return edge;
+    }
+
+    /**
+     * Adds a directed edge by URL, creating missing endpoints as pending nodes.
+     *
+     * @param sourceUrl The URL of the linking node.
+     * @param targetUrl The URL of the linked node.
+     * @return The edge id, or -1 if the edge already existed.
+     */
+    public int addEdge(String sourceUrl, String targetUrl) {
+        return addEdge(ensureNode(sourceUrl), ensureNode(targetUrl));
+    }
+
+    /**
+     * Looks up the id of an edge.
+     *
+     * @param source The id of the linking node.
+     * @param target The id of the linked node.
+     * @return The edge id, or -1 if there is no such edge.
+     */
+    public int edgeOf(int source, int target) {
+        if (source < 0 || target < 0 || source >= nodeCount() || target >= nodeCount()) {
+            return -1;
+        }
+        return edgeSlots[findEdgeSlot(source, target)] - 1;
+    }
+
+    /**
+     * Gets the number of nodes.
+     *
+     * @return The node count.
+     */
+    public int nodeCount() {
+        return urls.size();
+    }
+
+    /**
+     * Gets the number of edges.
+     *
+     * @return The edge count.
+     */
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Looks up the id of a URL.
+     *
+     * @param url The URL of the node.
+     * @return The id, or -1 if the URL is unknown.
+     */
+    public int idOf(String url) {
+        return urls.idOf(url);
+    }
+
+    /**
+     * Gets the URL of a node.
+     *
+     * @param id The node id.
+     * @return The URL.
+     */
+    public String urlOf(int id) {
+        checkNode(id);
+        return urls.urlOf(id);
+    }
+
+    /**
+     * Gets the title of a node, falling back to its URL for untitled nodes.
+     *
+     * @param id The node id.
+     * @return The title.
+     */
+    public String titleOf(int id) {
+        checkNode(id);
+        return titleHandles[id] < 0 ? urls.urlOf(id) : titles.get(titleHandles[id]);
+    }
+
+    /**
+     * Gets the type of a node.
+     *
+     * @param id The node id.
+     * @return The node type.
+     */
+    public NodeType typeOf(int id) {
+        checkNode(id);
+        return NODE_TYPES[types[id]];
+    }
+
+    /**
+     * Gets the HTTP status the page of a node was loaded with.
+     *
+     * @param id The node id.
+     * @return The status code, or 0 if the node was never loaded.
+     */
+    public int statusOf(int id) {
+        checkNode(id);
+        return statuses[id];
+    }
+
+    /**
+     * Materializes a node as a {@link SiteNode}.
+     *
+     * @param id The node id.
+     * @return The node object.
+     */
+    public SiteNode nodeOf(int id) {
+        return new SiteNode(urlOf(id), titleOf(id), typeOf(id));
+    }
+
+    /**
+     * Materializes a node by URL.
+     *
+     * @param url The URL of the node.
+     * @return The node object, or null if the URL is unknown.
+     */
+    public SiteNode nodeOf(String url) {
+        int id = idOf(url);
+        return id < 0 ? null : nodeOf(id);
+    }
+
+    /**
+     * Gets the number of outgoing edges of a node.
+     *
+     * @param id The node id.
+     * @return The out-degree.
+     */
+    public int outDegree(int id) {
+        checkNode(id);
+        return outDegree[id];
+    }
+
+    /**
+     * Gets the number of incoming edges of a node.
+     *
+     * @param id The node id.
+     * @return The in-degree.
+     */
+    public int inDegree(int id) {
+        checkNode(id);
+        return inDegree[id];
+    }
+
+    /**
+     * Gets the most recently added outgoing edge of a node.
+     *
+     * @param id The node id.
+     * @return The edge id, or -1 if there is none.
+     */
+    public int firstOutEdge(int id) {
+        checkNode(id);
+        return outHead[id];
+    }
+
+    /**
+     * Gets the next outgoing edge of the same source node.
+     *
+     * @param edge The current edge id.
+     * @return The next edge id, or -1 at the end of the list.
+     */
+    public int nextOutEdge(int edge) {
+        return nextOut[edge];
+    }
+
+    /**
+     * Gets the most recently added incoming edge of a node.
+     *
+     * @param id The node id.
+     * @return The edge id, or -1 if there is none.
+     */
+    public int firstInEdge(int id) {
+        checkNode(id);
+        return inHead[id];
+    }
+
+    /**
+     * Gets the next incoming edge of the same target node.
+     *
+     * @param edge The current edge id.
+     * @return The next edge id, or -1 at the end of the list.
+     */
+    public int nextInEdge(int edge) {
+        return nextIn[edge];
+    }
+
+    /**
+     * Gets the source node of an edge.
+     *
+     * @param edge The edge id.
+     * @return The source node id.
+     */
+    public int edgeSource(int edge) {
+        checkEdge(edge);
+        return edgeSource[edge];
+    }
+
+    /**
+     * Gets the target node of an edge.
+     *
+     * @param edge The edge id.
+     * @return The target node id.
+     */
+    public int edgeTarget(int edge) {
+        checkEdge(edge);
+        return edgeTarget[edge];
+    }
+
+    /**
+     * Creates a read-only JGraphT view whose vertices and edges are the int ids of this store,
+     * so existing graph algorithms can run without copying.
+     *
+     * @return The graph view.
+     */
+    public Graph<Integer, Integer> asGraph() {
+        return new CompactGraphView(this);
+    }
+
+    /**
+     * Removes all nodes and edges while keeping the allocated capacity.
+     */
+    public void clear() {
+        urls.clear();
+        titles.clear();
+        Arrays.fill(edgeSlots, 0);
+        edgeCount = 0;
+    }
+
+    /**
+     * Estimates the retained heap size of all backing arrays.
+     *
+     * @return The size in bytes.
+     */
+    public long estimatedBytes() {
+        long nodeArrays = (long) types.length + 2L * statuses.length + 4L * (titleHandles.length + outHead.length
+                + inHead.length + outDegree.length + inDegree.length);
+        long edgeArrays = 4L * (edgeSource.length + edgeTarget.length + nextOut.length
+                + nextIn.length + edgeSlots.length);
+        return urls.estimatedBytes() + titles.estimatedBytes() + nodeArrays + edgeArrays;
+    }
+
+    private int findEdgeSlot(int source, int target) {
+        int mask = edgeSlots.length - 1;
+        int slot = edgeHash(source, target) & mask;
+        while (edgeSlots[slot] != 0) {
+            int edge = edgeSlots[slot] - 1;
+            if (edgeSource[edge] == source && edgeTarget[edge] == target) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehashEdges() {
+        int[] grown = new int[edgeSlots.length * 2];
+        int mask = grown.length - 1;
+        for (int edge = 0; edge < edgeCount; edge++) {
+            int slot = edgeHash(edgeSource[edge], edgeTarget[edge]) & mask;
+            while (grown[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            grown[slot] = edge + 1;
+        }
+        edgeSlots = grown;
+    }
+
+    private static int edgeHash(int source, int target) {
+        long key = ((long) source << 32) | (target & 0xffffffffL);
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    private void ensureNodeCapacity(int required) {
+        if (required > types.length) {
+            int capacity = Math.max(required, types.length * 2);
+            titleHandles = Arrays.copyOf(titleHandles, capacity);
+            types = Arrays.copyOf(types, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            outHead = Arrays.copyOf(outHead, capacity);
+            inHead = Arrays.copyOf(inHead, capacity);
+            outDegree = Arrays.copyOf(outDegree, capacity);
+            inDegree = Arrays.copyOf(inDegree, capacity);
+        }
+    }
+
+    private void ensureEdgeCapacity(int required) {
+        if (required > edgeSource.length) {
+            int capacity = Math.max(required, edgeSource.length * 2);
+            edgeSource = Arrays.copyOf(edgeSource, capacity);
+            edgeTarget = Arrays.copyOf(edgeTarget, capacity);
+            nextOut = Arrays.copyOf(nextOut, capacity);
+            nextIn = Arrays.copyOf(nextIn, capacity);
+        }
+    }
+
+    private void checkNode(int id) {
+        if (id < 0 || id >= nodeCount()) {
+            throw new IndexOutOfBoundsException("Unknown node id: " + id);
+        }
+    }
+
+    private void checkEdge(int edge) {
+        if (edge < 0 || edge >= edgeCount) {
+            throw new IndexOutOfBoundsException("Unknown edge id: " + edge);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.vinhtt.sitemapcrawler.service.graph;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Append-only store of strings packed as UTF-8 into one growable byte array.
+ * Each string costs its encoded length plus one int offset, instead of the
+ * object header, char array and hash field of a {@link String}.
+ * Not thread-safe.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+public final class StringArena {
+
+    private static final int INITIAL_BYTES = 1 << 16;
+    private static final int INITIAL_ENTRIES = 1 << 10;
+
+    private byte[] data = new byte[INITIAL_BYTES];
+    private int dataSize;
+    private int[] offsets = new int[INITIAL_ENTRIES + 1];
+    private int size;
+
+    /**
+     * Appends an encoded string.
+     *
+     * @param bytes The UTF-8 bytes of the string.
+     * @return The handle of the stored string.
+     * @throws IllegalStateException If the arena would exceed 2 GiB.
+     */
+    public int add(byte[] bytes) {
+        ensureData(bytes.length);
+        if (size + 1 >= offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        System.arraycopy(bytes, 0, data, dataSize, bytes.length);
+        dataSize += bytes.length;
+        size++;
+        offsets[size] = dataSize;
+        return size - 1;
+    }
+
+    /**
+     * Appends a string.
+     *
+     * @param value The string to store.
+     * @return The handle of the stored string.
+     */
+    public int add(String value) {
+        return add(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a stored string.
+     *
+     * @param handle The handle returned by {@link #add(byte[])}.
+     * @return The string.
+     */
+    public String get(int handle) {
+        int start = offsets[handle];
+        return new String(data, start, offsets[handle + 1] - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compares a stored string with encoded bytes without decoding it.
+     *
+     * @param handle The handle of the stored string.
+     * @param bytes  The UTF-8 bytes to compare with.
+     * @return True if both are equal.
+     */
+    public boolean equalsAt(int handle, byte[] bytes) {
+        int start = offsets[handle];
+        int end = offsets[handle + 1];
+        return Arrays.equals(data, start, end, bytes, 0, bytes.length);
+    }
+
+    /**
+     * Gets the number of stored strings.
+     *
+     * @return The string count.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all strings while keeping the allocated capacity.
+     */
+    public void clear() {
+        dataSize = 0;
+        size = 0;
+    }
+
+    /**
+     * Estimates the retained heap size of the arena arrays.
+     *
+     * @return The size in bytes.
+     */
+    public long estimatedBytes() {
+        return (long) data.length + 4L * offsets.length;
+    }
+
+    private void ensureData(int extra) {
+        long required = (long) dataSize + extra;
+        if (required > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("String arena exceeds 2 GiB");
+        }
+        if (required > data.length) {
+            long grown = Math.max(required, (long) data.length * 2);
+            data = Arrays.copyOf(data, (int) Math.min(grown, Integer.MAX_VALUE - 8));
+        }
+    }
+}
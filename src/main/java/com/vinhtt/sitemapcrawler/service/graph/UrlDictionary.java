@@ -0,0 +1,134 @@
+package com.vinhtt.sitemapcrawler.service.graph;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Interns URLs to dense int ids ({@code 0..size-1}) in insertion order.
+ * URLs live in a {@link StringArena} and are indexed by an open-addressing
+ * table of ids, so the dictionary holds no per-URL objects.
+ * Not thread-safe.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+public final class UrlDictionary {
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+    private static final float MAX_LOAD = 0.6f;
+
+    private final StringArena urls = new StringArena();
+    private int[] slots = new int[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Returns the id of a URL, assigning the next free id if it is new.
+     *
+     * @param url The URL to intern.
+     * @return The id of the URL.
+     */
+    public int intern(String url) {
+        byte[] bytes = url.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(bytes);
+        int slot = find(bytes, hash);
+        if (slots[slot] != 0) {
+            return slots[slot] - 1;
+        }
+
+        int id = urls.add(bytes);
+        if (id >= hashes.length) {
+            hashes = Arrays.copyOf(hashes, hashes.length * 2);
+        }
+        hashes[id] = hash;
+        slots[slot] = id + 1;
+        size++;
+        if (size > slots.length * MAX_LOAD) {
+            rehash();
+        }
+        return id;
+    }
+
+    /**
+     * Looks up the id of a URL without interning it.
+     *
+     * @param url The URL to look up.
+     * @return The id, or -1 if the URL is unknown.
+     */
+    public int idOf(String url) {
+        byte[] bytes = url.getBytes(StandardCharsets.UTF_8);
+        return slots[find(bytes, hash(bytes))] - 1;
+    }
+
+    /**
+     * Gets the URL of an id.
+     *
+     * @param id The id returned by {@link #intern(String)}.
+     * @return The URL.
+     */
+    public String urlOf(int id) {
+        return urls.get(id);
+    }
+
+    /**
+     * Gets the number of interned URLs.
+     *
+     * @return The URL count.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Forgets all URLs; ids are reassigned from 0 afterwards.
+     */
+    public void clear() {
+        urls.clear();
+        Arrays.fill(slots, 0);
+        size = 0;
+    }
+
+    /**
+     * Estimates the retained heap size of the dictionary.
+     *
+     * @return The size in bytes.
+     */
+    public long estimatedBytes() {
+        return urls.estimatedBytes() + 4L * slots.length + 4L * hashes.length;
+    }
+
+    private int find(byte[] bytes, int hash) {
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] != 0) {
+            int id = slots[slot] - 1;
+            if (hashes[id] == hash && urls.equalsAt(id, bytes)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        int[] grown = new int[slots.length * 2];
+        int mask = grown.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hashes[id] & mask;
+            while (grown[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            grown[slot] = id + 1;
+        }
+        slots = grown;
+    }
+
+    private static int hash(byte[] bytes) {
+        int h = Arrays.hashCode(bytes);
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,25 @@
+package com.vinhtt.sitemapcrawler.service.impl;
+
+import com.microsoft.playwright.PlaywrightException;
+
+/**
+ * Thrown when a page load fails because its renderer crashed or the browser disconnected.
+ * The page itself may be fine, so the load is retried on a replacement browser.
+ *
+ * @author vinhtt
+ * @version 1.1
+ */
+public class BrowserCrashedException extends PlaywrightException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructs the exception.
+     *
+     * @param message The description of the failed load.
+     * @param cause   The Playwright error raised by the crash.
+     */
+    public BrowserCrashedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
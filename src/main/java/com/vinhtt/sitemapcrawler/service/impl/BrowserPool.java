@@ -0,0 +1,130 @@
+package com.vinhtt.sitemapcrawler.service.impl;
+
+import com.vinhtt.sitemapcrawler.model.CrawlConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fixed set of {@link BrowserSession}s shared by all crawler threads and kept
+ * warm across crawls, so stopping and restarting a scan does not pay Chromium's
+ * cold launch again. Browsers are launched on first use; sessions that have a
+ * running browser are handed out before idle ones.
+ * On release, a session whose renderer crashed or whose browser disconnected is
+ * closed so that it relaunches on next use, and a context that has loaded
+ * {@link CrawlConfig#getContextMaxPages()} pages or grown past
+ * {@link CrawlConfig#getContextMaxHeapMb()} is replaced to cap leaks.
+ *
+ * @author vinhtt
+ * @version 1.1
+ */
+public class BrowserPool implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BrowserPool.class);
+
+    private final BlockingDeque<BrowserSession> idle = new LinkedBlockingDeque<>();
+    private final int contextMaxPages;
+    private final long contextMaxHeapBytes;
+    private final AtomicLong recycledContexts = new AtomicLong();
+    private final AtomicLong replacedBrowsers = new AtomicLong();
+    private volatile boolean closed;
+
+    /**
+     * Constructs a pool of {@link CrawlConfig#getBrowserPoolSize()} sessions, none launched yet.
+     *
+     * @param resourceBlocker The resource policy installed on every context.
+     * @param config          The crawl configuration holding the pool and browser settings.
+     */
+    public BrowserPool(ResourceBlocker resourceBlocker, CrawlConfig config) {
+        this.contextMaxPages = config.getContextMaxPages();
+        this.contextMaxHeapBytes = config.getContextMaxHeapMb() * 1024L * 1024L;
+        for (int i = 0; i < config.getBrowserPoolSize(); i++) {
+            idle.addLast(new BrowserSession(resourceBlocker, config));
+        }
+    }
+
+    /**
+     * Takes a session for the calling thread, waiting until one is free.
+     * A session whose browser died while idle is reset before it is handed out.
+     *
+     * @param timeoutMs The maximum time to wait, in milliseconds.
+     * @return The session, or null if none became free in time.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public BrowserSession acquire(long timeoutMs) throws InterruptedException {
+        BrowserSession session = idle.pollFirst(timeoutMs, TimeUnit.MILLISECONDS);
+        if (session != null && !session.isHealthy()) {
+            replace(session);
+        }
+        return session;
+    }
+
+    /**
+     * Returns a session taken with {@link #acquire(long)}. Must be called on the
+     * thread that used it, since replacing the browser or context talks to Playwright.
+     *
+     * @param session The session.
+     */
+    public void release(BrowserSession session) {
+        if (closed) {
+            session.close();
+            return;
+        }
+        if (!session.isHealthy()) {
+            replace(session);
+        } else if (session.isExhausted(contextMaxPages, contextMaxHeapBytes)) {
+            recycledContexts.incrementAndGet();
+            session.recycleContext();
+        }
+        if (session.isLaunched()) {
+            idle.addFirst(session);
+        } else {
+            idle.addLast(session);
+        }
+    }
+
+    /**
+     * Gets the number of contexts replaced after reaching their page or heap budget.
+     *
+     * @return The recycled context count.
+     */
+    public long getRecycledContexts() {
+        return recycledContexts.get();
+    }
+
+    /**
+     * Gets the number of crashed or disconnected browsers that were replaced.
+     *
+     * @return The replaced browser count.
+     */
+    public long getReplacedBrowsers() {
+        return replacedBrowsers.get();
+    }
+
+    /**
+     * Closes every idle browser. Sessions still in use are closed when they are released.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        BrowserSession session;
+        while ((session = idle.pollFirst()) != null) {
+            session.close();
+        }
+    }
+
+    private void replace(BrowserSession session) {
+        replacedBrowsers.incrementAndGet();
+        LOG.warn("Browser crashed or disconnected; launching a replacement");
+        session.close();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d contexts recycled, %d browsers replaced", getRecycledContexts(), getReplacedBrowsers());
+    }
+}
@@ -0,0 +1,163 @@
+package com.vinhtt.sitemapcrawler.service.impl;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.BrowserType;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.Playwright;
+import com.vinhtt.sitemapcrawler.model.CrawlConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A Playwright instance, browser and context used by one thread at a time.
+ * Sessions live in a {@link BrowserPool}, which hands them between threads; the
+ * pool's queue provides the synchronization Playwright requires. The browser is
+ * launched on first use, so a pool slot that is never needed never starts Chromium.
+ * Headless mode and the browser channel come from the {@link CrawlConfig}; without
+ * a channel the Chromium bundled with Playwright is used.
+ *
+ * @author vinhtt
+ * @version 1.3
+ */
+public final class BrowserSession implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BrowserSession.class);
+
+    private final ResourceBlocker resourceBlocker;
+    private final CrawlConfig config;
+
+    private Playwright playwright;
+    private Browser browser;
+    private BrowserContext context;
+    private volatile boolean crashed;
+    private int contextPages;
+    private long heapBytes;
+
+    /**
+     * Constructs an idle session.
+     *
+     * @param resourceBlocker The resource policy installed on the context once it is created.
+     * @param config          The crawl configuration holding the browser launch settings.
+     */
+    public BrowserSession(ResourceBlocker resourceBlocker, CrawlConfig config) {
+        this.resourceBlocker = resourceBlocker;
+        this.config = config;
+    }
+
+    /**
+     * Gets the browser context, launching the browser if necessary.
+     *
+     * @return The context of this session.
+     */
+    public BrowserContext context() {
+        if (context == null) {
+            if (browser == null) {
+                playwright = Playwright.create();
+                BrowserType.LaunchOptions options = new BrowserType.LaunchOptions().setHeadless(config.isHeadless());
+                String channel = config.getBrowserChannel();
+                if (channel != null && !channel.isBlank()) {
+                    options.setChannel(channel);
+                }
+                browser = playwright.chromium().launch(options);
+                browser.onDisconnected(disconnected -> crashed = true);
+            }
+            context = browser.newContext();
+            resourceBlocker.install(context);
+            contextPages = 0;
+            heapBytes = 0;
+        }
+        return context;
+    }
+
+    /**
+     * Opens a page in the context and watches it for renderer crashes.
+     *
+     * @return The new page; the caller closes it.
+     */
+    public Page newPage() {
+        Page page = context().newPage();
+        page.onCrash(crashedPage -> crashed = true);
+        return page;
+    }
+
+    /**
+     * Records a page loaded in the current context.
+     *
+     * @param usedHeapBytes The JavaScript heap in use after the page loaded, or 0 if unknown.
+     */
+    public void recordPage(long usedHeapBytes) {
+        contextPages++;
+        heapBytes = Math.max(heapBytes, usedHeapBytes);
+    }
+
+    /**
+     * Checks whether the browser is still usable. An unlaunched session is healthy.
+     *
+     * @return False if a renderer crashed or the browser disconnected.
+     */
+    public boolean isHealthy() {
+        return browser == null || (!crashed && browser.isConnected());
+    }
+
+    /**
+     * Checks whether the browser has been launched.
+     *
+     * @return True if the session holds a running browser.
+     */
+    public boolean isLaunched() {
+        return browser != null;
+    }
+
+    /**
+     * Checks whether the context has used up its page or heap budget.
+     *
+     * @param maxPages     The page budget.
+     * @param maxHeapBytes The JavaScript heap budget.
+     * @return True if the context should be replaced.
+     */
+    public boolean isExhausted(int maxPages, long maxHeapBytes) {
+        return context != null && (contextPages >= maxPages || heapBytes >= maxHeapBytes);
+    }
+
+    /**
+     * Replaces the context with a fresh one on the same browser, releasing whatever the old one leaked.
+     * The new context is created on next use.
+     */
+    public void recycleContext() {
+        try {
+            if (context != null) context.close();
+        } catch (Exception e) {
+            LOG.warn("Error closing browser context", e);
+        } finally {
+            context = null;
+        }
+    }
+
+    /**
+     * Closes the context, browser and Playwright instance if they were started.
+     * The session can be used again afterwards and launches a new browser.
+     */
+    @Override
+    public void close() {
+        try {
+            if (context != null) { context.close(); context = null; }
+            if (browser != null) { browser.close(); browser = null; }
+            if (playwright != null) { playwright.close(); playwright = null; }
+        } catch (Exception e) {
+            LOG.warn("Error cleaning up Playwright", e);
+        } finally {
+            context = null;
+            browser = null;
+            if (playwright != null) {
+                try {
+                    playwright.close();
+                } catch (Exception ignored) {
+                    // The driver is already gone.
+                }
+                playwright = null;
+            }
+            crashed = false;
+        }
+    }
+}
@@ -0,0 +1,392 @@
+package com.vinhtt.sitemapcrawler.service.impl;
+
+import com.vinhtt.sitemapcrawler.model.PageLink;
+import com.vinhtt.sitemapcrawler.service.cluster.SimHash;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Single-pass HTML tokenizer that collects the title, base URL and anchors of a
+ * document together with the signals needed to decide whether it is client-rendered
+ * and the structural fingerprint of its body (see {@link StructureExtractor}).
+ * It never builds a DOM, so memory stays proportional to the extracted data.
+ *
+ * @author vinhtt
+ * @version 1.1
+ */
+public final class HtmlLinkScanner {
+
+    private static final Set<String> SPA_ROOT_IDS = Set.of("root", "app", "__next", "__nuxt", "___gatsby", "svelte");
+    private static final Set<String> SPA_ROOT_ATTRIBUTES = Set.of("data-reactroot", "ng-app", "ng-version", "data-v-app");
+    private static final Set<String> VOID_ELEMENTS = Set.of(
+            "area", "base", "br", "col", "embed", "hr", "img", "input", "link", "meta", "source", "track", "wbr",
+            "script", "style");
+    private static final int MAX_NOSCRIPT_CHARS = 2048;
+    private static final int MAX_OPEN_ELEMENTS = 512;
+
+    /**
+     * The data collected from one document.
+     *
+     * @param title        The document title, or null if absent.
+     * @param baseHref     The href of the first {@code <base>} element, or null if absent.
+     * @param anchors      The anchors in document order, with raw (unresolved) hrefs.
+     * @param textLength   The number of visible non-whitespace characters.
+     * @param scriptCount  The number of {@code <script>} elements.
+     * @param spaRoot      Whether a typical single-page-application mount point was seen.
+     * @param noscriptText The text inside {@code <noscript>} elements, truncated.
+     * @param structureHash The SimHash of the body skeleton, or 0 if there is no body.
+     */
+    public record Result(String title,
+                         String baseHref,
+                         List<PageLink> anchors,
+                         int textLength,
+                         int scriptCount,
+                         boolean spaRoot,
+                         String noscriptText,
+                         long structureHash) {
+    }
+
+    private final Reader in;
+    private int pushback = -1;
+
+    private final StringBuilder title = new StringBuilder();
+    private final StringBuilder noscript = new StringBuilder();
+    private final List<PageLink> anchors = new ArrayList<>();
+    private final Deque<String[]> openElements = new ArrayDeque<>();
+    private final Set<String> structure = new HashSet<>();
+    private boolean inBody;
+    private String baseHref;
+    private String anchorHref;
+    private StringBuilder anchorText;
+    private boolean inTitle;
+    private boolean inNoscript;
+    private boolean sawTitle;
+    private boolean spaRoot;
+    private int textLength;
+    private int scriptCount;
+
+    private HtmlLinkScanner(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Scans a document to the end.
+     *
+     * @param reader The character stream of the document; not closed by this method.
+     * @return The collected data.
+     * @throws IOException If reading the stream fails.
+     */
+    public static Result scan(Reader reader) throws IOException {
+        return new HtmlLinkScanner(reader).run();
+    }
+
+    private Result run() throws IOException {
+        int c;
+        while ((c = read()) != -1) {
+            if (c == '<') {
+                readMarkup();
+            } else {
+                onText((char) c);
+            }
+        }
+        finishAnchor();
+        return new Result(
+                sawTitle ? decodeEntities(title.toString()).strip() : null,
+                baseHref,
+                anchors,
+                textLength,
+                scriptCount,
+                spaRoot,
+                noscript.toString(),
+                SimHash.of(structure));
+    }
+
+    private void readMarkup() throws IOException {
+        int c = read();
+        if (c == '!') {
+            if (read() == '-' && read() == '-') {
+                skipPast("-->");
+            } else {
+                skipPast(">");
+            }
+            return;
+        }
+        if (c == '?') {
+            skipPast(">");
+            return;
+        }
+
+        boolean closing = c == '/';
+        if (closing) {
+            c = read();
+        }
+        if (!Character.isLetter(c)) {
+            onText('<');
+            unread(c);
+            return;
+        }
+
+        StringBuilder name = new StringBuilder();
+        while (c != -1 && (Character.isLetterOrDigit(c) || c == '-' || c == ':')) {
+            name.append(Character.toLowerCase((char) c));
+            c = read();
+        }
+        unread(c);
+
+        if (closing) {
+            skipPast(">");
+            onEndTag(name.toString());
+        } else {
+            onStartTag(name.toString(), readAttributes());
+        }
+    }
+
+    private Map<String, String> readAttributes() throws IOException {
+        Map<String, String> attributes = new HashMap<>();
+        int c = read();
+        while (c != -1 && c != '>') {
+            if (Character.isWhitespace(c) || c == '/') {
+                c = read();
+                continue;
+            }
+            StringBuilder name = new StringBuilder();
+            while (c != -1 && c != '=' && c != '>' && !Character.isWhitespace(c) && c != '/') {
+                name.append(Character.toLowerCase((char) c));
+                c = read();
+            }
+            while (c != -1 && Character.isWhitespace(c)) {
+                c = read();
+            }
+            String value = "";
+            if (c == '=') {
+                c = read();
+                while (c != -1 && Character.isWhitespace(c)) {
+                    c = read();
+                }
+                StringBuilder raw = new StringBuilder();
+                if (c == '"' || c == '\'') {
+                    int quote = c;
+                    c = read();
+                    while (c != -1 && c != quote) {
+                        raw.append((char) c);
+                        c = read();
+                    }
+                    c = read();
+                } else {
+                    while (c != -1 && c != '>' && !Character.isWhitespace(c)) {
+                        raw.append((char) c);
+                        c = read();
+                    }
+                }
+                value = decodeEntities(raw.toString());
+            }
+            attributes.putIfAbsent(name.toString(), value);
+        }
+        return attributes;
+    }
+
+    private void onStartTag(String name, Map<String, String> attributes) throws IOException {
+        String id = attributes.get("id");
+        if ((id != null && SPA_ROOT_IDS.contains(id)) || name.equals("app-root")) {
+            spaRoot = true;
+        }
+        for (String attribute : SPA_ROOT_ATTRIBUTES) {
+            if (attributes.containsKey(attribute)) {
+                spaRoot = true;
+                break;
+            }
+        }
+        recordStructure(name, attributes.get("class"));
+
+        switch (name) {
+            case "title" -> {
+                inTitle = true;
+                sawTitle = true;
+            }
+            case "base" -> {
+                if (baseHref == null) {
+                    baseHref = attributes.get("href");
+                }
+            }
+            case "a" -> {
+                finishAnchor();
+                anchorHref = attributes.get("href");
+                anchorText = new StringBuilder();
+            }
+            case "script" -> {
+                scriptCount++;
+                skipPast("</script");
+                skipPast(">");
+            }
+            case "style" -> {
+                skipPast("</style");
+                skipPast(">");
+            }
+            case "noscript" -> inNoscript = true;
+            default -> {
+            }
+        }
+    }
+
+    private void onEndTag(String name) {
+        if (inBody) {
+            closeElement(name);
+        }
+        switch (name) {
+            case "title" -> inTitle = false;
+            case "a" -> finishAnchor();
+            case "noscript" -> inNoscript = false;
+            default -> {
+            }
+        }
+    }
+
+    private void recordStructure(String name, String className) {
+        String key = StructureExtractor.elementKey(name, className);
+        if (name.equals("body")) {
+            inBody = true;
+            openElements.clear();
+        } else if (!inBody) {
+            return;
+        } else if (!openElements.isEmpty() && structure.size() < StructureExtractor.MAX_FEATURES) {
+            structure.add(openElements.peek()[1] + ">" + key);
+        }
+        if (!VOID_ELEMENTS.contains(name) && openElements.size() < MAX_OPEN_ELEMENTS) {
+            openElements.push(new String[]{name, key});
+        }
+    }
+
+    private void closeElement(String name) {
+        for (String[] element : openElements) {
+            if (element[0].equals(name)) {
+                String[] popped;
+                do {
+                    popped = openElements.pop();
+                } while (!popped[0].equals(name));
+                return;
+            }
+        }
+    }
+
+    private void onText(char c) {
+        if (inTitle) {
+            title.append(c);
+            return;
+        }
+        if (inNoscript) {
+            if (noscript.length() < MAX_NOSCRIPT_CHARS) {
+                noscript.append(c);
+            }
+            return;
+        }
+        if (anchorText != null) {
+            anchorText.append(c);
+        }
+        if (!Character.isWhitespace(c)) {
+            textLength++;
+        }
+    }
+
+    private void finishAnchor() {
+        if (anchorText != null && anchorHref != null) {
+            String text = decodeEntities(anchorText.toString()).replaceAll("\\s+", " ").strip();
+            anchors.add(new PageLink(anchorHref.strip(), text));
+        }
+        anchorHref = null;
+        anchorText = null;
+    }
+
+    private void skipPast(String terminator) throws IOException {
+        int length = terminator.length();
+        char[] target = terminator.toCharArray();
+        char[] window = new char[length];
+        int seen = 0;
+        int c;
+        while ((c = read()) != -1) {
+            System.arraycopy(window, 1, window, 0, length - 1);
+            window[length - 1] = Character.toLowerCase((char) c);
+            if (++seen >= length && Arrays.equals(window, target)) {
+                return;
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pushback != -1) {
+            int c = pushback;
+            pushback = -1;
+            return c;
+        }
+        return in.read();
+    }
+
+    private void unread(int c) {
+        pushback = c;
+    }
+
+    /**
+     * Decodes the character references that commonly appear in titles, link texts and hrefs.
+     *
+     * @param text The raw text.
+     * @return The text with known entities replaced.
+     */
+    static String decodeEntities(String text) {
+        if (text.indexOf('&') < 0) {
+            return text;
+        }
+        StringBuilder out = new StringBuilder(text.length());
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            int end = c == '&' ? text.indexOf(';', i) : -1;
+            if (end < 0 || end - i > 10) {
+                out.append(c);
+                i++;
+                continue;
+            }
+            String entity = text.substring(i + 1, end).toLowerCase(Locale.ROOT);
+            String decoded = switch (entity) {
+                case "amp" -> "&";
+                case "lt" -> "<";
+                case "gt" -> ">";
+                case "quot" -> "\"";
+                case "apos" -> "'";
+                case "nbsp" -> " ";
+                default -> decodeNumeric(entity);
+            };
+            if (decoded == null) {
+                out.append(c);
+                i++;
+            } else {
+                out.append(decoded);
+                i = end + 1;
+            }
+        }
+        return out.toString();
+    }
+
+    private static String decodeNumeric(String entity) {
+        if (!entity.startsWith("#") || entity.length() < 2) {
+            return null;
+        }
+        try {
+            int codePoint = entity.charAt(1) == 'x'
+                    ? Integer.parseInt(entity.substring(2), 16)
+                    : Integer.parseInt(entity.substring(1));
+            return Character.isValidCodePoint(codePoint) ? new String(Character.toChars(codePoint)) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
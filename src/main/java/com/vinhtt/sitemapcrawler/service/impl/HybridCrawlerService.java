@@ -0,0 +1,272 @@
+package com.vinhtt.sitemapcrawler.service.impl;
+
+import com.vinhtt.sitemapcrawler.model.CrawlConfig;
+import com.vinhtt.sitemapcrawler.model.CrawlPhase;
+import com.vinhtt.sitemapcrawler.model.EngineStats;
+import com.vinhtt.sitemapcrawler.model.FetchedPage;
+import com.vinhtt.sitemapcrawler.model.PageLink;
+import com.vinhtt.sitemapcrawler.model.PageRecord;
+import com.vinhtt.sitemapcrawler.model.PageTimings;
+import com.vinhtt.sitemapcrawler.service.frontier.CrawlFrontier;
+import com.vinhtt.sitemapcrawler.service.recrawl.HashingInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Static-first implementation of ICrawlerService.
+ * Pages are fetched with a shared HTTP/2 client and parsed by {@link HtmlLinkScanner};
+ * the Playwright engine of the superclass is only used when a heuristic says the
+ * page is rendered on the client. HTTP error responses, throttling included, are
+ * returned as they are: the browser would only get the same status at the cost of a lease.
+ * Statically served pages are timed as navigate (until the response headers) and
+ * link extraction (streaming the body through the scanner).
+ * A browser is only taken from the pool once a page escalates, so static pages
+ * never wait for one.
+ * A recorded page is requested conditionally. When the server answers 304, or the
+ * body hashes to the recorded value, the recorded links are reused; this also
+ * spares client-rendered pages the browser unless their HTML changed.
+ *
+ * @author vinhtt
+ * @version 1.10
+ */
+public class HybridCrawlerService extends PlaywrightCrawlerService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HybridCrawlerService.class);
+
+    private static final String USER_AGENT = "Mozilla/5.0 (compatible; SiteMapCrawler/1.0)";
+    private static final int MIN_VISIBLE_CHARS = 64;
+    private static final int MIN_STATIC_LINKS = 3;
+
+    private final HttpClient httpClient;
+    private final EngineStats engineStats = new EngineStats();
+
+    /**
+     * Constructs the service with default crawl settings.
+     */
+    public HybridCrawlerService() {
+        this(new CrawlConfig());
+    }
+
+    /**
+     * Constructs the service with the given crawl settings.
+     *
+     * @param config The crawl configuration.
+     */
+    public HybridCrawlerService(CrawlConfig config) {
+        this(config, newEventExecutor());
+    }
+
+    /**
+     * Constructs the service with the given crawl settings and event delivery threads.
+     *
+     * @param config        The crawl configuration.
+     * @param eventExecutor The executor event subscribers are called on; it must not run tasks inline.
+     */
+    public HybridCrawlerService(CrawlConfig config, Executor eventExecutor) {
+        super(config, eventExecutor);
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofMillis(config.getPageTimeoutMs()))
+                .build();
+    }
+
+    @Override
+    public void crawlSite(String rootUrl, int maxDepth, int maxWorkers, int timeoutMs) {
+        engineStats.reset();
+        super.crawlSite(rootUrl, maxDepth, maxWorkers, timeoutMs);
+    }
+
+    @Override
+    public void crawlFrontier(CrawlFrontier frontier, String rootUrl, int maxDepth, int maxWorkers, int timeoutMs) {
+        engineStats.reset();
+        super.crawlFrontier(frontier, rootUrl, maxDepth, maxWorkers, timeoutMs);
+    }
+
+    @Override
+    protected void siteCrawlFinished() {
+        LOG.info("Engines: {}", engineStats);
+    }
+
+    /**
+     * Gets the static/browser split of the current (or last) crawl.
+     *
+     * @return The live engine statistics.
+     */
+    public EngineStats getEngineStats() {
+        return engineStats;
+    }
+
+    @Override
+    protected FetchedPage loadPage(String url, int timeoutMs, PageRecord previous, AtomicBoolean run) {
+        long start = System.nanoTime();
+        String reason;
+        try {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(Duration.ofMillis(timeoutMs))
+                    .header("User-Agent", USER_AGENT)
+                    .header("Accept", "text/html,application/xhtml+xml;q=0.9,*/*;q=0.8")
+                    .GET();
+            if (previous != null && previous.getEtag() != null) builder.header("If-None-Match", previous.getEtag());
+            if (previous != null && previous.getLastModified() != null) builder.header("If-Modified-Since", previous.getLastModified());
+            HttpResponse<InputStream> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+            long headers = System.nanoTime();
+            PageTimings timings = PageTimings.of("static", response.statusCode())
+                    .with(CrawlPhase.NAVIGATE, headers - start);
+            String etag = response.headers().firstValue("ETag").orElse(null);
+            String lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+
+            try (HashingInputStream body = new HashingInputStream(response.body())) {
+                String contentType = response.headers().firstValue("Content-Type").orElse("").toLowerCase(Locale.ROOT);
+                response.headers().firstValueAsLong("Content-Length").ifPresent(getResourceStats()::recordLoaded);
+
+                if (response.statusCode() == 304 && previous != null) {
+                    engineStats.recordStatic(System.nanoTime() - start, true);
+                    LOG.debug("static  {} ms {} (not modified)", elapsedMillis(start), url);
+                    return FetchedPage.unchanged(previous, timings, etag, lastModified);
+                } else if (response.statusCode() >= 400) {
+                    engineStats.recordStatic(System.nanoTime() - start, true);
+                    LOG.debug("static  {} ms {} (http error: {})", elapsedMillis(start), url, response.statusCode());
+                    return new FetchedPage(url, null, List.of(), response.statusCode(), 0, timings);
+                } else if (!contentType.isEmpty() && !contentType.contains("html")) {
+                    engineStats.recordStatic(System.nanoTime() - start, true);
+                    LOG.debug("static  {} ms {} (non-html: {})", elapsedMillis(start), url, contentType);
+                    return new FetchedPage(url, null, List.of(), response.statusCode(), 0, timings);
+                } else {
+                    HtmlLinkScanner.Result scan;
+                    long contentHash;
+                    try (Reader reader = new InputStreamReader(body, charsetOf(contentType))) {
+                        scan = HtmlLinkScanner.scan(reader);
+                        contentHash = body.drain();
+                    }
+                    if (previous != null && contentHash == previous.getContentHash()) {
+                        engineStats.recordStatic(System.nanoTime() - start, true);
+                        LOG.debug("static  {} ms {} (unchanged)", elapsedMillis(start), url);
+                        return FetchedPage.unchanged(previous, timings, etag, lastModified);
+                    }
+                    reason = detectClientRendering(scan);
+                    if (reason == null) {
+                        List<PageLink> links = resolveLinks(response.uri(), scan);
+                        FetchedPage page = new FetchedPage(url, scan.title(), links, response.statusCode(),
+                                scan.structureHash(), timings.with(CrawlPhase.LINK_EXTRACTION, System.nanoTime() - headers))
+                                .withValidators(etag, lastModified, contentHash);
+                        engineStats.recordStatic(System.nanoTime() - start, true);
+                        LOG.debug("static  {} ms {}", elapsedMillis(start), url);
+                        return page;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("Interrupted while fetching " + url));
+        } catch (IOException | IllegalArgumentException e) {
+            reason = "static-error";
+        }
+
+        engineStats.recordStatic(System.nanoTime() - start, false);
+        long browserStart = System.nanoTime();
+        FetchedPage page = super.loadPage(url, timeoutMs, null, run);
+        engineStats.recordBrowser(System.nanoTime() - browserStart, reason);
+        LOG.debug("browser {} ms {} ({})", elapsedMillis(start), url, reason);
+        return page;
+    }
+
+    /**
+     * Decides whether the static HTML is an incomplete shell that only JavaScript fills in.
+     *
+     * @return The reason for escalating to the browser, or null if the static result is usable.
+     */
+    private String detectClientRendering(HtmlLinkScanner.Result scan) {
+        int links = scan.anchors().size();
+        if (scan.textLength() < MIN_VISIBLE_CHARS && links < MIN_STATIC_LINKS) {
+            return "empty-body";
+        }
+        if (scan.spaRoot() && links < MIN_STATIC_LINKS) {
+            return "spa-root";
+        }
+        if (scan.noscriptText().toLowerCase(Locale.ROOT).contains("javascript") && links < MIN_STATIC_LINKS) {
+            return "noscript-hint";
+        }
+        return null;
+    }
+
+    /**
+     * Mirrors the in-page filtering of {@link LinkExtractor} for statically parsed anchors.
+     */
+    private List<PageLink> resolveLinks(URI documentUri, HtmlLinkScanner.Result scan) {
+        URI base = documentUri;
+        if (scan.baseHref() != null && !scan.baseHref().isBlank()) {
+            URI resolvedBase = tryResolve(documentUri, scan.baseHref());
+            if (resolvedBase != null) {
+                base = resolvedBase;
+            }
+        }
+
+        int maxLinks = getConfig().getMaxLinksPerPage();
+        Set<String> seen = new HashSet<>();
+        List<PageLink> links = new ArrayList<>();
+        for (PageLink anchor : scan.anchors()) {
+            if (links.size() >= maxLinks) break;
+
+            String raw = anchor.getHref();
+            if (raw.isEmpty() || raw.startsWith("#") || raw.toLowerCase(Locale.ROOT).startsWith("javascript")) continue;
+
+            URI resolved = tryResolve(base, raw);
+            if (resolved == null || resolved.getScheme() == null) continue;
+            String scheme = resolved.getScheme().toLowerCase(Locale.ROOT);
+            if (!scheme.equals("http") && !scheme.equals("https")) continue;
+
+            String href = resolved.toString();
+            if (seen.add(href)) {
+                links.add(new PageLink(href, anchor.getText()));
+            }
+        }
+        return links;
+    }
+
+    private URI tryResolve(URI base, String href) {
+        try {
+            return base.resolve(href.replace(" ", "%20"));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private Charset charsetOf(String contentType) {
+        int index = contentType.indexOf("charset=");
+        if (index >= 0) {
+            String name = contentType.substring(index + 8).split("[;\\s]")[0].replace("\"", "");
+            try {
+                return Charset.forName(name);
+            } catch (IllegalArgumentException e) {
+                return StandardCharsets.UTF_8;
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    private long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
@@ -0,0 +1,70 @@
+package com.vinhtt.sitemapcrawler.service.impl;
+
+import com.microsoft.playwright.Page;
+import com.vinhtt.sitemapcrawler.model.PageLink;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Extracts all navigable anchors of a rendered page in a single driver round-trip.
+ * Resolution against the document base URL and filtering of fragment-only,
+ * {@code javascript:} and other non-HTTP links happen inside the page, so no ElementHandle is ever
+ * created on the Java side.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+public final class LinkExtractor {
+
+    private static final String ANCHOR_SELECTOR = "a[href]";
+
+    private static final String EXTRACT_SCRIPT = """
+            (anchors, max) => {
+                const seen = new Set();
+                const out = [];
+                for (const a of anchors) {
+                    if (out.length >= max) break;
+                    const raw = a.getAttribute('href');
+                    if (!raw) continue;
+                    const trimmed = raw.trim();
+                    if (trimmed === '' || trimmed.startsWith('#') || trimmed.toLowerCase().startsWith('javascript')) continue;
+                    const href = a.href;
+                    if (!/^https?:/.test(href) || seen.has(href)) continue;
+                    seen.add(href);
+                    out.push({ href: href, text: (a.innerText || '').trim() });
+                }
+                return out;
+            }
+            """;
+
+    private LinkExtractor() {
+    }
+
+    /**
+     * Extracts the links of the given page.
+     *
+     * @param page     The loaded page.
+     * @param maxLinks The maximum number of distinct links returned.
+     * @return The absolute links in document order, without duplicates.
+     */
+    public static List<PageLink> extract(Page page, int maxLinks) {
+        Object result = page.evalOnSelectorAll(ANCHOR_SELECTOR, EXTRACT_SCRIPT, maxLinks);
+        if (!(result instanceof List<?> rows)) {
+            return List.of();
+        }
+
+        List<PageLink> links = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            if (row instanceof Map<?, ?> map) {
+                Object href = map.get("href");
+                Object text = map.get("text");
+                if (href != null) {
+                    links.add(new PageLink(href.toString(), text == null ? "" : text.toString()));
+                }
+            }
+        }
+        return links;
+    }
+}
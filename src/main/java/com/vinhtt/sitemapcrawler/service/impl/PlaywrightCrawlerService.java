@@ -1,167 +1,1022 @@
 package com.vinhtt.sitemapcrawler.service.impl;
 
-import com.microsoft.playwright.*;
+import com.microsoft.playwright.APIResponse;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.PlaywrightException;
+import com.microsoft.playwright.Response;
+import com.microsoft.playwright.options.RequestOptions;
+import com.microsoft.playwright.options.ScreenshotType;
+import com.vinhtt.sitemapcrawler.model.CrawlConfig;
+import com.vinhtt.sitemapcrawler.model.CrawlEvent;
+import com.vinhtt.sitemapcrawler.model.CrawlMetrics;
+import com.vinhtt.sitemapcrawler.model.CrawlPhase;
+import com.vinhtt.sitemapcrawler.model.EdgeChange;
+import com.vinhtt.sitemapcrawler.model.FetchedPage;
 import com.vinhtt.sitemapcrawler.model.NodeType;
+import com.vinhtt.sitemapcrawler.model.PageLink;
+import com.vinhtt.sitemapcrawler.model.PageRecord;
+import com.vinhtt.sitemapcrawler.model.PageTimings;
+import com.vinhtt.sitemapcrawler.model.ResourceStats;
+import com.vinhtt.sitemapcrawler.model.SiteEdge;
 import com.vinhtt.sitemapcrawler.model.SiteNode;
 import com.vinhtt.sitemapcrawler.service.ICrawlerService;
-import javafx.application.Platform;
+import com.vinhtt.sitemapcrawler.service.cache.DiskResourceCache;
+import com.vinhtt.sitemapcrawler.service.cluster.StructureClusterIndex;
+import com.vinhtt.sitemapcrawler.service.cluster.UrlTemplateTrie;
+import com.vinhtt.sitemapcrawler.service.frontier.CrawlFrontier;
+import com.vinhtt.sitemapcrawler.service.frontier.DiskCrawlFrontier;
+import com.vinhtt.sitemapcrawler.service.frontier.DiskSeenSet;
+import com.vinhtt.sitemapcrawler.service.frontier.FrontierEntry;
+import com.vinhtt.sitemapcrawler.service.metrics.CrawlErrorEvent;
+import com.vinhtt.sitemapcrawler.service.metrics.PageCrawlEvent;
+import com.vinhtt.sitemapcrawler.service.politeness.PolitenessScheduler;
+import com.vinhtt.sitemapcrawler.service.politeness.RobotsCache;
+import com.vinhtt.sitemapcrawler.service.recrawl.HashingInputStream;
+import com.vinhtt.sitemapcrawler.service.recrawl.PageRecordStore;
+import com.vinhtt.sitemapcrawler.service.sitemap.SitemapSeeder;
+import com.vinhtt.sitemapcrawler.service.thumbnail.ThumbnailPipeline;
+import com.vinhtt.sitemapcrawler.service.validation.LinkValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
-import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.net.http.HttpClient;
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Implementation of ICrawlerService using Microsoft Playwright.
  * Modified for manual scanning and proper resource cleanup.
+ * Page loads borrow a browser from a {@link BrowserPool} that stays warm across
+ * crawls, because Playwright objects must not be used by two threads at once.
+ * A load that fails because its browser crashed is retried on a replacement.
+ * The frontier and seen-set of a site crawl are persisted per root URL, so a
+ * stopped crawl can be resumed.
+ * All URLs are canonicalized before they become nodes or enter the seen-set, but
+ * pages are requested by the URL the site linked to.
+ * Every page load, single or site-wide, passes the per-host {@link PolitenessScheduler}.
+ * Single-page scans and site crawls are queued one behind the other, each with a run
+ * flag of its own that {@link #stop()} clears.
+ * Links are grouped by the DOM structure of the pages already loaded from their
+ * directory (FR-07) and, before anything is loaded, by their URL template; only a
+ * sample of each group is queued.
+ * The service has no UI dependency: progress is published as {@link CrawlEvent}s through
+ * a {@link SubmissionPublisher}, so a slow subscriber holds back the crawler threads
+ * instead of letting events pile up in memory.
+ * Every loaded page is timed per {@link CrawlPhase}; the timings are attached to its
+ * node, added to the {@link CrawlMetrics} and emitted as a JFR {@link PageCrawlEvent}.
+ * A page the server answers with an HTTP error is published as a
+ * {@link CrawlEvent.PageFailed} instead of a node.
+ * Site crawls keep a {@link PageRecord} of every page in a {@link PageRecordStore} that
+ * outlives the crawl. A recrawl revalidates each recorded page with a conditional
+ * request and reuses its recorded links when the server answers 304 or the body hash
+ * is unchanged, so only changed pages are rendered again; edges that differ from the
+ * previous crawl are published as added or removed.
+ * Scripts and stylesheets are served to every browser context from one
+ * {@link DiskResourceCache} that is checkpointed after each site crawl.
+ * A fresh site crawl first queues every page the site's sitemaps list and publishes
+ * it as an {@link NodeType#ORPHAN} node until a crawled page links to it.
+ * Every link found on a loaded page, internal or external, is also handed to a
+ * {@link LinkValidator} that checks it without rendering; a crawl publishes its
+ * {@link CrawlEvent.CrawlCompleted} only after the checks of its links are done.
+ * A crawl can also drain a frontier it does not own, such as the shard a
+ * distributed crawl's coordinator assigns to this process.
+ * With thumbnails enabled, every page rendered in the browser is captured as a viewport
+ * JPEG before it is closed; a {@link ThumbnailPipeline} downscales and stores it on its
+ * own threads, and the capture is skipped while that pipeline is behind.
  *
  * @author vinhtt
- * @version 1.6
+ * @version 3.10
  */
 public class PlaywrightCrawlerService implements ICrawlerService {
 
-    private volatile boolean isRunning;
-    private final Set<String> visitedUrls = Collections.synchronizedSet(new HashSet<>());
+    private static final Logger LOG = LoggerFactory.getLogger(PlaywrightCrawlerService.class);
 
-    private Playwright playwright;
-    private Browser browser;
-    private BrowserContext context;
+    private final Set<AtomicBoolean> queuedRuns = ConcurrentHashMap.newKeySet();
+    private volatile CompletableFuture<Void> siteCrawl = CompletableFuture.completedFuture(null);
 
-    private static final Pattern LIST_ITEM_PATTERN = Pattern.compile("(.*/)([^/]+/?)$");
-    private final Map<String, Integer> patternCounter = new HashMap<>();
-    private static final int GROUPING_THRESHOLD = 3;
+    private static final long FRONTIER_POLL_MS = 200;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final int CAPTURE_JPEG_QUALITY = 80;
+    private static final String RECORDS_DIRECTORY = "pages";
+    private static final String PAGE_METRICS_SCRIPT = """
+            () => {
+                const n = performance.getEntriesByType('navigation')[0];
+                const heap = performance.memory ? performance.memory.usedJSHeapSize : 0;
+                return n ? [n.connectEnd - n.domainLookupStart, n.domContentLoadedEventEnd - n.startTime, heap]
+                         : [-1, -1, heap];
+            }
+            """;
+
+    private final CrawlConfig config;
+    private final SubmissionPublisher<CrawlEvent> events;
+    private final ResourceStats resourceStats = new ResourceStats();
+    private final CrawlMetrics crawlMetrics = new CrawlMetrics();
+    private final BrowserPool browserPool;
+    private final DiskResourceCache resourceCache;
+    private final UrlCanonicalizer canonicalizer;
+    private final PolitenessScheduler politeness;
+    private final SitemapSeeder sitemapSeeder;
+    private final LinkValidator linkValidator;
+    private final ThumbnailPipeline thumbnails;
+    private final StructureClusterIndex clusters;
+    private final UrlTemplateTrie templates;
+    private final AtomicInteger pagesVisited = new AtomicInteger();
+    private volatile long crawlStartNanos;
+    private volatile long crawlEndNanos;
+
+    /**
+     * Constructs the service with default crawl settings.
+     */
+    public PlaywrightCrawlerService() {
+        this(new CrawlConfig());
+    }
+
+    /**
+     * Constructs the service with the given crawl settings. Event subscribers are
+     * called on daemon threads of the service.
+     *
+     * @param config The crawl configuration.
+     */
+    public PlaywrightCrawlerService(CrawlConfig config) {
+        this(config, newEventExecutor());
+    }
+
+    /**
+     * Constructs the service with the given crawl settings and event delivery threads.
+     *
+     * @param config        The crawl configuration.
+     * @param eventExecutor The executor subscribers of {@link #events()} are called on; it must not run tasks inline.
+     */
+    public PlaywrightCrawlerService(CrawlConfig config, Executor eventExecutor) {
+        this.config = config;
+        this.events = new SubmissionPublisher<>(eventExecutor, config.getEventBufferSize());
+        this.resourceCache = openResourceCache(config);
+        this.browserPool = new BrowserPool(new ResourceBlocker(config, resourceStats, resourceCache), config);
+        this.canonicalizer = new UrlCanonicalizer(config);
+        RobotsCache robots = null;
+        if (config.isRespectRobotsTxt() || config.isSeedFromSitemaps()) {
+            HttpClient robotsClient = HttpClient.newBuilder()
+                    .followRedirects(HttpClient.Redirect.NORMAL)
+                    .connectTimeout(Duration.ofMillis(config.getPageTimeoutMs()))
+                    .build();
+            robots = new RobotsCache(robotsClient, config.getRobotsUserAgent(), config.getPageTimeoutMs());
+            this.sitemapSeeder = config.isSeedFromSitemaps()
+                    ? new SitemapSeeder(robotsClient, robots, config.getRobotsUserAgent(), config.getPageTimeoutMs())
+                    : null;
+        } else {
+            this.sitemapSeeder = null;
+        }
+        this.politeness = new PolitenessScheduler(config, config.isRespectRobotsTxt() ? robots : null);
+        this.linkValidator = config.isValidateLinks() ? new LinkValidator(config) : null;
+        this.thumbnails = openThumbnails(config, crawlMetrics);
+        this.clusters = new StructureClusterIndex(config.getClusterMaxDistance(), config.getClusterSampleSize());
+        this.templates = new UrlTemplateTrie(config.getTemplateSampleSize(), config.getTemplateCardinalityThreshold());
+    }
+
+    /**
+     * Creates the default executor event subscribers are called on.
+     *
+     * @return A cached pool of daemon threads.
+     */
+    static ExecutorService newEventExecutor() {
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "crawl-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 
     @Override
-    public void crawlSinglePage(String url,
-                                Consumer<SiteNode> onNodeAdded,
-                                Consumer<String> onEdgeAdded,
-                                Runnable onFinished) {
+    public Flow.Publisher<CrawlEvent> events() {
+        return events;
+    }
 
-        if (playwright == null) {
+    @Override
+    public void crawlSinglePage(String url) {
+
+        queueCrawl(run -> {
             try {
-                playwright = Playwright.create();
-                browser = playwright.chromium().launch(new BrowserType.LaunchOptions()
-                        .setChannel("chrome")
-                        .setHeadless(false));
-                context = browser.newContext();
+                String nodeUrl = canonicalizer.canonicalize(url);
+                if (nodeUrl == null) {
+                    LOG.warn("Not a crawlable URL: {}", url);
+                    return;
+                }
+                String pageUrl = UrlCanonicalizer.requestUrl(url);
+                if (!politeness.isAllowed(pageUrl)) {
+                    LOG.info("Disallowed by robots.txt: {}", pageUrl);
+                    return;
+                }
+                FetchedPage fetched = loadPolitely(pageUrl, config.getPageTimeoutMs(), null, run);
+                if (fetched != null && !failedWithStatus(nodeUrl, fetched)) {
+                    publishPage(nodeUrl, fetched, null, null);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             } catch (Exception e) {
-                e.printStackTrace();
-                return;
+                recordFailure(url, e);
+            } finally {
+                finishLinkChecks(run);
+                run.set(false);
+                publish(new CrawlEvent.CrawlCompleted(url, false));
             }
-        }
+        });
+    }
 
-        isRunning = true;
+    @Override
+    public void crawlSite(String rootUrl, int maxDepth, int maxWorkers, int timeoutMs) {
 
-        CompletableFuture.runAsync(() -> {
-            Page page = null;
-            try {
-                page = context.newPage();
-                page.navigate(url);
+        String root = canonicalRoot(rootUrl);
+        Path stateDirectory = stateDirectoryFor(root);
 
-                String title = page.title();
-                if (title == null || title.isEmpty()) {
-                    title = url;
+        queueCrawl(run -> {
+            DiskCrawlFrontier frontier = openSiteFrontier(root, rootUrl, stateDirectory, maxDepth, run);
+            if (frontier == null) {
+                finishCrawl(root, run, false);
+                return;
+            }
+            runCrawl(frontier, root, run, maxDepth, maxWorkers, timeoutMs, () -> {
+                boolean paused = !frontier.isExhausted();
+                frontier.close();
+                if (!paused) {
+                    DiskCrawlFrontier.delete(stateDirectory);
                 }
+                return paused;
+            });
+        });
+    }
 
-                SiteNode currentNode = new SiteNode(url, title, NodeType.INTERNAL);
-                Platform.runLater(() -> onNodeAdded.accept(currentNode));
-
-                String rootDomain = getDomainName(url);
-                List<ElementHandle> links = page.querySelectorAll("a[href]");
-
-                for (ElementHandle link : links) {
-                    if (!isRunning) break;
-
-                    String href = link.getAttribute("href");
-                    String linkText = link.innerText().trim();
-                    if (linkText.isEmpty()) linkText = href;
-
-                    if (href == null || href.isEmpty() || href.startsWith("#") || href.startsWith("javascript")) continue;
-
-                    String absoluteUrl = resolveUrl(url, href);
-                    if (absoluteUrl == null) continue;
-                    if (absoluteUrl.equals(url)) continue;
-
-                    if (absoluteUrl.contains(rootDomain)) {
-                        String groupUrl = tryGetGroupUrl(absoluteUrl);
-                        if (groupUrl != null) {
-                            SiteNode groupNode = new SiteNode(groupUrl, "[Group] " + getPathOnly(groupUrl), NodeType.GROUPED);
-                            Platform.runLater(() -> {
-                                onNodeAdded.accept(groupNode);
-                                onEdgeAdded.accept(url + " -> " + groupUrl);
-                            });
-                        } else {
-                            SiteNode childNode = new SiteNode(absoluteUrl, linkText, NodeType.PENDING);
-                            Platform.runLater(() -> {
-                                onNodeAdded.accept(childNode);
-                                onEdgeAdded.accept(url + " -> " + absoluteUrl);
-                            });
-                        }
-                    } else {
-                        String domain = getDomainName(absoluteUrl);
-                        String extId = "ext://" + domain;
-                        SiteNode extNode = new SiteNode(extId, domain, NodeType.EXTERNAL);
-                        Platform.runLater(() -> {
-                            onNodeAdded.accept(extNode);
-                            onEdgeAdded.accept(url + " -> " + extId);
-                        });
-                    }
-                }
+    /**
+     * Crawls the entries of a frontier owned by someone else, such as the shard of a
+     * distributed crawl assigned to this process. Links found on the pages are offered
+     * to the frontier, which decides whether and where they are visited. Sitemaps are
+     * not read, since the owner seeds the frontier, and nothing is persisted for a resume.
+     * Ends with a {@link CrawlEvent.CrawlCompleted} once the frontier is exhausted or the
+     * crawl is stopped, after the checks of the links found.
+     *
+     * @param frontier   The frontier to drain; the caller closes it.
+     * @param rootUrl    The URL the crawl was started with; the page records of a recrawl are kept per root.
+     * @param maxDepth   The maximum link distance from the root that is still visited.
+     * @param maxWorkers The number of pages rendered concurrently.
+     * @param timeoutMs  The navigation timeout per page, in milliseconds.
+     */
+    public void crawlFrontier(CrawlFrontier frontier, String rootUrl, int maxDepth, int maxWorkers, int timeoutMs) {
 
-            } catch (Exception e) {
-                e.printStackTrace();
-            } finally {
-                if (page != null) {
-                    page.close();
+        String root = canonicalRoot(rootUrl);
+        queueCrawl(run -> runCrawl(frontier, root, run, maxDepth, maxWorkers, timeoutMs, () -> false));
+    }
+
+    /**
+     * Queues a crawl with a run of its own behind the previous one, so single-page scans
+     * and site crawls never share the browser pool, link validator or counters. The
+     * counters of the service are reset when it starts; {@link #stop()} stops every run
+     * that is queued or running.
+     */
+    private synchronized void queueCrawl(Consumer<AtomicBoolean> crawl) {
+        AtomicBoolean run = new AtomicBoolean(true);
+        queuedRuns.add(run);
+        siteCrawl = siteCrawl.handle((ignored, error) -> null).thenRunAsync(() -> {
+            try {
+                pagesVisited.set(0);
+                resourceStats.reset();
+                crawlMetrics.reset();
+                crawlStartNanos = System.nanoTime();
+                crawlEndNanos = 0;
+                if (linkValidator != null) {
+                    linkValidator.reset();
                 }
-                Platform.runLater(onFinished);
+                crawl.accept(run);
+            } finally {
+                queuedRuns.remove(run);
             }
         });
     }
 
+    /**
+     * Tells whether a crawl is queued or running, or a discarded crawl is still being deleted.
+     */
+    private boolean isBusy() {
+        return !siteCrawl.isDone();
+    }
+
+    /**
+     * Opens the persisted frontier of a site crawl. Unless a paused crawl of the root can
+     * be resumed, the old state is deleted and a fresh frontier is seeded with the root
+     * and the pages of the site's sitemaps. The root is requested as it was given, since
+     * its canonical form may name a host or path the server does not answer.
+     *
+     * @return The frontier, or null if the root is not crawlable, the frontier cannot be
+     *         opened or seeding was interrupted.
+     */
+    private DiskCrawlFrontier openSiteFrontier(String root,
+                                               String rootUrl,
+                                               Path stateDirectory,
+                                               int maxDepth,
+                                               AtomicBoolean run) {
+        if (stateDirectory == null) {
+            LOG.warn("Not a crawlable URL: {}", root);
+            return null;
+        }
+        DiskCrawlFrontier frontier = null;
+        try {
+            boolean fresh = !DiskCrawlFrontier.hasPendingWork(stateDirectory);
+            if (fresh) {
+                DiskCrawlFrontier.delete(stateDirectory);
+                clusters.clear();
+                templates.clear();
+            }
+            frontier = DiskCrawlFrontier.open(stateDirectory, config);
+            String requestRoot = UrlCanonicalizer.requestUrl(rootUrl);
+            frontier.offer(requestRoot, 0);
+            if (fresh && sitemapSeeder != null && maxDepth > 0) {
+                seedFromSitemaps(frontier, requestRoot, run);
+            }
+            return frontier;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (UncheckedIOException e) {
+            LOG.warn("Cannot open the frontier of {}", root, e);
+        }
+        if (frontier != null) {
+            frontier.close();
+        }
+        return null;
+    }
+
+    /**
+     * Drains a frontier with a pool of workers until it is exhausted or the run is
+     * stopped, then publishes the end of the crawl once the checks of its links are done.
+     *
+     * @param settle Called once the workers have stopped and before the end is published;
+     *               releases the frontier and tells whether the crawl paused with work left.
+     */
+    private void runCrawl(CrawlFrontier frontier,
+                          String root,
+                          AtomicBoolean run,
+                          int maxDepth,
+                          int maxWorkers,
+                          int timeoutMs,
+                          BooleanSupplier settle) {
+
+        int workerCount = Math.max(1, maxWorkers);
+        PageRecordStore records = null;
+        ExecutorService workers = Executors.newFixedThreadPool(workerCount);
+        try {
+            records = config.isIncrementalRecrawl() ? PageRecordStore.open(recordDirectoryFor(root)) : null;
+            runWorkers(workers, workerCount, frontier, records, run, maxDepth, timeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | UncheckedIOException e) {
+            LOG.warn("Crawl of {} failed", root, e);
+        } finally {
+            workers.shutdownNow();
+            if (records != null) {
+                records.close();
+            }
+            finishCrawl(root, run, settle.getAsBoolean());
+        }
+    }
+
+    /**
+     * Ends a crawl: checkpoints the resource cache, waits for the link checks and
+     * publishes the {@link CrawlEvent.CrawlCompleted}.
+     */
+    private void finishCrawl(String root, AtomicBoolean run, boolean paused) {
+        if (resourceCache != null) {
+            resourceCache.checkpoint();
+        }
+        finishLinkChecks(run);
+        crawlEndNanos = System.nanoTime();
+        run.set(false);
+        siteCrawlFinished();
+        publish(new CrawlEvent.CrawlCompleted(root, paused));
+    }
+
+    @Override
+    public boolean hasResumableCrawl(String rootUrl) {
+        Path stateDirectory = stateDirectoryFor(rootUrl);
+        return !isBusy() && stateDirectory != null && DiskCrawlFrontier.hasPendingWork(stateDirectory);
+    }
+
+    @Override
+    public synchronized void discardCrawl(String rootUrl) {
+        Path stateDirectory = stateDirectoryFor(rootUrl);
+        if (!isBusy() && stateDirectory != null) {
+            siteCrawl = siteCrawl.handle((ignored, error) -> null)
+                    .thenRunAsync(() -> {
+                        DiskCrawlFrontier.delete(stateDirectory);
+                        clusters.clear();
+                        templates.clear();
+                    });
+        }
+    }
+
+    @Override
+    public double getPagesPerSecond() {
+        if (crawlStartNanos == 0) {
+            return 0;
+        }
+        long end = crawlEndNanos != 0 ? crawlEndNanos : System.nanoTime();
+        double seconds = (end - crawlStartNanos) / 1_000_000_000.0;
+        return seconds > 0 ? pagesVisited.get() / seconds : 0;
+    }
+
+    @Override
+    public ResourceStats getResourceStats() {
+        return resourceStats;
+    }
+
+    @Override
+    public CrawlMetrics getCrawlMetrics() {
+        return crawlMetrics;
+    }
+
+    @Override
+    public byte[] getThumbnail(String url) {
+        if (thumbnails == null) {
+            return null;
+        }
+        try {
+            return thumbnails.get(url);
+        } catch (UncheckedIOException e) {
+            LOG.warn("Cannot read thumbnail of {}: {}", url, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Gets the thumbnail pipeline, whose counters tell how many captures were stored or skipped.
+     *
+     * @return The pipeline, or null if thumbnails are disabled.
+     */
+    public ThumbnailPipeline getThumbnails() {
+        return thumbnails;
+    }
+
+    /**
+     * Gets the browser pool shared by all page loads.
+     *
+     * @return The pool.
+     */
+    public BrowserPool getBrowserPool() {
+        return browserPool;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Browsers stay open, so the next crawl starts without a cold launch.
+     */
     @Override
     public void stop() {
-        isRunning = false;
-        cleanup();
+        queuedRuns.forEach(run -> run.set(false));
     }
 
     @Override
     public void cleanup() {
+        stop();
+        events.close();
+        browserPool.close();
+        if (linkValidator != null) {
+            linkValidator.close();
+        }
+        if (thumbnails != null) {
+            thumbnails.close();
+        }
+        if (resourceCache != null) {
+            resourceCache.close();
+        }
+    }
+
+    /**
+     * Opens the shared resource cache, or runs without one if it is disabled or cannot be opened.
+     */
+    private static DiskResourceCache openResourceCache(CrawlConfig config) {
+        if (config.getResourceCacheMaxMb() == 0) {
+            return null;
+        }
+        try {
+            return DiskResourceCache.open(Path.of(config.getResourceCacheDirectory()),
+                    config.getResourceCacheMaxMb() * 1024L * 1024L);
+        } catch (UncheckedIOException e) {
+            LOG.warn("Resource cache disabled: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Starts the thumbnail pipeline if thumbnails are enabled, or runs without one if its cache cannot be opened.
+     */
+    private static ThumbnailPipeline openThumbnails(CrawlConfig config, CrawlMetrics metrics) {
+        if (!config.isCaptureThumbnails()) {
+            return null;
+        }
+        try {
+            return new ThumbnailPipeline(config, metrics);
+        } catch (UncheckedIOException e) {
+            LOG.warn("Thumbnails disabled: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Loads a page and collects its title and links. Subclasses may override this
+     * to serve pages from a cheaper engine and only fall back to the browser.
+     * A page with a previous record is first revalidated with a conditional request
+     * from the browser context and only rendered if it changed.
+     *
+     * @param url       The URL to load.
+     * @param timeoutMs The navigation timeout, in milliseconds.
+     * @param previous  The record of the page from the previous crawl, or null.
+     * @param run       The run the page belongs to; waiting for a browser ends once it is stopped.
+     * @return The loaded page.
+     * @throws BrowserCrashedException If the browser crashed during the load.
+     * @throws PlaywrightException     If navigation fails or times out.
+     */
+    protected FetchedPage loadPage(String url, int timeoutMs, PageRecord previous, AtomicBoolean run) {
+        BrowserSession session = acquireBrowser(run);
         try {
-            if (context != null) { context.close(); context = null; }
-            if (browser != null) { browser.close(); browser = null; }
-            if (playwright != null) { playwright.close(); playwright = null; }
+            FetchedPage revalidated = previous != null ? revalidate(session, url, timeoutMs, previous) : null;
+            if (revalidated != null) {
+                return revalidated;
+            }
+            try (Page page = session.newPage()) {
+                long start = System.nanoTime();
+                Response response = page.navigate(url, new Page.NavigateOptions().setTimeout(timeoutMs));
+                long navigated = System.nanoTime();
+                int status = response != null ? response.status() : 200;
+                List<PageLink> links = LinkExtractor.extract(page, config.getMaxLinksPerPage());
+                long structureHash = StructureExtractor.fingerprint(page);
+                String title = page.title();
+                PageTimings timings = PageTimings.of("browser", status)
+                        .with(CrawlPhase.NAVIGATE, navigated - start)
+                        .with(CrawlPhase.LINK_EXTRACTION, System.nanoTime() - navigated);
+                timings = captureThumbnail(page, url, timings);
+                FetchedPage fetched = new FetchedPage(url, title, links, status, structureHash,
+                        withPageMetrics(page, session, timings));
+                return response != null ? withValidators(fetched, response) : fetched;
+            }
+        } catch (PlaywrightException e) {
+            if (!session.isHealthy()) {
+                throw new BrowserCrashedException("Browser crashed while loading " + url, e);
+            }
+            throw e;
+        } finally {
+            browserPool.release(session);
+        }
+    }
+
+    /**
+     * Hands a viewport JPEG of a loaded page to the thumbnail pipeline, unless thumbnails
+     * are disabled or the pipeline is behind. Only the capture itself is timed here.
+     */
+    private PageTimings captureThumbnail(Page page, String url, PageTimings timings) {
+        if (thumbnails == null || !thumbnails.hasCapacity()) {
+            return timings;
+        }
+        long start = System.nanoTime();
+        try {
+            byte[] capture = page.screenshot(new Page.ScreenshotOptions()
+                    .setType(ScreenshotType.JPEG)
+                    .setQuality(CAPTURE_JPEG_QUALITY));
+            thumbnails.submit(url, capture);
+            return timings.with(CrawlPhase.SCREENSHOT, System.nanoTime() - start);
+        } catch (PlaywrightException e) {
+            // Thumbnails are best effort; the page itself loaded fine.
+            return timings;
+        }
+    }
+
+    /**
+     * Asks the server whether a recorded page changed, without rendering it.
+     *
+     * @return The page rebuilt from its record, or null if it changed or could not be revalidated.
+     */
+    private static FetchedPage revalidate(BrowserSession session, String url, int timeoutMs, PageRecord previous) {
+        RequestOptions options = RequestOptions.create().setTimeout(timeoutMs);
+        if (previous.getEtag() != null) options.setHeader("If-None-Match", previous.getEtag());
+        if (previous.getLastModified() != null) options.setHeader("If-Modified-Since", previous.getLastModified());
+        long start = System.nanoTime();
+        APIResponse response = session.context().request().get(url, options);
+        try {
+            int status = response.status();
+            if (status == 304 || (status == 200 && HashingInputStream.hash(response.body()) == previous.getContentHash())) {
+                PageTimings timings = PageTimings.of("revalidated", status).with(CrawlPhase.NAVIGATE, System.nanoTime() - start);
+                return FetchedPage.unchanged(previous, timings, response.headers().get("etag"), response.headers().get("last-modified"));
+            }
+            return null;
+        } finally {
+            response.dispose();
+        }
+    }
+
+    /**
+     * Attaches the validators and body hash of the document response to a rendered page.
+     */
+    private static FetchedPage withValidators(FetchedPage fetched, Response response) {
+        long contentHash = 0;
+        try {
+            contentHash = HashingInputStream.hash(response.body());
+        } catch (PlaywrightException e) {
+            // The body of a redirected or evicted response is unavailable; the page is re-rendered next time.
+        }
+        Map<String, String> headers = response.headers();
+        return fetched.withValidators(headers.get("etag"), headers.get("last-modified"), contentHash);
+    }
+
+    /**
+     * Takes a browser from the pool, waiting until one is free.
+     *
+     * @throws CancellationException If the run is stopped while waiting.
+     */
+    private BrowserSession acquireBrowser(AtomicBoolean run) {
+        try {
+            BrowserSession session = null;
+            while (session == null) {
+                if (!run.get()) {
+                    throw new CancellationException("Stopped while waiting for a browser");
+                }
+                session = browserPool.acquire(FRONTIER_POLL_MS);
+            }
+            return session;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("Interrupted while waiting for a browser"));
+        }
+    }
+
+    /**
+     * Adds the connect and DOM-ready phases reported by the page's Navigation Timing entry,
+     * and charges the page's JavaScript heap to the session's context budget.
+     * Connect is zero when the browser reused a connection.
+     */
+    private static PageTimings withPageMetrics(Page page, BrowserSession session, PageTimings timings) {
+        long heapBytes = 0;
+        try {
+            if (page.evaluate(PAGE_METRICS_SCRIPT) instanceof List<?> values && values.size() == 3
+                    && values.get(0) instanceof Number connectMs && values.get(1) instanceof Number domReadyMs
+                    && values.get(2) instanceof Number heap) {
+                heapBytes = heap.longValue();
+                timings = timings.with(CrawlPhase.CONNECT, (long) (connectMs.doubleValue() * 1_000_000))
+                        .with(CrawlPhase.DOM_READY, (long) (domReadyMs.doubleValue() * 1_000_000));
+            }
+        } catch (PlaywrightException e) {
+            // Metrics are best effort; the page itself loaded fine.
+        }
+        session.recordPage(heapBytes);
+        return timings;
+    }
+
+    /**
+     * Gets the configuration this service was created with.
+     *
+     * @return The crawl configuration.
+     */
+    protected CrawlConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Queues the pages listed in the site's sitemaps one level below the root and
+     * publishes each as an orphan. This runs before the workers start, since they
+     * exit as soon as the frontier runs dry. Sitemap URLs on other domains, and URLs
+     * already queued, are skipped.
+     */
+    private void seedFromSitemaps(DiskCrawlFrontier frontier, String root, AtomicBoolean run)
+            throws InterruptedException {
+
+        String rootDomain = UrlCanonicalizer.domainOf(root);
+        int seeded = sitemapSeeder.seed(root, config.getMaxSitemapUrls(), loc -> {
+            String url = canonicalizer.canonicalize(loc);
+            if (url == null || !UrlCanonicalizer.isSameSite(url, rootDomain)
+                    || !frontier.offer(UrlCanonicalizer.requestUrl(loc), 1)) {
+                return false;
+            }
+            publish(new CrawlEvent.NodeDiscovered(new SiteNode(url, url, NodeType.ORPHAN)));
+            return true;
+        }, run::get);
+        crawlMetrics.recordSitemapUrls(seeded);
+    }
+
+    /**
+     * Waits for the link checks of a run, or drops the queued ones if the run was stopped.
+     */
+    private void finishLinkChecks(AtomicBoolean run) {
+        if (linkValidator == null) {
+            return;
+        }
+        try {
+            if (!linkValidator.awaitIdle(run::get)) {
+                linkValidator.cancel();
+            }
+        } catch (InterruptedException e) {
+            linkValidator.cancel();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Queues a link for validation; the outcome is counted and published for the node it points to.
+     */
+    private void checkLink(String linkUrl, String nodeUrl, String referrer) {
+        linkValidator.submit(linkUrl, check -> {
+            crawlMetrics.recordLinkCheck(check);
+            publish(new CrawlEvent.LinkChecked(nodeUrl, referrer, check));
+        });
+    }
+
+    /**
+     * Runs the crawl workers on a frontier and waits until all of them have exited.
+     */
+    private void runWorkers(ExecutorService workers,
+                            int workerCount,
+                            CrawlFrontier frontier,
+                            PageRecordStore records,
+                            AtomicBoolean run,
+                            int maxDepth,
+                            int timeoutMs) throws InterruptedException, ExecutionException {
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < workerCount; i++) {
+            futures.add(workers.submit(() -> runWorker(frontier, records, run, maxDepth, timeoutMs)));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    /**
+     * Drains the shared frontier on the calling thread, borrowing a browser only for pages that need one.
+     * The worker exits once the crawl is stopped or no entry is queued or in flight.
+     * Links of a loaded page are always queued before it is completed, so stopping
+     * mid-page never loses work; an entry still waiting for its host or for a
+     * replacement browser when the crawl stops is left uncommitted and loaded on resume.
+     */
+    private void runWorker(CrawlFrontier frontier,
+                           PageRecordStore records,
+                           AtomicBoolean run,
+                           int maxDepth,
+                           int timeoutMs) {
+
+        try {
+            while (run.get()) {
+                FrontierEntry entry = frontier.poll(FRONTIER_POLL_MS);
+                if (entry == null) {
+                    if (frontier.isExhausted()) break;
+                    continue;
+                }
+
+                boolean abandoned = false;
+                try {
+                    if (!politeness.isAllowed(entry.url())) {
+                        LOG.info("Disallowed by robots.txt: {}", entry.url());
+                        continue;
+                    }
+                    String nodeUrl = Objects.requireNonNullElse(canonicalizer.canonicalize(entry.url()), entry.url());
+                    if (clusters.groupOf(nodeUrl) != null) {
+                        continue;
+                    }
+                    PageRecord previous = records != null ? records.get(nodeUrl) : null;
+                    FetchedPage fetched = loadPolitely(entry.url(), timeoutMs, previous, run);
+                    if (fetched == null) {
+                        abandoned = true;
+                        continue;
+                    }
+                    if (failedWithStatus(nodeUrl, fetched)) {
+                        continue;
+                    }
+                    pagesVisited.incrementAndGet();
+                    List<String> children = publishPage(nodeUrl, fetched, previous, records);
+
+                    if (entry.depth() < maxDepth) {
+                        for (String child : children) {
+                            frontier.offer(child, entry.depth() + 1);
+                        }
+                    }
+                } catch (PlaywrightException | UncheckedIOException e) {
+                    recordFailure(entry.url(), e);
+                } finally {
+                    if (!abandoned) {
+                        frontier.complete(entry);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
-            System.err.println("Error cleaning up Playwright: " + e.getMessage());
+            LOG.warn("Crawl worker failed", e);
         }
     }
 
-    private String tryGetGroupUrl(String url) {
-        Matcher matcher = LIST_ITEM_PATTERN.matcher(url);
-        if (matcher.find()) {
-            String basePath = matcher.group(1);
-            String lastPart = matcher.group(2);
-            if (lastPart.matches("\\d+/?")) {
-                return basePath;
+    /**
+     * Loads a page once its host has a free slot, retrying throttled responses
+     * after the host's back-off and crashed loads on a replacement browser.
+     *
+     * @return The loaded page, or null if the run was stopped while waiting.
+     */
+    private FetchedPage loadPolitely(String url, int timeoutMs, PageRecord previous, AtomicBoolean run)
+            throws InterruptedException {
+
+        for (int attempt = 1; ; attempt++) {
+            PolitenessScheduler.Permit permit = null;
+            while (run.get() && permit == null) {
+                permit = politeness.acquire(url, FRONTIER_POLL_MS);
+            }
+            if (permit == null) {
+                return null;
             }
-            patternCounter.put(basePath, patternCounter.getOrDefault(basePath, 0) + 1);
-            if (patternCounter.get(basePath) > GROUPING_THRESHOLD) {
-                return basePath;
+
+            FetchedPage page;
+            try {
+                page = loadPage(url, timeoutMs, previous, run);
+            } catch (BrowserCrashedException e) {
+                politeness.release(permit, 0);
+                if (attempt == MAX_ATTEMPTS) throw e;
+                LOG.warn("{}; retrying", e.getMessage());
+                continue;
+            } catch (CancellationException e) {
+                politeness.release(permit, 0);
+                return null;
+            } catch (RuntimeException e) {
+                politeness.release(permit, 0);
+                throw e;
+            }
+            politeness.release(permit, page.getStatusCode());
+
+            boolean throttled = page.getStatusCode() == 429 || page.getStatusCode() == 503;
+            if (!throttled || attempt == MAX_ATTEMPTS) {
+                return page;
             }
         }
-        return null;
     }
 
-    private String getDomainName(String url) {
+    private String canonicalRoot(String url) {
+        return url == null ? null : Objects.requireNonNullElse(canonicalizer.canonicalize(url), url);
+    }
+
+    /**
+     * Gets the directory the frontier of a site crawl is persisted in.
+     *
+     * @return The directory, or null if the URL is not a crawlable HTTP(S) URL and so has no crawl state.
+     */
+    private Path stateDirectoryFor(String url) {
+        String root = url == null ? null : canonicalizer.canonicalize(url);
+        return root == null ? null : Path.of(config.getStateDirectory()).resolve(siteKeyOf(root));
+    }
+
+    /**
+     * Gets the directory of the page records of a site, which survive the deletion of its finished crawl state.
+     */
+    private Path recordDirectoryFor(String url) {
+        return Path.of(config.getStateDirectory()).resolve(RECORDS_DIRECTORY).resolve(siteKeyOf(url));
+    }
+
+    private String siteKeyOf(String url) {
+        String rootUrl = canonicalRoot(url);
+        String host = UrlCanonicalizer.domainOf(rootUrl).replaceAll("[^A-Za-z0-9.-]", "_");
+        return host + "-" + Long.toHexString(DiskSeenSet.fingerprint(rootUrl));
+    }
+
+    /**
+     * Publishes the loaded page and all links found on it as events, and records its timings.
+     * Links are classified first, so the grouping time is known when the page node is published.
+     * With a previous record, edges are marked as added or removed relative to it, and the
+     * page's new record is stored unless nothing about it changed. The links are queued
+     * for validation once the page's events are published.
+     *
+     * @param url      The canonical URL of the page, the key of its node and record.
+     * @param previous The record of the page from the previous crawl, or null.
+     * @param records  The store the page's new record is written to, or null to keep none.
+     * @return The internal, non-grouped links that are candidates for further traversal, as they are requested.
+     */
+    private List<String> publishPage(String url,
+                                     FetchedPage fetched,
+                                     PageRecord previous,
+                                     PageRecordStore records) {
+
+        String title = fetched.getTitle();
+        if (title == null || title.isEmpty()) {
+            title = url;
+        }
+
+        long groupingStart = System.nanoTime();
+        clusters.assign(url, fetched.getStructureHash());
+
+        String rootDomain = UrlCanonicalizer.domainOf(url);
+        List<PageLink> links = fetched.getLinks();
+        List<SiteNode> targets = new ArrayList<>(links.size());
+        List<String> targetLinks = new ArrayList<>(links.size());
+        List<String> internalLinks = new ArrayList<>();
+
+        for (PageLink link : links) {
+            String absoluteUrl = canonicalizer.canonicalize(link.getHref());
+            if (absoluteUrl == null) continue;
+            String requestUrl = UrlCanonicalizer.requestUrl(link.getHref());
+            String linkText = link.getText().isEmpty() ? absoluteUrl : link.getText();
+            if (absoluteUrl.equals(url)) continue;
+
+            if (UrlCanonicalizer.isSameSite(absoluteUrl, rootDomain)) {
+                String groupUrl = clusters.groupOf(absoluteUrl);
+                UrlTemplateTrie.Match template = groupUrl == null ? templates.record(absoluteUrl) : null;
+                if (groupUrl != null) {
+                    targets.add(new SiteNode(groupUrl, "[Group] " + getPathOnly(groupUrl), NodeType.GROUPED));
+                } else if (template != null && !template.inSample()) {
+                    String label = String.format("[Template] %s (%d sampled of %d)",
+                            template.pattern(), template.sampled(), template.members());
+                    targets.add(new SiteNode(template.templateUrl(), label, NodeType.GROUPED));
+                } else {
+                    internalLinks.add(requestUrl);
+                    targets.add(new SiteNode(absoluteUrl, linkText, NodeType.PENDING));
+                }
+            } else {
+                String domain = UrlCanonicalizer.domainOf(absoluteUrl);
+                targets.add(new SiteNode("ext://" + domain, domain, NodeType.EXTERNAL));
+            }
+            targetLinks.add(requestUrl);
+        }
+
+        PageTimings timings = fetched.getTimings().with(CrawlPhase.GROUPING, System.nanoTime() - groupingStart);
+        crawlMetrics.recordPage(timings, links.size());
+        if (fetched.isUnchanged()) {
+            crawlMetrics.recordUnchanged();
+        }
+        PageCrawlEvent.emit(url, timings, links.size());
+
+        Set<String> previousTargets = previous != null ? new HashSet<>(previous.getTargets()) : Set.of();
+        Set<String> targetUrls = new LinkedHashSet<>();
+        publish(new CrawlEvent.NodeDiscovered(new SiteNode(url, title, NodeType.INTERNAL, timings)));
+        for (SiteNode target : targets) {
+            publish(new CrawlEvent.NodeDiscovered(target));
+            EdgeChange change = previous == null || previousTargets.contains(target.getUrl()) ? EdgeChange.UNCHANGED : EdgeChange.ADDED;
+            publish(new CrawlEvent.EdgeDiscovered(new SiteEdge(url, target.getUrl(), change)));
+            targetUrls.add(target.getUrl());
+        }
+        for (String removed : previousTargets) {
+            if (!targetUrls.contains(removed)) {
+                publish(new CrawlEvent.EdgeDiscovered(new SiteEdge(url, removed, EdgeChange.REMOVED)));
+            }
+        }
+        publish(new CrawlEvent.PageFetched(url, timings, links.size(), fetched.isUnchanged()));
+        if (linkValidator != null) {
+            for (int i = 0; i < targets.size(); i++) {
+                checkLink(targetLinks.get(i), targets.get(i).getUrl(), url);
+            }
+        }
+
+        boolean recordCurrent = fetched.isUnchanged() && targetUrls.equals(previousTargets)
+                && Objects.equals(previous.getEtag(), fetched.getEtag())
+                && Objects.equals(previous.getLastModified(), fetched.getLastModified());
+        if (records != null && !recordCurrent) {
+            records.put(PageRecord.of(url, fetched, new ArrayList<>(targetUrls)));
+        }
+        return internalLinks;
+    }
+
+    /**
+     * Publishes a page the server answered with an HTTP error as a failure, so it is
+     * neither counted nor shown as a crawled page.
+     *
+     * @return True if the page failed.
+     */
+    private boolean failedWithStatus(String url, FetchedPage fetched) {
+        if (fetched.getStatusCode() < 400) {
+            return false;
+        }
+        recordFailure(url, new IOException("HTTP " + fetched.getStatusCode()));
+        return true;
+    }
+
+    private void recordFailure(String url, Exception e) {
+        crawlMetrics.recordError();
+        CrawlErrorEvent.emit(url, e);
+        LOG.warn("Failed to crawl {}: {}", url, e.getMessage());
+        publish(new CrawlEvent.PageFailed(url, e));
+    }
+
+    /**
+     * Called on the crawl thread after a site crawl ended, before its
+     * {@link CrawlEvent.CrawlCompleted} is published.
+     */
+    protected void siteCrawlFinished() {
+    }
+
+    /**
+     * Hands an event to every subscriber, waiting while any of their buffers is full.
+     * Events published after {@link #cleanup()} are dropped.
+     */
+    private void publish(CrawlEvent event) {
         try {
-            URI uri = new URI(url);
-            String domain = uri.getHost();
-            return domain.startsWith("www.") ? domain.substring(4) : domain;
-        } catch (URISyntaxException e) {
-            return "External";
+            events.submit(event);
+        } catch (IllegalStateException closed) {
+            // The service was cleaned up while the crawl was still running.
         }
     }
 
@@ -170,10 +1025,4 @@ public class PlaywrightCrawlerService implements ICrawlerService {
             return new URI(url).getPath();
         } catch (Exception e) { return url; }
     }
-
-    private String resolveUrl(String baseUrl, String href) {
-        try {
-            return new URI(baseUrl).resolve(href).toString();
-        } catch (Exception e) { return null; }
-    }
-}
\ No newline at end of file
+}
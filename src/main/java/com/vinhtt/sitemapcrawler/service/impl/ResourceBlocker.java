@@ -0,0 +1,191 @@
+package com.vinhtt.sitemapcrawler.service.impl;
+
+import com.microsoft.playwright.APIResponse;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.PlaywrightException;
+import com.microsoft.playwright.Request;
+import com.microsoft.playwright.Response;
+import com.microsoft.playwright.Route;
+import com.vinhtt.sitemapcrawler.model.CrawlConfig;
+import com.vinhtt.sitemapcrawler.model.ResourceStats;
+import com.vinhtt.sitemapcrawler.service.cache.DiskResourceCache;
+
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Applies the resource policy of a {@link CrawlConfig} to browser contexts.
+ * Images, media, fonts and trackers never influence the link graph, so they are
+ * aborted before download to save bandwidth and time-to-load.
+ * Scripts and stylesheets are served through a {@link DiskResourceCache} shared by
+ * all contexts: fresh entries are fulfilled without touching the network, stale ones
+ * are revalidated with a conditional request, and cacheable downloads are stored.
+ *
+ * @author vinhtt
+ * @version 1.1
+ */
+public class ResourceBlocker {
+
+    private static final String ALL_REQUESTS = "**/*";
+    private static final String CONTENT_LENGTH = "content-length";
+    private static final Set<String> UNSERVABLE_HEADERS = Set.of(CONTENT_LENGTH, "content-encoding", "transfer-encoding");
+
+    private final Set<String> blockedTypes;
+    private final List<Pattern> blockedPatterns;
+    private final Set<String> cachedTypes;
+    private final ResourceStats stats;
+    private final DiskResourceCache cache;
+    private final Set<Request> accountedRequests = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    /**
+     * Constructs a blocker from the given configuration, without a resource cache.
+     *
+     * @param config The crawl configuration holding the resource policy.
+     * @param stats  The counters updated for every blocked or loaded request.
+     */
+    public ResourceBlocker(CrawlConfig config, ResourceStats stats) {
+        this(config, stats, null);
+    }
+
+    /**
+     * Constructs a blocker from the given configuration.
+     *
+     * @param config The crawl configuration holding the resource policy.
+     * @param stats  The counters updated for every blocked, cached or loaded request.
+     * @param cache  The cache serving the configured resource types, or null to load them from the network.
+     */
+    public ResourceBlocker(CrawlConfig config, ResourceStats stats, DiskResourceCache cache) {
+        this.blockedTypes = Set.copyOf(config.getBlockedResourceTypes());
+        this.blockedPatterns = config.getBlockedUrlPatterns().stream().map(Pattern::compile).toList();
+        this.cachedTypes = cache != null ? Set.copyOf(config.getCachedResourceTypes()) : Set.of();
+        this.stats = stats;
+        this.cache = cache;
+    }
+
+    /**
+     * Installs the policy on a context. Routing is skipped entirely for an empty
+     * policy without a cache, because every routed request costs an extra driver round-trip.
+     *
+     * @param context The browser context to intercept.
+     */
+    public void install(BrowserContext context) {
+        if (!blockedTypes.isEmpty() || !blockedPatterns.isEmpty() || !cachedTypes.isEmpty()) {
+            context.route(ALL_REQUESTS, this::handle);
+        }
+        context.onResponse(this::recordResponse);
+    }
+
+    private void handle(Route route) {
+        Request request = route.request();
+        String type = request.resourceType();
+        if (blockedTypes.contains(type) || matchesBlockedUrl(request.url())) {
+            stats.recordBlocked(type);
+            route.abort("blockedbyclient");
+        } else if (cachedTypes.contains(type) && "GET".equals(request.method())) {
+            serveCached(route, request);
+        } else {
+            route.resume();
+        }
+    }
+
+    /**
+     * Fulfills a request from the cache, revalidating or downloading it as needed.
+     * Any cache or network failure hands the request back to the browser.
+     */
+    private void serveCached(Route route, Request request) {
+        String url = request.url();
+        long now = System.currentTimeMillis();
+        APIResponse response = null;
+        try {
+            DiskResourceCache.Entry entry = cache.lookup(url);
+            byte[] body = entry != null ? cache.read(entry) : null;
+            if (body != null && entry.isFresh(now)) {
+                accountedRequests.add(request);
+                stats.recordCacheHit(body.length);
+                fulfill(route, 200, cachedHeaders(entry), body);
+                return;
+            }
+
+            Map<String, String> headers = new HashMap<>(request.allHeaders());
+            if (body != null && entry.etag() != null) headers.put("if-none-match", entry.etag());
+            if (body != null && entry.lastModified() != null) headers.put("if-modified-since", entry.lastModified());
+            response = route.fetch(new Route.FetchOptions().setHeaders(headers));
+
+            accountedRequests.add(request);
+            if (body != null && response.status() == 304) {
+                stats.recordCacheRevalidated(body.length);
+                fulfill(route, 200, cachedHeaders(cache.refresh(entry, response.headers(), now)), body);
+                return;
+            }
+            byte[] fetched = response.body();
+            cache.store(url, response.status(), response.headers(), fetched, now);
+            stats.recordCacheMiss();
+            stats.recordLoaded(fetched.length);
+            fulfill(route, response.status(), response.headers(), fetched);
+        } catch (PlaywrightException | UncheckedIOException e) {
+            accountedRequests.remove(request);
+            try {
+                route.resume();
+            } catch (PlaywrightException ignored) {
+                // The page is gone or the route was already handled.
+            }
+        } finally {
+            if (response != null) {
+                response.dispose();
+            }
+        }
+    }
+
+    /**
+     * Fulfills a route with a decoded body, dropping the headers that described the encoded one.
+     */
+    private static void fulfill(Route route, int status, Map<String, String> headers, byte[] body) {
+        Map<String, String> servable = new HashMap<>(headers.size());
+        headers.forEach((name, value) -> {
+            if (!UNSERVABLE_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                servable.put(name, value);
+            }
+        });
+        route.fulfill(new Route.FulfillOptions().setStatus(status).setHeaders(servable).setBodyBytes(body));
+    }
+
+    private static Map<String, String> cachedHeaders(DiskResourceCache.Entry entry) {
+        Map<String, String> headers = new HashMap<>();
+        if (entry.contentType() != null) headers.put("content-type", entry.contentType());
+        if (entry.etag() != null) headers.put("etag", entry.etag());
+        if (entry.lastModified() != null) headers.put("last-modified", entry.lastModified());
+        return headers;
+    }
+
+    private boolean matchesBlockedUrl(String url) {
+        for (Pattern pattern : blockedPatterns) {
+            if (pattern.matcher(url).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void recordResponse(Response response) {
+        if (accountedRequests.remove(response.request())) {
+            return;
+        }
+        String length = response.headers().get(CONTENT_LENGTH);
+        long bytes = -1;
+        if (length != null) {
+            try {
+                bytes = Long.parseLong(length.trim());
+            } catch (NumberFormatException ignored) {
+                bytes = -1;
+            }
+        }
+        stats.recordLoaded(bytes);
+    }
+}
@@ -0,0 +1,83 @@
+package com.vinhtt.sitemapcrawler.service.impl;
+
+import com.microsoft.playwright.Page;
+import com.vinhtt.sitemapcrawler.service.cluster.SimHash;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Computes the structural fingerprint of a page: the SimHash of its distinct
+ * {@code parent>child} pairs of {@code tag.class} keys, ignoring all text. Digits in
+ * class names are folded, so generated names such as {@code css-1a2b} and item-specific
+ * classes such as {@code post-123} do not split a template. The rendered variant runs
+ * in a single driver round-trip; {@link HtmlLinkScanner} produces the same features
+ * from static HTML.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+public final class StructureExtractor {
+
+    static final int MAX_FEATURES = 4096;
+    static final int MAX_CLASSES = 3;
+
+    private static final String FEATURE_SCRIPT = """
+            ([maxFeatures, maxClasses]) => {
+                const key = el => {
+                    const classes = Array.from(el.classList).slice(0, maxClasses)
+                        .map(c => c.toLowerCase().replace(/[0-9]+/g, '#')).sort();
+                    return el.tagName.toLowerCase() + (classes.length ? '.' + classes.join('.') : '');
+                };
+                const out = new Set();
+                if (!document.body) return [];
+                for (const el of document.body.querySelectorAll('*')) {
+                    if (out.size >= maxFeatures) break;
+                    out.add(key(el.parentElement) + '>' + key(el));
+                }
+                return Array.from(out);
+            }
+            """;
+
+    private StructureExtractor() {
+    }
+
+    /**
+     * Fingerprints the rendered DOM of a page.
+     *
+     * @param page The loaded page.
+     * @return The structural SimHash, or 0 if the page has no body.
+     */
+    public static long fingerprint(Page page) {
+        Object result = page.evaluate(FEATURE_SCRIPT, List.of(MAX_FEATURES, MAX_CLASSES));
+        if (!(result instanceof List<?> rows)) {
+            return 0;
+        }
+        List<String> features = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            features.add(String.valueOf(row));
+        }
+        return SimHash.of(features);
+    }
+
+    /**
+     * Builds the key of an element the same way the in-page script does.
+     *
+     * @param tag       The lower-case tag name.
+     * @param className The raw {@code class} attribute, or null.
+     * @return The {@code tag.class} key.
+     */
+    static String elementKey(String tag, String className) {
+        if (className == null || className.isBlank()) {
+            return tag;
+        }
+        String[] classes = className.strip().split("\\s+");
+        List<String> folded = new ArrayList<>(MAX_CLASSES);
+        for (int i = 0; i < classes.length && i < MAX_CLASSES; i++) {
+            folded.add(classes[i].toLowerCase(Locale.ROOT).replaceAll("[0-9]+", "#"));
+        }
+        folded.sort(null);
+        return tag + "." + String.join(".", folded);
+    }
+}
@@ -0,0 +1,230 @@
+package com.vinhtt.sitemapcrawler.service.impl;
+
+import com.vinhtt.sitemapcrawler.model.CrawlConfig;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Rewrites URLs into one canonical spelling, so that variants of the same page
+ * ({@code /a}, {@code /a/}, {@code /a#x}, {@code /a?utm_source=..}, {@code WWW.Example.com:443})
+ * become a single node and a single page load.
+ * Host case, default ports, dot segments and percent-encoding are always normalized;
+ * the remaining rules follow the {@link CrawlConfig}.
+ * The canonical spelling is only a key: stripping {@code www.} or a trailing slash may
+ * name a URL the server does not answer, so pages are requested by {@link #requestUrl(String)}.
+ *
+ * @author vinhtt
+ * @version 1.4
+ */
+public final class UrlCanonicalizer {
+
+    private static final String HEX = "0123456789ABCDEF";
+
+    private final boolean stripFragments;
+    private final boolean stripWww;
+    private final boolean stripTrailingSlash;
+    private final boolean sortQueryParameters;
+    private final List<Pattern> trackingParameters;
+
+    /**
+     * Constructs a canonicalizer from the given configuration.
+     *
+     * @param config The crawl configuration holding the canonicalization rules.
+     */
+    public UrlCanonicalizer(CrawlConfig config) {
+        this.stripFragments = config.isStripFragments();
+        this.stripWww = config.isStripWww();
+        this.stripTrailingSlash = config.isStripTrailingSlash();
+        this.sortQueryParameters = config.isSortQueryParameters();
+        this.trackingParameters = config.getTrackingParameters().stream()
+                .map(glob -> Pattern.compile(Pattern.quote(glob).replace("*", "\\E.*\\Q"), Pattern.CASE_INSENSITIVE))
+                .toList();
+    }
+
+    /**
+     * Canonicalizes an absolute HTTP(S) URL.
+     *
+     * @param url The absolute URL.
+     * @return The canonical URL, or null if the URL is not a parseable HTTP(S) URL.
+     */
+    public String canonicalize(String url) {
+        URI uri;
+        try {
+            uri = new URI(url.strip().replace(" ", "%20"));
+        } catch (URISyntaxException e) {
+            return null;
+        }
+
+        String scheme = uri.getScheme();
+        String host = uri.getHost();
+        if (scheme == null || host == null) {
+            return null;
+        }
+        scheme = scheme.toLowerCase(Locale.ROOT);
+        if (!scheme.equals("http") && !scheme.equals("https")) {
+            return null;
+        }
+
+        host = host.toLowerCase(Locale.ROOT);
+        if (host.endsWith(".")) {
+            host = host.substring(0, host.length() - 1);
+        }
+        if (stripWww && host.startsWith("www.")) {
+            host = host.substring(4);
+        }
+
+        int port = uri.getPort();
+        if ((scheme.equals("http") && port == 80) || (scheme.equals("https") && port == 443)) {
+            port = -1;
+        }
+
+        String path = normalizePercentEncoding(uri.normalize().getRawPath());
+        if (path == null || path.isEmpty()) {
+            path = "/";
+        }
+        if (stripTrailingSlash && path.length() > 1 && path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+
+        StringBuilder canonical = new StringBuilder(url.length());
+        canonical.append(scheme).append("://");
+        if (uri.getRawUserInfo() != null) {
+            canonical.append(uri.getRawUserInfo()).append('@');
+        }
+        canonical.append(host);
+        if (port != -1) {
+            canonical.append(':').append(port);
+        }
+        canonical.append(path);
+
+        String query = canonicalQuery(uri.getRawQuery());
+        if (!query.isEmpty()) {
+            canonical.append('?').append(query);
+        }
+        if (!stripFragments && uri.getRawFragment() != null) {
+            canonical.append('#').append(normalizePercentEncoding(uri.getRawFragment()));
+        }
+        return canonical.toString();
+    }
+
+    /**
+     * Cleans up an absolute HTTP(S) URL just enough to be requested: surrounding
+     * whitespace is dropped and spaces are escaped. Everything a server may tell apart,
+     * such as a {@code www.} host or a trailing slash, is kept as it is.
+     *
+     * @param url The absolute URL.
+     * @return The URL to request, or null if the URL is not a parseable HTTP(S) URL.
+     */
+    public static String requestUrl(String url) {
+        URI uri;
+        try {
+            uri = new URI(url.strip().replace(" ", "%20"));
+        } catch (URISyntaxException e) {
+            return null;
+        }
+        String scheme = uri.getScheme();
+        if (scheme == null || uri.getHost() == null) {
+            return null;
+        }
+        scheme = scheme.toLowerCase(Locale.ROOT);
+        return scheme.equals("http") || scheme.equals("https") ? uri.toString() : null;
+    }
+
+    /**
+     * Checks whether a URL belongs to a site: its host, without a leading {@code www.},
+     * is the site's domain or a subdomain of it. A substring match would also accept
+     * {@code notexample.com} or {@code evil.com/?x=example.com}.
+     *
+     * @param url    The canonical URL.
+     * @param domain The site's domain, as returned by {@link #domainOf(String)}.
+     * @return True if the URL is on the site.
+     */
+    public static boolean isSameSite(String url, String domain) {
+        String host = domainOf(url);
+        return host.equals(domain) || host.endsWith("." + domain);
+    }
+
+    /**
+     * Gets the host of a URL without a leading {@code www.}, used to tell internal links from external ones.
+     *
+     * @param url The absolute URL.
+     * @return The host, or {@code "External"} if the URL cannot be parsed or has no host.
+     */
+    public static String domainOf(String url) {
+        try {
+            String domain = new URI(url).getHost();
+            if (domain == null) {
+                return "External";
+            }
+            return domain.startsWith("www.") ? domain.substring(4) : domain;
+        } catch (URISyntaxException e) {
+            return "External";
+        }
+    }
+
+    private String canonicalQuery(String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return "";
+        }
+        List<String> parameters = new ArrayList<>();
+        for (String parameter : rawQuery.split("&")) {
+            if (parameter.isEmpty()) continue;
+            String name = parameter.split("=", 2)[0];
+            if (isTrackingParameter(name)) continue;
+            parameters.add(normalizePercentEncoding(parameter));
+        }
+        if (sortQueryParameters) {
+            parameters.sort(Comparator.comparing((String p) -> p.split("=", 2)[0]));
+        }
+        return String.join("&", parameters);
+    }
+
+    private boolean isTrackingParameter(String name) {
+        for (Pattern pattern : trackingParameters) {
+            if (pattern.matcher(name).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Decodes escapes of unreserved characters and upper-cases the hex digits of all others (RFC 3986, 6.2.2).
+     */
+    private static String normalizePercentEncoding(String raw) {
+        if (raw == null || raw.indexOf('%') < 0) {
+            return raw;
+        }
+        StringBuilder out = new StringBuilder(raw.length());
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c == '%' && i + 2 < raw.length() && isHex(raw.charAt(i + 1)) && isHex(raw.charAt(i + 2))) {
+                int value = Character.digit(raw.charAt(i + 1), 16) * 16 + Character.digit(raw.charAt(i + 2), 16);
+                if (isUnreserved((char) value)) {
+                    out.append((char) value);
+                } else {
+                    out.append('%').append(HEX.charAt(value >> 4)).append(HEX.charAt(value & 0xf));
+                }
+                i += 2;
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    private static boolean isHex(char c) {
+        return Character.digit(c, 16) >= 0;
+    }
+
+    private static boolean isUnreserved(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '.' || c == '_' || c == '~';
+    }
+}
@@ -0,0 +1,185 @@
+package com.vinhtt.sitemapcrawler.service.layout;
+
+import java.util.Arrays;
+
+/**
+ * Barnes-Hut quadtree over the node positions of one layout step. Each cell stores
+ * the mass and summed position of the bodies below it, so the repulsion of a distant
+ * cell is approximated by a single body at its center of mass. Cells live in flat
+ * arrays that are reused across steps. Building is single-threaded; once built, the
+ * tree is read-only and {@link #repulsion} may be called from many threads.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+final class BarnesHutTree {
+
+    /**
+     * Below this depth coincident bodies share a leaf instead of being split further.
+     */
+    static final int MAX_DEPTH = 48;
+
+    /**
+     * The stack length {@link #repulsion} needs.
+     */
+    static final int STACK_SIZE = 4 * (MAX_DEPTH + 2);
+
+    private double[] mass = new double[0];
+    private double[] sumX = new double[0];
+    private double[] sumY = new double[0];
+    private double[] minX = new double[0];
+    private double[] minY = new double[0];
+    private double[] size = new double[0];
+    private int[] body = new int[0];
+    private int[] children = new int[0];
+    private int cells;
+
+    /**
+     * Rebuilds the tree from the present bodies.
+     *
+     * @param x       The x coordinates, indexed by node id.
+     * @param y       The y coordinates, indexed by node id.
+     * @param mass    The mass of each node.
+     * @param present Which ids are nodes of the layout.
+     * @param count   The number of ids in use.
+     */
+    void build(double[] x, double[] y, double[] mass, boolean[] present, int count) {
+        double lowX = Double.POSITIVE_INFINITY;
+        double lowY = Double.POSITIVE_INFINITY;
+        double highX = Double.NEGATIVE_INFINITY;
+        double highY = Double.NEGATIVE_INFINITY;
+        int bodies = 0;
+        for (int i = 0; i < count; i++) {
+            if (!present[i]) continue;
+            lowX = Math.min(lowX, x[i]);
+            lowY = Math.min(lowY, y[i]);
+            highX = Math.max(highX, x[i]);
+            highY = Math.max(highY, y[i]);
+            bodies++;
+        }
+        ensureCapacity(2 * bodies + 1);
+        cells = 0;
+        if (bodies == 0) {
+            return;
+        }
+        newCell(lowX, lowY, Math.max(highX - lowX, highY - lowY) + 1);
+        for (int i = 0; i < count; i++) {
+            if (present[i]) {
+                insert(i, x[i], y[i], mass[i], x, y, mass);
+            }
+        }
+    }
+
+    /**
+     * Computes the repulsion on a body of unit mass, {@code k² · m / d} away from every
+     * cell that is far enough to be approximated, or from every other body otherwise.
+     *
+     * @param self   The id of the body, which does not repel itself.
+     * @param bx     Its x coordinate.
+     * @param by     Its y coordinate.
+     * @param theta2 The square of the opening angle; smaller is more exact and slower.
+     * @param k2     The square of the ideal edge length.
+     * @param stack  Scratch space of {@link #STACK_SIZE} entries, owned by the calling thread.
+     * @param force  Receives the force as {@code {fx, fy}}.
+     */
+    void repulsion(int self, double bx, double by, double theta2, double k2, int[] stack, double[] force) {
+        double fx = 0;
+        double fy = 0;
+        int top = 0;
+        if (cells > 0) {
+            stack[top++] = 0;
+        }
+        while (top > 0) {
+            int cell = stack[--top];
+            double m = mass[cell];
+            double dx = bx - sumX[cell] / m;
+            double dy = by - sumY[cell] / m;
+            double d2 = dx * dx + dy * dy;
+            if (body[cell] >= 0) {
+                if (body[cell] == self) continue;
+            } else if (size[cell] * size[cell] >= theta2 * d2) {
+                for (int q = 0; q < 4; q++) {
+                    int child = children[4 * cell + q];
+                    if (child >= 0) stack[top++] = child;
+                }
+                continue;
+            }
+            if (d2 < 1e-9) continue;
+            double f = k2 * m / d2;
+            fx += dx * f;
+            fy += dy * f;
+        }
+        force[0] = fx;
+        force[1] = fy;
+    }
+
+    private void insert(int id, double bx, double by, double bm, double[] x, double[] y, double[] masses) {
+        int cell = 0;
+        for (int depth = 0; ; depth++) {
+            if (mass[cell] == 0) {
+                body[cell] = id;
+                add(cell, bx, by, bm);
+                return;
+            }
+            if (body[cell] >= 0) {
+                if (depth >= MAX_DEPTH) {
+                    add(cell, bx, by, bm);
+                    return;
+                }
+                int resident = body[cell];
+                body[cell] = -1;
+                int child = childFor(cell, x[resident], y[resident]);
+                body[child] = resident;
+                add(child, x[resident], y[resident], masses[resident]);
+            }
+            add(cell, bx, by, bm);
+            cell = childFor(cell, bx, by);
+        }
+    }
+
+    private int childFor(int cell, double bx, double by) {
+        double half = size[cell] / 2;
+        int quadrant = (bx >= minX[cell] + half ? 1 : 0) | (by >= minY[cell] + half ? 2 : 0);
+        int slot = 4 * cell + quadrant;
+        if (children[slot] < 0) {
+            int child = newCell(minX[cell] + ((quadrant & 1) != 0 ? half : 0),
+                    minY[cell] + ((quadrant & 2) != 0 ? half : 0), half);
+            children[slot] = child;
+        }
+        return children[slot];
+    }
+
+    private void add(int cell, double bx, double by, double bm) {
+        mass[cell] += bm;
+        sumX[cell] += bx * bm;
+        sumY[cell] += by * bm;
+    }
+
+    private int newCell(double lowX, double lowY, double side) {
+        if (cells == mass.length) {
+            ensureCapacity(cells * 2);
+        }
+        int cell = cells++;
+        mass[cell] = 0;
+        sumX[cell] = 0;
+        sumY[cell] = 0;
+        minX[cell] = lowX;
+        minY[cell] = lowY;
+        size[cell] = side;
+        body[cell] = -1;
+        Arrays.fill(children, 4 * cell, 4 * cell + 4, -1);
+        return cell;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= mass.length) return;
+        mass = Arrays.copyOf(mass, capacity);
+        sumX = Arrays.copyOf(sumX, capacity);
+        sumY = Arrays.copyOf(sumY, capacity);
+        minX = Arrays.copyOf(minX, capacity);
+        minY = Arrays.copyOf(minY, capacity);
+        size = Arrays.copyOf(size, capacity);
+        body = Arrays.copyOf(body, capacity);
+        children = Arrays.copyOf(children, 4 * capacity);
+    }
+}
@@ -0,0 +1,441 @@
+package com.vinhtt.sitemapcrawler.service.layout;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Incremental force-directed layout computed off the UI thread, so the view only has
+ * to draw positions. The forces follow ForceAtlas2: nodes repel each other in
+ * proportion to their degrees, so pages gather around the hubs that link them,
+ * with the sum over all nodes approximated by a {@link BarnesHutTree}; edges pull
+ * their ends together linearly and gravity keeps unlinked nodes near the origin.
+ * The forces of a step are computed in parallel on a fork-join pool and applied together.
+ * <p>
+ * Every node has a temperature that caps how far it moves per step and cools each step.
+ * A new node starts hot next to a neighbor that is already placed; its neighbors are
+ * warmed and the rest of the layout only slightly, so the picture stays recognizable
+ * while a crawl keeps adding nodes. Once every node has cooled down the layout thread
+ * sleeps until the graph changes.
+ * <p>
+ * Node ids are the dense ids of the caller's graph, such as those of a
+ * {@code CompactSiteGraph}. Changes may be posted from any thread.
+ *
+ * @author vinhtt
+ * @version 1.2
+ */
+public final class ForceDirectedLayout implements AutoCloseable {
+
+    private static final double EDGE_LENGTH = 120;
+    private static final double THETA = 0.9;
+    private static final double REPULSION = 0.25;
+    private static final double GRAVITY = 0.05;
+    private static final double COOLING = 0.95;
+    private static final double NEW_NODE_HEAT = EDGE_LENGTH * 3;
+    private static final double NEIGHBOR_HEAT = EDGE_LENGTH / 4;
+    private static final double GLOBAL_HEAT = EDGE_LENGTH / 8;
+    private static final double MIN_HEAT = 0.5;
+    private static final int FORCE_CHUNK = 512;
+    private static final long MIN_STEP_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private final ForkJoinPool pool;
+    private final BarnesHutTree tree = new BarnesHutTree();
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    // Changes posted by other threads, guarded by this.
+    private int[] pendingNodes = new int[64];
+    private int pendingNodeCount;
+    private int[] pendingEdges = new int[128];
+    private int pendingEdgeCount;
+    private boolean clearPending;
+    private boolean running;
+    private Thread thread;
+
+    // Layout state, owned by the thread calling step().
+    private int count;
+    private boolean[] present = new boolean[0];
+    private double[] x = new double[0];
+    private double[] y = new double[0];
+    private double[] forceX = new double[0];
+    private double[] forceY = new double[0];
+    private double[] heat = new double[0];
+    private int[][] neighbors = new int[0][];
+    private int[] degree = new int[0];
+    private double[] mass = new double[0];
+    private int placed;
+    private long version;
+
+    private volatile Snapshot snapshot = new Snapshot(new float[0], 0, 0);
+
+    /**
+     * The positions after a layout step.
+     *
+     * @param xy      The interleaved x and y coordinates indexed by node id, NaN for ids
+     *                that are not in the layout.
+     * @param count   The number of ids covered.
+     * @param version Increases with every step; 0 before the first one.
+     */
+    public record Snapshot(float[] xy, int count, long version) {
+    }
+
+    /**
+     * Constructs a layout that computes forces on its own fork-join pool.
+     *
+     * @param parallelism The number of threads of the pool.
+     */
+    public ForceDirectedLayout(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism, pool -> {
+            var worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            worker.setName("graph-layout-" + worker.getPoolIndex());
+            worker.setDaemon(true);
+            return worker;
+        }, null, false);
+    }
+
+    /**
+     * Adds a node to the layout. Adding a node twice has no effect.
+     *
+     * @param id The id of the node.
+     */
+    public synchronized void addNode(int id) {
+        if (pendingNodeCount == pendingNodes.length) {
+            pendingNodes = Arrays.copyOf(pendingNodes, pendingNodeCount * 2);
+        }
+        pendingNodes[pendingNodeCount++] = id;
+        notifyAll();
+    }
+
+    /**
+     * Adds an edge, and its ends if they are not in the layout yet. The caller passes each edge once.
+     *
+     * @param source The id of the linking node.
+     * @param target The id of the linked node.
+     */
+    public synchronized void addEdge(int source, int target) {
+        if (pendingEdgeCount + 2 > pendingEdges.length) {
+            pendingEdges = Arrays.copyOf(pendingEdges, pendingEdges.length * 2);
+        }
+        pendingEdges[pendingEdgeCount++] = source;
+        pendingEdges[pendingEdgeCount++] = target;
+        notifyAll();
+    }
+
+    /**
+     * Removes all nodes, together with changes that have not been applied yet. The
+     * snapshot is emptied at once and a step that is still running is not published,
+     * so positions of the removed nodes never reach ids the caller reuses.
+     */
+    public synchronized void clear() {
+        pendingNodeCount = 0;
+        pendingEdgeCount = 0;
+        clearPending = true;
+        snapshot = new Snapshot(new float[0], 0, snapshot.version());
+        notifyAll();
+    }
+
+    /**
+     * Gets the positions of the latest step.
+     *
+     * @return The latest snapshot; its arrays must not be modified.
+     */
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Starts a daemon thread that runs steps while the layout is moving, at most
+     * one every 20 ms, and waits for changes while it is not.
+     */
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        thread = new Thread(this::run, "graph-layout");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the layout thread and the fork-join pool.
+     */
+    @Override
+    public void close() {
+        Thread stopped;
+        synchronized (this) {
+            running = false;
+            stopped = thread;
+            notifyAll();
+        }
+        if (stopped != null) {
+            stopped.interrupt();
+        }
+        pool.shutdownNow();
+    }
+
+    /**
+     * Applies the posted changes and, if any node is still moving, runs one step and
+     * publishes a snapshot. Called by the layout thread; callers that did not
+     * {@link #start()} the layout may drive it themselves from a single thread.
+     *
+     * @return True if a step was run.
+     */
+    public boolean step() {
+        boolean changed = applyPending();
+        double hottest = 0;
+        for (int i = 0; i < count; i++) {
+            hottest = Math.max(hottest, heat[i]);
+        }
+        if (hottest < MIN_HEAT) {
+            if (changed) publish();
+            return false;
+        }
+
+        tree.build(x, y, mass, present, count);
+        pool.invoke(new ForceTask(0, count));
+        for (int i = 0; i < count; i++) {
+            if (heat[i] == 0) continue;
+            double length = Math.hypot(forceX[i], forceY[i]);
+            if (length > 0) {
+                double scale = Math.min(length, heat[i]) / length;
+                x[i] += forceX[i] * scale;
+                y[i] += forceY[i] * scale;
+            }
+            heat[i] = heat[i] * COOLING < MIN_HEAT ? 0 : heat[i] * COOLING;
+        }
+        publish();
+        return true;
+    }
+
+    private void run() {
+        long nextStep = System.nanoTime();
+        while (true) {
+            synchronized (this) {
+                while (running && !isMoving() && pendingNodeCount == 0 && pendingEdgeCount == 0 && !clearPending) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if (!running) return;
+            }
+            long wait = nextStep - System.nanoTime();
+            if (wait > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            nextStep = System.nanoTime() + MIN_STEP_NANOS;
+            step();
+        }
+    }
+
+    private boolean isMoving() {
+        for (int i = 0; i < count; i++) {
+            if (heat[i] > 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Applies the posted changes: new nodes are placed near a placed neighbor, or at
+     * random within the current extent of the layout if they have none.
+     */
+    private boolean applyPending() {
+        int[] nodes;
+        int nodeCount;
+        int[] edges;
+        int edgeCount;
+        synchronized (this) {
+            if (clearPending) {
+                clearPending = false;
+                Arrays.fill(present, 0, count, false);
+                Arrays.fill(heat, 0, count, 0);
+                Arrays.fill(degree, 0, count, 0);
+                count = 0;
+                placed = 0;
+                publish();
+            }
+            if (pendingNodeCount == 0 && pendingEdgeCount == 0) {
+                return false;
+            }
+            nodes = Arrays.copyOf(pendingNodes, pendingNodeCount);
+            nodeCount = pendingNodeCount;
+            edges = Arrays.copyOf(pendingEdges, pendingEdgeCount);
+            edgeCount = pendingEdgeCount;
+            pendingNodeCount = 0;
+            pendingEdgeCount = 0;
+        }
+
+        int[] added = new int[nodeCount + edgeCount];
+        int addedCount = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            if (ensure(nodes[i])) added[addedCount++] = nodes[i];
+        }
+        for (int i = 0; i < edgeCount; i += 2) {
+            int source = edges[i];
+            int target = edges[i + 1];
+            if (ensure(source)) added[addedCount++] = source;
+            if (ensure(target)) added[addedCount++] = target;
+            if (source == target) continue;
+            link(source, target);
+            link(target, source);
+            warm(source, NEIGHBOR_HEAT);
+            warm(target, NEIGHBOR_HEAT);
+        }
+        if (addedCount == 0) {
+            return edgeCount > 0;
+        }
+
+        double share = Math.min(1, 4.0 * addedCount / Math.max(1, placed));
+        for (int i = 0; i < count; i++) {
+            warm(i, GLOBAL_HEAT * share);
+        }
+        boolean progress = true;
+        int remaining = addedCount;
+        while (progress && remaining > 0) {
+            progress = false;
+            for (int i = 0; i < addedCount; i++) {
+                int id = added[i];
+                if (id < 0) continue;
+                int anchor = placedNeighbor(id);
+                if (anchor < 0) continue;
+                double angle = random.nextDouble(2 * Math.PI);
+                place(id, x[anchor] + EDGE_LENGTH * Math.cos(angle), y[anchor] + EDGE_LENGTH * Math.sin(angle));
+                added[i] = -1;
+                remaining--;
+                progress = true;
+            }
+        }
+        double radius = EDGE_LENGTH * Math.sqrt(placed + 1) / 2;
+        for (int i = 0; i < addedCount; i++) {
+            int id = added[i];
+            if (id < 0) continue;
+            double angle = random.nextDouble(2 * Math.PI);
+            double distance = radius * Math.sqrt(random.nextDouble());
+            place(id, distance * Math.cos(angle), distance * Math.sin(angle));
+        }
+        return true;
+    }
+
+    /**
+     * Makes an id part of the layout, growing the arrays if needed.
+     *
+     * @return True if the node is new and still has to be placed.
+     */
+    private boolean ensure(int id) {
+        if (id >= present.length) {
+            int capacity = Math.max(id + 1, present.length * 2);
+            present = Arrays.copyOf(present, capacity);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            forceX = Arrays.copyOf(forceX, capacity);
+            forceY = Arrays.copyOf(forceY, capacity);
+            heat = Arrays.copyOf(heat, capacity);
+            neighbors = Arrays.copyOf(neighbors, capacity);
+            degree = Arrays.copyOf(degree, capacity);
+            mass = Arrays.copyOf(mass, capacity);
+        }
+        count = Math.max(count, id + 1);
+        if (present[id]) {
+            return false;
+        }
+        present[id] = true;
+        mass[id] = 1;
+        x[id] = Double.NaN;
+        return true;
+    }
+
+    private void link(int from, int to) {
+        int[] list = neighbors[from];
+        if (list == null) {
+            list = neighbors[from] = new int[4];
+        } else if (degree[from] == list.length) {
+            list = neighbors[from] = Arrays.copyOf(list, list.length * 2);
+        }
+        list[degree[from]++] = to;
+        mass[from] = degree[from] + 1;
+    }
+
+    private int placedNeighbor(int id) {
+        for (int i = 0; i < degree[id]; i++) {
+            int neighbor = neighbors[id][i];
+            if (!Double.isNaN(x[neighbor])) return neighbor;
+        }
+        return -1;
+    }
+
+    private void place(int id, double px, double py) {
+        x[id] = px;
+        y[id] = py;
+        heat[id] = NEW_NODE_HEAT;
+        placed++;
+    }
+
+    private void warm(int id, double amount) {
+        if (present[id] && !Double.isNaN(x[id])) {
+            heat[id] = Math.max(heat[id], amount);
+        }
+    }
+
+    private void publish() {
+        float[] xy = new float[2 * count];
+        for (int i = 0; i < count; i++) {
+            xy[2 * i] = present[i] ? (float) x[i] : Float.NaN;
+            xy[2 * i + 1] = present[i] ? (float) y[i] : Float.NaN;
+        }
+        synchronized (this) {
+            if (!clearPending) {
+                snapshot = new Snapshot(xy, count, ++version);
+            }
+        }
+    }
+
+    /**
+     * Computes the net force on the moving nodes of a range of ids, splitting the
+     * range until it is small enough. Only reads positions and the tree, and only
+     * writes the forces of its own range.
+     */
+    private final class ForceTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        ForceTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > FORCE_CHUNK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ForceTask(from, middle), new ForceTask(middle, to));
+                return;
+            }
+            int[] stack = new int[BarnesHutTree.STACK_SIZE];
+            double[] force = new double[2];
+            double k2 = REPULSION * EDGE_LENGTH * EDGE_LENGTH;
+            for (int i = from; i < to; i++) {
+                if (heat[i] == 0) continue;
+                tree.repulsion(i, x[i], y[i], THETA * THETA, k2, stack, force);
+                double fx = mass[i] * (force[0] - GRAVITY * x[i]);
+                double fy = mass[i] * (force[1] - GRAVITY * y[i]);
+                int[] list = neighbors[i];
+                for (int n = 0; n < degree[i]; n++) {
+                    fx += x[list[n]] - x[i];
+                    fy += y[list[n]] - y[i];
+                }
+                forceX[i] = fx;
+                forceY[i] = fy;
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.vinhtt.sitemapcrawler.service.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event emitted when a page fails to load, with the stack trace of the failing call.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+@Name("com.vinhtt.sitemapcrawler.CrawlError")
+@Label("Crawl Error")
+@Category({"SiteMapCrawler", "Crawler"})
+@Description("A page that could not be loaded")
+public class CrawlErrorEvent extends Event {
+
+    @Label("URL")
+    String url;
+
+    @Label("Exception")
+    String exception;
+
+    @Label("Message")
+    String message;
+
+    /**
+     * Commits an event for a failed page if the event is enabled.
+     *
+     * @param url   The page URL.
+     * @param error The failure.
+     */
+    public static void emit(String url, Throwable error) {
+        CrawlErrorEvent event = new CrawlErrorEvent();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.url = url;
+        event.exception = error.getClass().getName();
+        event.message = error.getMessage();
+        event.commit();
+    }
+}
@@ -0,0 +1,82 @@
+package com.vinhtt.sitemapcrawler.service.metrics;
+
+import com.vinhtt.sitemapcrawler.model.CrawlPhase;
+import com.vinhtt.sitemapcrawler.model.PageTimings;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event emitted once per loaded page with the time spent in each {@link CrawlPhase}.
+ * Record with {@code -XX:StartFlightRecording} or {@code jcmd <pid> JFR.start}; unset phases are -1.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+@Name("com.vinhtt.sitemapcrawler.PageCrawl")
+@Label("Page Crawl")
+@Category({"SiteMapCrawler", "Crawler"})
+@Description("Load phases of one crawled page")
+@StackTrace(false)
+public class PageCrawlEvent extends Event {
+
+    @Label("URL")
+    String url;
+
+    @Label("Engine")
+    String engine;
+
+    @Label("Status Code")
+    int statusCode;
+
+    @Label("Links")
+    int links;
+
+    @Label("DNS/Connect")
+    @Timespan(Timespan.NANOSECONDS)
+    long connect;
+
+    @Label("Navigate")
+    @Timespan(Timespan.NANOSECONDS)
+    long navigate;
+
+    @Label("DOM Ready")
+    @Timespan(Timespan.NANOSECONDS)
+    long domReady;
+
+    @Label("Link Extraction")
+    @Timespan(Timespan.NANOSECONDS)
+    long linkExtraction;
+
+    @Label("Grouping")
+    @Timespan(Timespan.NANOSECONDS)
+    long grouping;
+
+    /**
+     * Commits an event for a page if the event is enabled.
+     *
+     * @param url       The page URL.
+     * @param timings   The measured phases.
+     * @param linkCount The number of links found on the page.
+     */
+    public static void emit(String url, PageTimings timings, int linkCount) {
+        PageCrawlEvent event = new PageCrawlEvent();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.url = url;
+        event.engine = timings.getEngine();
+        event.statusCode = timings.getStatusCode();
+        event.links = linkCount;
+        event.connect = timings.getNanos(CrawlPhase.CONNECT);
+        event.navigate = timings.getNanos(CrawlPhase.NAVIGATE);
+        event.domReady = timings.getNanos(CrawlPhase.DOM_READY);
+        event.linkExtraction = timings.getNanos(CrawlPhase.LINK_EXTRACTION);
+        event.grouping = timings.getNanos(CrawlPhase.GROUPING);
+        event.commit();
+    }
+}
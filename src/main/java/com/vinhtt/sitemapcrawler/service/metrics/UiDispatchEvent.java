@@ -0,0 +1,29 @@
+package com.vinhtt.sitemapcrawler.service.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning one frame of crawler events applied on the JavaFX thread,
+ * including the vis.js update. Long events here point at a UI-bound crawl.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+@Name("com.vinhtt.sitemapcrawler.UiDispatch")
+@Label("UI Dispatch")
+@Category({"SiteMapCrawler", "UI"})
+@Description("One batch of graph changes applied to the view")
+@StackTrace(false)
+public class UiDispatchEvent extends Event {
+
+    @Label("Nodes")
+    public int nodes;
+
+    @Label("Edges")
+    public int edges;
+}
@@ -0,0 +1,252 @@
+package com.vinhtt.sitemapcrawler.service.politeness;
+
+import com.vinhtt.sitemapcrawler.model.CrawlConfig;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate and concurrency control keyed by origin. Every origin has its own token
+ * bucket, refilled at the configured rate or slower if its robots.txt sets a
+ * {@code Crawl-delay}, and its own concurrency limit, adapted AIMD-style: it grows
+ * by about one per round trip while responses succeed and halves on a latency
+ * spike, a failure or a 429/5xx response; other client errors leave it as it is. Throttling responses also pause the
+ * origin with exponential back-off. Workers waiting for one origin never hold up
+ * another, so overall throughput comes from the number of origins, not from
+ * pressure on a single one.
+ * The crawl delay is read from the {@link RobotsCache} on every acquire, outside the
+ * host map, so a robots.txt download only delays requests to its own origin and a
+ * changed delay takes effect once the cached file expires.
+ *
+ * @author vinhtt
+ * @version 1.2
+ */
+public final class PolitenessScheduler {
+
+    private static final double INITIAL_CONCURRENCY = 2;
+    private static final double MIN_CONCURRENCY = 1;
+    private static final double DECREASE_FACTOR = 0.5;
+    private static final double LATENCY_SPIKE_FACTOR = 2.5;
+    private static final double LATENCY_SMOOTHING = 0.2;
+    private static final double BURST_TOKENS = 2;
+    private static final long BASE_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    private final RobotsCache robots;
+    private final long minIntervalNanos;
+    private final double maxConcurrency;
+    private final Map<String, HostState> hosts = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a scheduler.
+     *
+     * @param config The crawl configuration holding the per-host limits.
+     * @param robots The robots.txt cache, or null to ignore robots.txt.
+     */
+    public PolitenessScheduler(CrawlConfig config, RobotsCache robots) {
+        this.robots = robots;
+        this.minIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / config.getRequestsPerSecondPerHost());
+        this.maxConcurrency = config.getMaxConcurrencyPerHost();
+    }
+
+    /**
+     * Checks robots.txt for a URL.
+     *
+     * @param url The absolute URL.
+     * @return True if robots.txt is ignored or allows the URL.
+     */
+    public boolean isAllowed(String url) {
+        if (robots == null) {
+            return true;
+        }
+        try {
+            URI uri = new URI(url);
+            String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+            String pathAndQuery = uri.getRawQuery() != null ? path + "?" + uri.getRawQuery() : path;
+            return robots.rulesFor(uri).isAllowed(pathAndQuery);
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Waits until the origin of a URL may receive another request.
+     *
+     * @param url       The absolute URL about to be loaded.
+     * @param maxWaitMs The maximum time to wait.
+     * @return The permit, to be passed to {@link #release(Permit, int)}, or null on timeout.
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     */
+    public Permit acquire(String url, long maxWaitMs) throws InterruptedException {
+        String origin = originOf(url);
+        long crawlDelayNanos = crawlDelayOf(origin);
+        HostState state = hosts.computeIfAbsent(origin,
+                key -> new HostState(minIntervalNanos, Math.min(INITIAL_CONCURRENCY, maxConcurrency)));
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        synchronized (state) {
+            state.applyCrawlDelay(crawlDelayNanos, minIntervalNanos);
+            while (true) {
+                long now = System.nanoTime();
+                state.refill(now);
+                long waitNanos;
+                if (now < state.pausedUntil) {
+                    waitNanos = state.pausedUntil - now;
+                } else if (state.inFlight >= (int) state.limit) {
+                    waitNanos = Long.MAX_VALUE;
+                } else if (state.tokens < 1) {
+                    waitNanos = (long) ((1 - state.tokens) * state.intervalNanos);
+                } else {
+                    state.tokens -= 1;
+                    state.inFlight++;
+                    return new Permit(state, now);
+                }
+
+                long remaining = deadline - now;
+                if (remaining <= 0) {
+                    return null;
+                }
+                TimeUnit.NANOSECONDS.timedWait(state, Math.max(1, Math.min(waitNanos, remaining)));
+            }
+        }
+    }
+
+    /**
+     * Returns a permit and feeds the outcome of the request into the concurrency limit.
+     *
+     * @param permit     The permit returned by {@link #acquire(String, long)}.
+     * @param statusCode The HTTP status, or 0 if the request failed without one.
+     */
+    public void release(Permit permit, int statusCode) {
+        HostState state = permit.state;
+        long now = System.nanoTime();
+        long latency = now - permit.startNanos;
+        synchronized (state) {
+            state.inFlight--;
+            if (statusCode == 429 || statusCode == 503) {
+                state.throttles++;
+                long backoff = Math.min(MAX_BACKOFF_NANOS, BASE_BACKOFF_NANOS << Math.min(state.throttles - 1, 6));
+                state.pausedUntil = Math.max(state.pausedUntil, now + backoff);
+                state.decrease(now);
+            } else if (statusCode == 0 || statusCode >= 500
+                    || (state.latencyEwma > 0 && latency > state.latencyEwma * LATENCY_SPIKE_FACTOR)) {
+                state.decrease(now);
+            } else if (statusCode < 400) {
+                state.throttles = 0;
+                state.limit = Math.min(maxConcurrency, state.limit + 1 / state.limit);
+            }
+            if (statusCode != 0) {
+                state.latencyEwma = state.latencyEwma == 0
+                        ? latency
+                        : state.latencyEwma * (1 - LATENCY_SMOOTHING) + latency * LATENCY_SMOOTHING;
+            }
+            state.notifyAll();
+        }
+    }
+
+    /**
+     * Gets the current concurrency limit of the origin of a URL.
+     *
+     * @param url Any URL of the origin.
+     * @return The number of parallel requests currently allowed.
+     */
+    public int concurrencyOf(String url) {
+        HostState state = hosts.get(originOf(url));
+        if (state == null) {
+            return (int) INITIAL_CONCURRENCY;
+        }
+        synchronized (state) {
+            return (int) state.limit;
+        }
+    }
+
+    /**
+     * Gets the {@code Crawl-delay} of an origin, downloading its robots.txt on first use or after expiry.
+     */
+    private long crawlDelayOf(String origin) {
+        if (robots == null) {
+            return 0;
+        }
+        try {
+            return TimeUnit.MILLISECONDS.toNanos(robots.rulesFor(new URI(origin)).getCrawlDelayMs());
+        } catch (URISyntaxException e) {
+            return 0;
+        }
+    }
+
+    private static String originOf(String url) {
+        try {
+            return RobotsCache.originOf(new URI(url));
+        } catch (URISyntaxException e) {
+            return url;
+        }
+    }
+
+    /**
+     * A granted request slot on one origin.
+     */
+    public static final class Permit {
+
+        private final HostState state;
+        private final long startNanos;
+
+        private Permit(HostState state, long startNanos) {
+            this.state = state;
+            this.startNanos = startNanos;
+        }
+    }
+
+    /**
+     * Token bucket and AIMD state of one origin, guarded by its own monitor.
+     */
+    private static final class HostState {
+
+        private long intervalNanos;
+        private double burst = BURST_TOKENS;
+        private long crawlDelayNanos;
+        private double limit;
+        private double tokens = 1;
+        private long lastRefill = System.nanoTime();
+        private int inFlight;
+        private long pausedUntil;
+        private int throttles;
+        private double latencyEwma;
+        private long lastDecrease;
+
+        HostState(long intervalNanos, double limit) {
+            this.intervalNanos = intervalNanos;
+            this.limit = limit;
+        }
+
+        /**
+         * Spaces requests at least by the origin's crawl delay and, when one is newly set,
+         * drops the bucket and concurrency to a single request at a time.
+         */
+        void applyCrawlDelay(long delayNanos, long minIntervalNanos) {
+            if (delayNanos == crawlDelayNanos) {
+                return;
+            }
+            crawlDelayNanos = delayNanos;
+            intervalNanos = Math.max(minIntervalNanos, delayNanos);
+            burst = delayNanos > 0 ? 1 : BURST_TOKENS;
+            tokens = Math.min(tokens, burst);
+            if (delayNanos > 0) {
+                limit = MIN_CONCURRENCY;
+            }
+        }
+
+        void refill(long now) {
+            tokens = Math.min(burst, tokens + (now - lastRefill) / (double) intervalNanos);
+            lastRefill = now;
+        }
+
+        void decrease(long now) {
+            if (now - lastDecrease > latencyEwma) {
+                limit = Math.max(MIN_CONCURRENCY, limit * DECREASE_FACTOR);
+                lastDecrease = now;
+            }
+        }
+    }
+}
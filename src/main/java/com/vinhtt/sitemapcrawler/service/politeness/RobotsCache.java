@@ -0,0 +1,137 @@
+package com.vinhtt.sitemapcrawler.service.politeness;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fetches, parses and caches the robots.txt of each origin. Concurrent lookups
+ * for the same origin share one download. A missing file (4xx) allows everything;
+ * so does an unreachable one, which is retried after a short delay instead of the
+ * full time-to-live. An interrupted download caches nothing, so a stopped crawl does
+ * not ignore robots.txt when it resumes.
+ *
+ * @author vinhtt
+ * @version 1.2
+ */
+public final class RobotsCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RobotsCache.class);
+
+    private static final long TTL_MS = Duration.ofHours(24).toMillis();
+    private static final long ERROR_TTL_MS = Duration.ofMinutes(5).toMillis();
+    private static final int MAX_ROBOTS_BYTES = 500 * 1024;
+
+    private final HttpClient httpClient;
+    private final String userAgentToken;
+    private final int timeoutMs;
+    private final Map<String, CompletableFuture<Entry>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an empty cache.
+     *
+     * @param httpClient     The client used to download robots.txt files.
+     * @param userAgentToken The product token whose rules are applied.
+     * @param timeoutMs      The download timeout, in milliseconds.
+     */
+    public RobotsCache(HttpClient httpClient, String userAgentToken, int timeoutMs) {
+        this.httpClient = httpClient;
+        this.userAgentToken = userAgentToken;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Gets the rules of the origin of a URL, downloading them on first use or after expiry.
+     *
+     * @param uri Any URL of the origin.
+     * @return The rules for the configured user agent; allow-all, uncached, if the calling thread was interrupted.
+     */
+    public RobotsRules rulesFor(URI uri) {
+        String origin = originOf(uri);
+        while (true) {
+            CompletableFuture<Entry> created = new CompletableFuture<>();
+            CompletableFuture<Entry> existing = entries.putIfAbsent(origin, created);
+            if (existing == null) {
+                Entry entry = fetch(origin);
+                if (entry == null) {
+                    // Interrupted: threads sharing this download see it expired and fetch again.
+                    entries.remove(origin, created);
+                    created.complete(new Entry(RobotsRules.ALLOW_ALL, 0));
+                    return RobotsRules.ALLOW_ALL;
+                }
+                created.complete(entry);
+                return entry.rules;
+            }
+            Entry entry = existing.join();
+            if (System.currentTimeMillis() < entry.expiresAt) {
+                return entry.rules;
+            }
+            entries.remove(origin, existing);
+        }
+    }
+
+    /**
+     * Drops all cached rules.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Gets the origin ({@code scheme://host[:port]}) robots.txt files are keyed by.
+     *
+     * @param uri Any URL of the origin.
+     * @return The origin string.
+     */
+    static String originOf(URI uri) {
+        String origin = uri.getScheme() + "://" + uri.getHost();
+        return uri.getPort() != -1 ? origin + ":" + uri.getPort() : origin;
+    }
+
+    /**
+     * Downloads and parses the robots.txt of an origin.
+     *
+     * @return The entry to cache, or null if the calling thread was interrupted.
+     */
+    private Entry fetch(String origin) {
+        long now = System.currentTimeMillis();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(origin + "/robots.txt"))
+                    .timeout(Duration.ofMillis(timeoutMs))
+                    .header("User-Agent", "Mozilla/5.0 (compatible; " + userAgentToken + "/1.0)")
+                    .GET()
+                    .build();
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream body = response.body()) {
+                if (response.statusCode() >= 200 && response.statusCode() < 300) {
+                    String content = new String(body.readNBytes(MAX_ROBOTS_BYTES), StandardCharsets.UTF_8);
+                    return new Entry(RobotsRules.parse(content, userAgentToken), now + TTL_MS);
+                }
+                if (response.statusCode() >= 400 && response.statusCode() < 500) {
+                    return new Entry(RobotsRules.ALLOW_ALL, now + TTL_MS);
+                }
+                LOG.warn("robots.txt of {} returned {}", origin, response.statusCode());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (IOException | IllegalArgumentException e) {
+            LOG.warn("Cannot fetch robots.txt of {}: {}", origin, e.getMessage());
+        }
+        return new Entry(RobotsRules.ALLOW_ALL, now + ERROR_TTL_MS);
+    }
+
+    private record Entry(RobotsRules rules, long expiresAt) {
+    }
+}
@@ -0,0 +1,176 @@
+package com.vinhtt.sitemapcrawler.service.politeness;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Parsed robots.txt rules that apply to one user agent (RFC 9309).
+ * The longest matching {@code Allow}/{@code Disallow} pattern decides, {@code Allow}
+ * wins ties, and {@code *} and {@code $} wildcards are supported. The group of the
+ * crawler's own product token is used if present, otherwise the {@code *} group.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+public final class RobotsRules {
+
+    /**
+     * Rules that allow everything, used when a site has no robots.txt.
+     */
+    public static final RobotsRules ALLOW_ALL = new RobotsRules(List.of(), 0, List.of());
+
+    private final List<Rule> rules;
+    private final long crawlDelayMs;
+    private final List<String> sitemaps;
+
+    private RobotsRules(List<Rule> rules, long crawlDelayMs, List<String> sitemaps) {
+        this.rules = rules;
+        this.crawlDelayMs = crawlDelayMs;
+        this.sitemaps = sitemaps;
+    }
+
+    /**
+     * Parses a robots.txt file.
+     *
+     * @param content        The file content.
+     * @param userAgentToken The product token of the crawler, e.g. {@code SiteMapCrawler}.
+     * @return The rules for the given user agent.
+     */
+    public static RobotsRules parse(String content, String userAgentToken) {
+        String token = userAgentToken.toLowerCase(Locale.ROOT);
+        List<Rule> ownRules = new ArrayList<>();
+        List<Rule> wildcardRules = new ArrayList<>();
+        long ownDelay = -1;
+        long wildcardDelay = -1;
+        boolean ownGroupFound = false;
+        List<String> sitemaps = new ArrayList<>();
+
+        boolean inOwnGroup = false;
+        boolean inWildcardGroup = false;
+        boolean lastWasAgent = false;
+        for (String rawLine : content.split("\\r?\\n|\\r")) {
+            String line = rawLine.replaceFirst("#.*", "").strip();
+            int colon = line.indexOf(':');
+            if (colon <= 0) continue;
+            String field = line.substring(0, colon).strip().toLowerCase(Locale.ROOT);
+            String value = line.substring(colon + 1).strip();
+
+            switch (field) {
+                case "user-agent" -> {
+                    if (!lastWasAgent) {
+                        inOwnGroup = false;
+                        inWildcardGroup = false;
+                    }
+                    String agent = value.toLowerCase(Locale.ROOT);
+                    if (agent.equals("*")) {
+                        inWildcardGroup = true;
+                    } else if (!agent.isEmpty() && token.startsWith(agent)) {
+                        inOwnGroup = true;
+                        ownGroupFound = true;
+                    }
+                    lastWasAgent = true;
+                }
+                case "allow", "disallow" -> {
+                    lastWasAgent = false;
+                    if (value.isEmpty()) continue;
+                    Rule rule = new Rule(value, field.equals("allow"));
+                    if (inOwnGroup) ownRules.add(rule);
+                    if (inWildcardGroup) wildcardRules.add(rule);
+                }
+                case "crawl-delay" -> {
+                    lastWasAgent = false;
+                    long delay = parseDelayMs(value);
+                    if (inOwnGroup) ownDelay = delay;
+                    if (inWildcardGroup) wildcardDelay = delay;
+                }
+                case "sitemap" -> sitemaps.add(value);
+                default -> lastWasAgent = false;
+            }
+        }
+
+        List<Rule> rules = new ArrayList<>(ownGroupFound ? ownRules : wildcardRules);
+        rules.sort(Comparator.comparingInt((Rule rule) -> rule.pattern.length()).reversed()
+                .thenComparing(rule -> !rule.allow));
+        long delay = Math.max(0, ownGroupFound ? ownDelay : wildcardDelay);
+        return new RobotsRules(List.copyOf(rules), delay, List.copyOf(sitemaps));
+    }
+
+    /**
+     * Checks whether a path may be crawled.
+     *
+     * @param pathAndQuery The raw path, followed by {@code ?query} if the URL has one.
+     * @return True if no rule or an {@code Allow} rule decides for the path.
+     */
+    public boolean isAllowed(String pathAndQuery) {
+        if (pathAndQuery.equals("/robots.txt")) {
+            return true;
+        }
+        for (Rule rule : rules) {
+            if (rule.matches(pathAndQuery)) {
+                return rule.allow;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the minimum delay between two requests requested by the site.
+     *
+     * @return The crawl delay in milliseconds, or 0 if none is given.
+     */
+    public long getCrawlDelayMs() {
+        return crawlDelayMs;
+    }
+
+    /**
+     * Gets the sitemap URLs announced by the site.
+     *
+     * @return The sitemap URLs in file order.
+     */
+    public List<String> getSitemaps() {
+        return sitemaps;
+    }
+
+    private static long parseDelayMs(String value) {
+        try {
+            double seconds = Double.parseDouble(value);
+            return seconds > 0 ? (long) (seconds * 1000) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * One {@code Allow} or {@code Disallow} line.
+     */
+    private static final class Rule {
+
+        private final String pattern;
+        private final boolean allow;
+        private final Pattern regex;
+
+        Rule(String pattern, boolean allow) {
+            this.pattern = pattern;
+            this.allow = allow;
+            if (pattern.indexOf('*') >= 0 || pattern.endsWith("$")) {
+                boolean anchored = pattern.endsWith("$");
+                String body = anchored ? pattern.substring(0, pattern.length() - 1) : pattern;
+                StringBuilder regex = new StringBuilder();
+                for (String part : body.split("\\*", -1)) {
+                    if (!regex.isEmpty()) regex.append(".*");
+                    regex.append(Pattern.quote(part));
+                }
+                this.regex = Pattern.compile(regex + (anchored ? "" : ".*"), Pattern.DOTALL);
+            } else {
+                this.regex = null;
+            }
+        }
+
+        boolean matches(String path) {
+            return regex == null ? path.startsWith(pattern) : regex.matcher(path).matches();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.vinhtt.sitemapcrawler.service.recrawl;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Computes the 64-bit content hash of a response body while it is being read, so a
+ * page can be recognized as unchanged without buffering it. The hash is FNV-1a
+ * followed by a MurmurHash3 finalizer, like the URL fingerprints of the seen-set;
+ * it identifies content, it is not meant to resist deliberate collisions.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+public final class HashingInputStream extends FilterInputStream {
+
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private long state = OFFSET_BASIS;
+
+    /**
+     * Wraps a stream.
+     *
+     * @param in The stream to read and hash.
+     */
+    public HashingInputStream(InputStream in) {
+        super(in);
+    }
+
+    /**
+     * Hashes a complete body.
+     *
+     * @param bytes The body.
+     * @return The non-zero hash.
+     */
+    public static long hash(byte[] bytes) {
+        return finish(update(OFFSET_BASIS, bytes, 0, bytes.length));
+    }
+
+    /**
+     * Reads and hashes the rest of the stream, e.g. after a parser stopped early.
+     *
+     * @return The hash of everything read from the stream.
+     * @throws IOException If reading fails.
+     */
+    public long drain() throws IOException {
+        byte[] buffer = new byte[8192];
+        while (read(buffer, 0, buffer.length) >= 0) {
+            // Hashing happens in read.
+        }
+        return getHash();
+    }
+
+    /**
+     * Gets the hash of the bytes read so far.
+     *
+     * @return The non-zero hash.
+     */
+    public long getHash() {
+        return finish(state);
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            state = (state ^ b) * PRIME;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            state = update(state, b, off, n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        byte[] buffer = new byte[(int) Math.min(n, 8192)];
+        long skipped = 0;
+        int read;
+        while (skipped < n && (read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped))) > 0) {
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private static long update(long h, byte[] bytes, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            h ^= bytes[i] & 0xff;
+            h *= PRIME;
+        }
+        return h;
+    }
+
+    private static long finish(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h == 0 ? 1 : h;
+    }
+}
@@ -0,0 +1,286 @@
+package com.vinhtt.sitemapcrawler.service.recrawl;
+
+import com.vinhtt.sitemapcrawler.model.PageLink;
+import com.vinhtt.sitemapcrawler.model.PageRecord;
+import com.vinhtt.sitemapcrawler.service.frontier.DiskSeenSet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persistent {@link PageRecord} per URL of a site, kept across crawls so a recrawl
+ * can revalidate pages instead of loading them again. Records are appended to a
+ * log of {@code [length][record]} entries; the heap only holds an index from URL
+ * fingerprint to log position, which is rebuilt on open. A newer record of a URL
+ * supersedes the older one, and the log is compacted on open once superseded
+ * records take up more than half of it. A torn record at the end of the log, left
+ * by a crash in the middle of an append, is dropped.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+public final class PageRecordStore implements AutoCloseable {
+
+    private static final String LOG_FILE = "pages.log";
+    private static final int MAX_RECORD_BYTES = 16 * 1024 * 1024;
+    private static final long COMPACT_MIN_BYTES = 1024 * 1024;
+
+    private final Path directory;
+    private final Map<Long, Long> positions = new HashMap<>();
+    private FileChannel log;
+    private long writeOffset;
+    private long deadBytes;
+
+    private PageRecordStore(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        this.log = openLog(directory.resolve(LOG_FILE));
+        rebuildIndex();
+        if (deadBytes > writeOffset / 2 && writeOffset > COMPACT_MIN_BYTES) {
+            compact();
+        }
+    }
+
+    /**
+     * Opens the records stored in a directory, creating an empty store if none exists.
+     *
+     * @param directory The record directory of a site.
+     * @return The opened store.
+     * @throws UncheckedIOException If the log cannot be opened or read.
+     */
+    public static PageRecordStore open(Path directory) {
+        try {
+            return new PageRecordStore(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open page records in " + directory, e);
+        }
+    }
+
+    /**
+     * Gets the latest record of a URL.
+     *
+     * @param url The canonical URL.
+     * @return The record, or null if the URL was never recorded.
+     * @throws UncheckedIOException If the log cannot be read.
+     */
+    public synchronized PageRecord get(String url) {
+        Long position = positions.get(DiskSeenSet.fingerprint(url));
+        if (position == null) {
+            return null;
+        }
+        try {
+            PageRecord record = decode(read(position));
+            return url.equals(record.getUrl()) ? record : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read page records in " + directory, e);
+        }
+    }
+
+    /**
+     * Stores a record, superseding any previous record of its URL.
+     *
+     * @param record The record.
+     * @throws UncheckedIOException If the log cannot be written.
+     */
+    public synchronized void put(PageRecord record) {
+        byte[] bytes = encode(record);
+        if (bytes.length > MAX_RECORD_BYTES) {
+            return;
+        }
+        ByteBuffer entry = ByteBuffer.allocate(Integer.BYTES + bytes.length);
+        entry.putInt(bytes.length).put(bytes).flip();
+        try {
+            long position = writeOffset;
+            while (entry.hasRemaining()) {
+                position += log.write(entry, position);
+            }
+            Long previous = positions.put(DiskSeenSet.fingerprint(record.getUrl()), writeOffset);
+            if (previous != null) {
+                deadBytes += Integer.BYTES + readLength(previous);
+            }
+            writeOffset = position;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to page records in " + directory, e);
+        }
+    }
+
+    /**
+     * Gets the number of recorded URLs.
+     *
+     * @return The record count.
+     */
+    public synchronized int size() {
+        return positions.size();
+    }
+
+    /**
+     * Flushes and releases the log.
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            log.force(false);
+            log.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void rebuildIndex() throws IOException {
+        long offset = 0;
+        long size = log.size();
+        while (offset + Integer.BYTES <= size) {
+            int length = readLength(offset);
+            if (length <= 0 || length > MAX_RECORD_BYTES || offset + Integer.BYTES + length > size) {
+                break;
+            }
+            ByteBuffer payload = read(offset);
+            String url = readString(payload);
+            if (url == null) {
+                break;
+            }
+            Long previous = positions.put(DiskSeenSet.fingerprint(url), offset);
+            if (previous != null) {
+                deadBytes += Integer.BYTES + readLength(previous);
+            }
+            offset += Integer.BYTES + length;
+        }
+        writeOffset = offset;
+        if (size > offset) {
+            log.truncate(offset);
+        }
+    }
+
+    /**
+     * Copies the live records into a staged log that atomically replaces the current one.
+     */
+    private void compact() throws IOException {
+        Path staging = directory.resolve(LOG_FILE + ".tmp");
+        Map<Long, Long> compacted = new HashMap<>(positions.size() * 2);
+        long offset = 0;
+        try (FileChannel target = FileChannel.open(staging, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (Map.Entry<Long, Long> entry : positions.entrySet()) {
+                long source = entry.getValue();
+                long length = Integer.BYTES + readLength(source);
+                long copied = 0;
+                while (copied < length) {
+                    copied += log.transferTo(source + copied, length - copied, target);
+                }
+                compacted.put(entry.getKey(), offset);
+                offset += length;
+            }
+            target.force(false);
+        }
+        log.close();
+        Files.move(staging, directory.resolve(LOG_FILE), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        log = openLog(directory.resolve(LOG_FILE));
+        positions.clear();
+        positions.putAll(compacted);
+        writeOffset = offset;
+        deadBytes = 0;
+    }
+
+    private int readLength(long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+        readFully(header, offset);
+        return header.getInt(0);
+    }
+
+    private ByteBuffer read(long offset) throws IOException {
+        ByteBuffer payload = ByteBuffer.allocate(readLength(offset));
+        readFully(payload, offset + Integer.BYTES);
+        return payload.flip();
+    }
+
+    private void readFully(ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (log.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of " + LOG_FILE);
+            }
+        }
+    }
+
+    private static FileChannel openLog(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private static byte[] encode(PageRecord record) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 + 64 * record.getLinks().size());
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeString(out, record.getUrl());
+            writeString(out, record.getEtag());
+            writeString(out, record.getLastModified());
+            out.writeLong(record.getContentHash());
+            out.writeInt(record.getStatusCode());
+            writeString(out, record.getTitle());
+            out.writeLong(record.getStructureHash());
+            out.writeInt(record.getLinks().size());
+            for (PageLink link : record.getLinks()) {
+                writeString(out, link.getHref());
+                writeString(out, link.getText());
+            }
+            out.writeInt(record.getTargets().size());
+            for (String target : record.getTargets()) {
+                writeString(out, target);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static PageRecord decode(ByteBuffer in) {
+        String url = readString(in);
+        String etag = readString(in);
+        String lastModified = readString(in);
+        long contentHash = in.getLong();
+        int statusCode = in.getInt();
+        String title = readString(in);
+        long structureHash = in.getLong();
+        int linkCount = in.getInt();
+        List<PageLink> links = new ArrayList<>(linkCount);
+        for (int i = 0; i < linkCount; i++) {
+            links.add(new PageLink(readString(in), readString(in)));
+        }
+        int targetCount = in.getInt();
+        List<String> targets = new ArrayList<>(targetCount);
+        for (int i = 0; i < targetCount; i++) {
+            targets.add(readString(in));
+        }
+        return new PageRecord(url, etag, lastModified, contentHash, statusCode, title, structureHash, links, targets);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+}
@@ -0,0 +1,327 @@
+package com.vinhtt.sitemapcrawler.service.search;
+
+import com.vinhtt.sitemapcrawler.service.graph.UrlDictionary;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Locale;
+
+/**
+ * Incremental inverted index over the text of graph nodes: URL path tokens, titles
+ * and the link texts a node was discovered with. Text is split into lower-cased,
+ * accent-folded terms of letters and digits; each term keeps a sorted posting list of
+ * the node ids it occurs in. Terms are themselves indexed by their one- and two-letter
+ * prefixes and by their trigrams, so a query word of one or two letters matches the
+ * terms it starts and a longer one matches the terms it occurs anywhere in. A query
+ * matches the nodes that match all of its words.
+ * Terms and grams are interned in {@link UrlDictionary} instances, so the index holds no
+ * per-term objects. Text is only ever added: a node keeps matching its earlier titles.
+ * Not thread-safe.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+public final class NodeSearchIndex {
+
+    private static final int MAX_TERM_LENGTH = 40;
+    private static final int INITIAL_TERMS = 1 << 10;
+    private static final int INITIAL_POSTINGS = 2;
+    private static final char PREFIX_MARK = '^';
+
+    private final UrlDictionary terms = new UrlDictionary();
+    private final UrlDictionary grams = new UrlDictionary();
+    private int[][] postings = new int[INITIAL_TERMS][];
+    private int[] postingSizes = new int[INITIAL_TERMS];
+    private int[][] gramTerms = new int[INITIAL_TERMS][];
+    private int[] gramTermSizes = new int[INITIAL_TERMS];
+    private int nodeLimit;
+    private long postingCount;
+
+    /**
+     * The nodes matching a query.
+     *
+     * @param ids   The smallest matching node ids, in ascending order.
+     * @param count The number of matching nodes.
+     */
+    public record Matches(int[] ids, int count) {
+        public static final Matches NONE = new Matches(new int[0], 0);
+    }
+
+    /**
+     * Indexes free text of a node, such as its title or a link text.
+     *
+     * @param id   The graph id of the node.
+     * @param text The text; null is ignored.
+     */
+    public void addText(int id, String text) {
+        if (text == null || text.isEmpty()) return;
+        String folded = fold(text);
+        int length = folded.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean letter = i < length && Character.isLetterOrDigit(folded.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                addTerm(id, folded.substring(start, Math.min(i, start + MAX_TERM_LENGTH)));
+                start = -1;
+            }
+        }
+    }
+
+    /**
+     * Indexes the path and query of a URL; the scheme and host are left out,
+     * since every page of a site shares them.
+     *
+     * @param id  The graph id of the node.
+     * @param url The URL of the node.
+     */
+    public void addUrl(int id, String url) {
+        int scheme = url.indexOf("://");
+        int path = scheme < 0 ? 0 : url.indexOf('/', scheme + 3);
+        if (path < 0) return;
+        String tail = url.substring(path);
+        if (tail.indexOf('%') >= 0) {
+            try {
+                tail = URLDecoder.decode(tail.replace("+", "%2B"), StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                // Malformed escapes are indexed as they are.
+            }
+        }
+        addText(id, tail);
+    }
+
+    /**
+     * Finds the nodes matching every word of a query.
+     *
+     * @param query The query; words are split like indexed text.
+     * @param limit The maximum number of ids to return.
+     * @return The matches, or {@link Matches#NONE} if the query has no words.
+     */
+    public Matches search(String query, int limit) {
+        String folded = fold(query);
+        BitSet result = null;
+        int length = folded.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean letter = i < length && Character.isLetterOrDigit(folded.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                BitSet word = matchWord(folded.substring(start, Math.min(i, start + MAX_TERM_LENGTH)));
+                if (result == null) {
+                    result = word;
+                } else {
+                    result.and(word);
+                }
+                if (result.isEmpty()) break;
+                start = -1;
+            }
+        }
+        if (result == null) {
+            return Matches.NONE;
+        }
+        int count = result.cardinality();
+        int[] ids = new int[Math.min(count, limit)];
+        for (int i = 0, id = result.nextSetBit(0); i < ids.length; i++, id = result.nextSetBit(id + 1)) {
+            ids[i] = id;
+        }
+        return new Matches(ids, count);
+    }
+
+    /**
+     * Gets the number of distinct terms.
+     *
+     * @return The term count.
+     */
+    public int termCount() {
+        return terms.size();
+    }
+
+    /**
+     * Forgets all indexed text.
+     */
+    public void clear() {
+        terms.clear();
+        grams.clear();
+        postings = new int[INITIAL_TERMS][];
+        postingSizes = new int[INITIAL_TERMS];
+        gramTerms = new int[INITIAL_TERMS][];
+        gramTermSizes = new int[INITIAL_TERMS];
+        nodeLimit = 0;
+        postingCount = 0;
+    }
+
+    /**
+     * Estimates the retained heap size of the index.
+     *
+     * @return The size in bytes.
+     */
+    public long estimatedBytes() {
+        long bytes = terms.estimatedBytes() + grams.estimatedBytes()
+                + 8L * (postings.length + gramTerms.length) + 4L * (postingSizes.length + gramTermSizes.length);
+        for (int term = 0; term < terms.size(); term++) {
+            bytes += 16 + 4L * postings[term].length;
+        }
+        for (int gram = 0; gram < grams.size(); gram++) {
+            bytes += 16 + 4L * gramTerms[gram].length;
+        }
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d terms, %d grams, %d postings", terms.size(), grams.size(), postingCount);
+    }
+
+    private void addTerm(int id, String term) {
+        int before = terms.size();
+        int termId = terms.intern(term);
+        if (termId == before) {
+            if (termId == postings.length) {
+                postings = Arrays.copyOf(postings, termId * 2);
+                postingSizes = Arrays.copyOf(postingSizes, termId * 2);
+            }
+            postings[termId] = new int[INITIAL_POSTINGS];
+            indexGrams(termId, term);
+        }
+        if (insertPosting(termId, id)) {
+            nodeLimit = Math.max(nodeLimit, id + 1);
+            postingCount++;
+        }
+    }
+
+    /**
+     * Adds a node to the sorted posting list of a term; nodes mostly arrive in id
+     * order, so the insert is nearly always an append.
+     *
+     * @return False if the node was already listed.
+     */
+    private boolean insertPosting(int termId, int id) {
+        int[] list = postings[termId];
+        int size = postingSizes[termId];
+        int position = size;
+        if (size > 0 && list[size - 1] >= id) {
+            position = Arrays.binarySearch(list, 0, size, id);
+            if (position >= 0) return false;
+            position = -position - 1;
+        }
+        if (size == list.length) {
+            list = Arrays.copyOf(list, size * 2);
+            postings[termId] = list;
+        }
+        System.arraycopy(list, position, list, position + 1, size - position);
+        list[position] = id;
+        postingSizes[termId] = size + 1;
+        return true;
+    }
+
+    /**
+     * Lists a new term under its prefixes and trigrams. Term ids only grow, so the
+     * term lists of the grams stay sorted.
+     */
+    private void indexGrams(int termId, String term) {
+        addGram(PREFIX_MARK + term.substring(0, 1), termId);
+        if (term.length() > 1) {
+            addGram(PREFIX_MARK + term.substring(0, 2), termId);
+        }
+        for (int i = 0; i + 3 <= term.length(); i++) {
+            addGram(term.substring(i, i + 3), termId);
+        }
+    }
+
+    private void addGram(String gram, int termId) {
+        int before = grams.size();
+        int gramId = grams.intern(gram);
+        if (gramId == before) {
+            if (gramId == gramTerms.length) {
+                gramTerms = Arrays.copyOf(gramTerms, gramId * 2);
+                gramTermSizes = Arrays.copyOf(gramTermSizes, gramId * 2);
+            }
+            gramTerms[gramId] = new int[INITIAL_POSTINGS];
+        }
+        int[] list = gramTerms[gramId];
+        int size = gramTermSizes[gramId];
+        if (size > 0 && list[size - 1] == termId) return;
+        if (size == list.length) {
+            list = Arrays.copyOf(list, size * 2);
+            gramTerms[gramId] = list;
+        }
+        list[size] = termId;
+        gramTermSizes[gramId] = size + 1;
+    }
+
+    /**
+     * Collects the nodes of every term a query word matches: by prefix for words of
+     * one or two letters, otherwise by the terms holding all trigrams of the word,
+     * checked against the term itself.
+     */
+    private BitSet matchWord(String word) {
+        BitSet nodes = new BitSet(nodeLimit);
+        if (word.length() < 3) {
+            int gramId = grams.idOf(PREFIX_MARK + word);
+            if (gramId >= 0) {
+                for (int i = 0; i < gramTermSizes[gramId]; i++) {
+                    addPostings(nodes, gramTerms[gramId][i]);
+                }
+            }
+            return nodes;
+        }
+
+        int gramCount = word.length() - 2;
+        int[] gramIds = new int[gramCount];
+        int rarest = 0;
+        for (int i = 0; i < gramCount; i++) {
+            gramIds[i] = grams.idOf(word.substring(i, i + 3));
+            if (gramIds[i] < 0) return nodes;
+            if (gramTermSizes[gramIds[i]] < gramTermSizes[gramIds[rarest]]) {
+                rarest = i;
+            }
+        }
+        int[] candidates = gramTerms[gramIds[rarest]];
+        int candidateCount = gramTermSizes[gramIds[rarest]];
+        for (int c = 0; c < candidateCount; c++) {
+            int termId = candidates[c];
+            boolean inAll = true;
+            for (int i = 0; i < gramCount && inAll; i++) {
+                inAll = i == rarest || Arrays.binarySearch(gramTerms[gramIds[i]], 0, gramTermSizes[gramIds[i]], termId) >= 0;
+            }
+            if (inAll && (gramCount == 1 || terms.urlOf(termId).contains(word))) {
+                addPostings(nodes, termId);
+            }
+        }
+        return nodes;
+    }
+
+    private void addPostings(BitSet nodes, int termId) {
+        int[] list = postings[termId];
+        for (int i = 0; i < postingSizes[termId]; i++) {
+            nodes.set(list[i]);
+        }
+    }
+
+    /**
+     * Lower-cases text and strips diacritics, so "Tìm kiếm" is found as "tim kiem".
+     */
+    private static String fold(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        boolean ascii = true;
+        for (int i = 0; i < lower.length() && ascii; i++) {
+            ascii = lower.charAt(i) < 0x80;
+        }
+        if (ascii) {
+            return lower;
+        }
+        String decomposed = Normalizer.normalize(lower, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) continue;
+            folded.append(c == 'đ' ? 'd' : c);
+        }
+        return folded.toString();
+    }
+}
@@ -0,0 +1,216 @@
+package com.vinhtt.sitemapcrawler.service.sitemap;
+
+import com.vinhtt.sitemapcrawler.service.politeness.RobotsCache;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the sitemaps a site lists in its robots.txt, or {@code /sitemap.xml} if it lists
+ * none, and hands every page URL in them to a sink. Sitemap indexes are followed
+ * breadth-first. Each document is stream-parsed with StAX straight from the response
+ * body, gunzipped when it starts with the gzip magic bytes, so memory use does not
+ * depend on the size of a sitemap or on the number of URLs it lists.
+ * DTDs and external entities are disabled.
+ *
+ * @author vinhtt
+ * @version 1.1
+ */
+public final class SitemapSeeder {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SitemapSeeder.class);
+
+    private static final int MAX_SITEMAP_FILES = 2000;
+    private static final long MAX_SITEMAP_BYTES = 128L * 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final HttpClient httpClient;
+    private final RobotsCache robots;
+    private final String userAgentToken;
+    private final int timeoutMs;
+    private final XMLInputFactory xmlFactory;
+
+    /**
+     * Constructs a seeder.
+     *
+     * @param httpClient     The client used to download sitemaps.
+     * @param robots         The cache the robots.txt {@code Sitemap:} lines are read from.
+     * @param userAgentToken The product token sent in the User-Agent header.
+     * @param timeoutMs      The timeout for each sitemap response to start, in milliseconds.
+     */
+    public SitemapSeeder(HttpClient httpClient, RobotsCache robots, String userAgentToken, int timeoutMs) {
+        this.httpClient = httpClient;
+        this.robots = robots;
+        this.userAgentToken = userAgentToken;
+        this.timeoutMs = timeoutMs;
+        this.xmlFactory = XMLInputFactory.newFactory();
+        xmlFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    /**
+     * Reads the sitemaps of a site. Unreadable sitemaps are reported and skipped;
+     * URLs read before the error stay accepted.
+     *
+     * @param rootUrl The root URL of the site.
+     * @param maxUrls The number of accepted URLs after which reading stops.
+     * @param sink    Receives each page URL as written in the sitemap; returns true if it was accepted.
+     * @param running Checked before each URL; reading stops once it returns false.
+     * @return The number of URLs the sink accepted.
+     * @throws InterruptedException If the thread is interrupted while downloading.
+     */
+    public int seed(String rootUrl, int maxUrls, Predicate<String> sink, BooleanSupplier running)
+            throws InterruptedException {
+
+        URI root = URI.create(rootUrl);
+        Deque<String> pending = new ArrayDeque<>();
+        List<String> listed = robots.rulesFor(root).getSitemaps();
+        for (String sitemap : listed.isEmpty() ? List.of("/sitemap.xml") : listed) {
+            pending.add(root.resolve(sitemap.trim()).toString());
+        }
+
+        Set<String> read = new HashSet<>();
+        AtomicInteger accepted = new AtomicInteger();
+        BooleanSupplier more = () -> accepted.get() < maxUrls && running.getAsBoolean();
+        Consumer<String> counting = loc -> {
+            if (sink.test(loc)) accepted.incrementAndGet();
+        };
+        while (!pending.isEmpty() && read.size() < MAX_SITEMAP_FILES && more.getAsBoolean()) {
+            String sitemapUrl = pending.poll();
+            if (!read.add(sitemapUrl)) continue;
+            try {
+                read(URI.create(sitemapUrl), pending, counting, more);
+            } catch (IOException | XMLStreamException | IllegalArgumentException e) {
+                LOG.warn("Cannot read sitemap {}: {}", sitemapUrl, e.getMessage());
+            }
+        }
+        return accepted.get();
+    }
+
+    /**
+     * Streams one sitemap or sitemap index. Only {@code loc} elements directly inside
+     * {@code url} or {@code sitemap} entries count, so extension elements such as
+     * {@code image:loc} are skipped.
+     */
+    private void read(URI sitemapUrl, Deque<String> pending, Consumer<String> sink, BooleanSupplier more)
+            throws IOException, XMLStreamException, InterruptedException {
+
+        HttpRequest request = HttpRequest.newBuilder(sitemapUrl)
+                .timeout(Duration.ofMillis(timeoutMs))
+                .header("User-Agent", "Mozilla/5.0 (compatible; " + userAgentToken + "/1.0)")
+                .GET()
+                .build();
+        HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                LOG.warn("Sitemap {} returned {}", sitemapUrl, response.statusCode());
+                return;
+            }
+            XMLStreamReader reader = xmlFactory.createXMLStreamReader(decoded(body));
+            try {
+                int depth = 0;
+                boolean index = false;
+                while (reader.hasNext() && more.getAsBoolean()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.END_ELEMENT) {
+                        depth--;
+                        continue;
+                    }
+                    if (event != XMLStreamConstants.START_ELEMENT) {
+                        continue;
+                    }
+                    depth++;
+                    String name = reader.getLocalName();
+                    if (depth == 1) {
+                        index = "sitemapindex".equals(name);
+                        if (!index && !"urlset".equals(name)) {
+                            LOG.warn("Not a sitemap: {}", sitemapUrl);
+                            return;
+                        }
+                    } else if (depth == 3 && "loc".equals(name)) {
+                        String loc = reader.getElementText().trim();
+                        depth--;
+                        if (loc.isEmpty()) continue;
+                        if (index) {
+                            pending.add(sitemapUrl.resolve(loc).toString());
+                        } else {
+                            sink.accept(loc);
+                        }
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Wraps a response body, gunzipping it if it is gzip-compressed and bounding
+     * the decoded size so a compressed sitemap cannot expand without limit.
+     */
+    private static InputStream decoded(InputStream body) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(body, BUFFER_SIZE);
+        buffered.mark(2);
+        int first = buffered.read();
+        int second = buffered.read();
+        buffered.reset();
+        InputStream in = first == 0x1f && second == 0x8b ? new GZIPInputStream(buffered, BUFFER_SIZE) : buffered;
+        return new BoundedInputStream(in, MAX_SITEMAP_BYTES);
+    }
+
+    private static final class BoundedInputStream extends FilterInputStream {
+
+        private final long limit;
+        private long count;
+
+        BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count(n);
+            return n;
+        }
+
+        private void count(int n) throws IOException {
+            count += n;
+            if (count > limit) {
+                throw new IOException("Sitemap exceeds " + limit + " bytes");
+            }
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.vinhtt.sitemapcrawler.service.thumbnail;
+
+import com.vinhtt.sitemapcrawler.service.frontier.DiskSeenSet;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Size-bounded disk cache of page thumbnails, kept across runs. Each thumbnail is one
+ * JPEG file named by the fingerprint of its page URL; when the files exceed the size
+ * limit, the least recently used are deleted. Recency is kept in memory in access order
+ * and mirrored to the files' modification times, so the order survives a restart
+ * without an index file.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+public final class ThumbnailCache {
+
+    private static final String SUFFIX = ".jpg";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final LinkedHashMap<Long, Long> sizes = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+
+    private ThumbnailCache(Path directory, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(directory);
+        load();
+    }
+
+    /**
+     * Opens the cache stored in a directory, creating an empty one if none exists.
+     *
+     * @param directory The cache directory.
+     * @param maxBytes  The total file size above which thumbnails are evicted.
+     * @return The opened cache.
+     * @throws UncheckedIOException If the directory cannot be created or read.
+     */
+    public static ThumbnailCache open(Path directory, long maxBytes) {
+        try {
+            return new ThumbnailCache(directory, maxBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open thumbnail cache in " + directory, e);
+        }
+    }
+
+    /**
+     * Stores the thumbnail of a page, replacing an older one.
+     *
+     * @param url  The page URL.
+     * @param jpeg The encoded thumbnail.
+     * @throws UncheckedIOException If the file cannot be written.
+     */
+    public void put(String url, byte[] jpeg) {
+        long key = DiskSeenSet.fingerprint(url);
+        Path target = pathOf(key);
+        Path staging = target.resolveSibling(target.getFileName() + ".tmp");
+        synchronized (this) {
+            try {
+                Files.write(staging, jpeg);
+                Files.move(staging, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                Long replaced = sizes.put(key, (long) jpeg.length);
+                totalBytes += jpeg.length - (replaced != null ? replaced : 0);
+                evict();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot store thumbnail of " + url, e);
+            }
+        }
+    }
+
+    /**
+     * Reads the thumbnail of a page and marks it as recently used.
+     *
+     * @param url The page URL.
+     * @return The encoded thumbnail, or null if none is cached.
+     * @throws UncheckedIOException If the file cannot be read.
+     */
+    public synchronized byte[] get(String url) {
+        long key = DiskSeenSet.fingerprint(url);
+        if (sizes.get(key) == null) {
+            return null;
+        }
+        Path file = pathOf(key);
+        try {
+            byte[] jpeg = Files.readAllBytes(file);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return jpeg;
+        } catch (NoSuchFileException e) {
+            totalBytes -= sizes.remove(key);
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read thumbnail of " + url, e);
+        }
+    }
+
+    /**
+     * Gets the number of cached thumbnails.
+     *
+     * @return The thumbnail count.
+     */
+    public synchronized int entryCount() {
+        return sizes.size();
+    }
+
+    /**
+     * Gets the total size of the thumbnail files.
+     *
+     * @return The cache size in bytes.
+     */
+    public synchronized long sizeBytes() {
+        return totalBytes;
+    }
+
+    private void evict() throws IOException {
+        Iterator<Map.Entry<Long, Long>> eldest = sizes.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<Long, Long> entry = eldest.next();
+            eldest.remove();
+            totalBytes -= entry.getValue();
+            Files.deleteIfExists(pathOf(entry.getKey()));
+        }
+    }
+
+    /**
+     * Indexes the files of an earlier run, oldest first, and deletes leftovers of interrupted writes.
+     */
+    private void load() throws IOException {
+        record CachedFile(long key, long size, long modified) {
+        }
+        List<CachedFile> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.map(file -> {
+                String name = file.getFileName().toString();
+                try {
+                    if (name.endsWith(SUFFIX + ".tmp")) {
+                        Files.deleteIfExists(file);
+                    }
+                    if (!name.endsWith(SUFFIX)) {
+                        return null;
+                    }
+                    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    long key = Long.parseUnsignedLong(name.substring(0, name.length() - SUFFIX.length()), 16);
+                    return new CachedFile(key, attributes.size(), attributes.lastModifiedTime().toMillis());
+                } catch (IOException | NumberFormatException e) {
+                    return null;
+                }
+            }).filter(Objects::nonNull).sorted(Comparator.comparingLong(CachedFile::modified)).toList();
+        }
+        for (CachedFile file : files) {
+            sizes.put(file.key(), file.size());
+            totalBytes += file.size();
+        }
+        evict();
+    }
+
+    private Path pathOf(long key) {
+        return directory.resolve(String.format("%016x", key) + SUFFIX);
+    }
+}
@@ -0,0 +1,192 @@
+package com.vinhtt.sitemapcrawler.service.thumbnail;
+
+import com.vinhtt.sitemapcrawler.model.CrawlConfig;
+import com.vinhtt.sitemapcrawler.model.CrawlMetrics;
+import com.vinhtt.sitemapcrawler.model.CrawlPhase;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Turns viewport captures into thumbnails off the crawl threads. A crawl thread only
+ * takes the JPEG screenshot and hands it over; decoding, downscaling and re-encoding run
+ * on a small pool of daemon threads and the result is stored in a {@link ThumbnailCache}.
+ * At most {@value #MAX_PENDING} captures wait for the pool, so their bytes never pile up
+ * on the heap: while the queue is full, callers skip the capture altogether.
+ *
+ * @author vinhtt
+ * @version 1.1
+ */
+public final class ThumbnailPipeline implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ThumbnailPipeline.class);
+
+    private static final int MAX_PENDING = 8;
+    private static final float JPEG_QUALITY = 0.8f;
+    private static final long SHUTDOWN_WAIT_MS = 2000;
+
+    private final ThumbnailCache cache;
+    private final CrawlMetrics metrics;
+    private final int width;
+    private final ThreadPoolExecutor workers;
+    private final AtomicLong stored = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    /**
+     * Opens the thumbnail cache and starts the downscaling threads.
+     *
+     * @param config  The crawl configuration with the thumbnail settings.
+     * @param metrics The metrics the time spent per thumbnail is recorded in.
+     * @throws UncheckedIOException If the cache directory cannot be opened.
+     */
+    public ThumbnailPipeline(CrawlConfig config, CrawlMetrics metrics) {
+        this.cache = ThumbnailCache.open(Path.of(config.getThumbnailDirectory()), config.getThumbnailCacheMaxMb() * 1024L * 1024L);
+        this.metrics = metrics;
+        this.width = config.getThumbnailWidth();
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(MAX_PENDING), runnable -> {
+                    Thread thread = new Thread(runnable, "thumbnail-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+    }
+
+    /**
+     * Checks whether a capture would be accepted now, so a busy pipeline costs the
+     * crawl thread no screenshot. A capture that is not taken is counted as skipped.
+     *
+     * @return True if a capture can be submitted.
+     */
+    public boolean hasCapacity() {
+        if (workers.getQueue().remainingCapacity() > 0) {
+            return true;
+        }
+        skipped.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Queues a capture to be turned into the thumbnail of a page. Returns at once;
+     * the capture is dropped if the queue filled up in the meantime.
+     *
+     * @param url     The page URL.
+     * @param capture The JPEG screenshot of the page's viewport.
+     */
+    public void submit(String url, byte[] capture) {
+        try {
+            workers.execute(() -> store(url, capture));
+        } catch (RejectedExecutionException e) {
+            skipped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Reads the thumbnail of a page.
+     *
+     * @param url The page URL.
+     * @return The JPEG thumbnail, or null if none is cached.
+     * @throws UncheckedIOException If the thumbnail cannot be read.
+     */
+    public byte[] get(String url) {
+        return cache.get(url);
+    }
+
+    /**
+     * Stops the downscaling threads, finishing the captures already queued for a short while.
+     */
+    @Override
+    public void close() {
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(SHUTDOWN_WAIT_MS, TimeUnit.MILLISECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d thumbnails stored, %d skipped, %d failed; cache %d files, %.1f MB",
+                stored.get(), skipped.get(), failed.get(), cache.entryCount(), cache.sizeBytes() / 1e6);
+    }
+
+    private void store(String url, byte[] capture) {
+        long start = System.nanoTime();
+        try {
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(capture));
+            if (image == null) {
+                throw new IOException("Unreadable capture");
+            }
+            cache.put(url, encode(downscale(image, width)));
+            stored.incrementAndGet();
+            metrics.record(CrawlPhase.THUMBNAIL, System.nanoTime() - start);
+        } catch (IOException | UncheckedIOException e) {
+            failed.incrementAndGet();
+            LOG.warn("Failed to store thumbnail of {}: {}", url, e.getMessage());
+        }
+    }
+
+    /**
+     * Scales an image down to a width in halving bilinear steps, which keeps text and
+     * thin lines legible where a single bilinear step would skip most source pixels.
+     */
+    private static BufferedImage downscale(BufferedImage image, int targetWidth) {
+        BufferedImage current = image;
+        while (current.getWidth() > targetWidth) {
+            int nextWidth = Math.max(targetWidth, current.getWidth() / 2);
+            int nextHeight = Math.max(1, (int) ((long) current.getHeight() * nextWidth / current.getWidth()));
+            BufferedImage next = new BufferedImage(nextWidth, nextHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.drawImage(current, 0, 0, nextWidth, nextHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        }
+        return current;
+    }
+
+    private static byte[] encode(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 * 1024);
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,285 @@
+package com.vinhtt.sitemapcrawler.service.validation;
+
+import com.vinhtt.sitemapcrawler.model.CrawlConfig;
+import com.vinhtt.sitemapcrawler.model.LinkCheck;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Validates links without rendering them: each URL gets a HEAD request, or a GET of
+ * its first byte if the server rejects HEAD, and redirects are followed by hand so
+ * the chain can be reported. Checks run on virtual threads over one shared HTTP/2
+ * client. Each host has its own queue and at most a configured number of checks in
+ * flight, so a site with thousands of links cannot hold up the others; a global
+ * limit bounds the number of open requests. Every URL is checked once until {@link #reset()}.
+ *
+ * @author vinhtt
+ * @version 1.1
+ */
+public final class LinkValidator implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LinkValidator.class);
+
+    private static final int MAX_REDIRECTS = 10;
+    private static final Set<Integer> HEAD_REJECTED = Set.of(400, 403, 405, 501);
+
+    private final HttpClient httpClient;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore inFlight;
+    private final int maxPerHost;
+    private final int timeoutMs;
+    private final String userAgent;
+    private final Set<String> submitted = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<String, HostQueue> hosts = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final Object idle = new Object();
+    private int pending;
+
+    /**
+     * Constructs a validator with the limits and timeout of a crawl configuration.
+     *
+     * @param config The crawl configuration.
+     */
+    public LinkValidator(CrawlConfig config) {
+        this.inFlight = new Semaphore(config.getValidationMaxInFlight());
+        this.maxPerHost = config.getValidationMaxPerHost();
+        this.timeoutMs = config.getValidationTimeoutMs();
+        this.userAgent = "Mozilla/5.0 (compatible; " + config.getRobotsUserAgent() + "/1.0)";
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofMillis(timeoutMs))
+                .executor(executor)
+                .build();
+    }
+
+    /**
+     * Queues a URL for checking unless it was queued before. Only http and https URLs are checked.
+     *
+     * @param url  The absolute URL.
+     * @param sink Receives the outcome on a virtual thread; it may block to apply backpressure.
+     * @return True if the URL was queued.
+     */
+    public boolean submit(String url, Consumer<LinkCheck> sink) {
+        String host = hostOf(url);
+        if (host == null || !submitted.add(url)) {
+            return false;
+        }
+        synchronized (idle) {
+            pending++;
+        }
+        HostQueue queue = hosts.computeIfAbsent(host, key -> new HostQueue());
+        Check next;
+        synchronized (queue) {
+            queue.waiting.add(new Check(url, sink, generation.get()));
+            next = queue.take(maxPerHost);
+        }
+        if (next != null) {
+            start(queue, next);
+        }
+        return true;
+    }
+
+    /**
+     * Waits until every queued check has finished.
+     *
+     * @param running Polled while waiting; returning false stops the wait.
+     * @return True if no check is left, false if the wait was stopped first.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public boolean awaitIdle(BooleanSupplier running) throws InterruptedException {
+        synchronized (idle) {
+            while (pending > 0) {
+                if (!running.getAsBoolean()) {
+                    return false;
+                }
+                idle.wait(200);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Drops the queued checks; checks already in flight still deliver their outcome.
+     */
+    public void cancel() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Cancels the queued checks and forgets which URLs were checked, before a new crawl.
+     */
+    public void reset() {
+        cancel();
+        submitted.clear();
+    }
+
+    /**
+     * Checks a URL on the calling thread, without the per-host and global limits.
+     *
+     * @param url The absolute URL.
+     * @return The outcome; network errors are reported in it rather than thrown.
+     * @throws InterruptedException If the thread is interrupted while waiting for a response.
+     */
+    public LinkCheck check(String url) throws InterruptedException {
+        long start = System.nanoTime();
+        List<String> redirects = new ArrayList<>();
+        int status = 0;
+        String method = "HEAD";
+        try {
+            URI current = URI.create(url);
+            for (int hop = 0; hop <= MAX_REDIRECTS; hop++) {
+                HttpResponse<?> response = send(current, "HEAD");
+                if (HEAD_REJECTED.contains(response.statusCode())) {
+                    response = send(current, "GET");
+                }
+                method = response.request().method();
+                status = response.statusCode();
+                String location = response.headers().firstValue("location").orElse(null);
+                if (status < 300 || status >= 400 || status == 304 || location == null) {
+                    return new LinkCheck(url, status, redirects, method, System.nanoTime() - start, null);
+                }
+                current = current.resolve(location.trim());
+                redirects.add(current.toString());
+            }
+            return new LinkCheck(url, status, redirects, method, System.nanoTime() - start,
+                    "More than " + MAX_REDIRECTS + " redirects");
+        } catch (IOException | IllegalArgumentException e) {
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            return new LinkCheck(url, status, redirects, method, System.nanoTime() - start, message);
+        }
+    }
+
+    /**
+     * Stops the checks and the HTTP client.
+     */
+    @Override
+    public void close() {
+        cancel();
+        executor.shutdownNow();
+        httpClient.shutdownNow();
+    }
+
+    /**
+     * Sends one request. A GET only asks for the first byte and closes the body
+     * right away, so a server that ignores the range still transfers next to nothing.
+     */
+    private HttpResponse<?> send(URI uri, String method) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofMillis(timeoutMs))
+                .header("User-Agent", userAgent);
+        if ("HEAD".equals(method)) {
+            return httpClient.send(request.HEAD().build(), HttpResponse.BodyHandlers.discarding());
+        }
+        HttpResponse<InputStream> response = httpClient.send(request.header("Range", "bytes=0-0").GET().build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        response.body().close();
+        return response;
+    }
+
+    /**
+     * Runs a check on a virtual thread, then starts the next waiting check of its host.
+     * The outcome is handed to the sink after the global slot is released, so a
+     * blocking sink slows down validation without holding connections.
+     */
+    private void start(HostQueue queue, Check check) {
+        try {
+            executor.execute(() -> run(queue, check));
+        } catch (RejectedExecutionException closed) {
+            finished();
+        }
+    }
+
+    private void run(HostQueue queue, Check check) {
+        try {
+            if (check.generation() == generation.get()) {
+                LinkCheck outcome;
+                inFlight.acquire();
+                try {
+                    outcome = check(check.url());
+                } finally {
+                    inFlight.release();
+                }
+                if (check.generation() == generation.get()) {
+                    check.sink().accept(outcome);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            LOG.warn("Link check of {} failed", check.url(), e);
+        } finally {
+            Check next;
+            synchronized (queue) {
+                queue.active--;
+                next = queue.take(maxPerHost);
+            }
+            finished();
+            if (next != null) {
+                start(queue, next);
+            }
+        }
+    }
+
+    private void finished() {
+        synchronized (idle) {
+            pending--;
+            idle.notifyAll();
+        }
+    }
+
+    private static String hostOf(String url) {
+        try {
+            URI uri = URI.create(url);
+            String scheme = uri.getScheme();
+            if (uri.getHost() == null || scheme == null
+                    || !(scheme.equalsIgnoreCase("http") || scheme.equalsIgnoreCase("https"))) {
+                return null;
+            }
+            return uri.getHost().toLowerCase(Locale.ROOT) + ":" + uri.getPort();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private record Check(String url, Consumer<LinkCheck> sink, long generation) {
+    }
+
+    /**
+     * The checks waiting for one host, and how many of its checks are in flight. Guarded by itself.
+     */
+    private static final class HostQueue {
+
+        private final ArrayDeque<Check> waiting = new ArrayDeque<>();
+        private int active;
+
+        Check take(int maxActive) {
+            if (active >= maxActive || waiting.isEmpty()) {
+                return null;
+            }
+            active++;
+            return waiting.poll();
+        }
+    }
+}
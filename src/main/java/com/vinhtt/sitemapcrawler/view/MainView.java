@@ -1,6 +1,7 @@
 package com.vinhtt.sitemapcrawler.view;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vinhtt.sitemapcrawler.model.GraphBatch;
+import com.vinhtt.sitemapcrawler.model.NodePositions;
 import com.vinhtt.sitemapcrawler.model.NodeType;
 import com.vinhtt.sitemapcrawler.model.SiteNode;
 import com.vinhtt.sitemapcrawler.viewmodel.MainViewModel;
@@ -8,30 +9,48 @@ import javafx.application.Platform;
 import javafx.concurrent.Worker;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
+import javafx.scene.image.ImageView;
 import javafx.scene.layout.VBox;
+import javafx.stage.DirectoryChooser;
+import javafx.stage.FileChooser;
 import javafx.scene.web.WebEngine;
 import javafx.scene.web.WebView;
 import netscape.javascript.JSObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.awt.Desktop;
+import java.io.File;
 import java.net.URI;
 import java.net.URL;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * Controller for the Main View.
  * Handles interaction with WebView (Vis.js) via JavaScript calls and manages the property sidebar.
+ * Vis.js only draws: node positions are computed by the ViewModel's layout and pushed as they change.
+ * Search matches are highlighted in the graph; picking one from the result list selects it and
+ * centers the graph on it. The thumbnail of the selected node is shown when one was captured.
  *
  * @author vinhtt
- * @version 1.5
+ * @version 2.6
  */
 public class MainView {
 
+    private static final Logger LOG = LoggerFactory.getLogger(MainView.class);
+
     @FXML private TextField txtUrl;
     @FXML private Button btnStart;
     @FXML private Button btnStop;
+    @FXML private Button btnCrawlSite;
+    @FXML private Button btnReset;
+    @FXML private MenuButton btnExport;
+    @FXML private Spinner<Integer> spnDepth;
+    @FXML private Spinner<Integer> spnWorkers;
     @FXML private ListView<String> listLogs;
+    @FXML private TextArea txtStats;
+    @FXML private TextField txtSearch;
+    @FXML private Label lblSearchStatus;
+    @FXML private ListView<SiteNode> listSearchResults;
     @FXML private Label lblStatus;
 
     @FXML private WebView graphWebView;
@@ -40,12 +59,17 @@ public class MainView {
     @FXML private Label lblNodeTitle;
     @FXML private TextField tfNodeUrl;
     @FXML private Label lblNodeType;
+    @FXML private Label lblNodeTimings;
+    @FXML private Label lblNodeLinkCheck;
+    @FXML private Label lblThumbnail;
+    @FXML private ImageView imgNodeThumbnail;
     @FXML private Button btnScanNode;
 
     private MainViewModel viewModel;
     private WebEngine webEngine;
     private boolean isJsReady = false;
-    private final ObjectMapper jsonMapper = new ObjectMapper();
+    private JSObject jsWindow;
+    private final VisBatchEncoder batchEncoder = new VisBatchEncoder();
 
     // [FIX 1] Giữ tham chiếu mạnh (Strong Reference) để tránh bị Garbage Collection
     private JavaConnector javaConnector;
@@ -97,10 +121,10 @@ public class MainView {
         webEngine.getLoadWorker().stateProperty().addListener((obs, oldState, newState) -> {
             if (newState == Worker.State.SUCCEEDED) {
                 isJsReady = true;
-                JSObject window = (JSObject) webEngine.executeScript("window");
+                jsWindow = (JSObject) webEngine.executeScript("window");
 
                 // [FIX 4] Truyền biến instance đã khai báo (không dùng new JavaConnector() ở đây)
-                window.setMember("javaConnector", this.javaConnector);
+                jsWindow.setMember("javaConnector", this.javaConnector);
             }
         });
     }
@@ -111,24 +135,56 @@ public class MainView {
         txtUrl.textProperty().bindBidirectional(viewModel.urlInputProperty());
         listLogs.setItems(viewModel.getLogs());
         lblStatus.textProperty().bind(viewModel.statusMessageProperty());
+        txtStats.textProperty().bind(viewModel.crawlStatsProperty());
+        lblNodeLinkCheck.textProperty().bind(viewModel.selectedLinkCheckProperty());
+        imgNodeThumbnail.imageProperty().bind(viewModel.selectedThumbnailProperty());
+        lblThumbnail.visibleProperty().bind(viewModel.selectedThumbnailProperty().isNotNull());
+        lblThumbnail.managedProperty().bind(lblThumbnail.visibleProperty());
+        imgNodeThumbnail.visibleProperty().bind(lblThumbnail.visibleProperty());
+        imgNodeThumbnail.managedProperty().bind(lblThumbnail.visibleProperty());
+        txtSearch.textProperty().bindBidirectional(viewModel.searchQueryProperty());
+        lblSearchStatus.textProperty().bind(viewModel.searchStatusProperty());
+        listSearchResults.setItems(viewModel.getSearchResults());
 
         btnStart.disableProperty().bind(viewModel.isCrawlingProperty());
         btnStop.disableProperty().bind(viewModel.isCrawlingProperty().not());
+        btnCrawlSite.disableProperty().bind(viewModel.isCrawlingProperty());
+        btnReset.disableProperty().bind(viewModel.isCrawlingProperty());
+        btnExport.disableProperty().bind(viewModel.isExportingProperty());
+        spnDepth.getValueFactory().valueProperty().bindBidirectional(viewModel.maxDepthProperty());
+        spnWorkers.getValueFactory().valueProperty().bindBidirectional(viewModel.maxWorkersProperty());
+        spnDepth.disableProperty().bind(viewModel.isCrawlingProperty());
+        spnWorkers.disableProperty().bind(viewModel.isCrawlingProperty());
         txtUrl.disableProperty().bind(viewModel.isCrawlingProperty());
 
         btnScanNode.disableProperty().bind(
                 viewModel.isCrawlingProperty().or(viewModel.selectedNodeProperty().isNull())
         );
 
-        viewModel.latestNodeProperty().addListener((obs, oldVal, newNode) -> {
-            if (newNode != null && isJsReady) {
-                injectNode(newNode);
+        viewModel.latestBatchProperty().addListener((obs, oldBatch, newBatch) -> {
+            if (newBatch != null && isJsReady) {
+                injectBatch(newBatch);
+            }
+        });
+
+        viewModel.latestPositionsProperty().addListener((obs, oldPositions, newPositions) -> {
+            if (newPositions != null && isJsReady) {
+                injectPositions(newPositions);
             }
         });
 
-        viewModel.latestEdgeProperty().addListener((obs, oldVal, newEdge) -> {
-            if (newEdge != null && isJsReady) {
-                injectEdge(newEdge);
+        viewModel.searchMatchesProperty().addListener((obs, oldMatches, newMatches) -> {
+            if (isJsReady) {
+                callScript("highlightNodes", batchEncoder.indicesJson(newMatches));
+            }
+        });
+
+        listSearchResults.getSelectionModel().selectedItemProperty().addListener((obs, oldNode, newNode) -> {
+            if (newNode != null) {
+                viewModel.selectNodeByUrl(newNode.getUrl());
+                if (isJsReady) {
+                    callScript("focusNode", viewModel.indexOf(newNode.getUrl()));
+                }
             }
         });
 
@@ -139,6 +195,7 @@ public class MainView {
                 lblNodeTitle.setText(newNode.getTitle());
                 tfNodeUrl.setText(newNode.getUrl());
                 lblNodeType.setText(newNode.getType().toString());
+                lblNodeTimings.setText(newNode.getTimings() != null ? newNode.getTimings().toString() : "Not loaded");
             } else {
                 propertiesPane.setVisible(false);
                 propertiesPane.setManaged(false);
@@ -146,57 +203,113 @@ public class MainView {
         });
     }
 
-    private void injectNode(SiteNode node) {
+    /**
+     * Pushes one frame worth of graph changes to vis.js in a single JavaScript call.
+     * Arguments are passed as strings through JSObject, so no script source has to be escaped.
+     */
+    private void injectBatch(GraphBatch batch) {
+        try {
+            jsWindow.call("updateGraphBatch", batchEncoder.nodesJson(batch, viewModel::indexOf), batchEncoder.edgesJson(batch));
+        } catch (Exception e) {
+            LOG.warn("Cannot push a graph batch to the view", e);
+        }
+    }
+
+    /**
+     * Moves the nodes of a layout frame in a single JavaScript call.
+     */
+    private void injectPositions(NodePositions positions) {
         try {
-            Map<String, Object> jsNode = new HashMap<>();
-            jsNode.put("id", node.getUrl());
-            jsNode.put("label", node.getTitle().length() > 20 ? node.getTitle().substring(0, 20) + "..." : node.getTitle());
-            jsNode.put("group", node.getType().toString());
-            jsNode.put("title", node.getUrl());
-
-            String json = jsonMapper.writeValueAsString(jsNode);
-            String safeJson = json.replace("'", "\\'");
-            Platform.runLater(() ->
-                    webEngine.executeScript("updateGraph('" + safeJson + "', null)")
-            );
+            jsWindow.call("updatePositions", batchEncoder.positionsJson(positions));
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.warn("Cannot push node positions to the view", e);
         }
     }
 
-    private void injectEdge(String edgeInfo) {
+    private void callScript(String function, Object... args) {
         try {
-            String[] parts = edgeInfo.split(" -> ");
-            if (parts.length < 2) return;
-
-            Map<String, Object> jsEdge = new HashMap<>();
-            jsEdge.put("from", parts[0]);
-            jsEdge.put("to", parts[1]);
-
-            String json = jsonMapper.writeValueAsString(jsEdge);
-            String safeJson = json.replace("'", "\\'");
-            Platform.runLater(() ->
-                    webEngine.executeScript("updateGraph(null, '" + safeJson + "')")
-            );
+            jsWindow.call(function, args);
         } catch (Exception e) {
-            e.printStackTrace();
+            LOG.warn("Cannot call {} in the view", function, e);
         }
     }
 
     @FXML
     private void onStartClick() {
-        if (isJsReady) {
-            webEngine.executeScript("clearGraph()");
+        if (!viewModel.canResume()) {
+            clearGraph();
         }
         viewModel.selectedNodeProperty().set(null);
         viewModel.startCrawl();
     }
 
+    @FXML
+    private void onCrawlSiteClick() {
+        if (!viewModel.canResume()) {
+            clearGraph();
+        }
+        viewModel.selectedNodeProperty().set(null);
+        viewModel.crawlSite();
+    }
+
+    /**
+     * Clears the drawn graph together with the graph model behind it, which only
+     * hands the view nodes it does not know yet.
+     */
+    private void clearGraph() {
+        if (isJsReady) {
+            webEngine.executeScript("clearGraph()");
+        }
+        viewModel.clearGraph();
+    }
+
+    @FXML
+    private void onResetClick() {
+        if (isJsReady) {
+            webEngine.executeScript("clearGraph()");
+        }
+        viewModel.resetCrawl();
+    }
+
     @FXML
     private void onStopClick() {
         viewModel.stopCrawl();
     }
 
+    @FXML
+    private void onExportSitemapClick() {
+        DirectoryChooser chooser = new DirectoryChooser();
+        chooser.setTitle("Export Sitemap To");
+        File directory = chooser.showDialog(txtUrl.getScene().getWindow());
+        if (directory != null) {
+            viewModel.exportSitemap(directory.toPath());
+        }
+    }
+
+    @FXML
+    private void onExportNdjsonClick() {
+        File file = chooseExportFile("Export NDJSON", "site-graph.ndjson", "*.ndjson", "*.ndjson.gz");
+        if (file != null) {
+            viewModel.exportNdjson(file.toPath());
+        }
+    }
+
+    @FXML
+    private void onExportGraphmlClick() {
+        File file = chooseExportFile("Export GraphML", "site-graph.graphml", "*.graphml", "*.graphml.gz");
+        if (file != null) {
+            viewModel.exportGraphml(file.toPath());
+        }
+    }
+
+    private File chooseExportFile(String title, String initialName, String... extensions) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle(title);
+        chooser.setInitialFileName(initialName);
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter(String.join(", ", extensions), extensions));
+        return chooser.showSaveDialog(txtUrl.getScene().getWindow());
+    }
+
     @FXML
     private void onScanNodeClick() {
         SiteNode selected = viewModel.selectedNodeProperty().get();
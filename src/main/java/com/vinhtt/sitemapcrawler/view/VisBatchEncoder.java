@@ -0,0 +1,120 @@
+package com.vinhtt.sitemapcrawler.view;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vinhtt.sitemapcrawler.model.GraphBatch;
+import com.vinhtt.sitemapcrawler.model.NodePositions;
+import com.vinhtt.sitemapcrawler.model.SiteEdge;
+import com.vinhtt.sitemapcrawler.model.SiteNode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Serializes a {@link GraphBatch} into the vis.js node and edge arrays expected by
+ * {@code updateGraphBatch} in {@code graph_view.html}, and layout positions into the
+ * flat array expected by {@code updatePositions}, and search matches into the graph id
+ * array expected by {@code highlightNodes}. Kept free of JavaFX so it can be benchmarked.
+ *
+ * @author vinhtt
+ * @version 1.3
+ */
+public final class VisBatchEncoder {
+
+    private static final int MAX_LABEL_LENGTH = 20;
+
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+
+    /**
+     * Serializes the nodes of a batch.
+     *
+     * @param batch The batch.
+     * @return A JSON array of {@code {id, label, group, title}} objects.
+     * @throws JsonProcessingException If serialization fails.
+     */
+    public String nodesJson(GraphBatch batch) throws JsonProcessingException {
+        return nodesJson(batch, url -> -1);
+    }
+
+    /**
+     * Serializes the nodes of a batch together with the graph id each node has in
+     * the layout, so later position frames can refer to nodes by id instead of URL.
+     *
+     * @param batch   The batch.
+     * @param indexOf Maps a URL to its graph id, or to a negative value to leave the id out.
+     * @return A JSON array of {@code {id, index, label, group, title}} objects.
+     * @throws JsonProcessingException If serialization fails.
+     */
+    public String nodesJson(GraphBatch batch, ToIntFunction<String> indexOf) throws JsonProcessingException {
+        List<Map<String, Object>> jsNodes = new ArrayList<>(batch.getNodes().size());
+        for (SiteNode node : batch.getNodes()) {
+            Map<String, Object> jsNode = new HashMap<>();
+            jsNode.put("id", node.getUrl());
+            int index = indexOf.applyAsInt(node.getUrl());
+            if (index >= 0) {
+                jsNode.put("index", index);
+            }
+            jsNode.put("label", node.getTitle().length() > MAX_LABEL_LENGTH
+                    ? node.getTitle().substring(0, MAX_LABEL_LENGTH) + "..." : node.getTitle());
+            jsNode.put("group", node.getType().toString());
+            jsNode.put("title", node.getUrl());
+            jsNodes.add(jsNode);
+        }
+        return jsonMapper.writeValueAsString(jsNodes);
+    }
+
+    /**
+     * Serializes the edges of a batch.
+     *
+     * @param batch The batch.
+     * @return A JSON array of {@code {from, to, change}} objects; the change is
+     *         {@code UNCHANGED}, {@code ADDED} or {@code REMOVED}.
+     * @throws JsonProcessingException If serialization fails.
+     */
+    public String edgesJson(GraphBatch batch) throws JsonProcessingException {
+        List<Map<String, Object>> jsEdges = new ArrayList<>(batch.getEdges().size());
+        for (SiteEdge edge : batch.getEdges()) {
+            Map<String, Object> jsEdge = new HashMap<>();
+            jsEdge.put("from", edge.getSource());
+            jsEdge.put("to", edge.getTarget());
+            jsEdge.put("change", edge.getChange().name());
+            jsEdges.add(jsEdge);
+        }
+        return jsonMapper.writeValueAsString(jsEdges);
+    }
+
+    /**
+     * Serializes a frame of layout positions. Coordinates are rounded to whole pixels.
+     *
+     * @param positions The moved nodes.
+     * @return A flat JSON array of {@code id, x, y} triples.
+     */
+    public String positionsJson(NodePositions positions) {
+        StringBuilder json = new StringBuilder(positions.size() * 20 + 2).append('[');
+        for (int i = 0; i < positions.size(); i++) {
+            if (i > 0) json.append(',');
+            json.append(positions.getId(i))
+                    .append(',').append(Math.round(positions.getX(i)))
+                    .append(',').append(Math.round(positions.getY(i)));
+        }
+        return json.append(']').toString();
+    }
+
+    /**
+     * Encodes graph ids as a JSON array.
+     *
+     * @param ids The graph ids.
+     * @return The JSON array.
+     */
+    public String indicesJson(int[] ids) {
+        StringBuilder json = new StringBuilder(ids.length * 8 + 2).append('[');
+        for (int i = 0; i < ids.length; i++) {
+            if (i > 0) json.append(',');
+            json.append(ids[i]);
+        }
+        return json.append(']').toString();
+    }
+}
@@ -0,0 +1,133 @@
+package com.vinhtt.sitemapcrawler.viewmodel;
+
+import com.vinhtt.sitemapcrawler.model.CrawlEvent;
+import com.vinhtt.sitemapcrawler.model.GraphBatch;
+import com.vinhtt.sitemapcrawler.model.NodeType;
+import com.vinhtt.sitemapcrawler.model.SiteEdge;
+import com.vinhtt.sitemapcrawler.model.SiteNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+/**
+ * Bounded ring buffer between the crawler's event publisher and the JavaFX thread.
+ * The bus subscribes to the publisher and only requests as many events as its buffer
+ * has room for; the consumer drains them once per pulse, receives a single coalesced
+ * {@link GraphBatch}, and the drained slots are requested again. While the buffer is
+ * full the publisher holds back the crawl instead of flooding the UI.
+ *
+ * @author vinhtt
+ * @version 2.1
+ */
+public class GraphEventBus implements Flow.Subscriber<CrawlEvent> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GraphEventBus.class);
+
+    private final int capacity;
+    private final BlockingQueue<CrawlEvent> buffer;
+    private final List<CrawlEvent> drained = new ArrayList<>();
+    private volatile Flow.Subscription subscription;
+
+    /**
+     * Constructs a bus with the given capacity.
+     *
+     * @param capacity The maximum number of undelivered events.
+     */
+    public GraphEventBus(int capacity) {
+        this.capacity = capacity;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (this.subscription != null) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        subscription.request(capacity);
+    }
+
+    @Override
+    public void onNext(CrawlEvent event) {
+        // Never more than the free capacity is requested, so the offer cannot fail.
+        buffer.offer(event);
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        LOG.error("Crawl event stream failed", error);
+    }
+
+    @Override
+    public void onComplete() {
+        // The service was cleaned up; nothing more will arrive.
+    }
+
+    /**
+     * Drains up to {@code maxEvents} events and coalesces the graph changes among them.
+     * Must be called from a single consumer thread.
+     * Repeated nodes collapse to the last version, except that a later pending or orphan
+     * sighting never replaces a node that is already known and a loaded orphan stays an orphan.
+     * Repeated edges collapse to one entry carrying the last reported change.
+     *
+     * @param maxEvents The maximum number of events consumed in this call.
+     * @param others    Receives the events that are not graph changes, in order.
+     * @return The coalesced batch, possibly empty.
+     */
+    public GraphBatch drain(int maxEvents, Consumer<CrawlEvent> others) {
+        drained.clear();
+        buffer.drainTo(drained, maxEvents);
+        request(drained.size());
+
+        Map<String, SiteNode> nodes = new LinkedHashMap<>();
+        Map<SiteEdge, SiteEdge> edges = new LinkedHashMap<>();
+        for (CrawlEvent event : drained) {
+            if (event instanceof CrawlEvent.NodeDiscovered discovered) {
+                nodes.merge(discovered.node().getUrl(), discovered.node(), GraphEventBus::newer);
+            } else if (event instanceof CrawlEvent.EdgeDiscovered discovered) {
+                edges.put(discovered.edge(), discovered.edge());
+            } else {
+                others.accept(event);
+            }
+        }
+        drained.clear();
+        return new GraphBatch(new ArrayList<>(nodes.values()), new ArrayList<>(edges.values()));
+    }
+
+    private static SiteNode newer(SiteNode previous, SiteNode next) {
+        if (next.getType() == NodeType.ORPHAN
+                || (next.getType() == NodeType.PENDING && previous.getType() != NodeType.PENDING)) {
+            return previous;
+        }
+        if (previous.getType() == NodeType.ORPHAN && next.getType() == NodeType.INTERNAL) {
+            return new SiteNode(next.getUrl(), next.getTitle(), NodeType.ORPHAN, next.getTimings());
+        }
+        return next;
+    }
+
+    /**
+     * Discards all undelivered events.
+     */
+    public void clear() {
+        drained.clear();
+        buffer.drainTo(drained);
+        request(drained.size());
+        drained.clear();
+    }
+
+    private void request(int count) {
+        Flow.Subscription current = subscription;
+        if (current != null && count > 0) {
+            current.request(count);
+        }
+    }
+}
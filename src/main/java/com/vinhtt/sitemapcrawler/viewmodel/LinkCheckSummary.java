@@ -0,0 +1,61 @@
+package com.vinhtt.sitemapcrawler.viewmodel;
+
+import com.vinhtt.sitemapcrawler.model.LinkCheck;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The checks of the links pointing to one graph node: a single page, or every link
+ * into an external domain or a group. Only the counts, the first check and the first
+ * broken links are kept, so a node costs the same however many links point to it.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+final class LinkCheckSummary {
+
+    private static final int MAX_LISTED_BROKEN_LINKS = 20;
+
+    private final List<LinkCheck> broken = new ArrayList<>(0);
+    private LinkCheck first;
+    private int checkedCount;
+    private int brokenCount;
+
+    /**
+     * Adds the result of one link check.
+     *
+     * @param check The check of a link pointing to the node.
+     */
+    void add(LinkCheck check) {
+        if (first == null) {
+            first = check;
+        }
+        checkedCount++;
+        if (check.isBroken()) {
+            brokenCount++;
+            if (broken.size() < MAX_LISTED_BROKEN_LINKS) {
+                broken.add(check);
+            }
+        }
+    }
+
+    /**
+     * Describes the single check of a page, or the counts and first broken links of a
+     * node many links point to.
+     */
+    @Override
+    public String toString() {
+        if (checkedCount == 1) {
+            return first.toString();
+        }
+        StringBuilder text = new StringBuilder(String.format("%d links checked, %d broken", checkedCount, brokenCount));
+        for (LinkCheck check : broken) {
+            text.append('\n').append(check.getUrl()).append(": ").append(check);
+        }
+        if (brokenCount > broken.size()) {
+            text.append("\n...");
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,97 @@
+package com.vinhtt.sitemapcrawler.viewmodel;
+
+import javafx.collections.ObservableListBase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Observable list of the most recent log lines, kept in a fixed ring of slots.
+ * Appending to a full buffer drops the oldest lines, and one append of many lines is
+ * reported to the list view as a single change, so the log costs the same at the
+ * millionth line as at the first. Only appending and clearing are supported.
+ * Must be used on the JavaFX thread.
+ *
+ * @author vinhtt
+ * @version 1.0
+ */
+final class LogBuffer extends ObservableListBase<String> {
+
+    private final String[] lines;
+    private int head;
+    private int size;
+
+    /**
+     * Constructs an empty buffer.
+     *
+     * @param capacity The number of lines kept.
+     */
+    LogBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.lines = new String[capacity];
+    }
+
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return lines[(head + index) % lines.length];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean add(String line) {
+        return addAll(List.of(line));
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends String> added) {
+        if (added.isEmpty()) return false;
+        int skipped = Math.max(0, added.size() - lines.length);
+        int kept = added.size() - skipped;
+        int evicted = Math.max(0, size + kept - lines.length);
+
+        List<String> removed = new ArrayList<>(evicted);
+        for (int i = 0; i < evicted; i++) {
+            removed.add(lines[head]);
+            lines[head] = null;
+            head = (head + 1) % lines.length;
+        }
+        size -= evicted;
+        int index = 0;
+        for (String line : added) {
+            if (index++ < skipped) continue;
+            lines[(head + size) % lines.length] = line;
+            size++;
+        }
+
+        beginChange();
+        if (evicted > 0) {
+            nextRemove(0, removed);
+        }
+        nextAdd(size - kept, size);
+        endChange();
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        if (size == 0) return;
+        List<String> removed = new ArrayList<>(this);
+        Arrays.fill(lines, null);
+        head = 0;
+        size = 0;
+        beginChange();
+        nextRemove(0, removed);
+        endChange();
+    }
+}
@@ -1,55 +1,192 @@
 package com.vinhtt.sitemapcrawler.viewmodel;
 
+import com.vinhtt.sitemapcrawler.model.CrawlConfig;
+import com.vinhtt.sitemapcrawler.model.CrawlEvent;
+import com.vinhtt.sitemapcrawler.model.CrawlMetrics;
+import com.vinhtt.sitemapcrawler.model.CrawlPhase;
+import com.vinhtt.sitemapcrawler.model.EdgeChange;
+import com.vinhtt.sitemapcrawler.model.GraphBatch;
+import com.vinhtt.sitemapcrawler.model.LatencyHistogram;
+import com.vinhtt.sitemapcrawler.model.NodePositions;
+import com.vinhtt.sitemapcrawler.model.NodeType;
+import com.vinhtt.sitemapcrawler.model.PageTimings;
+import com.vinhtt.sitemapcrawler.model.SiteEdge;
 import com.vinhtt.sitemapcrawler.model.SiteNode;
 import com.vinhtt.sitemapcrawler.service.ICrawlerService;
-import com.vinhtt.sitemapcrawler.service.impl.PlaywrightCrawlerService;
+import com.vinhtt.sitemapcrawler.service.distributed.DistributedCrawlerService;
+import com.vinhtt.sitemapcrawler.service.export.GraphExporter;
+import com.vinhtt.sitemapcrawler.service.export.GraphmlExporter;
+import com.vinhtt.sitemapcrawler.service.export.NdjsonExporter;
+import com.vinhtt.sitemapcrawler.service.export.SitemapExporter;
+import com.vinhtt.sitemapcrawler.service.graph.CompactSiteGraph;
+import com.vinhtt.sitemapcrawler.service.impl.HybridCrawlerService;
+import com.vinhtt.sitemapcrawler.service.layout.ForceDirectedLayout;
+import com.vinhtt.sitemapcrawler.service.metrics.UiDispatchEvent;
+import com.vinhtt.sitemapcrawler.service.search.NodeSearchIndex;
+import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
 import javafx.beans.property.*;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import org.jgrapht.Graph;
-import org.jgrapht.graph.DefaultEdge;
-import org.jgrapht.graph.SimpleDirectedGraph;
+import javafx.scene.image.Image;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * ViewModel for the MainView. Manages UI state and delegates logic to services.
+ * Crawl events are subscribed to with a {@link GraphEventBus} that is drained once per
+ * JavaFX pulse, which also delivers failures and the end of each crawl. Each drain is timed as the
+ * UI dispatch phase, and the crawl metrics are rendered into a stats text twice a second.
+ * Edges a recrawl reports as removed are passed to the view for highlighting but kept
+ * out of the graph model, so exports only contain the current links.
+ * A sitemap URL stays an orphan, loaded or not, until an edge to it arrives; it then
+ * becomes an internal or pending node depending on whether it was loaded.
+ * Node positions come from a {@link ForceDirectedLayout} fed with the graph ids of the
+ * accepted nodes and new edges; ten times a second the nodes that moved are handed to the view.
+ * The timings of loaded pages are kept in an array indexed by graph id, so they cost
+ * no key or entry objects beyond the graph's own URL storage.
+ * Link checks are kept per graph id of the node they point to, as a {@link LinkCheckSummary}
+ * whose size does not grow with the number of checks: one for a page, many for an
+ * external domain or a group. Broken links are logged with the page they were found on.
+ * Started with {@code -Dsitemapcrawler.distributedWorkers=<n>}, site crawls are spread
+ * over n worker processes whose events arrive merged through the same bus.
+ * Every accepted node is added to a {@link NodeSearchIndex} by its URL path and each title
+ * it arrives with, which for a pending node is the text of a link to it. The search query
+ * is run against the index as it is typed, and again once a second while nodes arrive;
+ * the first matches are listed and highlighted in the view. The log keeps only its most
+ * recent lines in a {@link LogBuffer}.
+ * Started with {@code -Dsitemapcrawler.thumbnails=true}, pages rendered in the browser are
+ * captured as thumbnails; the thumbnail of a node is read from disk only once it is selected.
  *
  * @author vinhtt
- * @version 1.5
+ * @version 3.4
  */
 public class MainViewModel {
 
+    private static final Logger LOG = LoggerFactory.getLogger(MainViewModel.class);
+
+    private static final int CRAWL_TIMEOUT_MS = 30000;
+    private static final int EVENT_BUFFER_CAPACITY = 16384;
+    private static final int MAX_EVENTS_PER_PULSE = 4096;
+    private static final int MAX_LOG_LINES = 1000;
+    private static final long STATS_REFRESH_NANOS = 500_000_000L;
+    private static final long POSITION_REFRESH_NANOS = 100_000_000L;
+    private static final float MIN_POSITION_CHANGE = 1f;
+    private static final String DISTRIBUTED_WORKERS_PROPERTY = "sitemapcrawler.distributedWorkers";
+    private static final String THUMBNAILS_PROPERTY = "sitemapcrawler.thumbnails";
+    private static final int MAX_SEARCH_RESULTS = 500;
+    private static final long SEARCH_REFRESH_NANOS = 1_000_000_000L;
+    private static final int INITIAL_NODE_SLOTS = 1 << 10;
+
     private final ICrawlerService crawlerService;
     private final StringProperty urlInput = new SimpleStringProperty("https://example.com");
     private final BooleanProperty isCrawling = new SimpleBooleanProperty(false);
-    private final ObservableList<String> logs = FXCollections.observableArrayList();
+    private final ObservableList<String> logs = new LogBuffer(MAX_LOG_LINES);
     private final StringProperty statusMessage = new SimpleStringProperty("Ready");
+    private final ObjectProperty<Integer> maxDepth = new SimpleObjectProperty<>(2);
+    private final ObjectProperty<Integer> maxWorkers = new SimpleObjectProperty<>(4);
+    private final BooleanProperty isExporting = new SimpleBooleanProperty(false);
+    private final StringProperty crawlStats = new SimpleStringProperty("");
 
-    private final Graph<SiteNode, DefaultEdge> siteGraph;
-    private final ObjectProperty<SiteNode> latestNode = new SimpleObjectProperty<>();
-    private final ObjectProperty<String> latestEdge = new SimpleObjectProperty<>();
+    private final CompactSiteGraph siteGraph = new CompactSiteGraph();
+    private final ObjectProperty<GraphBatch> latestBatch = new SimpleObjectProperty<>();
+    private final ObjectProperty<NodePositions> latestPositions = new SimpleObjectProperty<>();
+    private final ForceDirectedLayout layout =
+            new ForceDirectedLayout(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    private final GraphEventBus eventBus = new GraphEventBus(EVENT_BUFFER_CAPACITY);
+    private final AnimationTimer pulse;
+    private PageTimings[] pageTimings = new PageTimings[INITIAL_NODE_SLOTS];
+    private LinkCheckSummary[] linkChecks = new LinkCheckSummary[INITIAL_NODE_SLOTS];
+    private final List<CrawlEvent.LinkChecked> drainedChecks = new ArrayList<>();
+    private final NodeSearchIndex searchIndex = new NodeSearchIndex();
+    private long lastStatsRefresh;
+    private long lastSearchRefresh;
+    private boolean searchStale;
+    private long lastPositionRefresh;
+    private long pushedVersion;
+    private float[] pushedPositions = new float[0];
+    private boolean isSiteCrawl;
+    private boolean isStopping;
 
-    private final Map<String, SiteNode> nodeCache = new HashMap<>();
     private final ObjectProperty<SiteNode> selectedNode = new SimpleObjectProperty<>();
+    private final StringProperty selectedLinkCheck = new SimpleStringProperty("");
+    private final ObjectProperty<Image> selectedThumbnail = new SimpleObjectProperty<>();
+    private final ExecutorService thumbnailLoader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "thumbnail-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final StringProperty searchQuery = new SimpleStringProperty("");
+    private final StringProperty searchStatus = new SimpleStringProperty("");
+    private final ObservableList<SiteNode> searchResults = FXCollections.observableArrayList();
+    private final ObjectProperty<int[]> searchMatches = new SimpleObjectProperty<>(new int[0]);
 
     /**
      * Initializes the MainViewModel.
      */
     public MainViewModel() {
-        this.crawlerService = new PlaywrightCrawlerService();
-        this.siteGraph = new SimpleDirectedGraph<>(DefaultEdge.class);
+        CrawlConfig config = new CrawlConfig();
+        config.setDistributedWorkers(Integer.getInteger(DISTRIBUTED_WORKERS_PROPERTY, 0));
+        config.setCaptureThumbnails(Boolean.getBoolean(THUMBNAILS_PROPERTY));
+        this.crawlerService = config.getDistributedWorkers() > 0
+                ? new DistributedCrawlerService(config)
+                : new HybridCrawlerService(config);
+        this.crawlerService.events().subscribe(eventBus);
+        this.searchQuery.addListener((obs, oldQuery, newQuery) -> runSearch());
+        this.pulse = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                drainEvents();
+                if (now - lastPositionRefresh >= POSITION_REFRESH_NANOS) {
+                    lastPositionRefresh = now;
+                    pushPositions();
+                }
+                if (now - lastStatsRefresh >= STATS_REFRESH_NANOS) {
+                    lastStatsRefresh = now;
+                    crawlStats.set(formatStats());
+                }
+                if (searchStale && now - lastSearchRefresh >= SEARCH_REFRESH_NANOS) {
+                    runSearch();
+                }
+            }
+        };
+        this.pulse.start();
+        this.layout.start();
     }
 
     /**
-     * Start crawling from the Input URL (Root).
+     * Start crawling from the Input URL (Root), resuming a paused site crawl of it if there is one.
      */
     public void startCrawl() {
         if (isCrawling.get()) return;
-        scanNode(urlInput.get());
+        if (canResume()) {
+            crawlSite();
+        } else {
+            scanNode(urlInput.get());
+        }
+    }
+
+    /**
+     * Checks whether a paused site crawl of the Input URL can be resumed.
+     *
+     * @return True if the persisted frontier of the Input URL still holds work.
+     */
+    public boolean canResume() {
+        return crawlerService.hasResumableCrawl(urlInput.get());
     }
 
     /**
@@ -63,30 +200,68 @@ public class MainViewModel {
         isCrawling.set(true);
         statusMessage.set("Scanning: " + url + "...");
 
-        synchronized (siteGraph) {
-            if (siteGraph.vertexSet().isEmpty()) {
-                nodeCache.clear();
-            }
-        }
+        isSiteCrawl = false;
 
-        crawlerService.crawlSinglePage(
-                url,
-                this::handleNodeAdded,
-                this::handleEdgeAdded,
-                () -> {
-                    isCrawling.set(false);
-                    statusMessage.set("Scan finished for: " + url);
-                }
-        );
+        crawlerService.crawlSinglePage(url);
     }
 
     /**
-     * Command to stop the crawling process.
+     * Crawls the whole site reachable from the Input URL, up to the configured depth.
+     */
+    public void crawlSite() {
+        if (isCrawling.get()) return;
+
+        String rootUrl = urlInput.get();
+        isCrawling.set(true);
+        statusMessage.set((canResume() ? "Resuming site crawl: " : "Crawling site: ") + rootUrl + "...");
+        isSiteCrawl = true;
+
+        crawlerService.crawlSite(rootUrl, maxDepth.get(), maxWorkers.get(), CRAWL_TIMEOUT_MS);
+    }
+
+    /**
+     * Command to stop the crawling process. A site crawl is paused: its frontier
+     * stays on disk and Start Crawl or Crawl Site resumes it. The crawl counts as
+     * running until its end arrives, so no other crawl can start while it winds down.
      */
     public void stopCrawl() {
+        if (!isCrawling.get() || isStopping) return;
+        isStopping = true;
         crawlerService.stop();
-        isCrawling.set(false);
-        statusMessage.set("Stopped by user.");
+        statusMessage.set("Stopping...");
+    }
+
+    /**
+     * Discards the paused crawl of the Input URL and the graph built so far.
+     */
+    public void resetCrawl() {
+        if (isCrawling.get()) return;
+        crawlerService.discardCrawl(urlInput.get());
+        clearGraph();
+        crawlerService.getCrawlMetrics().reset();
+        logs.clear();
+        statusMessage.set("Ready");
+    }
+
+    /**
+     * Forgets the graph built so far and everything derived from it: layout, timings,
+     * link checks and the search index. Must be called whenever the view clears its
+     * graph, so nodes the next crawl finds again are handed to the view again.
+     * A paused crawl stays on disk.
+     */
+    public void clearGraph() {
+        if (isCrawling.get()) return;
+        eventBus.clear();
+        siteGraph.clear();
+        layout.clear();
+        pushedPositions = new float[0];
+        Arrays.fill(pageTimings, null);
+        Arrays.fill(linkChecks, null);
+        drainedChecks.clear();
+        searchIndex.clear();
+        selectedNode.set(null);
+        selectedThumbnail.set(null);
+        runSearch();
     }
 
     /**
@@ -95,34 +270,392 @@ public class MainViewModel {
      * @param url The URL of the node to select.
      */
     public void selectNodeByUrl(String url) {
-        if (nodeCache.containsKey(url)) {
-            selectedNode.set(nodeCache.get(url));
+        int id = siteGraph.idOf(url);
+        if (id >= 0) {
+            SiteNode node = siteGraph.nodeOf(id);
+            PageTimings timings = timingsOf(id);
+            selectedNode.set(timings == null ? node : new SiteNode(node.getUrl(), node.getTitle(), node.getType(), timings));
+            selectedLinkCheck.set(describeLinkChecks(url));
+            loadThumbnail(url);
         }
     }
 
-    private void handleNodeAdded(SiteNode node) {
-        synchronized (siteGraph) {
-            if (!siteGraph.containsVertex(node)) {
-                siteGraph.addVertex(node);
+    /**
+     * Reads and decodes the thumbnail of a node off the JavaFX thread, and shows it
+     * if the node is still selected by then.
+     */
+    private void loadThumbnail(String url) {
+        selectedThumbnail.set(null);
+        CompletableFuture.supplyAsync(() -> {
+            byte[] jpeg = crawlerService.getThumbnail(url);
+            return jpeg != null ? new Image(new ByteArrayInputStream(jpeg)) : null;
+        }, thumbnailLoader).thenAccept(image -> {
+            if (image != null && !image.isError()) {
+                Platform.runLater(() -> {
+                    SiteNode selected = selectedNode.get();
+                    if (selected != null && selected.getUrl().equals(url)) {
+                        selectedThumbnail.set(image);
+                    }
+                });
             }
+        });
+    }
+
+    /**
+     * Summarizes the checks of the links pointing to a node: the single check of a page,
+     * or the counts and broken links of an external domain or group.
+     */
+    private String describeLinkChecks(String url) {
+        int id = siteGraph.idOf(url);
+        LinkCheckSummary checks = id >= 0 && id < linkChecks.length ? linkChecks[id] : null;
+        return checks == null ? "Not checked" : checks.toString();
+    }
+
+    /**
+     * Looks up the graph id of a node, which identifies it in position frames.
+     *
+     * @param url The URL of the node.
+     * @return The graph id, or -1 if the node is unknown.
+     */
+    public int indexOf(String url) {
+        return siteGraph.idOf(url);
+    }
+
+    /**
+     * Exports the crawled internal pages as gzipped sitemap files plus a {@code sitemap.xml} index.
+     * The index points at the files under the origin of the Input URL.
+     *
+     * @param directory The directory the files are written to.
+     */
+    public void exportSitemap(Path directory) {
+        String baseUrl;
+        try {
+            URI root = URI.create(urlInput.get().trim());
+            baseUrl = root.getScheme() + "://" + root.getRawAuthority() + "/";
+        } catch (IllegalArgumentException | NullPointerException e) {
+            statusMessage.set("Export failed: invalid Input URL " + urlInput.get());
+            return;
         }
-        nodeCache.put(node.getUrl(), node);
+        runExport("Sitemap", new SitemapExporter(siteGraph, Platform::runLater, baseUrl, true), directory);
+    }
 
-        Platform.runLater(() -> {
-            logs.add("Found: " + node.getTitle());
-            latestNode.set(node);
-        });
+    /**
+     * Exports the graph as newline-delimited JSON, gzipped if the file name ends with {@code .gz}.
+     *
+     * @param file The output file.
+     */
+    public void exportNdjson(Path file) {
+        runExport("NDJSON", new NdjsonExporter(siteGraph, Platform::runLater), file);
+    }
+
+    /**
+     * Exports the graph as GraphML, gzipped if the file name ends with {@code .gz}.
+     *
+     * @param file The output file.
+     */
+    public void exportGraphml(Path file) {
+        runExport("GraphML", new GraphmlExporter(siteGraph, Platform::runLater), file);
+    }
+
+    /**
+     * Runs an export on a background thread; the exporter reads the graph in chunks on
+     * the JavaFX thread, so it can run while a crawl is in progress.
+     */
+    private void runExport(String format, GraphExporter exporter, Path target) {
+        if (isExporting.get()) return;
+        isExporting.set(true);
+        statusMessage.set("Exporting " + format + " to " + target + "...");
+        Thread worker = new Thread(() -> {
+            String result;
+            try {
+                long records = exporter.export(target);
+                result = String.format("%s export finished: %d records written to %s", format, records, target);
+            } catch (IOException | RuntimeException e) {
+                LOG.warn("{} export failed", format, e);
+                result = format + " export failed: " + e.getMessage();
+            }
+            String message = result;
+            Platform.runLater(() -> {
+                isExporting.set(false);
+                statusMessage.set(message);
+                logs.add(message);
+            });
+        }, "graph-export");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Applies all buffered crawler events on the JavaFX thread and hands the view
+     * one batch per frame, so link-heavy pages cannot flood the UI.
+     */
+    private void drainEvents() {
+        GraphBatch batch = eventBus.drain(MAX_EVENTS_PER_PULSE, this::onCrawlEvent);
+        if (!batch.isEmpty()) {
+            applyBatch(batch);
+        }
+        applyLinkChecks();
     }
 
-    private void handleEdgeAdded(String edgeInfo) {
-        Platform.runLater(() -> latestEdge.set(edgeInfo));
+    /**
+     * Adds the nodes and edges of one drain to the graph model and hands them to the view.
+     */
+    private void applyBatch(GraphBatch batch) {
+
+        UiDispatchEvent event = new UiDispatchEvent();
+        event.begin();
+        long start = System.nanoTime();
+
+        Map<String, SiteNode> acceptedNodes = new LinkedHashMap<>();
+        List<String> foundLines = new ArrayList<>(batch.getNodes().size());
+        String lastVisited = null;
+        for (SiteNode node : batch.getNodes()) {
+            int known = siteGraph.idOf(node.getUrl());
+            NodeType knownType = known >= 0 ? siteGraph.typeOf(known) : null;
+            if (knownType != null && (node.getType() == NodeType.ORPHAN
+                    || (node.getType() == NodeType.PENDING && (knownType == NodeType.INTERNAL || knownType == NodeType.ORPHAN)))) {
+                continue;
+            }
+            if (node.getType() == NodeType.INTERNAL || (node.getType() == NodeType.ORPHAN && node.getTimings() != null)) {
+                lastVisited = node.getUrl();
+            }
+            if (knownType == NodeType.ORPHAN && node.getType() == NodeType.INTERNAL) {
+                node = new SiteNode(node.getUrl(), node.getTitle(), NodeType.ORPHAN, node.getTimings());
+            }
+            int id = siteGraph.addNode(node);
+            layout.addNode(id);
+            if (known < 0) {
+                searchIndex.addUrl(id, node.getUrl());
+            }
+            searchIndex.addText(id, node.getTitle());
+            acceptedNodes.put(node.getUrl(), node);
+            if (node.getTimings() != null) {
+                setTimings(id, node.getTimings());
+            }
+            foundLines.add("Found: " + node.getTitle());
+        }
+
+        int changedEdges = 0;
+        for (SiteEdge edge : batch.getEdges()) {
+            if (edge.getChange() != EdgeChange.REMOVED) {
+                int source = ensureIndexedNode(edge.getSource());
+                int target = ensureIndexedNode(edge.getTarget());
+                if (siteGraph.addEdge(source, target) >= 0) {
+                    layout.addEdge(source, target);
+                }
+                if (siteGraph.typeOf(target) == NodeType.ORPHAN) {
+                    PageTimings timings = timingsOf(target);
+                    SiteNode linked = new SiteNode(edge.getTarget(), siteGraph.titleOf(target),
+                            timings != null ? NodeType.INTERNAL : NodeType.PENDING, timings);
+                    siteGraph.addNode(linked);
+                    acceptedNodes.put(linked.getUrl(), linked);
+                }
+            }
+            if (edge.getChange() != EdgeChange.UNCHANGED) {
+                changedEdges++;
+            }
+        }
+
+        if (changedEdges > 0) {
+            foundLines.add("Changed links since last crawl: " + changedEdges);
+        }
+        logs.addAll(foundLines);
+        searchStale |= !acceptedNodes.isEmpty() && !searchQuery.get().isBlank();
+        if (isSiteCrawl && isCrawling.get() && !isStopping && lastVisited != null) {
+            statusMessage.set(String.format("Crawling: %s (%.2f pages/sec)",
+                    lastVisited, crawlerService.getPagesPerSecond()));
+        }
+        latestBatch.set(new GraphBatch(new ArrayList<>(acceptedNodes.values()), batch.getEdges()));
+
+        crawlerService.getCrawlMetrics().record(CrawlPhase.UI_DISPATCH, System.nanoTime() - start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.nodes = acceptedNodes.size();
+            event.edges = batch.getEdges().size();
+            event.commit();
+        }
+    }
+
+    /**
+     * Files the link checks of the last drain under the nodes they point to. They are
+     * applied after the drain's nodes, since a check can arrive in the same drain as its
+     * node; checks of nodes that are not in the graph, such as those of a cleared crawl,
+     * are dropped.
+     */
+    private void applyLinkChecks() {
+        if (drainedChecks.isEmpty()) return;
+        SiteNode selected = selectedNode.get();
+        boolean selectedChecked = false;
+        for (CrawlEvent.LinkChecked checked : drainedChecks) {
+            int id = siteGraph.idOf(checked.nodeUrl());
+            if (id < 0) continue;
+            if (id >= linkChecks.length) {
+                linkChecks = Arrays.copyOf(linkChecks, Math.max(id + 1, linkChecks.length * 2));
+            }
+            if (linkChecks[id] == null) {
+                linkChecks[id] = new LinkCheckSummary();
+            }
+            linkChecks[id].add(checked.check());
+            selectedChecked |= selected != null && selected.getUrl().equals(checked.nodeUrl());
+        }
+        drainedChecks.clear();
+        if (selectedChecked) {
+            selectedLinkCheck.set(describeLinkChecks(selected.getUrl()));
+        }
+    }
+
+    /**
+     * Returns the id of a node an edge refers to, indexing its URL if the node is new.
+     */
+    private int ensureIndexedNode(String url) {
+        int before = siteGraph.nodeCount();
+        int id = siteGraph.ensureNode(url);
+        if (id >= before) {
+            searchIndex.addUrl(id, url);
+        }
+        return id;
+    }
+
+    private PageTimings timingsOf(int id) {
+        return id < pageTimings.length ? pageTimings[id] : null;
+    }
+
+    private void setTimings(int id, PageTimings timings) {
+        if (id >= pageTimings.length) {
+            pageTimings = Arrays.copyOf(pageTimings, Math.max(id + 1, pageTimings.length * 2));
+        }
+        pageTimings[id] = timings;
+    }
+
+    /**
+     * Runs the search query against the index and publishes the first matches.
+     */
+    private void runSearch() {
+        lastSearchRefresh = System.nanoTime();
+        searchStale = false;
+        String query = searchQuery.get();
+        if (query == null || query.isBlank()) {
+            searchResults.clear();
+            searchMatches.set(new int[0]);
+            searchStatus.set("");
+            return;
+        }
+        long start = System.nanoTime();
+        NodeSearchIndex.Matches matches = searchIndex.search(query, MAX_SEARCH_RESULTS);
+        List<SiteNode> nodes = new ArrayList<>(matches.ids().length);
+        for (int id : matches.ids()) {
+            nodes.add(siteGraph.nodeOf(id));
+        }
+        searchResults.setAll(nodes);
+        searchMatches.set(matches.ids());
+        double millis = (System.nanoTime() - start) / 1e6;
+        searchStatus.set(matches.count() > nodes.size()
+                ? String.format("%d matches, first %d shown (%.1f ms)", matches.count(), nodes.size(), millis)
+                : String.format("%d matches (%.1f ms)", matches.count(), millis));
+    }
+
+    /**
+     * Hands the view the nodes that moved by at least a pixel since they were last handed over.
+     */
+    private void pushPositions() {
+        ForceDirectedLayout.Snapshot snapshot = layout.snapshot();
+        if (snapshot.version() == pushedVersion) return;
+        pushedVersion = snapshot.version();
+
+        float[] xy = snapshot.xy();
+        if (pushedPositions.length < xy.length) {
+            int filled = pushedPositions.length;
+            pushedPositions = Arrays.copyOf(pushedPositions, xy.length);
+            Arrays.fill(pushedPositions, filled, xy.length, Float.NaN);
+        }
+        int[] ids = new int[snapshot.count()];
+        float[] moved = new float[2 * snapshot.count()];
+        int size = 0;
+        for (int id = 0; id < snapshot.count(); id++) {
+            float x = xy[2 * id];
+            float y = xy[2 * id + 1];
+            if (Float.isNaN(x)) continue;
+            if (Math.abs(x - pushedPositions[2 * id]) < MIN_POSITION_CHANGE
+                    && Math.abs(y - pushedPositions[2 * id + 1]) < MIN_POSITION_CHANGE) {
+                continue;
+            }
+            pushedPositions[2 * id] = x;
+            pushedPositions[2 * id + 1] = y;
+            ids[size] = id;
+            moved[2 * size] = x;
+            moved[2 * size + 1] = y;
+            size++;
+        }
+        if (size > 0) {
+            latestPositions.set(new NodePositions(ids, moved, size));
+        }
+    }
+
+    /**
+     * Handles a crawl event that is not a graph change; failures are logged and the end
+     * of a crawl updates the status.
+     */
+    private void onCrawlEvent(CrawlEvent event) {
+        if (event instanceof CrawlEvent.PageFailed failed) {
+            logs.add("Failed: " + failed.url() + " (" + failed.error().getMessage() + ")");
+        } else if (event instanceof CrawlEvent.LinkChecked checked) {
+            drainedChecks.add(checked);
+            if (checked.check().isBroken()) {
+                logs.add("Broken: " + checked.check().getUrl() + " (" + checked.check() + ") on " + checked.referrer());
+            }
+        } else if (event instanceof CrawlEvent.CrawlCompleted completed) {
+            isCrawling.set(false);
+            if (isStopping) {
+                isStopping = false;
+                statusMessage.set(isSiteCrawl ? "Paused by user. Start the crawl again to resume." : "Stopped by user.");
+            } else if (isSiteCrawl) {
+                statusMessage.set(String.format("Site crawl %s for: %s (%.2f pages/sec)",
+                        completed.paused() ? "paused" : "finished",
+                        completed.rootUrl(), crawlerService.getPagesPerSecond()));
+            } else {
+                statusMessage.set("Scan finished for: " + completed.rootUrl());
+            }
+            if (isSiteCrawl) {
+                logs.add("Network: " + crawlerService.getResourceStats());
+            }
+        }
+    }
+
+    /**
+     * Renders the crawl counters and a percentile table of every phase, in milliseconds.
+     */
+    private String formatStats() {
+        CrawlMetrics metrics = crawlerService.getCrawlMetrics();
+        StringBuilder text = new StringBuilder(String.format(
+                "Pages %d   Unchanged %d   Sitemap %d   Links %d   Checked %d   Broken %d   Errors %d   Blocked %d%n%n",
+                metrics.getPages(), metrics.getUnchanged(), metrics.getSitemapUrls(), metrics.getLinks(),
+                metrics.getCheckedLinks(), metrics.getBrokenLinks(), metrics.getErrors(),
+                crawlerService.getResourceStats().getBlockedRequests()));
+        text.append(String.format("%-12s %6s %8s %8s %8s %8s%n", "Phase (ms)", "n", "p50", "p90", "p99", "max"));
+        for (CrawlPhase phase : CrawlPhase.values()) {
+            LatencyHistogram histogram = metrics.getHistogram(phase);
+            text.append(String.format("%-12s %6d %8.1f %8.1f %8.1f %8.1f%n", phase.getLabel(), histogram.getCount(),
+                    histogram.getPercentile(50) / 1e6, histogram.getPercentile(90) / 1e6,
+                    histogram.getPercentile(99) / 1e6, histogram.getMax() / 1e6));
+        }
+        return text.toString();
     }
 
     public StringProperty urlInputProperty() { return urlInput; }
     public BooleanProperty isCrawlingProperty() { return isCrawling; }
     public ObservableList<String> getLogs() { return logs; }
     public StringProperty statusMessageProperty() { return statusMessage; }
-    public ObjectProperty<SiteNode> latestNodeProperty() { return latestNode; }
-    public ObjectProperty<String> latestEdgeProperty() { return latestEdge; }
+    public ObjectProperty<Integer> maxDepthProperty() { return maxDepth; }
+    public ObjectProperty<Integer> maxWorkersProperty() { return maxWorkers; }
+    public BooleanProperty isExportingProperty() { return isExporting; }
+    public StringProperty crawlStatsProperty() { return crawlStats; }
+    public ObjectProperty<GraphBatch> latestBatchProperty() { return latestBatch; }
+    public ObjectProperty<NodePositions> latestPositionsProperty() { return latestPositions; }
     public ObjectProperty<SiteNode> selectedNodeProperty() { return selectedNode; }
+    public StringProperty selectedLinkCheckProperty() { return selectedLinkCheck; }
+    public ObjectProperty<Image> selectedThumbnailProperty() { return selectedThumbnail; }
+    public StringProperty searchQueryProperty() { return searchQuery; }
+    public StringProperty searchStatusProperty() { return searchStatus; }
+    public ObservableList<SiteNode> getSearchResults() { return searchResults; }
+    public ObjectProperty<int[]> searchMatchesProperty() { return searchMatches; }
 }
\ No newline at end of file